@@ -0,0 +1,129 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controller.CommandReader;
+import model.ImageOperationsV3;
+import model.OperationsV3;
+import view.ViewHandler;
+
+/**
+ * This class benchmarks the load and save commands on the sample
+ * files in the images folder, saving them in every format the
+ * application writes. The commands are run through a
+ * {@link CommandReader}, the same way as when they are typed or read
+ * from a script, so reading and writing the files is included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true",
+    "-Dimagelab.cacheBudget=0"})
+public class FileBenchmark {
+
+  /**
+   * The path of the sample file relative to the root of the project.
+   */
+  @Param({"images/koala.ppm", "images/bird.jpg", "images/manhattan-small.png",
+      "images/galaxy.png"})
+  public String file;
+
+  /**
+   * The extension of the format the image is saved in.
+   */
+  @Param({"ppm", "png", "jpg", "haar"})
+  public String format;
+
+  private OperationsV3 operations;
+  private StringBuilder output;
+  private Path directory;
+  private String load;
+  private String save;
+
+  /**
+   * Loads the sample file once and creates the directory the saved
+   * files are written to.
+   *
+   * @throws IOException if the directory cannot be created.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    this.operations = new ImageOperationsV3();
+    this.output = new StringBuilder();
+    this.directory = Files.createTempDirectory("imagelab-bench");
+    this.load = "load " + this.file + " src";
+    this.save = "save " + this.directory.resolve("out." + this.format) + " src";
+    this.run(this.load);
+    if (!this.operations.checkImage("src")) {
+      throw new IllegalStateException("Image " + this.file + " could not be loaded.");
+    }
+  }
+
+  /**
+   * Deletes the directory the saved files are written to.
+   *
+   * @throws IOException if the directory cannot be read.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    try (Stream<Path> files = Files.walk(this.directory)) {
+      files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+
+  /**
+   * Helper method to run a command and clear what it displayed.
+   *
+   * @param command the command.
+   * @return the message the command displayed.
+   */
+  private String run(String command) {
+    this.output.setLength(0);
+    new CommandReader(this.operations, new StringReader(command),
+            new ViewHandler(this.output)).startApplication();
+    return this.output.toString();
+  }
+
+  /**
+   * Benchmarks loading the sample file.
+   *
+   * @return the message the command displayed.
+   */
+  @Benchmark
+  public String load() {
+    return this.run(this.load);
+  }
+
+  /**
+   * Benchmarks saving the image of the sample file in the format.
+   *
+   * @return the message the command displayed.
+   */
+  @Benchmark
+  public String save() {
+    return this.run(this.save);
+  }
+}
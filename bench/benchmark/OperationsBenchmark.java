@@ -0,0 +1,433 @@
+package benchmark;
+
+import java.io.StringReader;
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controller.CommandReader;
+import model.ImageData;
+import model.ImageOperationsV3;
+import model.OperationsV3;
+import view.ViewHandler;
+
+/**
+ * This class benchmarks every method of {@link OperationsV3} on one
+ * source image, which is either a synthetic image of 1, 12 or 48
+ * megapixels or one of the sample files in the images folder.
+ * Every benchmark reports its throughput and the percentiles of its
+ * latency, and the allocation rate is reported when the benchmarks are
+ * run with the gc profiler.
+ * Every operation writes its result under the same name, so the result
+ * of the previous invocation is dropped. The result cache is turned
+ * off, so every invocation computes its result. The materialize
+ * benchmark runs on a second set of operations in the lazy mode, so
+ * the stages it computes have been deferred and fused.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx12g", "-Djava.awt.headless=true",
+    "-Dimagelab.cacheBudget=0"})
+public class OperationsBenchmark {
+
+  /**
+   * The source image: a synthetic image of a number of megapixels with
+   * a 4:3 aspect ratio, or the path of an image file relative to the
+   * root of the project.
+   */
+  @Param({"1MP", "12MP", "48MP", "images/koala.ppm", "images/galaxy.png"})
+  public String image;
+
+  private OperationsV3 operations;
+  private OperationsV3 lazyOperations;
+  private byte[] compressed;
+  private int[] pixels;
+  private int height;
+  private int width;
+
+  /**
+   * Loads the source image, a mask of the same size, a blurred copy of
+   * the source image and its left half used by the mask and regain
+   * benchmarks, the source image in the HAAR format, and the source
+   * image in a second set of operations in the lazy mode.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.operations = new ImageOperationsV3();
+    if (this.image.endsWith("MP")) {
+      double megapixels = Double.parseDouble(this.image.substring(0, this.image.length() - 2));
+      this.height = (int) Math.round(Math.sqrt(megapixels * 1e6 * 3 / 4));
+      this.width = (int) Math.round(this.height * 4 / 3.0);
+      this.operations.loadImage(this.height, this.width,
+              randomPixels(this.height * this.width, 0xffffff, 1), "src");
+    } else {
+      new CommandReader(this.operations, new StringReader("load " + this.image + " src"),
+              new ViewHandler(new StringBuilder())).startApplication();
+      if (!this.operations.checkImage("src")) {
+        throw new IllegalStateException("Image " + this.image + " could not be loaded.");
+      }
+      ImageData data = this.operations.viewImage("src");
+      this.height = data.getHeight();
+      this.width = data.getWidth();
+    }
+    IntBuffer buffer = this.operations.viewImage("src").getPixelBuffer();
+    this.pixels = new int[buffer.remaining()];
+    buffer.get(this.pixels);
+    int[] mask = randomPixels(this.height * this.width, 1, 2);
+    for (int i = 0; i < mask.length; i++) {
+      mask[i] = mask[i] == 0 ? 0 : 0xffffff;
+    }
+    this.operations.loadImage(this.height, this.width, mask, "mask");
+    this.operations.blur("src", "temp");
+    this.operations.splitPreview("temp", "temp-half", 50);
+    this.operations.getColorComponent("src", "red", 0);
+    this.operations.getColorComponent("src", "green", 1);
+    this.operations.getColorComponent("src", "blue", 2);
+    this.compressed = this.operations.saveCompressedImage("src");
+    System.setProperty("imagelab.lazy", "true");
+    try {
+      this.lazyOperations = new ImageOperationsV3();
+    } finally {
+      System.clearProperty("imagelab.lazy");
+    }
+    this.lazyOperations.loadImage(this.height, this.width, this.pixels, "src");
+  }
+
+  /**
+   * Helper method to create random packed pixels.
+   *
+   * @param count the number of pixels.
+   * @param bound the largest value of a pixel.
+   * @param seed  the seed of the random values.
+   * @return the pixels.
+   */
+  private static int[] randomPixels(int count, int bound, long seed) {
+    Random random = new Random(seed);
+    int[] values = new int[count];
+    for (int i = 0; i < count; i++) {
+      values[i] = random.nextInt(bound + 1);
+    }
+    return values;
+  }
+
+  /**
+   * Benchmarks loading an image from packed pixels.
+   *
+   * @return the loaded image.
+   */
+  @Benchmark
+  public ImageData loadImage() {
+    this.operations.loadImage(this.height, this.width, this.pixels, "out");
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks obtaining the pixel matrix of an image to be saved.
+   *
+   * @return the pixel matrix.
+   */
+  @Benchmark
+  public int[][][] saveImage() {
+    return this.operations.saveImage("src");
+  }
+
+  /**
+   * Benchmarks extracting the red component.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData redComponent() {
+    this.operations.getColorComponent("src", "out", 0);
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks extracting the value component.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData valueComponent() {
+    this.operations.getBrightnessComponent("src", "out", "value-component");
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks extracting the luma component.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData lumaComponent() {
+    this.operations.getBrightnessComponent("src", "out", "luma-component");
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks extracting the intensity component.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData intensityComponent() {
+    this.operations.getBrightnessComponent("src", "out", "intensity-component");
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks splitting an image into its three components.
+   *
+   * @return the blue component.
+   */
+  @Benchmark
+  public ImageData splitRGB() {
+    this.operations.splitRGB("src", "out-red", "out-green", "out");
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks combining three components into an image.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData combineRGB() {
+    this.operations.combineRGB("red", "green", "blue", "out");
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks flipping an image horizontally, which only creates a
+   * view of the image.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData horizontalFlip() {
+    this.operations.horizontalFlip("src", "out");
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks flipping an image vertically, which only creates a view
+   * of the image.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData verticalFlip() {
+    this.operations.verticalFlip("src", "out");
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks brightening an image.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData brighten() {
+    this.operations.brighten("src", "out", 40);
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks blurring an image.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData blur() {
+    this.operations.blur("src", "out");
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks sharpening an image.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData sharpen() {
+    this.operations.sharpen("src", "out");
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks the sepia transformation.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData sepia() {
+    this.operations.sepia("src", "out");
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks a transformation with a color matrix.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData colorMatrix() {
+    this.operations.colorMatrix("src", "out",
+            new double[][]{{0.9, 0.1, 0, 5}, {0, 0.8, 0.2, 0}, {0.1, 0, 0.9, -5}});
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks compressing the whole image at once.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData compress() {
+    this.operations.compressImage("src", "out", 50);
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks compressing the image in tiles.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData compressTiled() {
+    this.operations.compressImage("src", "out", 50, 256);
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks drawing the histogram of an image.
+   *
+   * @return the histogram.
+   */
+  @Benchmark
+  public ImageData histogram() {
+    this.operations.histogram("src", "out");
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks color correction.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData colorCorrection() {
+    this.operations.colorCorrection("src", "out");
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks levels adjustment.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData levelAdjustment() {
+    this.operations.levelAdjustment("src", "out", 20, 128, 230);
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks a split preview, which only creates a view of the image.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData splitPreview() {
+    this.operations.splitPreview("src", "out", 50);
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks masking an image with its blurred copy.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData mask() {
+    this.operations.mask("src", "temp", "mask", "out");
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks downscaling an image to half its size.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData downScale() {
+    this.operations.downScale("src", this.height / 2, this.width / 2, "out");
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks loading an image in the HAAR format and decoding its
+   * pixels.
+   *
+   * @return the pixels of the loaded image.
+   */
+  @Benchmark
+  public IntBuffer loadCompressedImage() {
+    this.operations.loadCompressedImage(this.compressed, "out");
+    return this.operations.viewImage("out").getPixelBuffer();
+  }
+
+  /**
+   * Benchmarks encoding an image in the HAAR format without removing
+   * any detail.
+   *
+   * @return the contents of the HAAR file.
+   */
+  @Benchmark
+  public byte[] saveCompressedImage() {
+    return this.operations.saveCompressedImage("src");
+  }
+
+  /**
+   * Benchmarks merging the left half of the blurred copy of an image
+   * with the rest of the image, as the split view of an operation does.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData regain() {
+    this.operations.regain("src", "temp-half", "out");
+    return this.operations.viewImage("out");
+  }
+
+  /**
+   * Benchmarks computing a chain of brighten and sepia which was
+   * deferred in the lazy mode, so both stages are applied in one pass
+   * over the pixels.
+   *
+   * @return the new image.
+   */
+  @Benchmark
+  public ImageData materialize() {
+    this.lazyOperations.brighten("src", "out-bright", 40);
+    this.lazyOperations.sepia("out-bright", "out");
+    this.lazyOperations.materialize("out");
+    return this.lazyOperations.viewImage("out");
+  }
+}
@@ -12,6 +12,12 @@ import model.OperationsV3;
 
 abstract class AbstractCommandExecuter implements CommandExecuter {
 
+  /**
+   * The message of the error raised when an image a command reads is
+   * not present.
+   */
+  static final String MISSING_IMAGE = "The image to be processed is not present.";
+
   /**
    * Method to validate the length of the input
    * command.
@@ -37,10 +43,68 @@ abstract class AbstractCommandExecuter implements CommandExecuter {
   protected void imageCheck(OperationsV3 operations, String imageName)
           throws IllegalArgumentException {
     if (!(operations.checkImage(imageName))) {
-      throw new IllegalArgumentException("The image to be processed is not present.");
+      throw new IllegalArgumentException(MISSING_IMAGE);
     }
   }
 
+  /**
+   * Method to obtain the names of the images the command reads.
+   *
+   * @return the names of the images read.
+   */
+  abstract String[] getInputs();
+
+  /**
+   * Method to obtain the names of the images the command produces.
+   * Temporary images which the command removes before it ends are not
+   * included.
+   *
+   * @return the names of the images produced.
+   */
+  abstract String[] getOutputs();
+
+  /**
+   * Method to check if the command can be left out of a script when
+   * none of the images it produces is read afterwards. This holds when,
+   * once the command has been parsed, the only way it can fail is an
+   * input which is not present, so leaving it out does not change the
+   * output of the script.
+   *
+   * @return true if the command can be left out, else false.
+   */
+  boolean isRemovable() {
+    return true;
+  }
+
+  /**
+   * Method to obtain the paths of the files the command reads or writes.
+   *
+   * @return the paths of the files.
+   */
+  String[] getFiles() {
+    return new String[0];
+  }
+
+  /**
+   * Method to check if the command must run alone, after every earlier
+   * command of a script has ended and before any later one starts.
+   *
+   * @return true if the command must run alone, else false.
+   */
+  boolean runsAlone() {
+    return false;
+  }
+
+  /**
+   * Method to obtain the text the command displays before the message
+   * telling whether it was executed successfully.
+   *
+   * @return the text, or null if the command displays nothing.
+   */
+  String getReport() {
+    return null;
+  }
+
   /**
    * Method to execute the command provided as input.
    *
@@ -83,4 +83,24 @@ class ColorCorrect extends AbstractCommandExecuter {
     boolean t = operations.colorCorrection(temp, temp);
     return operations.regain(this.currentImageName, temp, this.newImageName) & t;
   }
+
+  /**
+   * Method to obtain the names of the images the command reads.
+   *
+   * @return the names of the images read.
+   */
+  @Override
+  String[] getInputs() {
+    return new String[]{this.currentImageName};
+  }
+
+  /**
+   * Method to obtain the names of the images the command produces.
+   *
+   * @return the names of the images produced.
+   */
+  @Override
+  String[] getOutputs() {
+    return new String[]{this.newImageName};
+  }
 }
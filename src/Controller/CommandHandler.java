@@ -4,8 +4,10 @@ package controller;
 import model.OperationsV3;
 
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiFunction;
 
 /**
@@ -19,6 +21,7 @@ import java.util.function.BiFunction;
 class CommandHandler {
   private final OperationsV3 operations;
   private final Map<String, BiFunction<String[], Integer, AbstractCommandExecuter>> commandMap;
+  private final CommandMetrics metrics;
 
   /**
    * Constructs a new instance of CommandHandler.
@@ -28,10 +31,26 @@ class CommandHandler {
    * The command map includes operations such as loading and
    * saving images, applying filters like brighten,
    * blur, and sharpen, and manipulating color components.
+   * Every command executed is measured by the shared
+   * {@link CommandMetrics} if the imagelab.metrics system property is
+   * set to true. The quit command terminates the program.
    */
 
   CommandHandler(OperationsV3 operations) {
+    this(operations, () -> System.exit(0));
+  }
+
+  /**
+   * Constructs a new instance of CommandHandler whose quit command runs
+   * the specified action instead of terminating the program.
+   *
+   * @param operations the operations the commands are executed with.
+   * @param quit       the action run by the quit command.
+   */
+  CommandHandler(OperationsV3 operations, Runnable quit) {
     this.operations = operations;
+    this.metrics = Boolean.getBoolean(CommandMetrics.METRICS_PROPERTY)
+            ? CommandMetrics.getDefault() : null;
     commandMap = new HashMap<>();
     commandMap.put("load", (cmd, a) -> new Load(cmd, 3));
     commandMap.put("save", (cmd, a) -> new Save(cmd, 3));
@@ -54,7 +73,8 @@ class CommandHandler {
     commandMap.put("histogram", (cmd, a) -> new Histogram(cmd, 3));
     commandMap.put("color-correct", (cmd, a) -> new ColorCorrect(cmd, 3));
     commandMap.put("levels-adjust", (cmd, a) -> new LevelsAdjust(cmd, 6));
-    commandMap.put("quit", (cmd, a) -> new Quit(cmd, 1));
+    commandMap.put("quit", (cmd, a) -> new Quit(cmd, 1, quit));
+    commandMap.put("stats", (cmd, a) -> new Stats(cmd, 1, CommandMetrics.getDefault()));
   }
 
   /**
@@ -73,13 +93,73 @@ class CommandHandler {
    */
 
   boolean readCommand(String[] input) throws IllegalArgumentException {
+    return this.executeCommand(input[0], this.parseCommand(input));
+  }
+
+  /**
+   * Parses a command from the given input array without executing it.
+   *
+   * @param input An array of strings representing the command and its
+   *              arguments.
+   *              The first element is expected to be the command name.
+   * @return the command object.
+   * @throws IllegalArgumentException if the command is unknown or its
+   *                                  arguments are not valid.
+   */
+  AbstractCommandExecuter parseCommand(String[] input) throws IllegalArgumentException {
     String command = input[0];
     BiFunction<String[], Integer, AbstractCommandExecuter> cmd = this.commandMap.get(command);
     if (cmd == null) {
       throw new IllegalArgumentException("Unknown command: " + command);
     }
-    AbstractCommandExecuter ex = cmd.apply(input, 0);
-    return ex.execute(operations);
+    return cmd.apply(input, 0);
+  }
+
+  /**
+   * Executes a command which was parsed by parseCommand, measuring it
+   * if the metrics are turned on.
+   *
+   * @param name    the name the command was given with.
+   * @param command the command to be executed.
+   * @return true if operation done successfully, else false.
+   */
+  boolean executeCommand(String name, AbstractCommandExecuter command) {
+    if (this.metrics == null) {
+      return command.execute(operations);
+    }
+    return this.metrics.measure(name, command, operations);
+  }
+
+  /**
+   * Skips a command which was parsed by parseCommand, failing the same
+   * way as the command would if an image it reads is not present.
+   * The images the command would produce are added to the set of
+   * skipped images, which count as present for the commands skipped
+   * afterwards.
+   *
+   * @param command the command to be skipped.
+   * @param skipped the names of the images produced by skipped commands.
+   * @return true, like a command done successfully.
+   * @throws IllegalArgumentException if an image the command reads is not present.
+   */
+  boolean skipCommand(AbstractCommandExecuter command, Set<String> skipped)
+          throws IllegalArgumentException {
+    for (String name : command.getInputs()) {
+      if (!skipped.contains(name) && !operations.checkImage(name)) {
+        throw new IllegalArgumentException(AbstractCommandExecuter.MISSING_IMAGE);
+      }
+    }
+    skipped.addAll(Arrays.asList(command.getOutputs()));
+    return true;
+  }
+
+  /**
+   * Removes an image which is no longer needed.
+   *
+   * @param name the name of the image.
+   */
+  void releaseImage(String name) {
+    operations.removeImage(name);
   }
 
 
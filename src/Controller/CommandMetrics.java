@@ -0,0 +1,231 @@
+package controller;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import model.OperationsV3;
+
+/**
+ * This class measures the executions of the commands and keeps their
+ * metrics for each command name: the wall time, the CPU time of the
+ * process, the bytes allocated by all the threads, the size of the
+ * images read and produced and the bytes held by the image store
+ * afterwards. The CPU time and allocations are those of the whole
+ * process, so that the work the operations spread over a pool of
+ * threads is counted, and they overlap for commands which run at the
+ * same time. The allocations are sampled from the platform threads
+ * which are alive before and after the command, so they leave out
+ * what is allocated by virtual threads, such as the session threads
+ * of a {@link ScriptServer}, and by threads which end while the
+ * command runs; they are a lower bound rather than an exact count.
+ * The shared metrics register the metrics of each command with the
+ * platform MBean server, and are printed by the stats command.
+ */
+final class CommandMetrics {
+
+  /**
+   * The system property which turns on the measurement of every
+   * command executed when it is set to true.
+   */
+  static final String METRICS_PROPERTY = "imagelab.metrics";
+
+  private static final double MILLIS = 1e6;
+  private static final double MEGABYTES = 1 << 20;
+  private static CommandMetrics defaultMetrics;
+
+  private final Map<String, CommandStats> commands;
+  private final boolean register;
+  private volatile long storeResidentBytes;
+
+  /**
+   * Constructs empty metrics.
+   *
+   * @param register true to register the metrics of each command with
+   *                 the platform MBean server, else false.
+   */
+  CommandMetrics(boolean register) {
+    this.commands = new ConcurrentSkipListMap<>();
+    this.register = register;
+  }
+
+  /**
+   * Method to obtain the metrics shared by every command handler, which
+   * are registered with the platform MBean server.
+   *
+   * @return the shared metrics.
+   */
+  static synchronized CommandMetrics getDefault() {
+    if (defaultMetrics == null) {
+      defaultMetrics = new CommandMetrics(true);
+    }
+    return defaultMetrics;
+  }
+
+  /**
+   * Method to obtain the metrics of a command, creating them if the
+   * command was never measured. The metrics are created and registered
+   * under the lock of these metrics, so commands of the same name which
+   * run at the same time share one set of metrics and register it once.
+   * Metrics already registered with the platform MBean server, such as
+   * those of other metrics of the same process, are left as they are.
+   *
+   * @param name the name of the command.
+   * @return the metrics of the command.
+   */
+  CommandStats getStats(String name) {
+    CommandStats stats = this.commands.get(name);
+    if (stats != null) {
+      return stats;
+    }
+    synchronized (this) {
+      stats = this.commands.get(name);
+      if (stats == null) {
+        stats = new CommandStats();
+        if (this.register) {
+          try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(stats,
+                    new ObjectName("imagelab:type=CommandMetrics,command=" + name));
+          } catch (InstanceAlreadyExistsException e) {
+            // registered by other metrics; these are still kept and printed
+          } catch (JMException e) {
+            throw new IllegalStateException("Metrics of " + name + " could not be registered.");
+          }
+        }
+        this.commands.put(name, stats);
+      }
+      return stats;
+    }
+  }
+
+  /**
+   * Executes a command and records its metrics under its name. A failure
+   * to record the metrics never replaces the result of the command or
+   * the exception it throws.
+   *
+   * @param name       the name of the command.
+   * @param command    the command to be executed.
+   * @param operations the operations the command is executed with.
+   * @return true if operation done successfully, else false.
+   */
+  boolean measure(String name, AbstractCommandExecuter command, OperationsV3 operations) {
+    long cpu = getProcessCpuTime();
+    long allocated = getAllocatedBytes();
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      boolean result = command.execute(operations);
+      failed = false;
+      return result;
+    } finally {
+      long wall = System.nanoTime() - start;
+      cpu = getProcessCpuTime() - cpu;
+      allocated = getAllocatedBytes() - allocated;
+      try {
+        String inputSize = getSize(operations, command.getInputs());
+        String outputSize = getSize(operations, command.getOutputs());
+        long resident = operations.getResidentBytes();
+        this.storeResidentBytes = resident;
+        this.getStats(name).record(failed, wall, Math.max(0, cpu), Math.max(0, allocated),
+                inputSize, outputSize, resident);
+      } catch (RuntimeException e) {
+        // the run is left out of the metrics rather than hiding its result
+      }
+    }
+  }
+
+  /**
+   * Method to obtain a table of the metrics of every command measured,
+   * one line for each command in alphabetical order, followed by the
+   * bytes held by the image store after the last command.
+   *
+   * @return the table.
+   */
+  String getSummary() {
+    StringBuilder table = new StringBuilder();
+    table.append(String.format("%-20s %6s %6s %10s %10s %10s %12s %12s%n", "Command", "Runs",
+            "Errors", "Wall ms", "CPU ms", "Alloc MB", "Input", "Output"));
+    for (Map.Entry<String, CommandStats> e : this.commands.entrySet()) {
+      CommandStats stats = e.getValue();
+      if (stats.getCount() == 0) {
+        continue;
+      }
+      table.append(String.format("%-20s %6d %6d %10.1f %10.1f %10.1f %12s %12s%n", e.getKey(),
+              stats.getCount(), stats.getFailures(), stats.getWallTime() / MILLIS,
+              stats.getCpuTime() / MILLIS, stats.getAllocatedBytes() / MEGABYTES,
+              stats.getLastInputSize(), stats.getLastOutputSize()));
+    }
+    table.append(String.format("Image store: %.1f MB resident%n",
+            this.storeResidentBytes / MEGABYTES));
+    return table.toString();
+  }
+
+  /**
+   * Sets the metrics of every command back to zero.
+   */
+  void reset() {
+    for (CommandStats stats : this.commands.values()) {
+      stats.reset();
+    }
+    this.storeResidentBytes = 0;
+  }
+
+  /**
+   * Helper method to obtain the size of the first of a list of images
+   * which is present. The size is looked up without obtaining the
+   * image, so measuring a command never brings back an image the store
+   * dropped or changes which images it keeps.
+   *
+   * @param operations the operations which hold the images.
+   * @param names      the names of the images.
+   * @return the size as height x width, or an empty string if none is present.
+   */
+  private static String getSize(OperationsV3 operations, String[] names) {
+    for (String name : names) {
+      int[] size = operations.getImageSize(name);
+      if (size != null) {
+        return size[0] + "x" + size[1];
+      }
+    }
+    return "";
+  }
+
+  /**
+   * Helper method to obtain the CPU time used by the process so far.
+   *
+   * @return the CPU time in nanoseconds, or 0 if it is not available.
+   */
+  private static long getProcessCpuTime() {
+    OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    if (os instanceof com.sun.management.OperatingSystemMXBean) {
+      return Math.max(0, ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime());
+    }
+    return 0;
+  }
+
+  /**
+   * Helper method to obtain the bytes allocated so far by all the live
+   * platform threads. Virtual threads are not listed by the thread
+   * bean and threads which have ended are no longer counted.
+   *
+   * @return the allocated bytes, or 0 if they are not available.
+   */
+  private static long getAllocatedBytes() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+      return 0;
+    }
+    long total = 0;
+    for (long bytes : ((com.sun.management.ThreadMXBean) threads)
+            .getThreadAllocatedBytes(threads.getAllThreadIds())) {
+      total += Math.max(0, bytes);
+    }
+    return total;
+  }
+}
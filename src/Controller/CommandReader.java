@@ -4,7 +4,15 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import model.OperationsV3;
 import view.ProgramView;
@@ -22,9 +30,27 @@ import view.ProgramView;
 
 
 public class CommandReader implements ImageAppController {
+
+  /**
+   * The system property which makes scripts skip the commands that do
+   * not contribute to any saved image and remove every image once the
+   * script no longer needs it, when it is set to true. Images a script
+   * removes cannot be used by the commands entered after it.
+   */
+  static final String PRUNE_PROPERTY = "imagelab.pruneScripts";
+
+  /**
+   * The system property which sets the number of threads the commands
+   * of a script are run on. Commands which do not depend on each other
+   * through the images they read and produce, or the files they read
+   * and write, run at the same time when it is more than one.
+   */
+  static final String THREADS_PROPERTY = "imagelab.scriptThreads";
+
   private final CommandHandler handler;
   private final Readable in;
   private final ProgramView view;
+  private volatile boolean ended;
 
   /**
    * Constructs a new CommandReader instance for interactive mode.
@@ -33,7 +59,24 @@ public class CommandReader implements ImageAppController {
    */
 
   public CommandReader(OperationsV3 operations, Readable in, ProgramView view) {
-    this.handler = new CommandHandler(operations);
+    this(operations, in, view, false);
+  }
+
+  /**
+   * Constructs a new CommandReader instance whose quit command either
+   * terminates the program, or only stops reading commands when it
+   * serves a session of the {@link ScriptServer}. The lines of a script
+   * which come after a quit command are not executed.
+   *
+   * @param operations the operations the commands are executed with.
+   * @param in         the source of the commands.
+   * @param view       the view the messages are displayed on.
+   * @param session    true to stop reading commands on quit, false to
+   *                   terminate the program.
+   */
+  CommandReader(OperationsV3 operations, Readable in, ProgramView view, boolean session) {
+    this.handler = session ? new CommandHandler(operations, () -> this.ended = true)
+            : new CommandHandler(operations);
     this.in = in;
     this.view = view;
   }
@@ -44,14 +87,21 @@ public class CommandReader implements ImageAppController {
    * comments (lines starting with '#'). It trims whitespace, splits
    * the lines into tokens, and converts the command to lowercase before
    * passing it to the CommandHandler for execution.
+   * If the imagelab.pruneScripts system property is set to true, or the
+   * imagelab.scriptThreads system property is more than one, the whole
+   * script is read first and run as planned by a {@link ScriptPlan}.
    *
    * @param filepath the path to the script file to be read.
+   * @throws IllegalArgumentException if the file cannot be read or the
+   *                                  number of threads is not valid.
    */
 
-  private void scriptReader(String filepath) {
-    try {
-      File file = new File(filepath);
-      BufferedReader br = new BufferedReader(new FileReader(file));
+  private void scriptReader(String filepath) throws IllegalArgumentException {
+    boolean prune = Boolean.getBoolean(PRUNE_PROPERTY);
+    int threads = getScriptThreads();
+    try (BufferedReader br = new BufferedReader(new FileReader(new File(filepath)))) {
+      boolean whole = prune || threads > 1;
+      List<String[]> script = new ArrayList<>();
       String st;
       while ((st = br.readLine()) != null) {
         if (!st.isEmpty() && st.charAt(0) != '#') {
@@ -59,33 +109,167 @@ public class CommandReader implements ImageAppController {
           st = st.replaceAll("\\s+", " ");
           String[] tokens = st.split(" ");
           tokens[0] = tokens[0].toLowerCase();
-          try {
-            boolean t = this.handler.readCommand(tokens);
-            this.outputMessage(t, tokens[0]);
-          } catch (Exception e) {
-            this.view.setOutput(String.format(e.getMessage() + "\n"));
+          if (whole) {
+            script.add(tokens);
+          } else {
+            this.runCommand(tokens);
           }
         }
       }
+      if (whole) {
+        this.runScript(script, prune, threads);
+      }
     } catch (Exception e) {
       throw new IllegalArgumentException("File not found");
     }
   }
 
   /**
-   * Displays a message in the output view indicating whether a specific command
-   * was executed successfully or not.
+   * Helper method to obtain the number of threads the commands of a
+   * script are run on. It is read from the imagelab.scriptThreads system
+   * property and defaults to one, which runs the commands one after the
+   * other as they are read.
+   *
+   * @return the number of threads.
+   * @throws IllegalArgumentException if the property is not an integer
+   *                                  value of at least one.
+   */
+  private static int getScriptThreads() throws IllegalArgumentException {
+    String value = System.getProperty(THREADS_PROPERTY);
+    if (value == null) {
+      return 1;
+    }
+    int threads;
+    try {
+      threads = Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Script threads must be an integer value.");
+    }
+    if (threads < 1) {
+      throw new IllegalArgumentException("Script threads must be at least 1.");
+    }
+    return threads;
+  }
+
+  /**
+   * Helper method to execute a single command and display whether it
+   * was executed successfully, or the error it raised.
+   *
+   * @param tokens the command and its arguments.
+   */
+  private void runCommand(String[] tokens) {
+    this.view.setOutput(this.lineMessage(tokens, null, false, null));
+  }
+
+  /**
+   * Helper method to run a whole script as planned by a
+   * {@link ScriptPlan}. When the script is pruned, the commands which
+   * do not contribute to any saved image are skipped, and every image
+   * is removed after the last command which names it.
+   * When more than one thread is given, every command is started on a
+   * pool of worker threads as soon as the earlier commands it depends on
+   * have ended, so independent commands run at the same time. A command
+   * which must run alone, or a line which cannot be parsed, is run on
+   * the calling thread. The messages are displayed in the order of the
+   * lines of the script, as each line ends, and are the same as when
+   * every command is executed one after the other.
+   *
+   * @param script  the tokens of every command of the script.
+   * @param prune   true to prune the script, else false.
+   * @param threads the number of worker threads.
+   */
+  private void runScript(List<String[]> script, boolean prune, int threads) {
+    List<AbstractCommandExecuter> commands = new ArrayList<>();
+    for (String[] tokens : script) {
+      AbstractCommandExecuter command;
+      try {
+        command = this.handler.parseCommand(tokens);
+      } catch (Exception e) {
+        command = null;
+      }
+      commands.add(command);
+    }
+    ScriptPlan plan = new ScriptPlan(commands, prune);
+    Set<String> skipped = ConcurrentHashMap.newKeySet();
+    List<CompletableFuture<String>> messages = new ArrayList<>();
+    ExecutorService pool = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+    boolean[] inline = new boolean[script.size()];
+    try {
+      for (int i = 0; i < script.size(); i++) {
+        AbstractCommandExecuter command = commands.get(i);
+        inline[i] = pool == null || command == null || command.runsAlone();
+        if (inline[i]) {
+          messages.add(new CompletableFuture<>());
+        } else {
+          int line = i;
+          CompletableFuture<?>[] earlier = Arrays.stream(plan.getDependencies(i))
+                  .mapToObj(messages::get).toArray(CompletableFuture<?>[]::new);
+          messages.add(CompletableFuture.allOf(earlier).thenApplyAsync(
+                  v -> this.lineMessage(script.get(line), command, plan.isSkipped(line), skipped),
+                  pool));
+        }
+      }
+      for (int i = 0; i < script.size(); i++) {
+        CompletableFuture<String> message = messages.get(i);
+        if (inline[i]) {
+          message.complete(this.lineMessage(script.get(i), commands.get(i),
+                  plan.isSkipped(i), skipped));
+        }
+        this.view.setOutput(message.join());
+        for (String name : plan.getReleased(i)) {
+          this.handler.releaseImage(name);
+        }
+      }
+    } finally {
+      if (pool != null) {
+        pool.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Helper method to run a line of a script and obtain the message to
+   * be displayed for it: the report of the command, if any, followed by
+   * whether it was executed successfully, or the error it raised.
+   *
+   * @param tokens  the command and its arguments.
+   * @param command the parsed command, or null to parse it from the tokens.
+   * @param skip    true if the command is skipped, else false.
+   * @param skipped the names of the images produced by skipped commands.
+   * @return the message.
+   */
+  private String lineMessage(String[] tokens, AbstractCommandExecuter command, boolean skip,
+                             Set<String> skipped) {
+    if (this.ended) {
+      return "";
+    }
+    try {
+      AbstractCommandExecuter parsed = command == null
+              ? this.handler.parseCommand(tokens) : command;
+      boolean t = skip ? this.handler.skipCommand(parsed, skipped)
+              : this.handler.executeCommand(tokens[0], parsed);
+      String report = skip ? null : parsed.getReport();
+      return (report == null ? "" : report) + this.formatMessage(t, tokens[0]);
+    } catch (Exception e) {
+      return String.format(e.getMessage() + "\n");
+    }
+  }
+
+  /**
+   * Formats the message displayed in the output view indicating whether a
+   * specific command was executed successfully or not.
    * This method is typically used to provide feedback to the user
    * or log the status of an operation performed in the application.
    *
    * @param t   a boolean flag representing the success status of the command:
    * @param cmd the name of the command being reported. This is used to construct
+   * @return the message.
    */
-  private void outputMessage(boolean t, String cmd) {
+  private String formatMessage(boolean t, String cmd) {
     if (t) {
-      this.view.setOutput(String.format(cmd + " executed successfully\n"));
+      return String.format(cmd + " executed successfully\n");
     } else {
-      this.view.setOutput(String.format(cmd + " not executed successfully\n"));
+      return String.format(cmd + " not executed successfully\n");
     }
   }
 
@@ -105,18 +289,13 @@ public class CommandReader implements ImageAppController {
 
   private void getCommand() throws IOException {
     Scanner scn = new Scanner(this.in);
-    while (scn.hasNextLine()) {
+    while (!this.ended && scn.hasNextLine()) {
       String script = scn.nextLine();
       script = script.trim();
       script = script.replaceAll("\\s+", " ");
       String[] init = script.split(" ");
       if (!(init[0].equals("run") || init[0].equals("-file"))) {
-        try {
-          boolean t = this.handler.readCommand(init);
-          this.outputMessage(t, init[0]);
-        } catch (Exception e) {
-          this.view.setOutput(String.format(e.getMessage() + "\n"));
-        }
+        this.runCommand(init);
       } else {
         try {
           if (init.length != 2) {
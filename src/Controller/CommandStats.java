@@ -0,0 +1,102 @@
+package controller;
+
+/**
+ * This class accumulates the metrics of one command over all its
+ * executions. Executions running at the same time on several threads
+ * are recorded one after the other.
+ */
+class CommandStats implements CommandStatsMBean {
+  private long count;
+  private long failures;
+  private long wallTime;
+  private long maxWallTime;
+  private long cpuTime;
+  private long allocatedBytes;
+  private String lastInputSize = "";
+  private String lastOutputSize = "";
+  private long storeResidentBytes;
+
+  /**
+   * Records one execution of the command.
+   *
+   * @param failed     true if the execution raised an error, else false.
+   * @param wall       the wall time of the execution.
+   * @param cpu        the CPU time of the process during the execution.
+   * @param allocated  the bytes allocated during the execution.
+   * @param inputSize  the size of the first image read, or an empty string.
+   * @param outputSize the size of the first image produced, or an empty string.
+   * @param resident   the resident bytes of the image store afterwards.
+   */
+  synchronized void record(boolean failed, long wall, long cpu, long allocated,
+                           String inputSize, String outputSize, long resident) {
+    this.count++;
+    if (failed) {
+      this.failures++;
+    }
+    this.wallTime += wall;
+    this.maxWallTime = Math.max(this.maxWallTime, wall);
+    this.cpuTime += cpu;
+    this.allocatedBytes += allocated;
+    this.lastInputSize = inputSize;
+    this.lastOutputSize = outputSize;
+    this.storeResidentBytes = resident;
+  }
+
+  @Override
+  public synchronized long getCount() {
+    return this.count;
+  }
+
+  @Override
+  public synchronized long getFailures() {
+    return this.failures;
+  }
+
+  @Override
+  public synchronized long getWallTime() {
+    return this.wallTime;
+  }
+
+  @Override
+  public synchronized long getMaxWallTime() {
+    return this.maxWallTime;
+  }
+
+  @Override
+  public synchronized long getCpuTime() {
+    return this.cpuTime;
+  }
+
+  @Override
+  public synchronized long getAllocatedBytes() {
+    return this.allocatedBytes;
+  }
+
+  @Override
+  public synchronized String getLastInputSize() {
+    return this.lastInputSize;
+  }
+
+  @Override
+  public synchronized String getLastOutputSize() {
+    return this.lastOutputSize;
+  }
+
+  @Override
+  public synchronized long getStoreResidentBytes() {
+    return this.storeResidentBytes;
+  }
+
+  @Override
+  public synchronized void reset() {
+    this.count = 0;
+    this.failures = 0;
+    this.wallTime = 0;
+    this.maxWallTime = 0;
+    this.cpuTime = 0;
+    this.allocatedBytes = 0;
+    this.lastInputSize = "";
+    this.lastOutputSize = "";
+    this.storeResidentBytes = 0;
+  }
+}
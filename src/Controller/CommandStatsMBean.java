@@ -0,0 +1,84 @@
+package controller;
+
+/**
+ * This interface represents the management view of the metrics of one
+ * command, which is registered with the platform MBean server under
+ * the name imagelab:type=CommandMetrics,command=name of the command.
+ * Times are in nanoseconds and sizes are in bytes.
+ */
+public interface CommandStatsMBean {
+
+  /**
+   * Method to obtain the number of times the command was executed.
+   *
+   * @return the number of executions.
+   */
+  long getCount();
+
+  /**
+   * Method to obtain the number of executions which raised an error.
+   *
+   * @return the number of failed executions.
+   */
+  long getFailures();
+
+  /**
+   * Method to obtain the wall time of all the executions.
+   *
+   * @return the total wall time.
+   */
+  long getWallTime();
+
+  /**
+   * Method to obtain the longest wall time of an execution.
+   *
+   * @return the longest wall time.
+   */
+  long getMaxWallTime();
+
+  /**
+   * Method to obtain the CPU time of the process during all the
+   * executions.
+   *
+   * @return the total CPU time.
+   */
+  long getCpuTime();
+
+  /**
+   * Method to obtain the bytes allocated by all the threads during all
+   * the executions.
+   *
+   * @return the total allocated bytes.
+   */
+  long getAllocatedBytes();
+
+  /**
+   * Method to obtain the height and width of the first image read by
+   * the last execution.
+   *
+   * @return the size as height x width, or an empty string if no image was read.
+   */
+  String getLastInputSize();
+
+  /**
+   * Method to obtain the height and width of the first image produced
+   * by the last execution.
+   *
+   * @return the size as height x width, or an empty string if no image
+   *         was produced.
+   */
+  String getLastOutputSize();
+
+  /**
+   * Method to obtain the bytes held in memory by the images after the
+   * last execution.
+   *
+   * @return the resident bytes of the image store.
+   */
+  long getStoreResidentBytes();
+
+  /**
+   * Sets every metric of the command back to zero.
+   */
+  void reset();
+}
@@ -6,7 +6,9 @@ import model.OperationsV3;
  * A class that performs the task of obtaining the
  * compress version of an image.
  * Harr method for compression is used. This is a lossy
- * compression method.
+ * compression method. The image can also be compressed in
+ * square tiles of a given size, which are compressed on
+ * their own.
  */
 
 
@@ -14,23 +16,42 @@ class Compress extends AbstractCommandExecuter {
   private final String currentImageName;
   private final String newImageName;
   private final double percentage;
+  private final int tileSize;
 
   /**
    * Construct a Compress command object.
    * Validate the command length and initializes the image
-   * names.
+   * names. If the command ends with "tile" followed by a size,
+   * the image is compressed in tiles of that size, otherwise
+   * the whole image is compressed at once.
    *
    * @param cmd           the command array obtained by splitting
    *                      input using space.
    * @param commandLength the expected length of command array.
-   * @throws IllegalArgumentException if the command length is invalid or if the
-   *                                  percentage is not between 0 and 100.
+   * @throws IllegalArgumentException if the command length is invalid, if the
+   *                                  percentage is not between 0 and 100 or if
+   *                                  the tile size is not a power of two
+   *                                  greater than 1.
    * @throws NumberFormatException    if the percentage provided in cmd[1]
-   *                                  is not a valid numeric value.
+   *                                  or the tile size is not a valid numeric value.
    */
 
   Compress(String[] cmd, int commandLength) throws NumberFormatException {
-    if (!this.validCommandLength(cmd.length, commandLength)) {
+    if (this.validCommandLength(cmd.length, commandLength)) {
+      this.tileSize = 0;
+    } else if (this.validCommandLength(cmd.length, commandLength + 2)) {
+      if (!(cmd[4].equals("tile"))) {
+        throw new IllegalArgumentException("Invalid Command");
+      }
+      try {
+        this.tileSize = Integer.parseInt(cmd[5]);
+      } catch (NumberFormatException e) {
+        throw new NumberFormatException("Tile size must be an integer value");
+      }
+      if (this.tileSize < 2 || Integer.bitCount(this.tileSize) != 1) {
+        throw new IllegalArgumentException("Tile size must be a power of two greater than 1");
+      }
+    } else {
       throw new IllegalArgumentException("Invalid command length");
     }
     this.currentImageName = cmd[2];
@@ -47,7 +68,8 @@ class Compress extends AbstractCommandExecuter {
 
   /**
    * Execute the Compress operation based on the specified
-   * handle provided in the command.
+   * handle provided in the command. The image is compressed
+   * in tiles if a tile size was given.
    * The method first check if the image on which operation
    * is to be done in present in the system or not.
    *
@@ -60,6 +82,30 @@ class Compress extends AbstractCommandExecuter {
   @Override
   public boolean execute(OperationsV3 operations) {
     this.imageCheck(operations, this.currentImageName);
+    if (this.tileSize > 0) {
+      return operations.compressImage(this.currentImageName, this.newImageName,
+              this.percentage, this.tileSize);
+    }
     return operations.compressImage(this.currentImageName, this.newImageName, this.percentage);
   }
+
+  /**
+   * Method to obtain the names of the images the command reads.
+   *
+   * @return the names of the images read.
+   */
+  @Override
+  String[] getInputs() {
+    return new String[]{this.currentImageName};
+  }
+
+  /**
+   * Method to obtain the names of the images the command produces.
+   *
+   * @return the names of the images produced.
+   */
+  @Override
+  String[] getOutputs() {
+    return new String[]{this.newImageName};
+  }
 }
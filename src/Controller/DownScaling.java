@@ -1,5 +1,6 @@
 package controller;
 
+import model.ImageData;
 import model.OperationsV3;
 
 /**
@@ -47,9 +48,9 @@ class DownScaling extends AbstractCommandExecuter {
    */
   @Override
   public boolean execute(OperationsV3 operations) {
-    int[][][] currentImage = operations.saveImage(this.currentImageName);
-    int height = currentImage.length;
-    int width = currentImage[0].length;
+    ImageData currentImage = operations.viewImage(this.currentImageName);
+    int height = currentImage.getHeight();
+    int width = currentImage.getWidth();
     if ((height < newImageHeight || width < newImageWidth) || (newImageHeight <= 0 ||
             newImageWidth <= 0)) {
       return false;
@@ -58,4 +59,24 @@ class DownScaling extends AbstractCommandExecuter {
             this.newImageName);
     return true;
   }
+
+  /**
+   * Method to obtain the names of the images the command reads.
+   *
+   * @return the names of the images read.
+   */
+  @Override
+  String[] getInputs() {
+    return new String[]{this.currentImageName};
+  }
+
+  /**
+   * Method to obtain the names of the images the command produces.
+   *
+   * @return the names of the images produced.
+   */
+  @Override
+  String[] getOutputs() {
+    return new String[]{this.newImageName};
+  }
 }
@@ -0,0 +1,62 @@
+package controller;
+
+import java.io.File;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This class is the flight recorder event of one image loaded from a
+ * file or saved to a file, which lasts while the file is decoded or
+ * encoded. Only loads and saves which succeed are recorded.
+ */
+@Name("imagelab.ImageFile")
+@Label("Image File")
+@Category({"ImageLab", "Controller"})
+@Description("An image loaded from or saved to a file")
+@StackTrace(false)
+class FileEvent extends Event {
+
+  @Label("Command")
+  @Description("Either load or save")
+  String command;
+
+  @Label("Path")
+  String path;
+
+  @Label("Format")
+  String format;
+
+  @Label("Image")
+  String image;
+
+  @Label("Bytes")
+  @DataAmount
+  @Description("The size of the file")
+  long bytes;
+
+  /**
+   * Ends the event and records it if a flight recording is running.
+   *
+   * @param command the name of the command.
+   * @param path    the path of the file.
+   * @param format  the extension of the format of the file.
+   * @param image   the name of the image.
+   */
+  void record(String command, String path, String format, String image) {
+    this.end();
+    if (this.shouldCommit()) {
+      this.command = command;
+      this.path = path;
+      this.format = format;
+      this.image = image;
+      this.bytes = new File(path).length();
+      this.commit();
+    }
+  }
+}
@@ -47,5 +47,23 @@ class Histogram extends AbstractCommandExecuter {
     return operations.histogram(this.currentImageName, this.newImageName);
   }
 
+  /**
+   * Method to obtain the names of the images the command reads.
+   *
+   * @return the names of the images read.
+   */
+  @Override
+  String[] getInputs() {
+    return new String[]{this.currentImageName};
+  }
 
+  /**
+   * Method to obtain the names of the images the command produces.
+   *
+   * @return the names of the images produced.
+   */
+  @Override
+  String[] getOutputs() {
+    return new String[]{this.newImageName};
+  }
 }
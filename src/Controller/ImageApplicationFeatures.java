@@ -3,6 +3,7 @@ package controller;
 import java.awt.image.BufferedImage;
 import java.io.File;
 
+import model.ImageData;
 import model.OperationsV3;
 import view.IView;
 
@@ -104,29 +105,16 @@ public class ImageApplicationFeatures implements Features {
   }
 
   /**
-   * Converts an image represented by a 3D array
-   * into a BufferedImage.
-   * This method retrieves the image data as a 3D array
-   * (RGB values) from the model,and then constructs a
-   * BufferedImage with the corresponding width, height,
-   * and pixel data for display.
+   * Converts an image held by the model into a BufferedImage.
+   * This method retrieves a read-only view of the image
+   * from the model, and then copies its pixels in bulk into
+   * a BufferedImage of the same size for display.
    *
    * @param name the name of the image to be converted
    * @return a BufferedImage representation of the image
    */
   private BufferedImage convertToDisplay(String name) {
-    int[][][] arr = this.model.saveImage(name);
-    int width = arr[0].length;
-    int height = arr.length;
-    BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        int rgb = arr[i][j][0] << 16 | arr[i][j][1] << 8 |
-                arr[i][j][2];
-        img.setRGB(j, i, rgb);
-      }
-    }
-    return img;
+    return RasterConverter.toImage(this.model.viewImage(name));
   }
 
   /**
@@ -660,8 +648,8 @@ public class ImageApplicationFeatures implements Features {
     if (!t) {
       return;
     }
-    int[][][] temp = this.model.saveImage(imageName);
-    this.view.downScale(temp.length, temp[0].length, this);
+    ImageData temp = this.model.viewImage(imageName);
+    this.view.downScale(temp.getHeight(), temp.getWidth(), this);
   }
 
   /**
@@ -2,11 +2,14 @@ package controller;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Scanner;
 import java.util.function.Function;
 
 import javax.imageio.ImageIO;
@@ -16,11 +19,21 @@ import model.OperationsV3;
 /**
  * A class that performs the load operation on an
  * image. Class is responsible for loading images
- * from file path. Supports images with JPG,PNG and
- * PPM formats only.
+ * from file path. Supports images with JPG,PNG,
+ * PPM, PGM and HAAR formats only.
  */
 
 class Load extends AbstractCommandExecuter {
+
+  /**
+   * The system property which sets the size in bytes of the smallest
+   * PPM raster which is mapped into memory instead of being read.
+   */
+  static final String MAP_THRESHOLD_PROPERTY = "imagelab.mapThreshold";
+
+  private static final long DEFAULT_MAP_THRESHOLD = 1L << 26;
+  private static final long MAX_BAND_BYTES = 1L << 30;
+
   private final String filePath;
   private final String currentImageName;
   private final String extension;
@@ -48,12 +61,15 @@ class Load extends AbstractCommandExecuter {
     this.loadingImage.put("jpg", this::load);
     this.loadingImage.put("jpeg", this::load);
     this.loadingImage.put("ppm", this::loadPpm);
+    this.loadingImage.put("pgm", this::loadPpm);
+    this.loadingImage.put("haar", this::loadHaar);
   }
 
   /**
    * Execute the load operation.
    * The method checks the file extension and loads the
-   * image accordingly.
+   * image accordingly. Decoding the file is recorded as a
+   * {@link FileEvent}.
    *
    * @param operations The operation instance which is
    *                   used to call the suitable method
@@ -67,13 +83,18 @@ class Load extends AbstractCommandExecuter {
     if (cmd == null) {
       throw new IllegalArgumentException("Extension of the image is not supported.");
     }
-    return cmd.apply(operations);
+    FileEvent event = new FileEvent();
+    event.begin();
+    boolean result = cmd.apply(operations);
+    event.record("load", this.filePath, this.extension, this.currentImageName);
+    return result;
   }
 
   /**
    * Helper Method which is used to load the PNG or
    * JPG format images by reading the file and converting
-   * the pixel data into a 3-d matrix.
+   * the raster of the image into packed pixels in bulk
+   * with a {@link RasterConverter}.
    * Method throws IOException if the filepath is incorrect.
    *
    * @param operations operation interface used to load image.
@@ -83,65 +104,154 @@ class Load extends AbstractCommandExecuter {
     File file = new File(this.filePath);
     try {
       BufferedImage img = ImageIO.read(file);
-      int height = img.getHeight();
-      int width = img.getWidth();
-      int[][][] arr = new int[height][width][3];
-      for (int i = 0; i < height; i++) {
-        for (int j = 0; j < width; j++) {
-          int rgb = img.getRGB(j, i);
-          arr[i][j][0] = (rgb >> 16) & 0xff;
-          arr[i][j][1] = (rgb >> 8) & 0xff;
-          arr[i][j][2] = (rgb) & 0xff;
-        }
-      }
-      return operations.loadImage(arr, this.currentImageName);
+      return operations.loadImage(img.getHeight(), img.getWidth(),
+              RasterConverter.toPixels(img), this.currentImageName);
     } catch (IOException e) {
       throw new RuntimeException("Filepath provided is incorrect.");
     }
   }
 
   /**
-   * Helper method used to load a PPM image by reading the file and
-   * converting the pixel data into a 3-d array.
-   * PPM format is assumed to be a plain text with "P3" format.
+   * Helper method used to load a PPM or PGM image. The plain (P3, P2)
+   * and binary (P6, P5) formats are read by a {@link PpmReader}, which
+   * scales the samples to the maximum value of the file and packs the
+   * pixels straight into the pixel store of the new image.
+   * A binary color image with 8-bit samples whose raster is at least
+   * as large as the mapping threshold is mapped into memory instead,
+   * so its pixels are only read when they are needed.
    * Method throws IOException if the filepath is incorrect.
    *
    * @param operations operation interface used to load image.
    * @return true if operation done successfully, else false.
    **/
   private boolean loadPpm(OperationsV3 operations) {
-    Scanner sc;
-    try {
-      sc = new Scanner(new FileInputStream(filePath));
+    try (FileChannel channel = FileChannel.open(Paths.get(this.filePath),
+            StandardOpenOption.READ)) {
+      PpmReader reader = new PpmReader(channel);
+      reader.readHeader();
+      long rasterSize = 3L * reader.getHeight() * reader.getWidth();
+      if (reader.isBinary() && reader.isColor() && reader.getMaxValue() == 255
+              && rasterSize >= getMapThreshold()) {
+        return this.loadMapped(operations, channel, reader.getRasterOffset(),
+                reader.getHeight(), reader.getWidth());
+      }
+      int[] pixels = reader.readPixels();
+      return operations.loadImage(reader.getHeight(), reader.getWidth(), pixels,
+              this.currentImageName);
     } catch (IOException e) {
       throw new RuntimeException("Filepath provided is incorrect.");
     }
-    StringBuilder builder = new StringBuilder();
-    while (sc.hasNextLine()) {
-      String s = sc.nextLine();
-      if (s.charAt(0) != '#') {
-        builder.append(s).append(System.lineSeparator());
-      }
+  }
+
+  /**
+   * Helper method used to map the raster of a binary PPM image into
+   * memory. The raster is mapped read-only in bands of whole rows,
+   * each smaller than the largest buffer that can be mapped, and the
+   * mapping stays valid after the channel is closed.
+   *
+   * @param operations operation interface used to load image.
+   * @param channel    the channel of the file.
+   * @param offset     the position in the file of the first sample.
+   * @param height     the height of the image.
+   * @param width      the width of the image.
+   * @return true if operation done successfully, else false.
+   * @throws IOException if the file cannot be mapped.
+   */
+  private boolean loadMapped(OperationsV3 operations, FileChannel channel, long offset,
+                             int height, int width) throws IOException {
+    long rowBytes = 3L * width;
+    if (channel.size() - offset < rowBytes * height) {
+      throw new IllegalArgumentException("Invalid PPM file: unexpected end of file.");
     }
-    sc = new Scanner(builder.toString());
-    String token = sc.next();
-    if (!token.equals("P3")) {
-      throw new IllegalArgumentException("Invalid PPM file: " +
-              "plain RAW file should begin with P3.");
+    int rowsPerBand = (int) Math.max(1, Math.min(height, MAX_BAND_BYTES / rowBytes));
+    ByteBuffer[] bands = new ByteBuffer[(height + rowsPerBand - 1) / rowsPerBand];
+    for (int i = 0; i < bands.length; i++) {
+      int rows = Math.min(rowsPerBand, height - i * rowsPerBand);
+      bands[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+              offset + i * rowsPerBand * rowBytes, rows * rowBytes);
     }
-    int width = sc.nextInt();
-    int height = sc.nextInt();
-    int maxValue = sc.nextInt();
-    int[][][] arr = new int[height][width][3];
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        arr[i][j][0] = sc.nextInt();
-        arr[i][j][1] = sc.nextInt();
-        arr[i][j][2] = sc.nextInt();
-      }
+    return operations.loadRawImage(height, width, bands, this.currentImageName);
+  }
+
+  /**
+   * Helper method to obtain the size in bytes of the smallest raster
+   * which is mapped into memory instead of being read. It is read from
+   * the imagelab.mapThreshold system property.
+   *
+   * @return the mapping threshold in bytes.
+   */
+  private static long getMapThreshold() {
+    String value = System.getProperty(MAP_THRESHOLD_PROPERTY);
+    if (value == null) {
+      return DEFAULT_MAP_THRESHOLD;
+    }
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Map threshold must be an integer value.");
+    }
+  }
+
+  /**
+   * Helper method used to load an image in the HAAR format, which
+   * stores the compressed Haar Wavelet coefficients of the image.
+   * The contents of the file are handed to the model as they are,
+   * and the image stays compressed in memory.
+   * Method throws IOException if the filepath is incorrect.
+   *
+   * @param operations operation interface used to load image.
+   * @return true if operation done successfully, else false.
+   */
+  private boolean loadHaar(OperationsV3 operations) {
+    byte[] data;
+    try {
+      data = Files.readAllBytes(Paths.get(this.filePath));
+    } catch (IOException e) {
+      throw new RuntimeException("Filepath provided is incorrect.");
     }
-    return operations.loadImage(arr, this.currentImageName);
+    return operations.loadCompressedImage(data, this.currentImageName);
   }
 
+  /**
+   * Method to obtain the names of the images the command reads.
+   *
+   * @return the names of the images read.
+   */
+  @Override
+  String[] getInputs() {
+    return new String[0];
+  }
 
+  /**
+   * Method to obtain the names of the images the command produces.
+   *
+   * @return the names of the images produced.
+   */
+  @Override
+  String[] getOutputs() {
+    return new String[]{this.currentImageName};
+  }
+
+  /**
+   * Method to check if the command can be left out of a script when
+   * none of the images it produces is read afterwards. It is never
+   * left out, since it reads a file which may not exist.
+   *
+   * @return false.
+   */
+  @Override
+  boolean isRemovable() {
+    return false;
+  }
+
+  /**
+   * Method to obtain the paths of the files the command reads or writes.
+   * The command reads the file of the image.
+   *
+   * @return the path of the file.
+   */
+  @Override
+  String[] getFiles() {
+    return new String[]{this.filePath};
+  }
 }
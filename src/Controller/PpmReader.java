@@ -0,0 +1,390 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * This class reads an image in the PPM family of formats from a
+ * channel. It supports the plain (P3) and binary (P6) color formats
+ * and the plain (P2) and binary (P5) grayscale formats, with any
+ * maximum value up to 65535. Binary samples are one byte wide when
+ * the maximum value is below 256 and two bytes wide, most significant
+ * byte first, otherwise.
+ * The channel is read in large blocks into a single byte buffer and
+ * the numbers are parsed straight from its bytes, so the file is never
+ * copied into a String. Every sample is scaled from the maximum value
+ * of the file to 0-255 and the pixels are packed as 0xRRGGBB directly
+ * into the array that becomes the pixel store of the image.
+ * The header is read on its own first, so that the raster of a large
+ * binary image can be mapped into memory instead of being read.
+ */
+final class PpmReader {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int MAX_VALUE = 65535;
+
+  private final ReadableByteChannel channel;
+  private final ByteBuffer buffer;
+  private final byte[] bytes;
+  private int position;
+  private int limit;
+  private long filled;
+  private int format;
+  private int height;
+  private int width;
+  private int maxValue;
+
+  /**
+   * Constructs a PpmReader over a channel positioned at the start
+   * of the file. The channel is not closed by the reader.
+   *
+   * @param channel the channel the image is read from.
+   */
+  PpmReader(ReadableByteChannel channel) {
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    this.bytes = this.buffer.array();
+    this.position = 0;
+    this.limit = 0;
+    this.filled = 0;
+  }
+
+  /**
+   * Method to obtain the height of the image once it has been read.
+   *
+   * @return the height of the image.
+   */
+  int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Method to obtain the width of the image once it has been read.
+   *
+   * @return the width of the image.
+   */
+  int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Method to check if the image is stored in a binary format.
+   *
+   * @return true for the P6 and P5 formats, false for the P3 and P2 formats.
+   */
+  boolean isBinary() {
+    return this.format == '6' || this.format == '5';
+  }
+
+  /**
+   * Method to check if the image has three samples per pixel.
+   *
+   * @return true for the P3 and P6 formats, false for the P2 and P5 formats.
+   */
+  boolean isColor() {
+    return this.format == '3' || this.format == '6';
+  }
+
+  /**
+   * Method to obtain the maximum value of a sample.
+   *
+   * @return the maximum value read from the header.
+   */
+  int getMaxValue() {
+    return this.maxValue;
+  }
+
+  /**
+   * Method to obtain the position in the file of the first sample
+   * once the header has been read.
+   *
+   * @return the number of bytes before the first sample.
+   */
+  long getRasterOffset() {
+    return this.filled - this.limit + this.position;
+  }
+
+  /**
+   * Reads the header of the image, up to the first sample.
+   *
+   * @throws IOException              if the channel cannot be read.
+   * @throws IllegalArgumentException if the header is not a valid PPM header.
+   */
+  void readHeader() throws IOException, IllegalArgumentException {
+    if (this.readByte() != 'P') {
+      throw new IllegalArgumentException("Invalid PPM file: "
+              + "file should begin with P3, P6, P2 or P5.");
+    }
+    this.format = this.readByte();
+    if (this.format != '3' && this.format != '6' && this.format != '2' && this.format != '5') {
+      throw new IllegalArgumentException("Invalid PPM file: "
+              + "file should begin with P3, P6, P2 or P5.");
+    }
+    this.width = this.readInt();
+    this.height = this.readInt();
+    this.maxValue = this.readInt();
+    if (this.width <= 0 || this.height <= 0
+            || (long) this.width * this.height > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Invalid PPM file: invalid image size.");
+    }
+    if (this.maxValue <= 0 || this.maxValue > MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid PPM file: "
+              + "max value must be between 1 and " + MAX_VALUE + ".");
+    }
+    if (this.isBinary() && !isWhitespace(this.readByte())) {
+      throw new IllegalArgumentException("Invalid PPM file: "
+              + "header should end with a whitespace.");
+    }
+  }
+
+  /**
+   * Reads the pixels of the image once its header has been read.
+   * A grayscale image is read into pixels whose three channels have
+   * the same value.
+   *
+   * @return the packed pixel values in row-major order.
+   * @throws IOException              if the channel cannot be read.
+   * @throws IllegalArgumentException if the samples are not valid.
+   */
+  int[] readPixels() throws IOException, IllegalArgumentException {
+    int[] scale = scaleTable(this.maxValue);
+    int[] pixels = new int[this.width * this.height];
+    boolean color = this.isColor();
+    if (!this.isBinary()) {
+      this.readPlain(pixels, scale, color);
+    } else if (this.maxValue < 256) {
+      this.readBinary8(pixels, scale, color);
+    } else {
+      this.readBinary16(pixels, scale, color);
+    }
+    return pixels;
+  }
+
+  /**
+   * Helper method to build the table which scales every sample
+   * between 0 and the maximum value to 0-255, rounding to the nearest
+   * value. Samples above the maximum value are clamped to 255.
+   *
+   * @param maxValue the maximum value of the file.
+   * @return the scaled value of every sample between 0 and 65535.
+   */
+  private static int[] scaleTable(int maxValue) {
+    int[] scale = new int[MAX_VALUE + 1];
+    for (int s = 0; s <= MAX_VALUE; s++) {
+      scale[s] = s >= maxValue ? 255 : (s * 255 + maxValue / 2) / maxValue;
+    }
+    return scale;
+  }
+
+  /**
+   * Helper method to read the plain samples of the image.
+   *
+   * @param pixels the array the packed pixels are written to.
+   * @param scale  the table scaling every sample to 0-255.
+   * @param color  true if every pixel has three samples, false if it
+   *               has a single gray sample.
+   * @throws IOException if the channel cannot be read.
+   */
+  private void readPlain(int[] pixels, int[] scale, boolean color) throws IOException {
+    for (int i = 0; i < pixels.length; i++) {
+      if (color) {
+        int r = scale[this.readSample()];
+        int g = scale[this.readSample()];
+        int b = scale[this.readSample()];
+        pixels[i] = r << 16 | g << 8 | b;
+      } else {
+        int v = scale[this.readSample()];
+        pixels[i] = v << 16 | v << 8 | v;
+      }
+    }
+  }
+
+  /**
+   * Helper method to read the samples of a binary image whose samples
+   * are one byte wide. Whole pixels are read from the buffer without
+   * a bounds check per byte while the buffer holds enough of them.
+   *
+   * @param pixels the array the packed pixels are written to.
+   * @param scale  the table scaling every sample to 0-255.
+   * @param color  true if every pixel has three samples, false if it
+   *               has a single gray sample.
+   * @throws IOException if the channel cannot be read.
+   */
+  private void readBinary8(int[] pixels, int[] scale, boolean color) throws IOException {
+    byte[] b = this.bytes;
+    int channels = color ? 3 : 1;
+    int i = 0;
+    while (i < pixels.length) {
+      int available = (this.limit - this.position) / channels;
+      if (available == 0) {
+        if (color) {
+          int r = scale[this.readRaw()];
+          int g = scale[this.readRaw()];
+          int bl = scale[this.readRaw()];
+          pixels[i++] = r << 16 | g << 8 | bl;
+        } else {
+          int v = scale[this.readRaw()];
+          pixels[i++] = v << 16 | v << 8 | v;
+        }
+        continue;
+      }
+      int end = Math.min(pixels.length, i + available);
+      int p = this.position;
+      if (color) {
+        for (; i < end; i++, p += 3) {
+          pixels[i] = scale[b[p] & 0xff] << 16 | scale[b[p + 1] & 0xff] << 8
+                  | scale[b[p + 2] & 0xff];
+        }
+      } else {
+        for (; i < end; i++, p++) {
+          int v = scale[b[p] & 0xff];
+          pixels[i] = v << 16 | v << 8 | v;
+        }
+      }
+      this.position = p;
+    }
+  }
+
+  /**
+   * Helper method to read the samples of a binary image whose samples
+   * are two bytes wide, most significant byte first.
+   *
+   * @param pixels the array the packed pixels are written to.
+   * @param scale  the table scaling every sample to 0-255.
+   * @param color  true if every pixel has three samples, false if it
+   *               has a single gray sample.
+   * @throws IOException if the channel cannot be read.
+   */
+  private void readBinary16(int[] pixels, int[] scale, boolean color) throws IOException {
+    for (int i = 0; i < pixels.length; i++) {
+      if (color) {
+        int r = scale[this.readRaw() << 8 | this.readRaw()];
+        int g = scale[this.readRaw() << 8 | this.readRaw()];
+        int b = scale[this.readRaw() << 8 | this.readRaw()];
+        pixels[i] = r << 16 | g << 8 | b;
+      } else {
+        int v = scale[this.readRaw() << 8 | this.readRaw()];
+        pixels[i] = v << 16 | v << 8 | v;
+      }
+    }
+  }
+
+  /**
+   * Helper method to read a plain sample, which is a number no
+   * greater than 65535.
+   *
+   * @return the sample.
+   * @throws IOException if the channel cannot be read.
+   */
+  private int readSample() throws IOException {
+    int value = this.readInt();
+    if (value > MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid PPM file: sample is too large.");
+    }
+    return value;
+  }
+
+  /**
+   * Helper method to read a non-negative decimal number, skipping the
+   * whitespace and the comments before it. A comment starts with '#'
+   * and runs to the end of the line. The byte which ends the number
+   * is left to be read next.
+   *
+   * @return the number.
+   * @throws IOException if the channel cannot be read.
+   */
+  private int readInt() throws IOException {
+    int c = this.readByte();
+    while (isWhitespace(c) || c == '#') {
+      if (c == '#') {
+        while (c != '\n' && c != '\r' && c != -1) {
+          c = this.readByte();
+        }
+      } else {
+        c = this.readByte();
+      }
+    }
+    if (c == -1) {
+      throw new IllegalArgumentException("Invalid PPM file: unexpected end of file.");
+    }
+    if (c < '0' || c > '9') {
+      throw new IllegalArgumentException("Invalid PPM file: expected a number.");
+    }
+    long value = 0;
+    while (c >= '0' && c <= '9') {
+      value = value * 10 + (c - '0');
+      if (value > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Invalid PPM file: number is too large.");
+      }
+      c = this.readByte();
+    }
+    if (c != -1) {
+      if (!isWhitespace(c) && c != '#') {
+        throw new IllegalArgumentException("Invalid PPM file: expected a number.");
+      }
+      this.position--;
+    }
+    return (int) value;
+  }
+
+  /**
+   * Helper method to check if a byte is whitespace in a PPM file.
+   *
+   * @param c the byte.
+   * @return true if the byte is whitespace, else false.
+   */
+  private static boolean isWhitespace(int c) {
+    return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == 0x0b || c == '\f';
+  }
+
+  /**
+   * Helper method to read a byte of the raster, which must be present.
+   *
+   * @return the byte between 0 and 255.
+   * @throws IOException if the channel cannot be read.
+   */
+  private int readRaw() throws IOException {
+    int c = this.readByte();
+    if (c == -1) {
+      throw new IllegalArgumentException("Invalid PPM file: unexpected end of file.");
+    }
+    return c;
+  }
+
+  /**
+   * Helper method to read the next byte, filling the buffer from the
+   * channel when it is empty.
+   *
+   * @return the byte between 0 and 255, or -1 at the end of the file.
+   * @throws IOException if the channel cannot be read.
+   */
+  private int readByte() throws IOException {
+    if (this.position == this.limit && !this.fill()) {
+      return -1;
+    }
+    return this.bytes[this.position++] & 0xff;
+  }
+
+  /**
+   * Helper method to fill the buffer with the next block of the
+   * channel, keeping the bytes which have not been read yet.
+   *
+   * @return true if at least one byte is available, false at the end
+   *         of the file.
+   * @throws IOException if the channel cannot be read.
+   */
+  private boolean fill() throws IOException {
+    int remaining = this.limit - this.position;
+    System.arraycopy(this.bytes, this.position, this.bytes, 0, remaining);
+    this.buffer.clear();
+    this.buffer.position(remaining);
+    int n = 0;
+    while (n == 0) {
+      n = this.channel.read(this.buffer);
+    }
+    this.position = 0;
+    this.limit = this.buffer.position();
+    this.filled += this.limit - remaining;
+    return this.limit > 0;
+  }
+}
@@ -0,0 +1,93 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import model.ImageData;
+
+/**
+ * This class writes an image to a channel in the plain (P3) or the
+ * binary (P6) PPM format, with a maximum value of 255.
+ * The pixels are read from the read-only pixel buffer of the image and
+ * encoded straight into a single byte buffer, which is written to the
+ * channel whenever it is full. The plain format spells every channel
+ * value from a table of the decimal digits of 0-255, so no String is
+ * created per pixel.
+ */
+final class PpmWriter {
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final byte[][] DIGITS = new byte[256][];
+
+  static {
+    for (int v = 0; v < 256; v++) {
+      DIGITS[v] = (v + " ").getBytes(StandardCharsets.US_ASCII);
+    }
+  }
+
+  /**
+   * This class only contains static methods.
+   */
+  private PpmWriter() {
+  }
+
+  /**
+   * Writes the image to the channel. The channel is not closed.
+   *
+   * @param channel the channel the image is written to.
+   * @param image   the image to be written.
+   * @param comment the comment written in the header.
+   * @param binary  true to write the binary P6 format, false to write
+   *                the plain P3 format.
+   * @throws IOException if the channel cannot be written.
+   */
+  static void write(WritableByteChannel channel, ImageData image, String comment,
+                    boolean binary) throws IOException {
+    int height = image.getHeight();
+    int width = image.getWidth();
+    IntBuffer pixels = image.getPixelBuffer();
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    String header = (binary ? "P6" : "P3") + "\n#" + comment + "\n"
+            + width + " " + height + "\n255\n";
+    buffer.put(header.getBytes(StandardCharsets.UTF_8));
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        if (buffer.remaining() < 12) {
+          flush(channel, buffer);
+        }
+        int rgb = pixels.get(i * width + j);
+        if (binary) {
+          buffer.put((byte) (rgb >> 16)).put((byte) (rgb >> 8)).put((byte) rgb);
+        } else {
+          buffer.put(DIGITS[(rgb >> 16) & 0xff]).put(DIGITS[(rgb >> 8) & 0xff])
+                  .put(DIGITS[rgb & 0xff]);
+        }
+      }
+      if (!binary) {
+        if (!buffer.hasRemaining()) {
+          flush(channel, buffer);
+        }
+        buffer.put((byte) '\n');
+      }
+    }
+    flush(channel, buffer);
+  }
+
+  /**
+   * Helper method to write the contents of the buffer to the channel
+   * and clear it.
+   *
+   * @param channel the channel the buffer is written to.
+   * @param buffer  the buffer.
+   * @throws IOException if the channel cannot be written.
+   */
+  private static void flush(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
@@ -5,10 +5,12 @@ import model.OperationsV3;
 /**
  * A class that performs the Quit operation.
  * So when the user provides the quit command
- * the program terminated.
+ * the program terminated, or the session of a client
+ * of the script server ends.
  */
 
 class Quit extends AbstractCommandExecuter {
+  private final Runnable exit;
 
   /**
    * Construct a Quit command object.
@@ -18,12 +20,15 @@ class Quit extends AbstractCommandExecuter {
    * @param cmd           the command array obtained by splitting
    *                      input using space.
    * @param commandLength the expected length of command array.
+   * @param exit          the action which terminates the program
+   *                      or ends the session.
    */
-  Quit(String[] cmd, int commandLength) {
+  Quit(String[] cmd, int commandLength, Runnable exit) {
 
     if (!this.validCommandLength(cmd.length, commandLength)) {
       throw new IllegalArgumentException("Invalid command length");
     }
+    this.exit = exit;
   }
 
   /**
@@ -38,7 +43,51 @@ class Quit extends AbstractCommandExecuter {
    */
   @Override
   public boolean execute(OperationsV3 operations) {
-    System.exit(0);
+    this.exit.run();
+    return true;
+  }
+
+  /**
+   * Method to obtain the names of the images the command reads.
+   *
+   * @return the names of the images read.
+   */
+  @Override
+  String[] getInputs() {
+    return new String[0];
+  }
+
+  /**
+   * Method to obtain the names of the images the command produces.
+   *
+   * @return the names of the images produced.
+   */
+  @Override
+  String[] getOutputs() {
+    return new String[0];
+  }
+
+  /**
+   * Method to check if the command can be left out of a script when
+   * none of the images it produces is read afterwards. It is never
+   * left out, since it ends the application.
+   *
+   * @return false.
+   */
+  @Override
+  boolean isRemovable() {
+    return false;
+  }
+
+  /**
+   * Method to check if the command must run alone, after every earlier
+   * command of a script has ended and before any later one starts.
+   * It always runs alone, since it ends the application.
+   *
+   * @return true.
+   */
+  @Override
+  boolean runsAlone() {
     return true;
   }
 }
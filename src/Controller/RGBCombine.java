@@ -55,4 +55,37 @@ class RGBCombine extends AbstractCommandExecuter {
     return operations.combineRGB(this.redImage,
             this.greenImage, this.blueImage, this.newImageName);
   }
+
+  /**
+   * Method to obtain the names of the images the command reads.
+   *
+   * @return the names of the images read.
+   */
+  @Override
+  String[] getInputs() {
+    return new String[]{this.redImage, this.greenImage, this.blueImage};
+  }
+
+  /**
+   * Method to obtain the names of the images the command produces.
+   *
+   * @return the names of the images produced.
+   */
+  @Override
+  String[] getOutputs() {
+    return new String[]{this.newImageName};
+  }
+
+  /**
+   * Method to check if the command can be left out of a script when
+   * none of the images it produces is read afterwards. It is never
+   * left out, since it fails when the images do not have the same
+   * dimensions.
+   *
+   * @return false.
+   */
+  @Override
+  boolean isRemovable() {
+    return false;
+  }
 }
@@ -53,4 +53,24 @@ class RGBSplit extends AbstractCommandExecuter {
     return operations.splitRGB(this.currentImageName, this.redNewImage,
             this.greenNewImage, this.blueNewImage);
   }
+
+  /**
+   * Method to obtain the names of the images the command reads.
+   *
+   * @return the names of the images read.
+   */
+  @Override
+  String[] getInputs() {
+    return new String[]{this.currentImageName};
+  }
+
+  /**
+   * Method to obtain the names of the images the command produces.
+   *
+   * @return the names of the images produced.
+   */
+  @Override
+  String[] getOutputs() {
+    return new String[]{this.redNewImage, this.greenNewImage, this.blueNewImage};
+  }
 }
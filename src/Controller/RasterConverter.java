@@ -0,0 +1,195 @@
+package controller;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+import model.ImageData;
+import model.RowExecutor;
+
+/**
+ * This class converts between a BufferedImage and the packed 0xRRGGBB
+ * pixels of the model in bulk, reading and writing the data buffer of
+ * the raster directly instead of calling getRGB or setRGB per pixel.
+ * The common image types produced by ImageIO are read straight from
+ * their banks: packed int pixels, interleaved 3 or 4 byte pixels, and
+ * single byte gray or indexed pixels, which are mapped through a table
+ * built from the color model so the result is the same as getRGB.
+ * Any other image, or a raster which is not laid out contiguously,
+ * goes through the bulk getRGB method of BufferedImage.
+ * Large images are converted in parallel, in bands of rows run by the
+ * shared {@link RowExecutor} of the model.
+ */
+final class RasterConverter {
+  /**
+   * This class only contains static methods.
+   */
+  private RasterConverter() {
+  }
+
+  /**
+   * Converts an image into packed pixels in row-major order. The
+   * alpha of the image, if any, is dropped.
+   *
+   * @param img the image to be converted.
+   * @return the packed 0xRRGGBB pixel values.
+   */
+  static int[] toPixels(BufferedImage img) {
+    int width = img.getWidth();
+    int height = img.getHeight();
+    int[] pixels = new int[width * height];
+    RowConverter converter = getConverter(img, pixels);
+    if (converter == null) {
+      converter = row -> {
+        img.getRGB(0, row, width, 1, pixels, row * width, width);
+        for (int i = row * width; i < (row + 1) * width; i++) {
+          pixels[i] &= 0xffffff;
+        }
+      };
+    }
+    forEachRow(height, width, converter);
+    return pixels;
+  }
+
+  /**
+   * Converts the image held by the model into a BufferedImage of type
+   * TYPE_INT_RGB, copying the packed pixels straight into its data
+   * buffer.
+   *
+   * @param image the read-only view of the image.
+   * @return the converted image.
+   */
+  static BufferedImage toImage(ImageData image) {
+    BufferedImage img = new BufferedImage(image.getWidth(), image.getHeight(),
+            BufferedImage.TYPE_INT_RGB);
+    int[] data = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+    image.getPixelBuffer().get(data);
+    return img;
+  }
+
+  /**
+   * Helper method to choose how the rows of an image are read from
+   * its data buffer.
+   *
+   * @param img    the image to be converted.
+   * @param pixels the array the packed pixels are written to.
+   * @return the converter of a row, or null if the image must be read
+   *         through getRGB.
+   */
+  private static RowConverter getConverter(BufferedImage img, int[] pixels) {
+    Raster raster = img.getRaster();
+    if (raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0
+            || raster.getDataBuffer().getNumBanks() != 1) {
+      return null;
+    }
+    int width = img.getWidth();
+    switch (img.getType()) {
+      case BufferedImage.TYPE_INT_RGB:
+      case BufferedImage.TYPE_INT_ARGB: {
+        SinglePixelPackedSampleModel model = (SinglePixelPackedSampleModel) img.getSampleModel();
+        int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+        int stride = model.getScanlineStride();
+        int offset = raster.getDataBuffer().getOffset();
+        return row -> {
+          int src = offset + row * stride;
+          int dst = row * width;
+          for (int j = 0; j < width; j++) {
+            pixels[dst + j] = data[src + j] & 0xffffff;
+          }
+        };
+      }
+      case BufferedImage.TYPE_3BYTE_BGR:
+      case BufferedImage.TYPE_4BYTE_ABGR: {
+        ComponentSampleModel model = (ComponentSampleModel) img.getSampleModel();
+        byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+        int stride = model.getScanlineStride();
+        int step = model.getPixelStride();
+        int[] bands = model.getBandOffsets();
+        int offset = raster.getDataBuffer().getOffset();
+        int r = bands[0];
+        int g = bands[1];
+        int b = bands[2];
+        return row -> {
+          int src = offset + row * stride;
+          int dst = row * width;
+          for (int j = 0; j < width; j++, src += step) {
+            pixels[dst + j] = (data[src + r] & 0xff) << 16 | (data[src + g] & 0xff) << 8
+                    | (data[src + b] & 0xff);
+          }
+        };
+      }
+      case BufferedImage.TYPE_BYTE_GRAY:
+      case BufferedImage.TYPE_BYTE_INDEXED: {
+        if (!(img.getSampleModel() instanceof ComponentSampleModel)
+                || raster.getDataBuffer().getDataType() != DataBuffer.TYPE_BYTE) {
+          return null;
+        }
+        ComponentSampleModel model = (ComponentSampleModel) img.getSampleModel();
+        byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+        int stride = model.getScanlineStride();
+        int offset = raster.getDataBuffer().getOffset() + model.getBandOffsets()[0];
+        int[] table = getTable(img.getColorModel());
+        return row -> {
+          int src = offset + row * stride;
+          int dst = row * width;
+          for (int j = 0; j < width; j++) {
+            pixels[dst + j] = table[data[src + j] & 0xff];
+          }
+        };
+      }
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Helper method to build the table of the packed color of every
+   * value of a single byte pixel, as given by the color model.
+   *
+   * @param colorModel the color model of the image.
+   * @return the packed 0xRRGGBB color of each of the 256 pixel values.
+   */
+  private static int[] getTable(ColorModel colorModel) {
+    int[] table = new int[256];
+    byte[] value = new byte[1];
+    for (int v = 0; v < 256; v++) {
+      value[0] = (byte) v;
+      table[v] = colorModel.getRGB(value) & 0xffffff;
+    }
+    return table;
+  }
+
+  /**
+   * Helper method to convert every row of an image on the shared
+   * executor, which splits large images into bands of rows.
+   *
+   * @param height    the height of the image.
+   * @param width     the width of the image.
+   * @param converter the converter of a row.
+   */
+  private static void forEachRow(int height, int width, RowConverter converter) {
+    RowExecutor.getDefault().forEachRow(height, width, (start, end) -> {
+      for (int i = start; i < end; i++) {
+        converter.convert(i);
+      }
+    });
+  }
+
+  /**
+   * The conversion of a single row of an image.
+   */
+  private interface RowConverter {
+
+    /**
+     * Convert the row.
+     *
+     * @param row the index of the row.
+     */
+    void convert(int row);
+  }
+}
@@ -1,52 +1,81 @@
 package controller;
 
 import java.awt.image.BufferedImage;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 
 import javax.imageio.ImageIO;
 
+import model.ImageData;
 import model.OperationsV3;
 
 /**
  * A class that performs the Save operation on an
  * image. Image needs to be saves in a specified file
  * path with the suitable extension.
+ * The image is written to a new file next to the target
+ * which then replaces it, so saving over the file an
+ * image was memory-mapped from never truncates the pixels
+ * still being read, and a failed save leaves the old file.
  */
 
 class Save extends AbstractCommandExecuter {
   private final String filePath;
   private final String currentImageName;
   private final String extension;
+  private final boolean binary;
   private final Map<String, Function<OperationsV3, Boolean>> savingImage;
 
   /**
    * Construct a Save command object.
    * Validate the command length and initialize the image
-   * names.
+   * names. If the command ends with "binary", a PPM image
+   * is saved in the binary P6 format instead of the plain
+   * P3 format.
    *
    * @param cmd           the command array obtained by splitting
    *                      input using space.
    * @param commandLength the expected length of command array.
+   * @throws IllegalArgumentException if the command length is invalid or if
+   *                                  the binary format is requested for an
+   *                                  image which is not a PPM image.
    */
 
   Save(String[] cmd, int commandLength) {
-    if (!this.validCommandLength(cmd.length, commandLength)) {
+    if (this.validCommandLength(cmd.length, commandLength)) {
+      this.binary = false;
+    } else if (this.validCommandLength(cmd.length, commandLength + 1)) {
+      if (!(cmd[3].equals("binary"))) {
+        throw new IllegalArgumentException("Invalid Command");
+      }
+      this.binary = true;
+    } else {
       throw new IllegalArgumentException("Invalid command length");
     }
     this.filePath = cmd[1];
     this.extension = this.filePath.substring(this.filePath.lastIndexOf(".") + 1).toLowerCase();
+    if (this.binary && !this.extension.equals("ppm")) {
+      throw new IllegalArgumentException("Binary format is only supported for PPM");
+    }
     this.currentImageName = cmd[2];
     this.savingImage = new HashMap<>();
     this.savingImage.put("png", this::save);
     this.savingImage.put("jpeg", this::save);
     this.savingImage.put("jpg", this::save);
     this.savingImage.put("ppm", this::savePPM);
+    this.savingImage.put("haar", this::saveHaar);
   }
 
   /**
@@ -55,6 +84,7 @@ class Save extends AbstractCommandExecuter {
    * is to be done in present in the system or not.
    * On the basis of the suitable extension in which the image
    * is to be stored a suitable private method is called.
+   * Encoding the file is recorded as a {@link FileEvent}.
    *
    * @param operations The operation instance which is
    *                   used to call the suitable method
@@ -75,7 +105,11 @@ class Save extends AbstractCommandExecuter {
       if (!parent.exists()) {
         throw new IllegalArgumentException("Filepath provided is incorrect");
       }
-      return cmd.apply(operations);
+      FileEvent event = new FileEvent();
+      event.begin();
+      boolean result = cmd.apply(operations);
+      event.record("save", this.filePath, this.extension, this.currentImageName);
+      return result;
     } catch (Exception e) {
       throw new IllegalArgumentException(e.getMessage());
     }
@@ -84,8 +118,9 @@ class Save extends AbstractCommandExecuter {
   /**
    * Helper method used to save image in the PNG, JPG
    * or JPEG format.
-   * Convert the 3-d image pixel matrix into a BufferedImage
-   * and then write it at the suitable path.
+   * Convert the read-only view of the image into a BufferedImage
+   * in bulk with a {@link RasterConverter} and then write it at
+   * the suitable path.
    * Method throws IOException if the filepath is incorrect.
    *
    * @param operations operations interface instance to save the
@@ -94,20 +129,14 @@ class Save extends AbstractCommandExecuter {
    */
 
   private boolean save(OperationsV3 operations) {
-    int[][][] arr = operations.saveImage(this.currentImageName);
-    File file = new File(this.filePath);
-    int width = arr[0].length;
-    int height = arr.length;
-    BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    ImageData image = operations.viewImage(this.currentImageName);
+    BufferedImage img = RasterConverter.toImage(image);
     try {
-      for (int i = 0; i < arr.length; i++) {
-        for (int j = 0; j < arr[i].length; j++) {
-          int rgb = arr[i][j][0] << 16 | arr[i][j][1] << 8 |
-                  arr[i][j][2];
-          img.setRGB(j, i, rgb);
+      this.replaceFile(path -> {
+        if (!ImageIO.write(img, this.extension, path.toFile())) {
+          throw new IOException("No writer for " + this.extension);
         }
-      }
-      ImageIO.write(img, extension, file);
+      });
       return true;
     } catch (IOException e) {
       throw new RuntimeException("Cannot Save the Image, incorrect filepath");
@@ -117,31 +146,26 @@ class Save extends AbstractCommandExecuter {
   /**
    * Helper method used to save image in the PPM
    * format.
-   * Writes the image data to a PPM file in ASCII
-   * format (P3 format), including the image's
-   * dimensions and pixel data.
+   * Writes the image data to a PPM file in the ASCII
+   * format (P3 format), or in the binary format (P6 format)
+   * if it was requested, including the image's dimensions
+   * and pixel data. The file is written through a
+   * {@link PpmWriter}.
    * Method throws IOException if the filepath is incorrect.
    *
    * @param operations operation interface instance used to
    *                   save the image.
+   * @return true if operation done successfully, else false.
    */
 
   private boolean savePPM(OperationsV3 operations) {
-    int[][][] arr = operations.saveImage(this.currentImageName);
+    ImageData image = operations.viewImage(this.currentImageName);
     try {
-      File output = new File(this.filePath);
-      BufferedWriter bw = new BufferedWriter(new FileWriter(output));
-      bw.write("P3\n");
-      bw.write("#" + currentImageName + ".PPM Image\n");
-      bw.write(arr[0].length + " " + arr.length + "\n");
-      bw.write("255\n");
-      for (int[][] ints : arr) {
-        for (int[] anInt : ints) {
-          bw.write(anInt[0] + " " + anInt[1] + " " + anInt[2] + " ");
+      this.replaceFile(path -> {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+          PpmWriter.write(channel, image, this.currentImageName + ".PPM Image", this.binary);
         }
-        bw.write("\n");
-      }
-      bw.close();
+      });
       return true;
     } catch (IOException e) {
       throw new IllegalArgumentException("Image Cannot be save. Filepath" +
@@ -149,5 +173,117 @@ class Save extends AbstractCommandExecuter {
     }
   }
 
+  /**
+   * Helper method used to save image in the HAAR
+   * format, which stores the compressed Haar Wavelet
+   * coefficients of the image. A compressed image is
+   * written without being encoded again.
+   * Method throws IOException if the filepath is incorrect.
+   *
+   * @param operations operation interface instance used to
+   *                   save the image.
+   * @return true if operation done successfully, else false.
+   */
+  private boolean saveHaar(OperationsV3 operations) {
+    byte[] data = operations.saveCompressedImage(this.currentImageName);
+    try {
+      this.replaceFile(path -> Files.write(path, data));
+      return true;
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Image Cannot be save. Filepath" +
+              "is incorrect.");
+    }
+  }
+
+  /**
+   * Helper method to write the file of the image under a new name in
+   * the directory of the target and then move it over the target. The
+   * old file is only replaced once the new one is complete, so an image
+   * mapped from it can be read while the new file is written. The new
+   * file is deleted if it cannot be written or moved.
+   *
+   * @param output the work which writes the image to a file.
+   * @throws IOException if the file cannot be written or moved.
+   */
+  private void replaceFile(Output output) throws IOException {
+    Path target = Paths.get(this.filePath).toAbsolutePath();
+    Path temp = null;
+    while (temp == null) {
+      Path candidate = target.resolveSibling("." + target.getFileName() + "."
+              + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+      try {
+        temp = Files.createFile(candidate);
+      } catch (FileAlreadyExistsException e) {
+        // Another name is tried.
+      }
+    }
+    try {
+      output.write(temp);
+      try {
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
 
+  /**
+   * The work which writes the image to a file.
+   */
+  private interface Output {
+
+    /**
+     * Writes the image to the file.
+     *
+     * @param path the path of the file, which exists and is empty.
+     * @throws IOException if the file cannot be written.
+     */
+    void write(Path path) throws IOException;
+  }
+
+  /**
+   * Method to obtain the names of the images the command reads.
+   *
+   * @return the names of the images read.
+   */
+  @Override
+  String[] getInputs() {
+    return new String[]{this.currentImageName};
+  }
+
+  /**
+   * Method to obtain the names of the images the command produces.
+   *
+   * @return the names of the images produced.
+   */
+  @Override
+  String[] getOutputs() {
+    return new String[0];
+  }
+
+  /**
+   * Method to check if the command can be left out of a script when
+   * none of the images it produces is read afterwards. It is never
+   * left out, since it writes a file.
+   *
+   * @return false.
+   */
+  @Override
+  boolean isRemovable() {
+    return false;
+  }
+
+  /**
+   * Method to obtain the paths of the files the command reads or writes.
+   * The command writes the file of the image.
+   *
+   * @return the path of the file.
+   */
+  @Override
+  String[] getFiles() {
+    return new String[]{this.filePath};
+  }
 }
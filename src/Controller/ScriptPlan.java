@@ -0,0 +1,187 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * This class plans the execution of a whole script from the names of
+ * the images each of its commands reads and produces.
+ * When the script is pruned, walking it backwards from its last command,
+ * a command is needed if it cannot be left out, such as a save, or if a
+ * later needed command reads one of the images it produces. Every other
+ * command is skipped, since nothing the script writes depends on it.
+ * Every image named in a pruned script is also released right after
+ * the last command which names it, so the memory it holds is reclaimed
+ * while the rest of the script runs. The plan assumes the script is
+ * the whole session: an image it releases cannot be used afterwards.
+ * The plan also gives the earlier lines each line depends on, so that
+ * independent lines can run at the same time. A line depends on the
+ * last earlier line which produces an image it reads or produces, on
+ * every line since then which reads an image it produces, and on the
+ * last earlier line which reads or writes the same file. A command
+ * which must run alone depends on every earlier line, and every later
+ * line depends on it.
+ * A line which cannot be parsed reads and produces nothing, since it
+ * fails before touching any image.
+ */
+final class ScriptPlan {
+  private final boolean[] skipped;
+  private final List<List<String>> released;
+  private final int[][] dependencies;
+
+  /**
+   * Constructs the plan of a script.
+   *
+   * @param commands the parsed command of every line of the script, or
+   *                 null for a line which cannot be parsed.
+   * @param prune    true to skip the commands nothing saved depends on
+   *                 and release the images, false to run every command
+   *                 and keep every image.
+   */
+  ScriptPlan(List<AbstractCommandExecuter> commands, boolean prune) {
+    int size = commands.size();
+    this.skipped = new boolean[size];
+    this.released = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      this.released.add(new ArrayList<>());
+    }
+    this.dependencies = new int[size][];
+    this.planDependencies(commands);
+    if (prune) {
+      this.planPruning(commands);
+    }
+  }
+
+  /**
+   * Helper method to find the earlier lines each line depends on.
+   *
+   * @param commands the parsed command of every line of the script, or
+   *                 null for a line which cannot be parsed.
+   */
+  private void planDependencies(List<AbstractCommandExecuter> commands) {
+    Map<String, Integer> writers = new HashMap<>();
+    Map<String, List<Integer>> readers = new HashMap<>();
+    Map<String, Integer> files = new HashMap<>();
+    int barrier = -1;
+    for (int i = 0; i < commands.size(); i++) {
+      AbstractCommandExecuter command = commands.get(i);
+      Set<Integer> lines = new TreeSet<>();
+      if (command != null) {
+        if (barrier >= 0) {
+          lines.add(barrier);
+        }
+        if (command.runsAlone()) {
+          for (int j = 0; j < i; j++) {
+            lines.add(j);
+          }
+          barrier = i;
+        }
+        for (String name : command.getInputs()) {
+          Integer writer = writers.get(name);
+          if (writer != null) {
+            lines.add(writer);
+          }
+          readers.computeIfAbsent(name, k -> new ArrayList<>()).add(i);
+        }
+        for (String name : command.getOutputs()) {
+          Integer writer = writers.put(name, i);
+          if (writer != null) {
+            lines.add(writer);
+          }
+          List<Integer> earlier = readers.remove(name);
+          if (earlier != null) {
+            lines.addAll(earlier);
+          }
+        }
+        for (String path : command.getFiles()) {
+          Integer user = files.put(path, i);
+          if (user != null) {
+            lines.add(user);
+          }
+        }
+        lines.remove(i);
+      }
+      this.dependencies[i] = lines.stream().mapToInt(Integer::intValue).toArray();
+    }
+  }
+
+  /**
+   * Helper method to find the lines which are skipped and the images
+   * which are released after each line.
+   *
+   * @param commands the parsed command of every line of the script, or
+   *                 null for a line which cannot be parsed.
+   */
+  private void planPruning(List<AbstractCommandExecuter> commands) {
+    int size = commands.size();
+    Set<String> needed = new HashSet<>();
+    for (int i = size - 1; i >= 0; i--) {
+      AbstractCommandExecuter command = commands.get(i);
+      if (command == null) {
+        continue;
+      }
+      List<String> outputs = Arrays.asList(command.getOutputs());
+      if (command.isRemovable() && outputs.stream().noneMatch(needed::contains)) {
+        this.skipped[i] = true;
+        continue;
+      }
+      needed.removeAll(outputs);
+      needed.addAll(Arrays.asList(command.getInputs()));
+    }
+
+    Map<String, Integer> lastUse = new LinkedHashMap<>();
+    for (int i = 0; i < size; i++) {
+      AbstractCommandExecuter command = commands.get(i);
+      if (command != null) {
+        for (String name : command.getInputs()) {
+          lastUse.put(name, i);
+        }
+        for (String name : command.getOutputs()) {
+          lastUse.put(name, i);
+        }
+      }
+    }
+    for (Map.Entry<String, Integer> e : lastUse.entrySet()) {
+      this.released.get(e.getValue()).add(e.getKey());
+    }
+  }
+
+  /**
+   * Method to check if a line of the script is skipped.
+   *
+   * @param line the index of the line among the commands of the script.
+   * @return true if the command of the line is skipped, else false.
+   */
+  boolean isSkipped(int line) {
+    return this.skipped[line];
+  }
+
+  /**
+   * Method to obtain the names of the images released after a line of
+   * the script.
+   *
+   * @param line the index of the line among the commands of the script.
+   * @return the names of the images no later line names.
+   */
+  List<String> getReleased(int line) {
+    return this.released.get(line);
+  }
+
+  /**
+   * Method to obtain the earlier lines of the script a line depends on,
+   * which must have ended before it starts.
+   *
+   * @param line the index of the line among the commands of the script.
+   * @return the indices of the lines, in increasing order.
+   */
+  int[] getDependencies(int line) {
+    return this.dependencies[line];
+  }
+}
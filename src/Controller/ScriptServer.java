@@ -0,0 +1,137 @@
+package controller;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+import model.OperationsV3;
+import view.ProgramView;
+
+/**
+ * The ScriptServer class keeps the application running and serves the
+ * clients which connect to it over TCP on the loopback interface, so
+ * that many short scripts do not each pay for starting the program.
+ * Every connection is a session which reads commands, and scripts with
+ * the run command, the same way as the interactive mode, and the
+ * message of each command is sent back as soon as it ends.
+ * Every session has its own images, kept by the operations the server
+ * obtains for it, so the images of one client are never seen by
+ * another. The quit command ends the session and closes the connection
+ * while the server keeps running. The operations of a session are
+ * closed when its connection ends, which drops its images and deletes
+ * its scratch files.
+ * Each session runs on a thread of its own, created by a
+ * {@link SessionExecutor}, which is a virtual thread when the Java
+ * runtime has them.
+ * The clients are not authenticated: anyone who can connect to the
+ * loopback interface can load, save and run files on any path the
+ * account of the server can access, so the server is only meant for
+ * machines whose local users are trusted.
+ * Class implements the ImageAppController interface.
+ */
+public class ScriptServer implements ImageAppController {
+
+  private static final int BACKLOG = 50;
+
+  private final ServerSocket server;
+  private final Supplier<? extends OperationsV3> sessions;
+  private final ExecutorService connections;
+
+  /**
+   * Constructs a server listening on the specified port of the
+   * loopback interface.
+   *
+   * @param port     the port to listen on, or 0 for any free port.
+   * @param sessions the source of the operations of each new session.
+   * @throws IllegalArgumentException if the port cannot be listened on.
+   */
+  public ScriptServer(int port, Supplier<? extends OperationsV3> sessions)
+          throws IllegalArgumentException {
+    try {
+      this.server = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+    } catch (IOException | IllegalArgumentException e) {
+      throw new IllegalArgumentException("Port " + port + " cannot be listened on.");
+    }
+    this.sessions = sessions;
+    this.connections = SessionExecutor.create();
+  }
+
+  /**
+   * Method to obtain the port the server listens on.
+   *
+   * @return the port.
+   */
+  public int getPort() {
+    return this.server.getLocalPort();
+  }
+
+  /**
+   * Starts the server, which accepts connections and serves each of
+   * them on a session thread until the server is closed.
+   * Sessions which are running when the server is closed are served
+   * until their clients disconnect.
+   *
+   * @throws IllegalStateException if the server stops accepting
+   *                               connections before it is closed.
+   */
+  @Override
+  public void startApplication() throws IllegalStateException {
+    try {
+      while (true) {
+        Socket socket = this.server.accept();
+        this.connections.execute(() -> this.serve(socket));
+      }
+    } catch (IOException e) {
+      if (!this.server.isClosed()) {
+        throw new IllegalStateException("Server stopped: " + e.getMessage());
+      }
+    } finally {
+      this.connections.shutdown();
+    }
+  }
+
+  /**
+   * Closes the server, so it no longer accepts connections.
+   */
+  public void close() {
+    try {
+      this.server.close();
+    } catch (IOException e) {
+      // The server is closed even if closing it failed.
+    }
+  }
+
+  /**
+   * Helper method to serve one session, reading its commands from the
+   * connection and writing back the message of each command as soon as
+   * it is displayed, until the client disconnects or quits.
+   *
+   * @param socket the connection of the client.
+   */
+  private void serve(Socket socket) {
+    try (Socket client = socket; OperationsV3 session = this.sessions.get()) {
+      Writer out = new BufferedWriter(new OutputStreamWriter(client.getOutputStream(),
+              StandardCharsets.UTF_8));
+      ProgramView view = output -> {
+        try {
+          out.write(output);
+          out.flush();
+        } catch (IOException e) {
+          throw new IllegalArgumentException("Client disconnected");
+        }
+      };
+      new CommandReader(session, new InputStreamReader(client.getInputStream(),
+              StandardCharsets.UTF_8), view, true).startApplication();
+    } catch (IOException | IllegalArgumentException e) {
+      // The client disconnected; its images are dropped when the session is closed.
+    }
+  }
+}
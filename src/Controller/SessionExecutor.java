@@ -0,0 +1,56 @@
+package controller;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class creates the executor which runs the sessions of the
+ * {@link ScriptServer}, one thread for each session. The threads are
+ * virtual threads when the Java runtime has them, from version 21, so
+ * a session waiting on its connection or on a file holds no platform
+ * thread, and daemon platform threads otherwise. The operations move
+ * their computing off virtual threads onto the bounded pool of their
+ * executor, so the sessions scale until the processors are busy.
+ */
+final class SessionExecutor {
+
+  /**
+   * This class is not meant to be instantiated.
+   */
+  private SessionExecutor() {
+  }
+
+  /**
+   * Creates an executor which runs every task on a new thread, virtual
+   * if the Java runtime has virtual threads.
+   *
+   * @return the executor.
+   */
+  static ExecutorService create() {
+    ExecutorService virtual = createVirtual();
+    if (virtual != null) {
+      return virtual;
+    }
+    return Executors.newCachedThreadPool(task -> {
+      Thread thread = new Thread(task, "imagelab-session");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Helper method to create an executor which runs every task on a new
+   * virtual thread.
+   *
+   * @return the executor, or null if the Java runtime has no virtual threads.
+   */
+  private static ExecutorService createVirtual() {
+    try {
+      Method create = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) create.invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+}
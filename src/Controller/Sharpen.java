@@ -108,4 +108,37 @@ class Sharpen extends AbstractCommandExecuter {
 
   }
 
+  /**
+   * Method to obtain the names of the images the command reads.
+   *
+   * @return the names of the images read.
+   */
+  @Override
+  String[] getInputs() {
+    return this.maskImageName == null ? new String[]{this.currentImageName}
+            : new String[]{this.currentImageName, this.maskImageName};
+  }
+
+  /**
+   * Method to obtain the names of the images the command produces.
+   *
+   * @return the names of the images produced.
+   */
+  @Override
+  String[] getOutputs() {
+    return new String[]{this.newImageName};
+  }
+
+  /**
+   * Method to check if the command can be left out of a script when
+   * none of the images it produces is read afterwards. A masked
+   * command is never left out, since it fails when the mask does not
+   * match the image.
+   *
+   * @return true if the command is not masked, else false.
+   */
+  @Override
+  boolean isRemovable() {
+    return this.maskImageName == null;
+  }
 }
@@ -0,0 +1,100 @@
+package controller;
+
+import model.OperationsV3;
+
+/**
+ * A class that performs the stats operation.
+ * So when the user provides the stats command the
+ * metrics of the commands executed so far are displayed
+ * as a table.
+ */
+
+class Stats extends AbstractCommandExecuter {
+  private final CommandMetrics metrics;
+  private String report;
+
+  /**
+   * Construct a stats command object.
+   * Validate the command length and initialize the
+   * metrics to be displayed.
+   *
+   * @param cmd           the command array obtained by splitting
+   *                      input using space.
+   * @param commandLength the expected length of command array.
+   * @param metrics       the metrics of the commands.
+   */
+  Stats(String[] cmd, int commandLength, CommandMetrics metrics) {
+    if (!this.validCommandLength(cmd.length, commandLength)) {
+      throw new IllegalArgumentException("Invalid command length");
+    }
+    this.metrics = metrics;
+  }
+
+  /**
+   * Execute the stats operation, which builds the table of
+   * the metrics to be displayed.
+   *
+   * @param operations The operation instance, which is not
+   *                   used by this command.
+   * @return true if operation done successfully, else false.
+   */
+  @Override
+  public boolean execute(OperationsV3 operations) {
+    this.report = this.metrics.getSummary();
+    return true;
+  }
+
+  /**
+   * Method to obtain the table built by the last execution.
+   *
+   * @return the table of the metrics.
+   */
+  @Override
+  String getReport() {
+    return this.report;
+  }
+
+  /**
+   * Method to obtain the names of the images the command reads.
+   *
+   * @return the names of the images read.
+   */
+  @Override
+  String[] getInputs() {
+    return new String[0];
+  }
+
+  /**
+   * Method to obtain the names of the images the command produces.
+   *
+   * @return the names of the images produced.
+   */
+  @Override
+  String[] getOutputs() {
+    return new String[0];
+  }
+
+  /**
+   * Method to check if the command can be left out of a script when
+   * none of the images it produces is read afterwards. It is never
+   * left out, since it displays the metrics.
+   *
+   * @return false.
+   */
+  @Override
+  boolean isRemovable() {
+    return false;
+  }
+
+  /**
+   * Method to check if the command must run alone, after every earlier
+   * command of a script has ended and before any later one starts.
+   * It always runs alone, so the metrics cover every earlier command.
+   *
+   * @return true.
+   */
+  @Override
+  boolean runsAlone() {
+    return true;
+  }
+}
@@ -48,4 +48,24 @@ class VerticalFlip extends AbstractCommandExecuter {
     this.imageCheck(operations, this.currentImageName);
     return operations.verticalFlip(this.currentImageName, this.newImageName);
   }
+
+  /**
+   * Method to obtain the names of the images the command reads.
+   *
+   * @return the names of the images read.
+   */
+  @Override
+  String[] getInputs() {
+    return new String[]{this.currentImageName};
+  }
+
+  /**
+   * Method to obtain the names of the images the command produces.
+   *
+   * @return the names of the images produced.
+   */
+  @Override
+  String[] getOutputs() {
+    return new String[]{this.newImageName};
+  }
 }
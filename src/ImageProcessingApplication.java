@@ -3,8 +3,8 @@ import java.io.InputStreamReader;
 import controller.CommandReader;
 import controller.ImageAppController;
 import controller.MVCController;
+import controller.ScriptServer;
 import model.ImageOperationsV3;
-import model.OperationsV3;
 import view.GuiView;
 import view.IView;
 import view.ProgramView;
@@ -26,14 +26,15 @@ public class ImageProcessingApplication {
    * and model.
    * From here the entire control is given to the controller class.
    * Also from here the program determines which how will the user
-   * interacts with the program, whether GUI, direct script based or
-   * command line based.
+   * interacts with the program, whether GUI, direct script based,
+   * command line based, or as a server which runs the scripts of
+   * clients connecting to a port.
    *
    * @param args the standard argument given to read data from
    *             command prompt.
    */
   public static void main(String[] args) {
-    OperationsV3 operations = new ImageOperationsV3();
+    ImageOperationsV3 operations = new ImageOperationsV3();
     if (args.length != 0) {
       ImageAppController src;
       ProgramView view = new ViewHandler(System.out);
@@ -47,6 +48,17 @@ public class ImageProcessingApplication {
         src = new CommandReader(operations, in, view);
       } else if (args[0].equals("-text") && args.length == 1) {
         src = new CommandReader(operations, new InputStreamReader(System.in), view);
+      } else if (args[0].equals("-server") && args.length == 2) {
+        ScriptServer server;
+        try {
+          server = new ScriptServer(Integer.parseInt(args[1]),
+                  operations::newSession);
+        } catch (IllegalArgumentException e) {
+          view.setOutput("Port must be a free port number.\n");
+          return;
+        }
+        view.setOutput("Listening on port " + server.getPort() + "\n");
+        src = server;
       } else {
         return;
       }
@@ -0,0 +1,876 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * This class is an {@link ImageStore} which keeps the images it holds
+ * in memory under a budget of bytes. Whenever storing an image takes
+ * the store over its budget, the least recently used images which can
+ * be computed again are dropped until it is back under the budget, and
+ * their recipe is run the next time they are needed.
+ * An image can be computed again as long as every image its recipe
+ * reads is still stored and is the same image it was computed from.
+ * Before an image is replaced or removed, the dropped images computed
+ * from it are computed again, so they never change. An image stored
+ * without a recipe or whose inputs have changed cannot be computed
+ * again, so it is only dropped if the store has a spill directory: it
+ * is then written to a scratch file with {@link SpillFile} and read
+ * back the next time it is needed. Since an image never changes, the
+ * file is kept until the image is replaced or removed, and an image
+ * which is dropped again is not written again. The image which was
+ * stored last is never dropped, so the store may stay over its budget
+ * when nothing else can be dropped.
+ * An image such as a view or a lazy image holds no pixels of its own
+ * but keeps alive the root image it reads, so the store counts the
+ * bytes of every root held by the images in memory once, however many
+ * images read it, and for as long as one of them is in memory, even
+ * when the root itself was dropped, replaced or removed. An image
+ * which other images in memory still read from is not dropped, since
+ * that would free nothing and bringing it back would copy it; dropping
+ * the images which read it lets it be dropped in turn. A root is
+ * pinned this way for exactly as long as it is read, so the store
+ * needs no explicit pinning.
+ * Every image is given a new version when it is stored, which is how
+ * the store knows which images a recipe was run on. A recipe which is
+ * run to bring back a dropped image stores it again under the same
+ * version.
+ * The store is shared by the commands which run at the same time, but
+ * it is only held while its entries are looked at or changed: recipes
+ * are run, scratch files are written and read, and the dropped images
+ * which read an image being replaced are brought back without holding
+ * it, so an image computed again or read back never holds up the
+ * commands which use other images, nor the carrier thread of a virtual
+ * thread. A dropped image which several threads need at once is
+ * brought back once, by the first of them, and the others wait for it.
+ * Several stores, such as the stores of the sessions of a server, may
+ * share one {@link StoreBudget}, in which case each of them drops its
+ * own images whenever their images together are over the budget.
+ * A store which is closed drops all its images and deletes its scratch
+ * files at once; the scratch files of the stores which are never
+ * closed are deleted when the virtual machine exits.
+ * The store counts the images obtained from memory, the images which
+ * had to be computed again, the images read back from scratch files,
+ * the images written to scratch files and the images which were
+ * dropped, and records every image it drops as an {@link EvictionEvent}
+ * when a flight recording is running.
+ */
+class BoundedImageStore implements ImageStore {
+
+  /**
+   * The system property which sets the budget in bytes of the store
+   * of the operations. It defaults to half of the maximum heap size.
+   */
+  static final String BUDGET_PROPERTY = "imagelab.storeBudget";
+
+  /**
+   * The system property which sets the directory the store of the
+   * operations writes its scratch files in. Images which cannot be
+   * computed again are kept in memory when it is not set.
+   */
+  static final String SPILL_PROPERTY = "imagelab.spillDirectory";
+
+  private static final Set<Path> SCRATCH_DIRECTORIES = ConcurrentHashMap.newKeySet();
+  private static boolean exitHookAdded;
+
+  private final Map<String, Entry> entries;
+  private final Map<String, Integer> replacing;
+  private final Map<ImageModel, Integer> holders;
+  private final ThreadLocal<Map<String, Entry>> recomputing;
+  private final Object scratchLock;
+  private final StoreBudget budget;
+  private final Path spillDirectory;
+  private Path scratch;
+  private long residentBytes;
+  private long nextVersion;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long spills;
+  private long reloads;
+
+  /**
+   * Constructs an empty store with the specified budget, which keeps
+   * the images that cannot be computed again in memory.
+   *
+   * @param budget the number of bytes the images held in memory should
+   *               not exceed.
+   * @throws IllegalArgumentException if the budget is negative.
+   */
+  BoundedImageStore(long budget) throws IllegalArgumentException {
+    this(budget, null);
+  }
+
+  /**
+   * Constructs an empty store with the specified budget, which writes
+   * the images that cannot be computed again to scratch files in the
+   * specified directory. The scratch files are put in a new directory
+   * inside it, which is only created when the first image is written
+   * and is deleted when the store is closed or the virtual machine
+   * exits.
+   *
+   * @param budget         the number of bytes the images held in memory
+   *                       should not exceed.
+   * @param spillDirectory the directory of the scratch files, or null to
+   *                       keep those images in memory.
+   * @throws IllegalArgumentException if the budget is negative.
+   */
+  BoundedImageStore(long budget, Path spillDirectory) throws IllegalArgumentException {
+    this(new StoreBudget(budget), spillDirectory);
+  }
+
+  /**
+   * Constructs an empty store which shares the specified budget with
+   * other stores and writes the images that cannot be computed again to
+   * scratch files in the specified directory.
+   *
+   * @param budget         the budget shared by the stores.
+   * @param spillDirectory the directory of the scratch files, or null to
+   *                       keep those images in memory.
+   */
+  BoundedImageStore(StoreBudget budget, Path spillDirectory) {
+    this.entries = new LinkedHashMap<>();
+    this.replacing = new HashMap<>();
+    this.holders = new IdentityHashMap<>();
+    this.recomputing = ThreadLocal.withInitial(HashMap::new);
+    this.scratchLock = new Object();
+    this.budget = budget;
+    this.spillDirectory = spillDirectory;
+  }
+
+  /**
+   * Method to obtain the budget of the store of the operations, which
+   * is read from the imagelab.storeBudget system property.
+   *
+   * @return the budget in bytes.
+   * @throws IllegalArgumentException if the property is not an integer value.
+   */
+  static long getDefaultBudget() throws IllegalArgumentException {
+    String value = System.getProperty(BUDGET_PROPERTY);
+    if (value == null) {
+      return Runtime.getRuntime().maxMemory() / 2;
+    }
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Budget of the store must be an integer value.");
+    }
+  }
+
+  /**
+   * Method to obtain the directory of the scratch files of the store
+   * of the operations, which is read from the imagelab.spillDirectory
+   * system property.
+   *
+   * @return the directory, or null if the property is not set.
+   */
+  static Path getDefaultSpillDirectory() {
+    String value = System.getProperty(SPILL_PROPERTY);
+    return value == null || value.trim().isEmpty() ? null : Paths.get(value.trim());
+  }
+
+  @Override
+  public ImageModel get(String name) {
+    Entry entry;
+    Path spill;
+    CompletableFuture<ImageModel> loading;
+    CompletableFuture<ImageModel> waiting;
+    synchronized (this) {
+      entry = this.touch(name);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.image != null) {
+        this.hits++;
+        return entry.image;
+      }
+      waiting = entry.loading;
+      loading = waiting == null ? new CompletableFuture<>() : null;
+      if (waiting == null) {
+        entry.loading = loading;
+      }
+      spill = entry.spill;
+    }
+    if (waiting != null) {
+      return await(waiting);
+    }
+    Path stale = null;
+    try {
+      ImageModel image = spill != null ? this.reload(name, entry, spill)
+              : this.recompute(name, entry);
+      loading.complete(image);
+      return image;
+    } catch (RuntimeException | Error e) {
+      loading.completeExceptionally(e);
+      throw e;
+    } finally {
+      synchronized (this) {
+        entry.loading = null;
+        if (entry.released) {
+          stale = entry.spill;
+        }
+      }
+      delete(stale);
+    }
+  }
+
+  @Override
+  public synchronized boolean contains(String name) {
+    return this.entries.containsKey(name);
+  }
+
+  @Override
+  public void put(String name, ImageModel image) {
+    this.put(name, image, null);
+  }
+
+  @Override
+  public void put(String name, ImageModel image, Runnable recipe, String... inputs) {
+    Entry pending = this.recomputing.get().get(name);
+    List<Entry> spilling = Collections.emptyList();
+    if (pending != null) {
+      synchronized (this) {
+        pending.image = image;
+        if (this.entries.get(name) == pending) {
+          this.hold(image);
+          spilling = this.evict(name);
+        }
+      }
+      this.spillAll(spilling);
+      return;
+    }
+    Entry entry = new Entry(name, image, recipe);
+    Path stale;
+    synchronized (this) {
+      if (recipe != null) {
+        entry.inputs = inputs.clone();
+        entry.inputVersions = new long[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+          Entry input = this.entries.get(inputs[i]);
+          entry.inputVersions[i] = input == null ? -1 : input.version;
+        }
+      }
+      this.replacing.merge(name, 1, Integer::sum);
+    }
+    try {
+      this.keepDependents(name);
+      synchronized (this) {
+        stale = this.release(name);
+        entry.version = ++this.nextVersion;
+        this.hold(image);
+        this.entries.put(name, entry);
+      }
+    } finally {
+      this.endReplacing(name);
+    }
+    synchronized (this) {
+      spilling = this.evict(name);
+    }
+    delete(stale);
+    this.spillAll(spilling);
+  }
+
+  @Override
+  public void remove(String name) {
+    synchronized (this) {
+      this.replacing.merge(name, 1, Integer::sum);
+    }
+    Path stale;
+    try {
+      this.keepDependents(name);
+      synchronized (this) {
+        stale = this.release(name);
+      }
+    } finally {
+      this.endReplacing(name);
+    }
+    delete(stale);
+  }
+
+  @Override
+  public synchronized int[] getSize(String name) {
+    Entry entry = this.entries.get(name);
+    return entry == null ? null : new int[]{entry.height, entry.width};
+  }
+
+  /**
+   * Method to obtain the number of images obtained from memory.
+   *
+   * @return the number of hits.
+   */
+  synchronized long getHits() {
+    return this.hits;
+  }
+
+  /**
+   * Method to obtain the number of images which had to be computed
+   * again because they had been dropped.
+   *
+   * @return the number of misses.
+   */
+  synchronized long getMisses() {
+    return this.misses;
+  }
+
+  /**
+   * Method to obtain the number of images dropped to stay under the
+   * budget.
+   *
+   * @return the number of evictions.
+   */
+  synchronized long getEvictions() {
+    return this.evictions;
+  }
+
+  /**
+   * Method to obtain the number of images written to scratch files.
+   *
+   * @return the number of spills.
+   */
+  synchronized long getSpills() {
+    return this.spills;
+  }
+
+  /**
+   * Method to obtain the number of images read back from scratch files.
+   *
+   * @return the number of reloads.
+   */
+  synchronized long getReloads() {
+    return this.reloads;
+  }
+
+  @Override
+  public synchronized long getResidentBytes() {
+    return this.residentBytes;
+  }
+
+  /**
+   * Method to obtain the budget of the store, which it may share with
+   * other stores.
+   *
+   * @return the budget in bytes.
+   */
+  long getBudget() {
+    return this.budget.getLimit();
+  }
+
+  /**
+   * Creates an empty store which shares the budget and the spill
+   * directory of this store.
+   *
+   * @return the new store.
+   */
+  @Override
+  public ImageStore newStore() {
+    return new BoundedImageStore(this.budget, this.spillDirectory);
+  }
+
+  @Override
+  public void close() {
+    Path directory;
+    synchronized (this) {
+      for (Entry entry : this.entries.values()) {
+        entry.released = true;
+        if (entry.image != null) {
+          this.letGo(entry.image);
+        }
+      }
+      this.entries.clear();
+    }
+    synchronized (this.scratchLock) {
+      directory = this.scratch;
+      this.scratch = null;
+    }
+    if (directory != null) {
+      SCRATCH_DIRECTORIES.remove(directory);
+      deleteScratch(directory);
+    }
+  }
+
+  /**
+   * Helper method to look up an entry and mark it as the most recently
+   * used one.
+   *
+   * @param name the name of the image.
+   * @return the entry, or null if no image is stored under the name.
+   */
+  private Entry touch(String name) {
+    Entry entry = this.entries.remove(name);
+    if (entry != null) {
+      this.entries.put(name, entry);
+    }
+    return entry;
+  }
+
+  /**
+   * Helper method to read back an image from its scratch file, without
+   * holding the store while the file is read.
+   *
+   * @param name  the name of the image.
+   * @param entry the entry of the image.
+   * @param spill the scratch file of the image.
+   * @return the image.
+   * @throws IllegalStateException if the file cannot be read.
+   */
+  private ImageModel reload(String name, Entry entry, Path spill) throws IllegalStateException {
+    ImageModel image;
+    try {
+      image = SpillFile.read(spill);
+    } catch (IOException e) {
+      throw new IllegalStateException("Image " + name + " could not be read back.");
+    }
+    List<Entry> spilling = Collections.emptyList();
+    synchronized (this) {
+      this.reloads++;
+      entry.image = image;
+      if (this.entries.get(name) == entry) {
+        this.hold(image);
+        spilling = this.evict(name);
+      }
+    }
+    this.spillAll(spilling);
+    return image;
+  }
+
+  /**
+   * Helper method to run the recipe of an image, without holding the
+   * store while it runs. The recipe stores the image again under its
+   * name, which the store recognises as the image of this entry since
+   * it is stored by the same thread.
+   *
+   * @param name  the name of the image.
+   * @param entry the entry of the image.
+   * @return the image.
+   * @throws IllegalStateException if the recipe does not store the image.
+   */
+  private ImageModel recompute(String name, Entry entry) throws IllegalStateException {
+    synchronized (this) {
+      this.misses++;
+    }
+    Map<String, Entry> running = this.recomputing.get();
+    running.put(name, entry);
+    try {
+      entry.recipe.run();
+    } finally {
+      running.remove(name);
+    }
+    synchronized (this) {
+      if (entry.image == null) {
+        throw new IllegalStateException("Image " + name + " could not be computed again.");
+      }
+      return entry.image;
+    }
+  }
+
+  /**
+   * Helper method to wait for an image which another thread is bringing
+   * back. An unchecked exception thrown while it is brought back is
+   * thrown again as it is.
+   *
+   * @param loading the image being brought back.
+   * @return the image.
+   */
+  private static ImageModel await(CompletableFuture<ImageModel> loading) {
+    try {
+      return loading.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Helper method to bring back every dropped image whose recipe reads
+   * an image which is about to be replaced or removed, so they never
+   * change. While the image is being replaced no image which reads it
+   * is dropped to be computed again, so once none of them is left
+   * dropped, none is dropped again. Images held in scratch files do
+   * not depend on their inputs and are left there.
+   *
+   * @param name the name of the image.
+   */
+  private void keepDependents(String name) {
+    while (true) {
+      List<String> dependents = new ArrayList<>();
+      synchronized (this) {
+        Entry entry = this.entries.get(name);
+        if (entry == null) {
+          return;
+        }
+        for (Map.Entry<String, Entry> e : this.entries.entrySet()) {
+          Entry dependent = e.getValue();
+          if (dependent.image == null && dependent.spill == null
+                  && dependent.reads(name, entry.version)) {
+            dependents.add(e.getKey());
+          }
+        }
+      }
+      if (dependents.isEmpty()) {
+        return;
+      }
+      for (String dependent : dependents) {
+        this.get(dependent);
+      }
+    }
+  }
+
+  /**
+   * Helper method to mark an image as no longer being replaced.
+   *
+   * @param name the name of the image.
+   */
+  private synchronized void endReplacing(String name) {
+    if (this.replacing.merge(name, -1, Integer::sum) == 0) {
+      this.replacing.remove(name);
+    }
+  }
+
+  /**
+   * Helper method to remove the entry of an image. Its scratch file is
+   * left to the thread reading it back, if any.
+   *
+   * @param name the name of the image.
+   * @return the scratch file to be deleted, or null.
+   */
+  private Path release(String name) {
+    Entry entry = this.entries.remove(name);
+    if (entry == null) {
+      return null;
+    }
+    entry.released = true;
+    if (entry.image != null) {
+      this.letGo(entry.image);
+    }
+    return entry.loading == null ? entry.spill : null;
+  }
+
+  /**
+   * Helper method to delete a scratch file, if any.
+   *
+   * @param file the scratch file, or null.
+   */
+  private static void delete(Path file) {
+    if (file != null) {
+      file.toFile().delete();
+    }
+  }
+
+  /**
+   * Helper method to count an image which is now held in memory,
+   * adding the bytes of its root if no other image held it.
+   *
+   * @param image the image.
+   */
+  private void hold(ImageModel image) {
+    ImageModel root = image.getRoot();
+    if (this.holders.merge(root, 1, Integer::sum) == 1) {
+      this.residentBytes += root.getResidentBytes();
+      this.budget.addResident(root.getResidentBytes());
+    }
+  }
+
+  /**
+   * Helper method to stop counting an image which is no longer held
+   * in memory, removing the bytes of its root if no other image holds
+   * it.
+   *
+   * @param image the image.
+   * @return the number of bytes freed.
+   */
+  private long letGo(ImageModel image) {
+    ImageModel root = image.getRoot();
+    int count = this.holders.get(root);
+    if (count > 1) {
+      this.holders.put(root, count - 1);
+      return 0;
+    }
+    this.holders.remove(root);
+    this.residentBytes -= root.getResidentBytes();
+    this.budget.addResident(-root.getResidentBytes());
+    return root.getResidentBytes();
+  }
+
+  /**
+   * Helper method to check if dropping an image can ever free memory.
+   * An image whose root holds no memory is left alone, and so is a
+   * root which other images in memory still read from.
+   *
+   * @param image the image.
+   * @return true if the image may be dropped, else false.
+   */
+  private boolean isDroppable(ImageModel image) {
+    ImageModel root = image.getRoot();
+    return root.getResidentBytes() > 0 && (root != image || this.holders.get(root) == 1);
+  }
+
+  /**
+   * Helper method to drop the least recently used images which can be
+   * computed again or read back from a scratch file until the store is
+   * under its budget. Dropping an image which reads a root that other
+   * images also read frees nothing by itself, but may let the root be
+   * dropped, so the images are gone through again for as long as
+   * something was dropped and the store is still over its budget.
+   * The images which must first be written to a scratch file are only
+   * marked here, and counted as freed while they are written, since
+   * the file is written without holding the store.
+   *
+   * @param keep the name of the image which was just stored, which is
+   *             never dropped.
+   * @return the images to be written to scratch files and dropped.
+   */
+  private List<Entry> evict(String keep) {
+    List<Entry> spilling = new ArrayList<>();
+    boolean dropped = true;
+    while (dropped && this.isOverBudget()) {
+      dropped = false;
+      for (Map.Entry<String, Entry> e : this.entries.entrySet()) {
+        if (!this.isOverBudget()) {
+          break;
+        }
+        Entry entry = e.getValue();
+        if (e.getKey().equals(keep) || entry.image == null || entry.loading != null
+                || entry.spilling || !this.isDroppable(entry.image)) {
+          continue;
+        }
+        if (entry.spill != null || this.isRecomputable(entry)) {
+          EvictionEvent event = new EvictionEvent();
+          event.begin();
+          this.drop(entry, event);
+          dropped = true;
+        } else if (this.spillDirectory != null) {
+          ImageModel root = entry.image.getRoot();
+          entry.spilling = true;
+          entry.spillingBytes = this.holders.get(root) == 1 ? root.getResidentBytes() : 0;
+          this.budget.addSpilling(entry.spillingBytes);
+          spilling.add(entry);
+        }
+      }
+    }
+    return spilling;
+  }
+
+  /**
+   * Helper method to check if the images in memory, not counting those
+   * being written to scratch files, are over the budget, together with
+   * the images of the stores sharing it.
+   *
+   * @return true if the store is over its budget, else false.
+   */
+  private boolean isOverBudget() {
+    return this.budget.isExceeded();
+  }
+
+  /**
+   * Helper method to drop an image which can be computed again or read
+   * back from its scratch file.
+   *
+   * @param entry the entry of the image.
+   * @param event the event of the eviction, which has begun.
+   */
+  private void drop(Entry entry, EvictionEvent event) {
+    long freed = this.letGo(entry.image);
+    entry.image = null;
+    this.evictions++;
+    event.end();
+    if (event.shouldCommit()) {
+      event.image = entry.name;
+      event.bytes = freed;
+      event.spilled = entry.spill != null;
+      event.residentBytes = this.residentBytes;
+      event.budget = this.budget.getLimit();
+      event.commit();
+    }
+  }
+
+  /**
+   * Helper method to write images to scratch files without holding the
+   * store, and then drop those which can still be dropped. An image
+   * whose file cannot be written is kept in memory, and the file of an
+   * image which was replaced or removed meanwhile is deleted.
+   *
+   * @param spilling the images marked to be written.
+   */
+  private void spillAll(List<Entry> spilling) {
+    for (Entry entry : spilling) {
+      EvictionEvent event = new EvictionEvent();
+      event.begin();
+      Path file = this.write(entry.image);
+      Path stale = null;
+      synchronized (this) {
+        entry.spilling = false;
+        this.budget.addSpilling(-entry.spillingBytes);
+        entry.spillingBytes = 0;
+        if (file != null && this.entries.get(entry.name) != entry) {
+          stale = file;
+        } else if (file != null) {
+          entry.spill = file;
+          this.spills++;
+          if (entry.image != null && entry.loading == null && this.isOverBudget()
+                  && this.isDroppable(entry.image)) {
+            this.drop(entry, event);
+          }
+        }
+      }
+      delete(stale);
+    }
+  }
+
+  /**
+   * Helper method to write an image to a new scratch file. The scratch
+   * directory is created when the first image is written.
+   *
+   * @param image the image.
+   * @return the scratch file, or null if it cannot be written.
+   */
+  private Path write(ImageModel image) {
+    Path file = null;
+    try {
+      Path directory;
+      synchronized (this.scratchLock) {
+        if (this.scratch == null) {
+          Files.createDirectories(this.spillDirectory);
+          this.scratch = Files.createTempDirectory(this.spillDirectory, "imagelab");
+          deleteOnExit(this.scratch);
+        }
+        directory = this.scratch;
+      }
+      file = Files.createTempFile(directory, "image", ".spill");
+      SpillFile.write(file, image);
+      return file;
+    } catch (IOException e) {
+      delete(file);
+      return null;
+    }
+  }
+
+  /**
+   * Helper method to have a scratch directory deleted when the virtual
+   * machine exits. A single hook deletes the scratch directories of
+   * every store which was not closed.
+   *
+   * @param directory the scratch directory.
+   */
+  private static synchronized void deleteOnExit(Path directory) {
+    SCRATCH_DIRECTORIES.add(directory);
+    if (!exitHookAdded) {
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        for (Path scratch : SCRATCH_DIRECTORIES) {
+          deleteScratch(scratch);
+        }
+      }));
+      exitHookAdded = true;
+    }
+  }
+
+  /**
+   * Helper method to delete a scratch directory and the files in it.
+   *
+   * @param directory the scratch directory.
+   */
+  private static void deleteScratch(Path directory) {
+    try (Stream<Path> files = Files.list(directory)) {
+      files.forEach(file -> file.toFile().delete());
+      Files.deleteIfExists(directory);
+    } catch (IOException e) {
+      // the files which are left are deleted with the spill directory
+    }
+  }
+
+  /**
+   * Helper method to check if the recipe of an image still computes
+   * the same image.
+   *
+   * @param entry the entry of the image.
+   * @return true if every image the recipe reads is the one it was run
+   *         on, else false.
+   */
+  private boolean isRecomputable(Entry entry) {
+    if (entry.recipe == null) {
+      return false;
+    }
+    for (int i = 0; i < entry.inputs.length; i++) {
+      Entry input = this.entries.get(entry.inputs[i]);
+      if (input == null || input.version != entry.inputVersions[i]
+              || this.replacing.containsKey(entry.inputs[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * An image stored under a name, together with what is needed to
+   * compute it again.
+   */
+  private static final class Entry {
+    private final String name;
+    private final Runnable recipe;
+    private final int height;
+    private final int width;
+    private ImageModel image;
+    private long version;
+    private String[] inputs;
+    private long[] inputVersions;
+    private CompletableFuture<ImageModel> loading;
+    private boolean spilling;
+    private long spillingBytes;
+    private boolean released;
+    private Path spill;
+
+    /**
+     * Constructs the entry of an image.
+     *
+     * @param name   the name of the image.
+     * @param image  the image.
+     * @param recipe the operation which produced the image, or null if
+     *               it cannot be computed again.
+     */
+    private Entry(String name, ImageModel image, Runnable recipe) {
+      this.name = name;
+      this.image = image;
+      this.recipe = recipe;
+      this.height = image.getHeight();
+      this.width = image.getWidth();
+    }
+
+    /**
+     * Method to check if the recipe of the image reads a specific
+     * version of an image.
+     *
+     * @param name    the name of the image read.
+     * @param version the version of the image read.
+     * @return true if the recipe reads that version of the image, else false.
+     */
+    private boolean reads(String name, long version) {
+      if (this.recipe == null) {
+        return false;
+      }
+      for (int i = 0; i < this.inputs.length; i++) {
+        if (this.inputs[i].equals(name) && this.inputVersions[i] == version) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package model;
+
+/**
+ * This class represents a color matrix, which maps the red, green and
+ * blue value of every pixel to new values through a 3x3 matrix, or a
+ * 3x4 matrix whose last column is added as an offset. Each new value
+ * is truncated and clamped between 0 and 255.
+ * When every coefficient is a multiple of a small power of two the
+ * matrix is applied with integer fixed-point coefficients, which is
+ * exactly the same as the floating-point sum. Otherwise the products
+ * of each coefficient with all 256 channel values are computed once,
+ * and every pixel is mapped with table reads and floating-point adds
+ * done in the same order as the original sum, so the result is the
+ * same in both cases.
+ * Both kernels are unrolled over the three channels and do not
+ * allocate per pixel. A ColorMatrix is a {@link PixelStage}, so it can
+ * be fused with other per-pixel stages. A ColorMatrix is never modified
+ * once it has been created.
+ */
+final class ColorMatrix implements PixelStage {
+
+  private static final int MAX_SHIFT = 16;
+
+  private final int[] fixed;
+  private final int shift;
+  private final double[] products;
+  private final double[] offsets;
+
+  /**
+   * Constructs a ColorMatrix from a 3x3 or a 3x4 matrix.
+   *
+   * @param matrix the matrix whose row k gives the new value of channel
+   *               k from the red, green and blue values and the
+   *               optional offset.
+   * @throws IllegalArgumentException if the matrix is not 3x3 or 3x4.
+   */
+  ColorMatrix(double[][] matrix) throws IllegalArgumentException {
+    if (matrix == null || matrix.length != 3) {
+      throw new IllegalArgumentException("Color matrix must have 3 rows.");
+    }
+    int columns = matrix[0].length;
+    double[] flat = new double[12];
+    for (int k = 0; k < 3; k++) {
+      if (matrix[k] == null || (matrix[k].length != 3 && matrix[k].length != 4)
+              || matrix[k].length != columns) {
+        throw new IllegalArgumentException("Color matrix must be 3x3 or 3x4.");
+      }
+      for (int l = 0; l < columns; l++) {
+        if (!Double.isFinite(matrix[k][l])) {
+          throw new IllegalArgumentException("Color matrix must be finite.");
+        }
+        flat[k * 4 + l] = matrix[k][l];
+      }
+    }
+    this.offsets = new double[]{flat[3], flat[7], flat[11]};
+    this.shift = findShift(flat);
+    if (this.shift >= 0) {
+      this.fixed = new int[12];
+      for (int i = 0; i < 12; i++) {
+        this.fixed[i] = (int) Math.rint(flat[i] * (1 << this.shift));
+      }
+      this.products = null;
+    } else {
+      this.fixed = null;
+      this.products = new double[9 * 256];
+      for (int k = 0; k < 3; k++) {
+        for (int l = 0; l < 3; l++) {
+          for (int x = 0; x < 256; x++) {
+            this.products[(k * 3 + l) * 256 + x] = flat[k * 4 + l] * x;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Helper method to find the smallest number of fractional bits that
+   * represents every coefficient exactly, while keeping every sum
+   * within the range of an int.
+   *
+   * @param flat the coefficients of the matrix, four for each row.
+   * @return the number of fractional bits, or -1 if there is none.
+   */
+  private static int findShift(double[] flat) {
+    for (int shift = 0; shift <= MAX_SHIFT; shift++) {
+      double scale = 1 << shift;
+      boolean exact = true;
+      for (double c : flat) {
+        double scaled = c * scale;
+        if (scaled != Math.rint(scaled)) {
+          exact = false;
+          break;
+        }
+      }
+      if (exact) {
+        for (int k = 0; k < 3; k++) {
+          double bound = Math.abs(flat[k * 4 + 3]);
+          for (int l = 0; l < 3; l++) {
+            bound += Math.abs(flat[k * 4 + l]) * 255;
+          }
+          if (bound * scale >= Integer.MAX_VALUE / 2) {
+            return -1;
+          }
+        }
+        return shift;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Method to map a packed pixel.
+   *
+   * @param rgb the pixel packed as 0xRRGGBB.
+   * @return the mapped pixel packed as 0xRRGGBB.
+   */
+  @Override
+  public int mapPixel(int rgb) {
+    return this.fixed != null ? this.mapFixed(rgb) : this.mapTable(rgb);
+  }
+
+  /**
+   * Helper method to map a packed pixel with the fixed-point
+   * coefficients.
+   *
+   * @param rgb the pixel packed as 0xRRGGBB.
+   * @return the mapped pixel packed as 0xRRGGBB.
+   */
+  private int mapFixed(int rgb) {
+    int r = (rgb >> 16) & 0xff;
+    int g = (rgb >> 8) & 0xff;
+    int b = rgb & 0xff;
+    int[] c = this.fixed;
+    int s = this.shift;
+    return ImageModel.pack((c[0] * r + c[1] * g + c[2] * b + c[3]) >> s,
+            (c[4] * r + c[5] * g + c[6] * b + c[7]) >> s,
+            (c[8] * r + c[9] * g + c[10] * b + c[11]) >> s);
+  }
+
+  /**
+   * Helper method to map a packed pixel with the tables of products.
+   *
+   * @param rgb the pixel packed as 0xRRGGBB.
+   * @return the mapped pixel packed as 0xRRGGBB.
+   */
+  private int mapTable(int rgb) {
+    int r = (rgb >> 16) & 0xff;
+    int g = (rgb >> 8) & 0xff;
+    int b = rgb & 0xff;
+    double[] p = this.products;
+    double[] o = this.offsets;
+    return ImageModel.pack((int) (p[r] + p[256 + g] + p[512 + b] + o[0]),
+            (int) (p[768 + r] + p[1024 + g] + p[1280 + b] + o[1]),
+            (int) (p[1536 + r] + p[1792 + g] + p[2048 + b] + o[2]));
+  }
+
+  /**
+   * Applies the color matrix to a run of source pixels and writes the
+   * result into a run of the destination array.
+   *
+   * @param src    the packed source pixels.
+   * @param srcPos the index of the first source pixel.
+   * @param dst    the packed destination pixels, which may be the
+   *               source array itself.
+   * @param dstPos the index the first mapped pixel is written to.
+   * @param count  the number of pixels to be mapped.
+   */
+  @Override
+  public void apply(int[] src, int srcPos, int[] dst, int dstPos, int count) {
+    if (this.fixed != null) {
+      for (int k = 0; k < count; k++) {
+        dst[dstPos + k] = this.mapFixed(src[srcPos + k]);
+      }
+    } else {
+      for (int k = 0; k < count; k++) {
+        dst[dstPos + k] = this.mapTable(src[srcPos + k]);
+      }
+    }
+  }
+}
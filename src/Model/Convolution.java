@@ -0,0 +1,674 @@
+package model;
+
+/**
+ * This class applies a square convolution kernel to a packed image.
+ * When a kernel is compiled its structure is inspected and the
+ * fastest exact strategy is chosen:
+ * A separable kernel (the outer product of a column and a row) is
+ * applied as two 1-D passes.
+ * A kernel whose weights only depend on the distance from the centre
+ * ring is applied as a weighted sum of box filters read from an
+ * integral image, so its cost does not grow with the kernel size.
+ * Any other kernel is applied directly.
+ * The three strategies accumulate in fixed-point integers, which is
+ * only done when every weight is exactly representable in fixed
+ * point, so the result is the same as summing the weights in doubles.
+ * Kernels that are not exactly representable are applied with the
+ * original floating-point loop.
+ * Pixels outside the image are treated as zero, and each strategy
+ * handles the border in a separate pass so that the loop over the
+ * interior of the image has no bounds checks.
+ */
+abstract class Convolution {
+
+  private static final int MAX_SHIFT = 16;
+  private static final long MAX_ACCUMULATOR = Integer.MAX_VALUE / 2;
+
+  protected final int radius;
+
+  /**
+   * Constructs a Convolution with a kernel of the specified radius.
+   *
+   * @param radius the distance from the centre of the kernel to its edge.
+   */
+  protected Convolution(int radius) {
+    this.radius = radius;
+  }
+
+  /**
+   * Compiles a kernel into the fastest exact strategy that
+   * supports it.
+   *
+   * @param kernel a square 2-D array with an odd size.
+   * @return the compiled convolution.
+   * @throws IllegalArgumentException if the kernel is not square with an odd size.
+   */
+  static Convolution compile(double[][] kernel) throws IllegalArgumentException {
+    int size = kernel.length;
+    if (size % 2 == 0) {
+      throw new IllegalArgumentException("Kernel must have an odd size.");
+    }
+    for (double[] row : kernel) {
+      if (row.length != size) {
+        throw new IllegalArgumentException("Kernel must be square.");
+      }
+    }
+    Convolution c = Separable.tryCompile(kernel);
+    if (c == null) {
+      c = Box.tryCompile(kernel);
+    }
+    if (c == null) {
+      c = Direct.tryCompile(kernel);
+    }
+    if (c == null) {
+      c = new Floating(kernel);
+    }
+    return c;
+  }
+
+  /**
+   * Applies the kernel to the source pixels and writes the clamped
+   * result into the destination array. Bands of rows are processed
+   * in parallel by the executor.
+   *
+   * @param src      the packed source pixels.
+   * @param dst      the packed destination pixels.
+   * @param height   the height of the image.
+   * @param width    the width of the image.
+   * @param executor the executor used to process the rows.
+   */
+  abstract void apply(int[] src, int[] dst, int height, int width, RowExecutor executor);
+
+  /**
+   * Helper method to find the smallest number of fractional bits
+   * that represents every weight exactly.
+   *
+   * @param weights the weights to be represented.
+   * @param bound   the largest absolute value the weighted sum of
+   *                inputs may have before scaling.
+   * @return the number of fractional bits, or -1 if there is none.
+   */
+  protected static int findShift(double[] weights, double bound) {
+    for (int shift = 0; shift <= MAX_SHIFT; shift++) {
+      double scale = 1 << shift;
+      boolean exact = true;
+      double total = 0;
+      for (double w : weights) {
+        double scaled = w * scale;
+        if (scaled != Math.rint(scaled)) {
+          exact = false;
+          break;
+        }
+        total += Math.abs(scaled);
+      }
+      if (exact) {
+        return total * bound < MAX_ACCUMULATOR ? shift : -1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Helper method to scale the weights to fixed point.
+   *
+   * @param weights the weights to be scaled.
+   * @param shift   the number of fractional bits.
+   * @return the scaled weights.
+   */
+  protected static int[] toFixed(double[] weights, int shift) {
+    int[] fixed = new int[weights.length];
+    for (int i = 0; i < weights.length; i++) {
+      fixed[i] = (int) Math.rint(weights[i] * (1 << shift));
+    }
+    return fixed;
+  }
+
+  /**
+   * Helper method to pack three fixed-point sums into a pixel.
+   * An arithmetic shift is used instead of a division, which only
+   * differs for negative sums and those are clamped to zero anyway.
+   *
+   * @param red   the fixed-point red sum.
+   * @param green the fixed-point green sum.
+   * @param blue  the fixed-point blue sum.
+   * @param shift the number of fractional bits.
+   * @return the packed pixel.
+   */
+  protected static int toPixel(int red, int green, int blue, int shift) {
+    return ImageModel.pack(red >> shift, green >> shift, blue >> shift);
+  }
+
+  /**
+   * A kernel which is the outer product of a column and a row,
+   * applied as a horizontal pass followed by a vertical pass. Every
+   * band of rows runs the horizontal pass over its own rows and the
+   * rows around it, so the bands do not share any scratch memory.
+   */
+  private static class Separable extends Convolution {
+    private final int[] row;
+    private final int[] column;
+    private final int shift;
+
+    /**
+     * Constructs a Separable convolution from fixed-point vectors.
+     *
+     * @param row    the fixed-point row weights.
+     * @param column the fixed-point column weights.
+     * @param shift  the total number of fractional bits of both passes.
+     */
+    private Separable(int[] row, int[] column, int shift) {
+      super(row.length / 2);
+      this.row = row;
+      this.column = column;
+      this.shift = shift;
+    }
+
+    /**
+     * Tries to factor the kernel into a column and a row.
+     *
+     * @param kernel the kernel to be factored.
+     * @return the compiled convolution, or null if the kernel is not
+     *         separable or not representable in fixed point.
+     */
+    static Separable tryCompile(double[][] kernel) {
+      int size = kernel.length;
+      int pivotRow = 0;
+      int pivotColumn = 0;
+      for (int i = 0; i < size; i++) {
+        for (int j = 0; j < size; j++) {
+          if (Math.abs(kernel[i][j]) > Math.abs(kernel[pivotRow][pivotColumn])) {
+            pivotRow = i;
+            pivotColumn = j;
+          }
+        }
+      }
+      double pivot = kernel[pivotRow][pivotColumn];
+      if (pivot == 0) {
+        return null;
+      }
+      double[] row = kernel[pivotRow].clone();
+      double[] column = new double[size];
+      for (int i = 0; i < size; i++) {
+        column[i] = kernel[i][pivotColumn] / pivot;
+      }
+      for (int i = 0; i < size; i++) {
+        for (int j = 0; j < size; j++) {
+          if (column[i] * row[j] != kernel[i][j]) {
+            return null;
+          }
+        }
+      }
+      int rowShift = findShift(row, 255);
+      if (rowShift < 0) {
+        return null;
+      }
+      double rowBound = 0;
+      for (double w : row) {
+        rowBound += Math.abs(w) * 255 * (1 << rowShift);
+      }
+      int columnShift = findShift(column, rowBound);
+      if (columnShift < 0) {
+        return null;
+      }
+      return new Separable(toFixed(row, rowShift), toFixed(column, columnShift),
+              rowShift + columnShift);
+    }
+
+    @Override
+    void apply(int[] src, int[] dst, int height, int width, RowExecutor executor) {
+      int r = this.radius;
+      executor.forEachRow(height, width, (start, end) -> {
+        int lo = Math.max(0, start - r);
+        int hi = Math.min(height, end + r);
+        int[] red = new int[(hi - lo) * width];
+        int[] green = new int[red.length];
+        int[] blue = new int[red.length];
+        for (int i = lo; i < hi; i++) {
+          this.horizontal(src, i * width, (i - lo) * width, width, red, green, blue);
+        }
+        for (int i = start; i < end; i++) {
+          this.vertical(dst, i, lo, height, width, red, green, blue);
+        }
+      });
+    }
+
+    /**
+     * Helper method to run the horizontal pass over one row.
+     *
+     * @param src    the packed source pixels.
+     * @param in     the index of the first pixel of the row in the source.
+     * @param out    the index of the first pixel of the row in the scratch arrays.
+     * @param width  the width of the image.
+     * @param red    the scratch array for the red sums.
+     * @param green  the scratch array for the green sums.
+     * @param blue   the scratch array for the blue sums.
+     */
+    private void horizontal(int[] src, int in, int out, int width,
+                            int[] red, int[] green, int[] blue) {
+      int r = this.radius;
+      int left = Math.min(r, width);
+      int right = Math.max(left, width - r);
+      for (int j = left; j < right; j++) {
+        int sumR = 0;
+        int sumG = 0;
+        int sumB = 0;
+        int base = in + j - r;
+        for (int b = 0; b < this.row.length; b++) {
+          int rgb = src[base + b];
+          int w = this.row[b];
+          sumR += w * ((rgb >> 16) & 0xff);
+          sumG += w * ((rgb >> 8) & 0xff);
+          sumB += w * (rgb & 0xff);
+        }
+        red[out + j] = sumR;
+        green[out + j] = sumG;
+        blue[out + j] = sumB;
+      }
+      for (int j = 0; j < left; j++) {
+        this.horizontalEdge(src, in, out, j, width, red, green, blue);
+      }
+      for (int j = right; j < width; j++) {
+        this.horizontalEdge(src, in, out, j, width, red, green, blue);
+      }
+    }
+
+    /**
+     * Helper method to run the horizontal pass for one pixel near
+     * the left or right border, skipping the columns outside the image.
+     *
+     * @param src    the packed source pixels.
+     * @param in     the index of the first pixel of the row in the source.
+     * @param out    the index of the first pixel of the row in the scratch arrays.
+     * @param j      the column of the pixel.
+     * @param width  the width of the image.
+     * @param red    the scratch array for the red sums.
+     * @param green  the scratch array for the green sums.
+     * @param blue   the scratch array for the blue sums.
+     */
+    private void horizontalEdge(int[] src, int in, int out, int j, int width,
+                                int[] red, int[] green, int[] blue) {
+      int r = this.radius;
+      int sumR = 0;
+      int sumG = 0;
+      int sumB = 0;
+      for (int y = Math.max(0, j - r); y <= Math.min(width - 1, j + r); y++) {
+        int rgb = src[in + y];
+        int w = this.row[y - j + r];
+        sumR += w * ((rgb >> 16) & 0xff);
+        sumG += w * ((rgb >> 8) & 0xff);
+        sumB += w * (rgb & 0xff);
+      }
+      red[out + j] = sumR;
+      green[out + j] = sumG;
+      blue[out + j] = sumB;
+    }
+
+    /**
+     * Helper method to run the vertical pass for one output row.
+     *
+     * @param dst    the packed destination pixels.
+     * @param i      the output row.
+     * @param lo     the first image row held by the scratch arrays.
+     * @param height the height of the image.
+     * @param width  the width of the image.
+     * @param red    the scratch array for the red sums.
+     * @param green  the scratch array for the green sums.
+     * @param blue   the scratch array for the blue sums.
+     */
+    private void vertical(int[] dst, int i, int lo, int height, int width,
+                          int[] red, int[] green, int[] blue) {
+      int r = this.radius;
+      int first = Math.max(0, i - r);
+      int last = Math.min(height - 1, i + r);
+      int out = i * width;
+      if (first == i - r && last == i + r) {
+        int base = (i - r - lo) * width;
+        for (int j = 0; j < width; j++) {
+          int sumR = 0;
+          int sumG = 0;
+          int sumB = 0;
+          int index = base + j;
+          for (int a = 0; a < this.column.length; a++) {
+            int w = this.column[a];
+            sumR += w * red[index];
+            sumG += w * green[index];
+            sumB += w * blue[index];
+            index += width;
+          }
+          dst[out + j] = toPixel(sumR, sumG, sumB, this.shift);
+        }
+        return;
+      }
+      for (int j = 0; j < width; j++) {
+        int sumR = 0;
+        int sumG = 0;
+        int sumB = 0;
+        for (int x = first; x <= last; x++) {
+          int w = this.column[x - i + r];
+          int index = (x - lo) * width + j;
+          sumR += w * red[index];
+          sumG += w * green[index];
+          sumB += w * blue[index];
+        }
+        dst[out + j] = toPixel(sumR, sumG, sumB, this.shift);
+      }
+    }
+  }
+
+  /**
+   * A kernel whose weights are constant on each square ring around
+   * the centre. Such a kernel is a weighted sum of centred box
+   * filters of size 1, 3, 5 and so on, and every box sum is read in
+   * constant time from an integral image. Every band of rows builds
+   * the integral image of its own rows and the rows around it.
+   * The integral image may wrap around in int arithmetic on large
+   * images, but every box sum is small enough that the differences
+   * are still exact.
+   */
+  private static class Box extends Convolution {
+    private final int[] weights;
+    private final int shift;
+
+    /**
+     * Constructs a Box convolution from fixed-point box weights.
+     *
+     * @param weights the fixed-point weight of the box of each radius.
+     * @param shift   the number of fractional bits.
+     */
+    private Box(int[] weights, int shift) {
+      super(weights.length - 1);
+      this.weights = weights;
+      this.shift = shift;
+    }
+
+    /**
+     * Tries to express the kernel as a weighted sum of box filters.
+     *
+     * @param kernel the kernel to be expressed.
+     * @return the compiled convolution, or null if the kernel is not
+     *         constant on its rings or not representable in fixed point.
+     */
+    static Box tryCompile(double[][] kernel) {
+      int r = kernel.length / 2;
+      double[] ring = new double[r + 1];
+      for (int q = 0; q <= r; q++) {
+        ring[q] = kernel[r - q][r - q];
+      }
+      for (int i = 0; i < kernel.length; i++) {
+        for (int j = 0; j < kernel.length; j++) {
+          int q = Math.max(Math.abs(i - r), Math.abs(j - r));
+          if (kernel[i][j] != ring[q]) {
+            return null;
+          }
+        }
+      }
+      double[] weights = new double[r + 1];
+      for (int q = 0; q < r; q++) {
+        weights[q] = ring[q] - ring[q + 1];
+      }
+      weights[r] = ring[r];
+      double bound = 0;
+      for (int q = 0; q <= r; q++) {
+        bound = Math.max(bound, 255.0 * (2 * q + 1) * (2 * q + 1));
+      }
+      int shift = findShift(weights, bound);
+      if (shift < 0) {
+        return null;
+      }
+      return new Box(toFixed(weights, shift), shift);
+    }
+
+    @Override
+    void apply(int[] src, int[] dst, int height, int width, RowExecutor executor) {
+      int r = this.radius;
+      int stride = width + 1;
+      executor.forEachRow(height, width, (start, end) -> {
+        int lo = Math.max(0, start - r);
+        int hi = Math.min(height, end + r);
+        int[] red = new int[(hi - lo + 1) * stride];
+        int[] green = new int[red.length];
+        int[] blue = new int[red.length];
+        for (int i = lo; i < hi; i++) {
+          int rowR = 0;
+          int rowG = 0;
+          int rowB = 0;
+          int above = (i - lo) * stride;
+          int here = above + stride;
+          for (int j = 0; j < width; j++) {
+            int rgb = src[i * width + j];
+            rowR += (rgb >> 16) & 0xff;
+            rowG += (rgb >> 8) & 0xff;
+            rowB += rgb & 0xff;
+            red[here + j + 1] = red[above + j + 1] + rowR;
+            green[here + j + 1] = green[above + j + 1] + rowG;
+            blue[here + j + 1] = blue[above + j + 1] + rowB;
+          }
+        }
+        int[] top = new int[r + 1];
+        int[] bottom = new int[r + 1];
+        int left = Math.min(r, width);
+        int right = Math.max(left, width - r);
+        for (int i = start; i < end; i++) {
+          for (int q = 0; q <= r; q++) {
+            top[q] = (Math.max(0, i - q) - lo) * stride;
+            bottom[q] = (Math.min(height - 1, i + q) + 1 - lo) * stride;
+          }
+          int out = i * width;
+          for (int j = left; j < right; j++) {
+            int sumR = 0;
+            int sumG = 0;
+            int sumB = 0;
+            for (int q = 0; q <= r; q++) {
+              int a = top[q] + j - q;
+              int b = top[q] + j + q + 1;
+              int c = bottom[q] + j - q;
+              int d = bottom[q] + j + q + 1;
+              int w = this.weights[q];
+              sumR += w * (red[d] - red[b] - red[c] + red[a]);
+              sumG += w * (green[d] - green[b] - green[c] + green[a]);
+              sumB += w * (blue[d] - blue[b] - blue[c] + blue[a]);
+            }
+            dst[out + j] = toPixel(sumR, sumG, sumB, this.shift);
+          }
+          for (int j = 0; j < left; j++) {
+            dst[out + j] = this.edge(j, width, top, bottom, red, green, blue);
+          }
+          for (int j = right; j < width; j++) {
+            dst[out + j] = this.edge(j, width, top, bottom, red, green, blue);
+          }
+        }
+      });
+    }
+
+    /**
+     * Helper method to compute one pixel near the left or right
+     * border, clipping every box to the columns inside the image.
+     *
+     * @param j      the column of the pixel.
+     * @param width  the width of the image.
+     * @param top    the offset of the row above each box in the integral image.
+     * @param bottom the offset of the last row of each box in the integral image.
+     * @param red    the integral image of the red channel.
+     * @param green  the integral image of the green channel.
+     * @param blue   the integral image of the blue channel.
+     * @return the packed pixel.
+     */
+    private int edge(int j, int width, int[] top, int[] bottom,
+                     int[] red, int[] green, int[] blue) {
+      int sumR = 0;
+      int sumG = 0;
+      int sumB = 0;
+      for (int q = 0; q <= this.radius; q++) {
+        int x0 = Math.max(0, j - q);
+        int x1 = Math.min(width - 1, j + q) + 1;
+        int w = this.weights[q];
+        sumR += w * (red[bottom[q] + x1] - red[top[q] + x1]
+                - red[bottom[q] + x0] + red[top[q] + x0]);
+        sumG += w * (green[bottom[q] + x1] - green[top[q] + x1]
+                - green[bottom[q] + x0] + green[top[q] + x0]);
+        sumB += w * (blue[bottom[q] + x1] - blue[top[q] + x1]
+                - blue[bottom[q] + x0] + blue[top[q] + x0]);
+      }
+      return toPixel(sumR, sumG, sumB, this.shift);
+    }
+  }
+
+  /**
+   * A kernel with no special structure, applied directly with
+   * fixed-point weights.
+   */
+  private static class Direct extends Convolution {
+    private final int[] weights;
+    private final int size;
+    private final int shift;
+
+    /**
+     * Constructs a Direct convolution from fixed-point weights.
+     *
+     * @param weights the fixed-point weights in row-major order.
+     * @param size    the size of the kernel.
+     * @param shift   the number of fractional bits.
+     */
+    private Direct(int[] weights, int size, int shift) {
+      super(size / 2);
+      this.weights = weights;
+      this.size = size;
+      this.shift = shift;
+    }
+
+    /**
+     * Tries to represent the kernel in fixed point.
+     *
+     * @param kernel the kernel to be represented.
+     * @return the compiled convolution, or null if the kernel is not
+     *         representable in fixed point.
+     */
+    static Direct tryCompile(double[][] kernel) {
+      int size = kernel.length;
+      double[] flat = new double[size * size];
+      for (int i = 0; i < size; i++) {
+        System.arraycopy(kernel[i], 0, flat, i * size, size);
+      }
+      int shift = findShift(flat, 255);
+      if (shift < 0) {
+        return null;
+      }
+      return new Direct(toFixed(flat, shift), size, shift);
+    }
+
+    @Override
+    void apply(int[] src, int[] dst, int height, int width, RowExecutor executor) {
+      int r = this.radius;
+      int left = Math.min(r, width);
+      int right = Math.max(left, width - r);
+      executor.forEachRow(height, width, (start, end) -> {
+        for (int i = start; i < end; i++) {
+          if (i - r < 0 || i + r >= height) {
+            for (int j = 0; j < width; j++) {
+              dst[i * width + j] = this.edge(src, i, j, height, width);
+            }
+            continue;
+          }
+          for (int j = left; j < right; j++) {
+            int sumR = 0;
+            int sumG = 0;
+            int sumB = 0;
+            int k = 0;
+            for (int a = 0; a < this.size; a++) {
+              int base = (i - r + a) * width + j - r;
+              for (int b = 0; b < this.size; b++) {
+                int rgb = src[base + b];
+                int w = this.weights[k++];
+                sumR += w * ((rgb >> 16) & 0xff);
+                sumG += w * ((rgb >> 8) & 0xff);
+                sumB += w * (rgb & 0xff);
+              }
+            }
+            dst[i * width + j] = toPixel(sumR, sumG, sumB, this.shift);
+          }
+          for (int j = 0; j < left; j++) {
+            dst[i * width + j] = this.edge(src, i, j, height, width);
+          }
+          for (int j = right; j < width; j++) {
+            dst[i * width + j] = this.edge(src, i, j, height, width);
+          }
+        }
+      });
+    }
+
+    /**
+     * Helper method to compute one pixel near the border, skipping
+     * the neighbours outside the image.
+     *
+     * @param src    the packed source pixels.
+     * @param i      the row of the pixel.
+     * @param j      the column of the pixel.
+     * @param height the height of the image.
+     * @param width  the width of the image.
+     * @return the packed pixel.
+     */
+    private int edge(int[] src, int i, int j, int height, int width) {
+      int r = this.radius;
+      int sumR = 0;
+      int sumG = 0;
+      int sumB = 0;
+      for (int x = Math.max(0, i - r); x <= Math.min(height - 1, i + r); x++) {
+        for (int y = Math.max(0, j - r); y <= Math.min(width - 1, j + r); y++) {
+          int rgb = src[x * width + y];
+          int w = this.weights[(x - i + r) * this.size + y - j + r];
+          sumR += w * ((rgb >> 16) & 0xff);
+          sumG += w * ((rgb >> 8) & 0xff);
+          sumB += w * (rgb & 0xff);
+        }
+      }
+      return toPixel(sumR, sumG, sumB, this.shift);
+    }
+  }
+
+  /**
+   * A kernel whose weights cannot be represented exactly in fixed
+   * point, applied with floating-point sums so that the result does
+   * not change.
+   */
+  private static class Floating extends Convolution {
+    private final double[][] kernel;
+
+    /**
+     * Constructs a Floating convolution.
+     *
+     * @param kernel the kernel to be applied.
+     */
+    private Floating(double[][] kernel) {
+      super(kernel.length / 2);
+      this.kernel = kernel;
+    }
+
+    @Override
+    void apply(int[] src, int[] dst, int height, int width, RowExecutor executor) {
+      int r = this.radius;
+      executor.forEachRow(height, width, (start, end) -> {
+        for (int i = start; i < end; i++) {
+          for (int j = 0; j < width; j++) {
+            double red = 0;
+            double green = 0;
+            double blue = 0;
+            for (int a = -r; a <= r; a++) {
+              for (int b = -r; b <= r; b++) {
+                int x = i + a;
+                int y = j + b;
+                if (x >= 0 && y >= 0 && y < width && x < height) {
+                  double weight = this.kernel[a + r][b + r];
+                  int rgb = src[x * width + y];
+                  red += weight * ((rgb >> 16) & 0xff);
+                  green += weight * ((rgb >> 8) & 0xff);
+                  blue += weight * (rgb & 0xff);
+                }
+              }
+            }
+            dst[i * width + j] = ImageModel.pack((int) red, (int) green, (int) blue);
+          }
+        }
+      });
+    }
+  }
+}
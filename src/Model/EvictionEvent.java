@@ -0,0 +1,44 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This class is the flight recorder event of one image dropped by a
+ * {@link BoundedImageStore} to get back under its budget. It lasts
+ * while the image is written to a scratch file, if it has to be.
+ */
+@Name("imagelab.ImageEviction")
+@Label("Image Eviction")
+@Category({"ImageLab", "Model"})
+@Description("An image dropped from memory by the image store")
+@StackTrace(false)
+class EvictionEvent extends Event {
+
+  @Label("Image")
+  String image;
+
+  @Label("Bytes")
+  @DataAmount
+  @Description("The bytes of memory freed")
+  long bytes;
+
+  @Label("Spilled")
+  @Description("Whether the image is read back from a scratch file instead of computed again")
+  boolean spilled;
+
+  @Label("Resident Bytes")
+  @DataAmount
+  @Description("The bytes held in memory by the store afterwards")
+  long residentBytes;
+
+  @Label("Budget")
+  @DataAmount
+  @Description("The budget in bytes of the store")
+  long budget;
+}
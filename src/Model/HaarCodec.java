@@ -0,0 +1,517 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * This class encodes and decodes images in the HAAR format, which
+ * stores the Haar Wavelet coefficients of an image sparsely.
+ * The image is covered by square blocks whose size is a power of two,
+ * either a single block padded around the whole image or tiles.
+ * The coefficients of the red, green and blue planes of every block
+ * are quantized to a fixed number of fractional bits, and only the
+ * non-zero ones are stored, as a varint count of the zeros before
+ * each value followed by the zig-zag varint value.
+ * Rebuilding an image from quantized coefficients may put a channel
+ * value one step away from the original, so the few differences are
+ * stored after the coefficients in the same sparse way, which makes
+ * decoding give back exactly the encoded pixels.
+ * Everything after the header is compressed with Deflate.
+ * The coefficients and differences are streamed through the
+ * compressor as they are produced or consumed, one plane at a time,
+ * so neither encoding nor decoding holds more than one plane of
+ * coefficients besides the pixels themselves.
+ * The layout of a file is:
+ * "HAAR", a version byte, the height, width and block size as
+ * big-endian ints, the number of fractional bits as a byte, then the
+ * compressed coefficients of every block in row-major order followed
+ * by the compressed differences.
+ */
+final class HaarCodec {
+
+  /**
+   * The number of fractional bits kept for every coefficient.
+   */
+  static final int QUANT_BITS = 10;
+
+  private static final byte[] MAGIC = {'H', 'A', 'A', 'R'};
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 18;
+  private static final int DEFAULT_BLOCK = 64;
+  private static final int MAX_BLOCK = 4096;
+  private static final double SCALE = 1 << QUANT_BITS;
+  private static final int BUFFER_SIZE = 8192;
+
+  /**
+   * This class only contains static methods.
+   */
+  private HaarCodec() {
+  }
+
+  /**
+   * Quantizes the coefficients of the planes of one block and codes
+   * the non-zero ones. Every coefficient is replaced by its quantized
+   * value, so the inverse transform of the array gives the image the
+   * decoder will rebuild.
+   *
+   * @param data      the array holding the planes of the block.
+   * @param offset    the index of the first value of the first plane.
+   * @param planes    the number of planes.
+   * @param planeSize the number of values in each plane.
+   * @return the coded coefficients of the block.
+   */
+  static byte[] quantize(double[] data, int offset, int planes, int planeSize) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int p = 0; p < planes; p++) {
+      int start = offset + p * planeSize;
+      for (int i = 0; i < planeSize; i++) {
+        data[start + i] = Math.round(data[start + i] * SCALE) / SCALE;
+      }
+      try {
+        writeSparse(out, i -> Math.round(data[start + i] * SCALE), planeSize);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Writes the pixels of one block back into a packed image,
+   * truncating and clamping every channel value. Only the part of
+   * the block that lies inside the image is written.
+   *
+   * @param data     the red, green and blue planes of the block.
+   * @param size     the size of the block.
+   * @param top      the row of the image at the top of the block.
+   * @param left     the column of the image at the left of the block.
+   * @param height   the height of the image.
+   * @param width    the width of the image.
+   * @param pixels   the packed pixels of the image.
+   * @param executor the executor used to process the rows.
+   */
+  static void writeBlock(double[] data, int size, int top, int left, int height, int width,
+                         int[] pixels, RowExecutor executor) {
+    int planeSize = size * size;
+    int rows = Math.min(size, height - top);
+    int columns = Math.min(size, width - left);
+    executor.forEachRow(rows, columns, (start, end) -> {
+      for (int i = start; i < end; i++) {
+        for (int j = 0; j < columns; j++) {
+          int index = i * size + j;
+          pixels[(top + i) * width + left + j] = ImageModel.pack((int) data[index],
+                  (int) data[planeSize + index], (int) data[2 * planeSize + index]);
+        }
+      }
+    });
+  }
+
+  /**
+   * Encodes an image from the coded coefficients of its blocks.
+   *
+   * @param height    the height of the image.
+   * @param width     the width of the image.
+   * @param blockSize the size of each block.
+   * @param blocks    the coded coefficients of every block in row-major order.
+   * @param rebuilt   the pixels rebuilt from the quantized coefficients.
+   * @param pixels    the pixels of the image.
+   * @return the encoded image.
+   */
+  static byte[] encode(int height, int width, int blockSize, byte[][] blocks,
+                       int[] rebuilt, int[] pixels) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Deflater deflater = new Deflater();
+    try {
+      DataOutputStream header = new DataOutputStream(out);
+      header.write(MAGIC);
+      header.writeByte(VERSION);
+      header.writeInt(height);
+      header.writeInt(width);
+      header.writeInt(blockSize);
+      header.writeByte(QUANT_BITS);
+      header.flush();
+      DeflaterOutputStream deflated = new DeflaterOutputStream(out, deflater, BUFFER_SIZE);
+      OutputStream payload = new BufferedOutputStream(deflated, BUFFER_SIZE);
+      for (byte[] block : blocks) {
+        payload.write(block);
+      }
+      writeSparse(payload, index -> {
+        int shift = 16 - 8 * (index % 3);
+        int i = index / 3;
+        return ((pixels[i] >> shift) & 0xff) - ((rebuilt[i] >> shift) & 0xff);
+      }, 3 * pixels.length);
+      payload.flush();
+      deflated.finish();
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    } finally {
+      deflater.end();
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Encodes an image without removing any coefficient. The image is
+   * split into tiles so that only the scratch space of one tile is
+   * needed at a time by each band of tiles.
+   *
+   * @param image    the image to be encoded.
+   * @param executor the executor used to process the tiles.
+   * @return the encoded image.
+   */
+  static byte[] encode(ImageModel image, RowExecutor executor) {
+    int height = image.getHeight();
+    int width = image.getWidth();
+    int blockSize = 1;
+    while (blockSize < DEFAULT_BLOCK && blockSize < Math.max(height, width)) {
+      blockSize = blockSize * 2;
+    }
+    int size = blockSize;
+    int planeSize = size * size;
+    int across = (width + size - 1) / size;
+    int tiles = ((height + size - 1) / size) * across;
+    int[] pixels = image.getPixels();
+    int[] rebuilt = new int[pixels.length];
+    byte[][] blocks = new byte[tiles][];
+    executor.forEachRow(tiles, planeSize, (start, end) -> {
+      double[] data = new double[3 * planeSize];
+      for (int t = start; t < end; t++) {
+        int top = (t / across) * size;
+        int left = (t % across) * size;
+        readBlock(pixels, size, top, left, height, width, data);
+        HaarTransform.forward(data, 3, size, RowExecutor.SERIAL);
+        blocks[t] = quantize(data, 0, 3, planeSize);
+        HaarTransform.inverse(data, 3, size, RowExecutor.SERIAL);
+        writeBlock(data, size, top, left, height, width, rebuilt, RowExecutor.SERIAL);
+      }
+    });
+    return encode(height, width, size, blocks, rebuilt, pixels);
+  }
+
+  /**
+   * Helper method to read the pixels of one block of an image into
+   * its red, green and blue planes. The part of the block outside
+   * the image is set to zero.
+   *
+   * @param pixels the packed pixels of the image.
+   * @param size   the size of the block.
+   * @param top    the row of the image at the top of the block.
+   * @param left   the column of the image at the left of the block.
+   * @param height the height of the image.
+   * @param width  the width of the image.
+   * @param data   the array receiving the planes of the block.
+   */
+  private static void readBlock(int[] pixels, int size, int top, int left, int height,
+                                int width, double[] data) {
+    int planeSize = size * size;
+    Arrays.fill(data, 0.0);
+    int rows = Math.min(size, height - top);
+    int columns = Math.min(size, width - left);
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        int rgb = pixels[(top + i) * width + left + j];
+        int index = i * size + j;
+        data[index] = (rgb >> 16) & 0xff;
+        data[planeSize + index] = (rgb >> 8) & 0xff;
+        data[2 * planeSize + index] = rgb & 0xff;
+      }
+    }
+  }
+
+  /**
+   * Reads the height and width of an encoded image, checking that
+   * its header is valid.
+   *
+   * @param encoded the encoded image.
+   * @return the height and width of the image.
+   * @throws IllegalArgumentException if the header is not valid.
+   */
+  static int[] readSize(byte[] encoded) throws IllegalArgumentException {
+    if (encoded == null || encoded.length < HEADER_SIZE) {
+      throw new IllegalArgumentException("Invalid HAAR file: header is missing.");
+    }
+    ByteBuffer header = ByteBuffer.wrap(encoded);
+    for (byte b : MAGIC) {
+      if (header.get() != b) {
+        throw new IllegalArgumentException("Invalid HAAR file: it should begin with HAAR.");
+      }
+    }
+    if (header.get() != VERSION) {
+      throw new IllegalArgumentException("Unsupported HAAR file version.");
+    }
+    int height = header.getInt();
+    int width = header.getInt();
+    int blockSize = header.getInt();
+    int quantBits = header.get();
+    if (height <= 0 || width <= 0 || (long) height * width > Integer.MAX_VALUE / 3
+            || blockSize < 1 || Integer.bitCount(blockSize) != 1
+            || (long) blockSize * blockSize > Integer.MAX_VALUE / 3
+            || (blockSize > MAX_BLOCK && blockSize / 2 >= Math.max(height, width))
+            || quantBits != QUANT_BITS) {
+      throw new IllegalArgumentException("Invalid HAAR file: header is corrupted.");
+    }
+    return new int[]{height, width, blockSize};
+  }
+
+  /**
+   * Decodes an encoded image into its packed pixels. The blocks are
+   * rebuilt one plane at a time, and the differences are added to the
+   * pixels as they are read.
+   *
+   * @param encoded  the encoded image.
+   * @param executor the executor used to rebuild the blocks.
+   * @return the packed pixels of the image in row-major order.
+   * @throws IllegalArgumentException if the encoded image is not valid.
+   */
+  static int[] decode(byte[] encoded, RowExecutor executor) throws IllegalArgumentException {
+    int[] size = readSize(encoded);
+    int height = size[0];
+    int width = size[1];
+    int blockSize = size[2];
+    int planeSize = blockSize * blockSize;
+    int across = (width + blockSize - 1) / blockSize;
+    int tiles = ((height + blockSize - 1) / blockSize) * across;
+    int[] pixels = new int[height * width];
+    double[] plane = new double[planeSize];
+    Inflater inflater = new Inflater();
+    try {
+      Reader reader = new Reader(new BufferedInputStream(new InflaterInputStream(
+              new ByteArrayInputStream(encoded, HEADER_SIZE, encoded.length - HEADER_SIZE),
+              inflater, BUFFER_SIZE), BUFFER_SIZE));
+      for (int t = 0; t < tiles; t++) {
+        int top = (t / across) * blockSize;
+        int left = (t % across) * blockSize;
+        for (int p = 0; p < 3; p++) {
+          Arrays.fill(plane, 0.0);
+          reader.readSparse(planeSize, (i, value) -> plane[i] = value / SCALE);
+          HaarTransform.inverse(plane, 1, blockSize, executor);
+          writeChannel(plane, p, blockSize, top, left, height, width, pixels, executor);
+        }
+      }
+      reader.readSparse(3 * pixels.length, (index, value) -> {
+        int shift = 16 - 8 * (index % 3);
+        int i = index / 3;
+        int channel = ((pixels[i] >> shift) & 0xff) + (int) value;
+        pixels[i] = (pixels[i] & ~(0xff << shift))
+                | Math.max(0, Math.min(255, channel)) << shift;
+      });
+      if (!reader.isDone()) {
+        throw new IllegalArgumentException("Invalid HAAR file: unexpected data at the end.");
+      }
+    } finally {
+      inflater.end();
+    }
+    return pixels;
+  }
+
+  /**
+   * Helper method to write one plane of a block into a channel of a
+   * packed image, truncating and clamping every value the same way as
+   * writeBlock. Only the part of the block that lies inside the image
+   * is written.
+   *
+   * @param plane    the plane of the block.
+   * @param channel  the channel of the plane, 0 for red, 1 for green and
+   *                 2 for blue.
+   * @param size     the size of the block.
+   * @param top      the row of the image at the top of the block.
+   * @param left     the column of the image at the left of the block.
+   * @param height   the height of the image.
+   * @param width    the width of the image.
+   * @param pixels   the packed pixels of the image.
+   * @param executor the executor used to process the rows.
+   */
+  private static void writeChannel(double[] plane, int channel, int size, int top, int left,
+                                   int height, int width, int[] pixels, RowExecutor executor) {
+    int shift = 16 - 8 * channel;
+    int mask = ~(0xff << shift);
+    int rows = Math.min(size, height - top);
+    int columns = Math.min(size, width - left);
+    executor.forEachRow(rows, columns, (start, end) -> {
+      for (int i = start; i < end; i++) {
+        for (int j = 0; j < columns; j++) {
+          int index = (top + i) * width + left + j;
+          int value = Math.max(0, Math.min(255, (int) plane[i * size + j]));
+          pixels[index] = (pixels[index] & mask) | value << shift;
+        }
+      }
+    });
+  }
+
+  /**
+   * Helper method to write the non-zero values of a sequence as the
+   * number of non-zero values followed by the number of zeros before
+   * each of them and the value itself. The values are obtained twice,
+   * once to count them and once to write them, so they are never
+   * gathered in an array.
+   *
+   * @param out    the stream the values are written to.
+   * @param values the values to be written.
+   * @param length the number of values.
+   * @throws IOException if the stream cannot be written.
+   */
+  private static void writeSparse(OutputStream out, Values values, int length)
+          throws IOException {
+    int count = 0;
+    for (int i = 0; i < length; i++) {
+      if (values.get(i) != 0) {
+        count++;
+      }
+    }
+    writeVarint(out, count);
+    int zeros = 0;
+    for (int i = 0; i < length; i++) {
+      long value = values.get(i);
+      if (value == 0) {
+        zeros++;
+      } else {
+        writeVarint(out, zeros);
+        writeVarint(out, (value << 1) ^ (value >> 63));
+        zeros = 0;
+      }
+    }
+  }
+
+  /**
+   * Helper method to write an unsigned value seven bits at a time,
+   * lowest bits first, setting the top bit of every byte but the last.
+   *
+   * @param out   the stream the value is written to.
+   * @param value the value to be written.
+   * @throws IOException if the stream cannot be written.
+   */
+  private static void writeVarint(OutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  /**
+   * A sequence of values written by writeSparse.
+   */
+  private interface Values {
+
+    /**
+     * Method to obtain a value of the sequence.
+     *
+     * @param index the index of the value.
+     * @return the value.
+     */
+    long get(int index);
+  }
+
+  /**
+   * The receiver of the non-zero values read by readSparse.
+   */
+  private interface ValueSink {
+
+    /**
+     * Receives a non-zero value.
+     *
+     * @param index the index of the value.
+     * @param value the value.
+     */
+    void accept(int index, long value);
+  }
+
+  /**
+   * This class reads the values written by writeSparse from the
+   * decompressed part of an encoded image as it is inflated.
+   */
+  private static class Reader {
+    private final InputStream in;
+
+    /**
+     * Constructs a Reader over the decompressed data.
+     *
+     * @param in the stream of the decompressed coefficients and differences.
+     */
+    Reader(InputStream in) {
+      this.in = in;
+    }
+
+    /**
+     * Reads values written by writeSparse, handing every non-zero value
+     * to the sink. The values which are not handed over are zero.
+     *
+     * @param length the number of values.
+     * @param sink   the receiver of the non-zero values.
+     * @throws IllegalArgumentException if the data is not valid.
+     */
+    void readSparse(int length, ValueSink sink) throws IllegalArgumentException {
+      long count = this.readVarint();
+      int index = 0;
+      for (long n = 0; n < count; n++) {
+        long zeros = this.readVarint();
+        if (zeros >= length - index) {
+          throw new IllegalArgumentException("Invalid HAAR file: data is corrupted.");
+        }
+        index += (int) zeros;
+        long value = this.readVarint();
+        sink.accept(index++, (value >>> 1) ^ -(value & 1));
+      }
+    }
+
+    /**
+     * Reads a value written by writeVarint.
+     *
+     * @return the value.
+     * @throws IllegalArgumentException if the data ends or the value is too long.
+     */
+    private long readVarint() throws IllegalArgumentException {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        int b = this.read();
+        if (b < 0) {
+          throw new IllegalArgumentException("Invalid HAAR file: data is truncated.");
+        }
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("Invalid HAAR file: data is corrupted.");
+    }
+
+    /**
+     * Method to check whether every value has been read.
+     *
+     * @return true if there is no data left, else false.
+     * @throws IllegalArgumentException if the data is not valid.
+     */
+    boolean isDone() throws IllegalArgumentException {
+      return this.read() < 0;
+    }
+
+    /**
+     * Helper method to read the next decompressed byte.
+     *
+     * @return the byte, or -1 at the end of the data.
+     * @throws IllegalArgumentException if the data is truncated or corrupted.
+     */
+    private int read() throws IllegalArgumentException {
+      try {
+        return this.in.read();
+      } catch (EOFException e) {
+        throw new IllegalArgumentException("Invalid HAAR file: data is truncated.");
+      } catch (IOException e) {
+        throw new IllegalArgumentException("Invalid HAAR file: data is corrupted.");
+      }
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package model;
+
+import java.lang.ref.SoftReference;
+
+/**
+ * This class represents an image which is kept in memory in the
+ * compressed HAAR format instead of as packed pixels. The pixels are
+ * decoded on demand the first time they are needed and kept in a
+ * soft reference, so the garbage collector can drop them again when
+ * memory runs low and only the compressed bytes stay resident.
+ * Decoding gives back exactly the pixels that were encoded, so the
+ * image behaves the same as an uncompressed ImageModel.
+ */
+class HaarImageModel extends ImageModel {
+  private final byte[] encoded;
+  private volatile SoftReference<int[]> decoded;
+
+  /**
+   * Constructs a HaarImageModel from an image encoded in the HAAR
+   * format. The pixels are decoded when they are first needed.
+   *
+   * @param encoded the encoded image.
+   * @throws IllegalArgumentException if the header of the encoded image is not valid.
+   */
+  HaarImageModel(byte[] encoded) throws IllegalArgumentException {
+    this(HaarCodec.readSize(encoded), encoded, null);
+  }
+
+  /**
+   * Constructs a HaarImageModel from an image encoded in the HAAR
+   * format together with its already decoded pixels, which are kept
+   * until memory runs low.
+   *
+   * @param encoded the encoded image.
+   * @param pixels  the packed pixels the encoded image decodes to.
+   * @throws IllegalArgumentException if the header of the encoded image is not valid.
+   */
+  HaarImageModel(byte[] encoded, int[] pixels) throws IllegalArgumentException {
+    this(HaarCodec.readSize(encoded), encoded, pixels);
+  }
+
+  /**
+   * Helper constructor taking the size read from the header.
+   *
+   * @param size    the height and width of the image.
+   * @param encoded the encoded image.
+   * @param pixels  the decoded pixels, or null if they are not known yet.
+   */
+  private HaarImageModel(int[] size, byte[] encoded, int[] pixels) {
+    super(size[0], size[1], (int[]) null);
+    this.encoded = encoded;
+    this.decoded = pixels == null ? null : new SoftReference<>(pixels);
+  }
+
+  /**
+   * Method to obtain the image in the HAAR format. The array is
+   * shared and not copied, so it must only be read.
+   *
+   * @return the encoded image.
+   */
+  byte[] getEncoded() {
+    return this.encoded;
+  }
+
+  /**
+   * Method to obtain the number of bytes of memory the image holds
+   * on to, which is the size of the encoded image.
+   *
+   * @return the number of bytes held by the image.
+   */
+  @Override
+  long getResidentBytes() {
+    return this.encoded.length;
+  }
+
+  /**
+   * Method to obtain the packed pixel array of the image, decoding
+   * it if it is not held in memory.
+   * The array is shared and not copied, so it must only be read.
+   *
+   * @return the packed pixel values in row-major order.
+   */
+  @Override
+  protected int[] getPixels() {
+    SoftReference<int[]> reference = this.decoded;
+    int[] pixels = reference == null ? null : reference.get();
+    if (pixels == null) {
+      pixels = HaarCodec.decode(this.encoded, RowExecutor.getDefault());
+      this.decoded = new SoftReference<>(pixels);
+    }
+    return pixels;
+  }
+}
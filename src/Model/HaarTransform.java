@@ -0,0 +1,201 @@
+package model;
+
+/**
+ * This class applies the Haar Wavelet Transform and its inverse in
+ * place to a stack of square planes of doubles, such as the three
+ * color channels of an image padded to a power of two.
+ * The planes are stored one after the other in a single array in
+ * row-major order, so every row of every plane can be transformed
+ * independently and the rows of all the planes are processed in
+ * parallel by a {@link RowExecutor}.
+ * The column pass works on strips of adjacent columns, reading and
+ * writing whole runs of each row instead of striding down a single
+ * column, which keeps its memory accesses sequential.
+ * The arithmetic is the same as transforming one row or column at a
+ * time, so the result does not depend on how the work is split.
+ */
+final class HaarTransform {
+
+  private static final double ROOT_TWO = Math.sqrt(2.0);
+  private static final int STRIP = 16;
+
+  /**
+   * This class only contains static methods.
+   */
+  private HaarTransform() {
+  }
+
+  /**
+   * Applies the Haar Wavelet Transform to every plane, transforming
+   * the rows and then the columns at every level, with the number of
+   * values transformed halved after each level.
+   *
+   * @param data     the planes stored one after the other.
+   * @param planes   the number of planes.
+   * @param size     the size of each plane, which is a power of two.
+   * @param executor the executor used to process the rows.
+   */
+  static void forward(double[] data, int planes, int size, RowExecutor executor) {
+    int c = size;
+    while (c > 1) {
+      transformRows(data, planes, size, c, executor);
+      transformColumns(data, planes, size, c, executor);
+      c = c / 2;
+    }
+  }
+
+  /**
+   * Applies the inverse Haar Wavelet Transform to every plane,
+   * transforming the columns and then the rows at every level, with
+   * the number of values transformed doubled after each level.
+   *
+   * @param data     the planes stored one after the other.
+   * @param planes   the number of planes.
+   * @param size     the size of each plane, which is a power of two.
+   * @param executor the executor used to process the rows.
+   */
+  static void inverse(double[] data, int planes, int size, RowExecutor executor) {
+    int c = 2;
+    while (c <= size) {
+      inverseTransformColumns(data, planes, size, c, executor);
+      inverseTransformRows(data, planes, size, c, executor);
+      c = c * 2;
+    }
+  }
+
+  /**
+   * Helper method to transform the first c values of every row into
+   * c / 2 averages followed by c / 2 differences.
+   *
+   * @param data     the planes stored one after the other.
+   * @param planes   the number of planes.
+   * @param size     the size of each plane.
+   * @param c        the number of values transformed in each row.
+   * @param executor the executor used to process the rows.
+   */
+  private static void transformRows(double[] data, int planes, int size, int c,
+                                    RowExecutor executor) {
+    int half = c / 2;
+    executor.forEachRow(planes * size, c, (start, end) -> {
+      double[] tmp = new double[c];
+      for (int i = start; i < end; i++) {
+        int row = i * size;
+        for (int j = 0; j < half; j++) {
+          double a = data[row + 2 * j];
+          double b = data[row + 2 * j + 1];
+          tmp[j] = (a + b) / ROOT_TWO;
+          tmp[half + j] = (a - b) / ROOT_TWO;
+        }
+        System.arraycopy(tmp, 0, data, row, c);
+      }
+    });
+  }
+
+  /**
+   * Helper method to undo transformRows, interleaving the c / 2
+   * averages and c / 2 differences at the start of every row.
+   *
+   * @param data     the planes stored one after the other.
+   * @param planes   the number of planes.
+   * @param size     the size of each plane.
+   * @param c        the number of values transformed in each row.
+   * @param executor the executor used to process the rows.
+   */
+  private static void inverseTransformRows(double[] data, int planes, int size, int c,
+                                           RowExecutor executor) {
+    int half = c / 2;
+    executor.forEachRow(planes * size, c, (start, end) -> {
+      double[] tmp = new double[c];
+      for (int i = start; i < end; i++) {
+        int row = i * size;
+        for (int j = 0; j < half; j++) {
+          double a = data[row + j];
+          double b = data[row + half + j];
+          tmp[2 * j] = (a + b) / ROOT_TWO;
+          tmp[2 * j + 1] = (a - b) / ROOT_TWO;
+        }
+        System.arraycopy(tmp, 0, data, row, c);
+      }
+    });
+  }
+
+  /**
+   * Helper method to transform the first c values of every column
+   * into c / 2 averages followed by c / 2 differences. Each strip of
+   * columns is transformed into a scratch block one pair of rows at
+   * a time and then copied back row by row.
+   *
+   * @param data     the planes stored one after the other.
+   * @param planes   the number of planes.
+   * @param size     the size of each plane.
+   * @param c        the number of values transformed in each column.
+   * @param executor the executor used to process the strips.
+   */
+  private static void transformColumns(double[] data, int planes, int size, int c,
+                                       RowExecutor executor) {
+    int half = c / 2;
+    int strips = (size + STRIP - 1) / STRIP;
+    executor.forEachRow(planes * strips, STRIP * c, (start, end) -> {
+      double[] tmp = new double[STRIP * c];
+      for (int s = start; s < end; s++) {
+        int plane = (s / strips) * size * size;
+        int x0 = (s % strips) * STRIP;
+        int w = Math.min(STRIP, size - x0);
+        for (int k = 0; k < half; k++) {
+          int rowA = plane + 2 * k * size + x0;
+          int rowB = rowA + size;
+          int avg = k * w;
+          int diff = (half + k) * w;
+          for (int x = 0; x < w; x++) {
+            double a = data[rowA + x];
+            double b = data[rowB + x];
+            tmp[avg + x] = (a + b) / ROOT_TWO;
+            tmp[diff + x] = (a - b) / ROOT_TWO;
+          }
+        }
+        for (int k = 0; k < c; k++) {
+          System.arraycopy(tmp, k * w, data, plane + k * size + x0, w);
+        }
+      }
+    });
+  }
+
+  /**
+   * Helper method to undo transformColumns, interleaving the c / 2
+   * averages and c / 2 differences at the start of every column.
+   *
+   * @param data     the planes stored one after the other.
+   * @param planes   the number of planes.
+   * @param size     the size of each plane.
+   * @param c        the number of values transformed in each column.
+   * @param executor the executor used to process the strips.
+   */
+  private static void inverseTransformColumns(double[] data, int planes, int size, int c,
+                                              RowExecutor executor) {
+    int half = c / 2;
+    int strips = (size + STRIP - 1) / STRIP;
+    executor.forEachRow(planes * strips, STRIP * c, (start, end) -> {
+      double[] tmp = new double[STRIP * c];
+      for (int s = start; s < end; s++) {
+        int plane = (s / strips) * size * size;
+        int x0 = (s % strips) * STRIP;
+        int w = Math.min(STRIP, size - x0);
+        for (int k = 0; k < half; k++) {
+          int rowA = plane + k * size + x0;
+          int rowB = rowA + half * size;
+          int even = 2 * k * w;
+          int odd = even + w;
+          for (int x = 0; x < w; x++) {
+            double a = data[rowA + x];
+            double b = data[rowB + x];
+            tmp[even + x] = (a + b) / ROOT_TWO;
+            tmp[odd + x] = (a - b) / ROOT_TWO;
+          }
+        }
+        for (int k = 0; k < c; k++) {
+          System.arraycopy(tmp, k * w, data, plane + k * size + x0, w);
+        }
+      }
+    });
+  }
+}
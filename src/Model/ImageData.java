@@ -0,0 +1,59 @@
+package model;
+
+import java.nio.IntBuffer;
+
+/**
+ * This interface represents a read-only view over the pixels of
+ * an image held by the model. Unlike the 3-d matrix returned when
+ * saving an image, a view does not copy the pixel data, so it can
+ * be handed to the controller cheaply. Images are never modified
+ * once they are stored, so a view stays valid for as long as it is
+ * held.
+ */
+public interface ImageData {
+
+  /**
+   * Method to obtain the height of the image.
+   *
+   * @return the height of the image.
+   */
+  int getHeight();
+
+  /**
+   * Method to obtain the width of the image.
+   *
+   * @return the width of the image.
+   */
+  int getWidth();
+
+  /**
+   * Method to obtain the value of a single channel of the
+   * pixel at a specific coordinate of the image.
+   *
+   * @param x the row of the pixel.
+   * @param y the column of the pixel.
+   * @param z the color channel. 0 is for Red; 1 is for Green; 2 is for Blue.
+   * @return the value of the channel between 0 and 255.
+   */
+  int getPixelValue(int x, int y, int z);
+
+  /**
+   * Method to obtain the packed value of the pixel at a
+   * specific coordinate of the image.
+   *
+   * @param x the row of the pixel.
+   * @param y the column of the pixel.
+   * @return the pixel packed as 0xRRGGBB.
+   */
+  int getRGB(int x, int y);
+
+  /**
+   * Method to obtain a read-only buffer over all the pixels of the
+   * image. The pixels are packed as 0xRRGGBB and stored in row-major
+   * order, so the pixel at row x and column y is at index
+   * x * width + y.
+   *
+   * @return a read-only buffer over the packed pixel values.
+   */
+  IntBuffer getPixelBuffer();
+}
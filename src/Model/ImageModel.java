@@ -1,29 +1,94 @@
 package model;
 
+import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * This class represents an image, so the class
  * contains all the variables and method needed to handle
- * an image. An image is a 3-d matrix of pixels.
+ * an image. The pixels of the image are stored in a single
+ * flat array in row-major order, where every element packs
+ * the red, green and blue value of one pixel as 0xRRGGBB.
+ * The class also acts as the read-only view of the image that is
+ * handed out of the model, since an image is never modified once it
+ * has been created.
  */
 
-class ImageModel {
+class ImageModel implements ImageData {
+  private static final AtomicLong STAMPS = new AtomicLong();
+
   private final int height;
   private final int width;
-  private final int[][][] pixels;
+  private final int[] pixels;
+  private final long stamp;
 
   /**
    * Constructs an ImageModel object with the
-   * specified height and width. Initializes the
-   * pixel array store the RGB values.
+   * specified height and width from a 3-d matrix of
+   * pixel values. The matrix is packed into the flat
+   * pixel array, so the matrix itself is not retained.
    *
    * @param height height of the image.
    * @param width  width of the image.
    * @param matrix the matrix of pixel values.
    */
   public ImageModel(int height, int width, int[][][] matrix) {
+    this(height, width, pack(height, width, matrix));
+  }
+
+  /**
+   * Constructs an ImageModel object with the
+   * specified height and width over an already
+   * packed pixel array. The array is used as it is
+   * and must not be modified afterwards. Subclasses which
+   * produce their pixels on demand pass null and override
+   * getPixels.
+   *
+   * @param height height of the image.
+   * @param width  width of the image.
+   * @param pixels the packed pixel values in row-major order.
+   */
+  ImageModel(int height, int width, int[] pixels) {
     this.height = height;
     this.width = width;
-    this.pixels = matrix;
+    this.pixels = pixels;
+    this.stamp = STAMPS.incrementAndGet();
+  }
+
+  /**
+   * Method to pack the red, green and blue value of a pixel
+   * into a single integer. Each value is clamped between
+   * 0 and 255 before packing.
+   *
+   * @param red   the red value of the pixel.
+   * @param green the green value of the pixel.
+   * @param blue  the blue value of the pixel.
+   * @return the packed pixel value.
+   */
+  static int pack(int red, int green, int blue) {
+    return Math.max(0, Math.min(255, red)) << 16
+            | Math.max(0, Math.min(255, green)) << 8
+            | Math.max(0, Math.min(255, blue));
+  }
+
+  /**
+   * Helper method to pack a 3-d matrix of pixel values
+   * into a flat pixel array.
+   *
+   * @param height height of the image.
+   * @param width  width of the image.
+   * @param matrix the matrix of pixel values.
+   * @return the packed pixel values in row-major order.
+   */
+  private static int[] pack(int height, int width, int[][][] matrix) {
+    int[] arr = new int[height * width];
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        int[] rgb = matrix[i][j];
+        arr[i * width + j] = pack(rgb[0], rgb[1], rgb[2]);
+      }
+    }
+    return arr;
   }
 
   /**
@@ -31,7 +96,8 @@ class ImageModel {
    *
    * @return the height of the image.
    */
-  protected int getHeight() {
+  @Override
+  public int getHeight() {
     return this.height;
   }
 
@@ -40,7 +106,8 @@ class ImageModel {
    *
    * @return the width of the image.
    */
-  protected int getWidth() {
+  @Override
+  public int getWidth() {
     return this.width;
   }
 
@@ -53,8 +120,97 @@ class ImageModel {
    * @param z the color channel.
    * @return the value of the specified pixel.
    */
-  protected int getPixelValue(int x, int y, int z) {
-    return this.pixels[x][y][z];
+  @Override
+  public int getPixelValue(int x, int y, int z) {
+    return (this.getRGB(x, y) >> (16 - 8 * z)) & 0xff;
+  }
+
+  /**
+   * Method to obtain the packed value of the pixel at a
+   * specific coordinate of the image.
+   *
+   * @param x the row of the array.
+   * @param y the column of the array.
+   * @return the packed 0xRRGGBB value of the pixel.
+   */
+  @Override
+  public int getRGB(int x, int y) {
+    return this.getPixels()[x * this.width + y];
+  }
+
+  /**
+   * Method to obtain the packed pixel array of the image.
+   * The array is shared and not copied, so it must only
+   * be read.
+   *
+   * @return the packed pixel values in row-major order.
+   */
+  protected int[] getPixels() {
+    return this.pixels;
+  }
+
+  /**
+   * Method to copy the packed pixels of a band of consecutive rows
+   * into an array. Operations which only need to read the pixels once
+   * use this instead of getPixels, so that an image which does not
+   * hold its pixels in an array is read one band at a time.
+   *
+   * @param start  the first row of the band.
+   * @param end    the row just after the last row of the band.
+   * @param dst    the array the packed pixels are copied to.
+   * @param offset the index in the array of the first pixel of the band.
+   */
+  void copyRows(int start, int end, int[] dst, int offset) {
+    System.arraycopy(this.getPixels(), start * this.width, dst, offset,
+            (end - start) * this.width);
+  }
+
+  /**
+   * Method to obtain the stamp of the image, which is different for
+   * every image created. Since an image never changes, two images with
+   * the same stamp have the same pixels.
+   *
+   * @return the stamp of the image.
+   */
+  long getStamp() {
+    return this.stamp;
+  }
+
+  /**
+   * Method to obtain the number of bytes of memory the image holds
+   * on to for as long as it is referenced. Pixels which are decoded or
+   * copied on demand and only kept in a soft reference are not
+   * counted, since they are dropped when memory runs low.
+   *
+   * @return the number of bytes held by the image.
+   */
+  long getResidentBytes() {
+    return this.pixels == null ? 0 : 4L * this.pixels.length;
+  }
+
+  /**
+   * Method to obtain the image whose memory this image keeps alive.
+   * An image which reads its pixels from another image, such as a
+   * view or a lazy image, holds on to that image, so dropping it only
+   * frees memory once no image reading from it is kept either.
+   *
+   * @return the image at the end of the chain of images read, which is
+   *         this image if it reads no other image.
+   */
+  ImageModel getRoot() {
+    return this;
+  }
+
+  /**
+   * Method to obtain a read-only buffer over all the pixels of the
+   * image. The buffer wraps the packed pixel array, so no pixel
+   * data is copied.
+   *
+   * @return a read-only buffer over the packed pixel values.
+   */
+  @Override
+  public IntBuffer getPixelBuffer() {
+    return IntBuffer.wrap(this.getPixels()).asReadOnlyBuffer();
   }
 
   /**
@@ -63,12 +219,14 @@ class ImageModel {
    * @return a 3-d array containing the pixel values of image.
    */
   protected int[][][] getPixelMatrix() {
+    int[] pixels = this.getPixels();
     int[][][] n = new int[this.height][this.width][3];
     for (int i = 0; i < this.height; i++) {
       for (int j = 0; j < this.width; j++) {
-        for (int k = 0; k < 3; k++) {
-          n[i][j][k] = this.pixels[i][j][k];
-        }
+        int rgb = pixels[i * this.width + j];
+        n[i][j][0] = (rgb >> 16) & 0xff;
+        n[i][j][1] = (rgb >> 8) & 0xff;
+        n[i][j][2] = rgb & 0xff;
       }
     }
     return n;
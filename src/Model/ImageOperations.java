@@ -1,30 +1,149 @@
 package model;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * The ImageOperations class implements the {@link Operations} interface,
  * providing implementations for various image manipulation and
  * processing tasks.
- * This class also maintains a map that stores instances of all images
+ * This class also maintains a store that holds instances of all images
  * loaded and processed during the execution of the application,
  * allowing efficient access and manipulation throughout the
- * script's runtime.
+ * script's runtime. Every image produced by an operation is stored
+ * with the call which produced it, so the store can drop it when it
+ * runs over its memory budget and compute it again when it is needed.
+ * The per-pixel work of every operation is split into bands of
+ * rows which are processed in parallel by a {@link RowExecutor}.
+ * In lazy mode, the operations which map every pixel on its own
+ * return a {@link LazyImageModel} instead of computing the new image,
+ * so a chain of them is fused and computed in one pass when the last
+ * image is read.
+ * The result of every operation is remembered in a {@link ResultCache},
+ * so running an operation again with the same parameters on the same
+ * images gives back the same image without computing it.
  */
 
 class ImageOperations implements Operations {
 
-  protected final Map<String, ImageModel> imageMap;
+  private static final ColorMatrix LUMA = new ColorMatrix(new double[][]{
+      {0.2126, 0.7152, 0.0722},
+      {0.2126, 0.7152, 0.0722},
+      {0.2126, 0.7152, 0.0722}});
+  private static final ColorMatrix SEPIA = new ColorMatrix(new double[][]{
+      {0.393, 0.769, 0.189},
+      {0.349, 0.686, 0.168},
+      {0.272, 0.534, 0.131}});
+
+  private static final ColorMatrix[] COMPONENTS = {
+      new ColorMatrix(new double[][]{{1, 0, 0}, {1, 0, 0}, {1, 0, 0}}),
+      new ColorMatrix(new double[][]{{0, 1, 0}, {0, 1, 0}, {0, 1, 0}}),
+      new ColorMatrix(new double[][]{{0, 0, 1}, {0, 0, 1}, {0, 0, 1}})};
+  private static final PixelStage VALUE = rgb -> {
+    int value = Math.max(Math.max((rgb >> 16) & 0xff, (rgb >> 8) & 0xff), rgb & 0xff);
+    return value << 16 | value << 8 | value;
+  };
+  private static final PixelStage INTENSITY = rgb -> {
+    int value = (((rgb >> 16) & 0xff) + ((rgb >> 8) & 0xff) + (rgb & 0xff)) / 3;
+    return value << 16 | value << 8 | value;
+  };
+
+  private static final int BLOCK_PIXELS = 1 << 16;
+
+  /**
+   * The system property which turns on the lazy mode of the
+   * operations when it is set to true.
+   */
+  static final String LAZY_PROPERTY = "imagelab.lazy";
+
+  protected final ImageStore imageMap;
+  protected final RowExecutor executor;
+  protected final boolean lazy;
+  protected final ResultCache results;
+  protected boolean ownsExecutor;
 
   /**
    * Constructs an ImageOperation object and initializes an
    * empty HashMap to store the image instances.
    * Map will be used to keep a track of all images which are
    * loaded and processed during execution.
+   * The operations run on the shared executor, whose parallelism
+   * level is read from the imagelab.parallelism system property.
    */
   public ImageOperations() {
-    this.imageMap = new HashMap<>();
+    this(RowExecutor.getDefault());
+  }
+
+  /**
+   * Constructs an ImageOperation object whose operations run with
+   * the specified parallelism level, on an executor of their own whose
+   * threads are stopped when the operations are closed.
+   *
+   * @param parallelism the number of threads used by each operation.
+   * @throws IllegalArgumentException if the parallelism level is less than one.
+   */
+  public ImageOperations(int parallelism) throws IllegalArgumentException {
+    this(new RowExecutor(parallelism));
+    this.ownsExecutor = true;
+  }
+
+  /**
+   * Constructs an ImageOperation object whose operations run on
+   * the specified executor. The images are kept in a
+   * {@link BoundedImageStore} whose budget and spill directory are read
+   * from the imagelab.storeBudget and imagelab.spillDirectory system
+   * properties.
+   *
+   * @param executor the executor used to process the rows of images.
+   */
+  ImageOperations(RowExecutor executor) {
+    this(executor, new BoundedImageStore(BoundedImageStore.getDefaultBudget(),
+            BoundedImageStore.getDefaultSpillDirectory()));
+  }
+
+  /**
+   * Constructs an ImageOperation object whose operations run on
+   * the specified executor and keep their images in the specified
+   * store. The lazy mode is turned on by the imagelab.lazy system
+   * property.
+   *
+   * @param executor the executor used to process the rows of images.
+   * @param store    the store which holds the images.
+   */
+  ImageOperations(RowExecutor executor, ImageStore store) {
+    this(executor, store, Boolean.getBoolean(LAZY_PROPERTY));
+  }
+
+  /**
+   * Constructs an ImageOperation object whose operations run on
+   * the specified executor, keep their images in the specified
+   * store and fuse their per-pixel work if they are lazy. The budget
+   * of the result cache is read from the imagelab.cacheBudget system
+   * property.
+   *
+   * @param executor the executor used to process the rows of images.
+   * @param store    the store which holds the images.
+   * @param lazy     true to defer and fuse the per-pixel operations.
+   */
+  ImageOperations(RowExecutor executor, ImageStore store, boolean lazy) {
+    this(executor, store, lazy, new ResultCache(ResultCache.getDefaultBudget()));
+  }
+
+  /**
+   * Constructs an ImageOperation object whose operations run on
+   * the specified executor, keep their images in the specified
+   * store, fuse their per-pixel work if they are lazy and remember
+   * their results in the specified cache.
+   *
+   * @param executor the executor used to process the rows of images.
+   * @param store    the store which holds the images.
+   * @param lazy     true to defer and fuse the per-pixel operations.
+   * @param results  the cache which remembers the results.
+   */
+  ImageOperations(RowExecutor executor, ImageStore store, boolean lazy, ResultCache results) {
+    this.imageMap = store;
+    this.executor = executor;
+    this.lazy = lazy;
+    this.results = results;
   }
 
 
@@ -38,7 +157,7 @@ class ImageOperations implements Operations {
    */
   @Override
   public boolean checkImage(String name) {
-    return this.imageMap.containsKey(name);
+    return this.imageMap.contains(name);
   }
 
   /**
@@ -77,19 +196,34 @@ class ImageOperations implements Operations {
   }
 
   /**
-   * Method to set the value of pixel in image array at
+   * Obtain a read-only view of the image whose name is
+   * provided in the function parameter. Unlike saveImage
+   * the pixel data is not copied, so this is the preferred
+   * way to read an image that only needs to be displayed
+   * or written out.
+   *
+   * @param name the name of the image which is to be viewed.
+   * @return a read-only view over the pixels of the image.
+   */
+  @Override
+  public ImageData viewImage(String name) {
+    return this.imageMap.get(name);
+  }
+
+  /**
+   * Method to set the value of pixel in the packed image array at
    * specific location.
-   * The value must be between equal 0 and 255 so a clamping is
+   * The values must be between equal 0 and 255 so a clamping is
    * also carried out.
    *
-   * @param x     the row of the array.
-   * @param y     the column of the array.
-   * @param z     the color channel.
-   * @param value the value to be set at the specified
-   *              coordinate.
-   */
-  protected void setPixelValue(int x, int y, int z, int value, int[][][] arr) {
-    arr[x][y][z] = Math.max(0, Math.min(255, value));
+   * @param index the row-major index of the pixel.
+   * @param red   the red value to be set at the specified location.
+   * @param green the green value to be set at the specified location.
+   * @param blue  the blue value to be set at the specified location.
+   * @param arr   the packed pixel array.
+   */
+  protected void setPixelValue(int index, int red, int green, int blue, int[] arr) {
+    arr[index] = ImageModel.pack(red, green, blue);
   }
 
   /**
@@ -98,14 +232,88 @@ class ImageOperations implements Operations {
    *
    * @param old    the existing ImageModel whose dimensions are to be
    *               copied to the new ImageModel.
-   * @param matrix the new values of pixel.
+   * @param pixels the new packed values of pixel.
    * @return a new ImageModel.
    */
 
-  protected ImageModel getNewImageModel(ImageModel old, int[][][] matrix) {
+  protected ImageModel getNewImageModel(ImageModel old, int[] pixels) {
     int height = old.getHeight();
     int width = old.getWidth();
-    return new ImageModel(height, width, matrix);
+    return new ImageModel(height, width, pixels);
+  }
+
+  /**
+   * Helper method to obtain the result of an operation from the result
+   * cache, computing it only if the operation was not run with the same
+   * parameters on the same images before. The result is computed on the
+   * executor's pool when the calling thread is a virtual thread.
+   * Obtaining the result is recorded as an {@link OperationEvent} when
+   * a flight recording is running.
+   *
+   * @param operation  the name of the operation.
+   * @param source     the names of the images the operation reads,
+   *                   separated by commas.
+   * @param target     the name of the image the operation produces.
+   * @param parameters the parameters of the operation.
+   * @param compute    the work which computes the result.
+   * @param inputs     the images the operation reads.
+   * @return the result.
+   */
+  protected ImageModel memoize(String operation, String source, String target,
+                               Object[] parameters, Supplier<ImageModel> compute,
+                               ImageModel... inputs) {
+    OperationEvent event = new OperationEvent();
+    event.begin();
+    ImageModel result = this.executor.offload(
+            () -> this.results.get(operation, parameters, compute, inputs));
+    event.end();
+    if (event.shouldCommit()) {
+      event.operation = operation;
+      event.source = source;
+      event.target = target;
+      event.pixels = (long) result.getHeight() * result.getWidth();
+      event.commit();
+    }
+    return result;
+  }
+
+  /**
+   * Helper method to read every pixel of an image once, in blocks of
+   * rows which are processed in parallel. Each block is copied out of
+   * the image into a small array, so an image whose pixels are not
+   * held on the heap, such as a memory-mapped image, is never decoded
+   * as a whole.
+   *
+   * @param image the image to be read.
+   * @param task  the work to be done on each block of pixels.
+   */
+  protected void forEachBlock(ImageModel image, BlockTask task) {
+    int width = image.getWidth();
+    int blockRows = Math.max(1, BLOCK_PIXELS / Math.max(1, width));
+    this.executor.forEachRow(image.getHeight(), width, (start, end) -> {
+      int[] block = new int[Math.min(blockRows, end - start) * width];
+      for (int i = start; i < end; i += blockRows) {
+        int rows = Math.min(blockRows, end - i);
+        image.copyRows(i, i + rows, block, 0);
+        task.run(block, i * width, rows * width);
+      }
+    });
+  }
+
+  /**
+   * The work done on a block of pixels read by forEachBlock.
+   */
+  protected interface BlockTask {
+
+    /**
+     * Process the pixels of the block.
+     *
+     * @param block the packed pixels of the block.
+     * @param index the row-major index in the image of the first pixel
+     *              of the block.
+     * @param count the number of pixels in the block.
+     */
+    void run(int[] block, int index, int count);
   }
 
   /**
@@ -126,18 +334,11 @@ class ImageOperations implements Operations {
   @Override
   public boolean getColorComponent(String currentImage, String newImage, int channel) {
     ImageModel imageOld = this.imageMap.get(currentImage);
-    int height = imageOld.getHeight();
-    int width = imageOld.getWidth();
-    int[][][] arr = new int[height][width][3];
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        for (int k = 0; k <= 2; k++) {
-          this.setPixelValue(i, j, k, imageOld.getPixelValue(i, j, channel), arr);
-        }
-      }
-    }
-    ImageModel imageNew = this.getNewImageModel(imageOld, arr);
-    this.imageMap.put(newImage, imageNew);
+    ImageModel imageNew = this.memoize("color-component", currentImage, newImage,
+            new Object[]{channel}, () -> this.colorTransform(imageOld, COMPONENTS[channel]),
+            imageOld);
+    this.imageMap.put(newImage, imageNew,
+            () -> this.getColorComponent(currentImage, newImage, channel), currentImage);
     return true;
   }
 
@@ -147,24 +348,12 @@ class ImageOperations implements Operations {
    * Value is obtained by calculating by the max value of each channel
    * at each pixel location.
    *
-   * @param o        the original ImageModel whose value component is to be
-   *                 obtained.
-   * @param newImage the name of the new image to be stored.
-   */
-  protected void getValueComponent(ImageModel o, String newImage) {
-    int[][][] arr = new int[o.getHeight()][o.getWidth()][3];
-    for (int i = 0; i < o.getHeight(); i++) {
-      for (int j = 0; j < o.getWidth(); j++) {
-        int value = o.getPixelValue(i, j, 0);
-        value = Math.max(o.getPixelValue(i, j, 1), value);
-        value = Math.max(o.getPixelValue(i, j, 2), value);
-        this.setPixelValue(i, j, 0, value, arr);
-        this.setPixelValue(i, j, 1, value, arr);
-        this.setPixelValue(i, j, 2, value, arr);
-      }
-    }
-    ImageModel imageNew = this.getNewImageModel(o, arr);
-    this.imageMap.put(newImage, imageNew);
+   * @param o the original ImageModel whose value component is to be
+   *          obtained.
+   * @return the new ImageModel.
+   */
+  protected ImageModel getValueComponent(ImageModel o) {
+    return this.colorTransform(o, VALUE);
   }
 
   /**
@@ -173,25 +362,12 @@ class ImageOperations implements Operations {
    * Intensity is obtained by calculating by the average value of each channel
    * at each pixel location.
    *
-   * @param o        the original ImageModel whose intensity component is to be
-   *                 obtained.
-   * @param newImage the name of the new image to be stored.
-   */
-  protected void getIntensityComponent(ImageModel o, String newImage) {
-    int[][][] arr = new int[o.getHeight()][o.getWidth()][3];
-    for (int i = 0; i < o.getHeight(); i++) {
-      for (int j = 0; j < o.getWidth(); j++) {
-        int value = o.getPixelValue(i, j, 0);
-        value += o.getPixelValue(i, j, 1);
-        value += o.getPixelValue(i, j, 2);
-        value /= 3;
-        this.setPixelValue(i, j, 0, value, arr);
-        this.setPixelValue(i, j, 1, value, arr);
-        this.setPixelValue(i, j, 2, value, arr);
-      }
-    }
-    ImageModel imageNew = this.getNewImageModel(o, arr);
-    this.imageMap.put(newImage, imageNew);
+   * @param o the original ImageModel whose intensity component is to be
+   *          obtained.
+   * @return the new ImageModel.
+   */
+  protected ImageModel getIntensityComponent(ImageModel o) {
+    return this.colorTransform(o, INTENSITY);
   }
 
   /**
@@ -200,20 +376,12 @@ class ImageOperations implements Operations {
    * Luma is obtained by calculating by the weighted sum of each channel
    * at each pixel location.
    *
-   * @param o        the original ImageModel whose luma component is to be
-   *                 obtained.
-   * @param newImage the name of the new image to be stored.
-   */
-  protected void getLumaComponent(ImageModel o, String newImage) {
-    int[][][] arr = new int[o.getHeight()][o.getWidth()][3];
-    double[][] operation = {
-            {0.2126, 0.7152, 0.0722},
-            {0.2126, 0.7152, 0.0722},
-            {0.2126, 0.7152, 0.0722}
-    };
-    this.colorTransform(o, operation, arr);
-    ImageModel imageNew = this.getNewImageModel(o, arr);
-    this.imageMap.put(newImage, imageNew);
+   * @param o the original ImageModel whose luma component is to be
+   *          obtained.
+   * @return the new ImageModel.
+   */
+  protected ImageModel getLumaComponent(ImageModel o) {
+    return this.colorTransform(o, LUMA);
   }
 
   /**
@@ -236,20 +404,25 @@ class ImageOperations implements Operations {
   public boolean getBrightnessComponent(String currentImage, String newImage,
                                         String handle) throws IllegalArgumentException {
     ImageModel imageOld = this.imageMap.get(currentImage);
+    Supplier<ImageModel> component;
 
     switch (handle) {
       case "value-component":
-        this.getValueComponent(imageOld, newImage);
+        component = () -> this.getValueComponent(imageOld);
         break;
       case "intensity-component":
-        this.getIntensityComponent(imageOld, newImage);
+        component = () -> this.getIntensityComponent(imageOld);
         break;
       case "luma-component":
-        this.getLumaComponent(imageOld, newImage);
+        component = () -> this.getLumaComponent(imageOld);
         break;
       default:
         throw new IllegalArgumentException("Invalid command provided.");
     }
+    ImageModel imageNew = this.memoize(handle, currentImage, newImage, new Object[0],
+            component, imageOld);
+    this.imageMap.put(newImage, imageNew,
+            () -> this.getBrightnessComponent(currentImage, newImage, handle), currentImage);
     return true;
   }
 
@@ -257,6 +430,8 @@ class ImageOperations implements Operations {
    * Perform horizontal flip of the specified image and create a new image
    * with flipped pixel values.
    * Horizontal flip is basically the mirror image of the original image.
+   * The new image is a view of the original image, so no pixels are
+   * copied until an operation needs them.
    *
    * @param currentImage the name of the original image which is to be
    *                     horizontally flipped.
@@ -267,20 +442,10 @@ class ImageOperations implements Operations {
   @Override
   public boolean horizontalFlip(String currentImage, String newImage) {
     ImageModel imageOld = this.imageMap.get(currentImage);
-    int height = imageOld.getHeight();
-    int width = imageOld.getWidth();
-    int[][][] arr = new int[height][width][3];
-    for (int i = 0; i < height; i++) {
-      int col = 0;
-      for (int j = width - 1; j >= 0; j--) {
-        for (int k = 0; k <= 2; k++) {
-          this.setPixelValue(i, col, k, imageOld.getPixelValue(i, j, k), arr);
-        }
-        col = col + 1;
-      }
-    }
-    ImageModel imageNew = this.getNewImageModel(imageOld, arr);
-    this.imageMap.put(newImage, imageNew);
+    this.imageMap.put(newImage, this.memoize("horizontal-flip", currentImage,
+            newImage, new Object[0],
+            () -> ViewImageModel.flipHorizontal(imageOld), imageOld),
+            () -> this.horizontalFlip(currentImage, newImage), currentImage);
     return true;
   }
 
@@ -288,6 +453,8 @@ class ImageOperations implements Operations {
    * Perform vertical flip of the specified image and create a new image
    * with flipped pixel values.
    * Vertical flip is basically making an image up-side down.
+   * The new image is a view of the original image, so no pixels are
+   * copied until an operation needs them.
    *
    * @param currentImage the name of the original image which is to be
    *                     vertically flipped.
@@ -298,20 +465,10 @@ class ImageOperations implements Operations {
   @Override
   public boolean verticalFlip(String currentImage, String newImage) {
     ImageModel imageOld = this.imageMap.get(currentImage);
-    int height = imageOld.getHeight();
-    int width = imageOld.getWidth();
-    int[][][] arr = new int[height][width][3];
-    int row = 0;
-    for (int i = height - 1; i >= 0; i--) {
-      for (int j = 0; j < width; j++) {
-        for (int k = 0; k <= 2; k++) {
-          this.setPixelValue(row, j, k, imageOld.getPixelValue(i, j, k), arr);
-        }
-      }
-      row = row + 1;
-    }
-    ImageModel imageNew = this.getNewImageModel(imageOld, arr);
-    this.imageMap.put(newImage, imageNew);
+    this.imageMap.put(newImage, this.memoize("vertical-flip", currentImage,
+            newImage, new Object[0],
+            () -> ViewImageModel.flipVertical(imageOld), imageOld),
+            () -> this.verticalFlip(currentImage, newImage), currentImage);
     return true;
   }
 
@@ -332,22 +489,33 @@ class ImageOperations implements Operations {
   @Override
   public boolean brighten(String currentImage, String newImage, int intensity) {
     ImageModel imageOld = this.imageMap.get(currentImage);
-    int height = imageOld.getHeight();
-    int width = imageOld.getWidth();
-    int[][][] arr = new int[height][width][3];
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        for (int k = 0; k <= 2; k++) {
-          int value = imageOld.getPixelValue(i, j, k) + intensity;
-          this.setPixelValue(i, j, k, value, arr);
-        }
-      }
-    }
-    ImageModel imageNew = this.getNewImageModel(imageOld, arr);
-    this.imageMap.put(newImage, imageNew);
+    ImageModel imageNew = this.memoize("brighten", currentImage, newImage,
+            new Object[]{intensity},
+            () -> this.applyPointOp(PointOp.offset(intensity, intensity, intensity), imageOld),
+            imageOld);
+    this.imageMap.put(newImage, imageNew,
+            () -> this.brighten(currentImage, newImage, intensity), currentImage);
     return true;
   }
 
+  /**
+   * Apply a point operation to the ImageModel and store the result
+   * in a new ImageModel.
+   *
+   * @param op  the point operation to be applied.
+   * @param old the original ImageModel on which the operation
+   *            is to be applied.
+   * @return the new ImageModel.
+   */
+  protected ImageModel applyPointOp(PointOp op, ImageModel old) {
+    if (this.lazy) {
+      return LazyImageModel.of(old, op);
+    }
+    int[] arr = new int[old.getHeight() * old.getWidth()];
+    op.apply(old.getPixels(), arr, old.getHeight(), old.getWidth(), this.executor);
+    return this.getNewImageModel(old, arr);
+  }
+
 
   /**
    * Split the specified image into its constituent color component images.
@@ -402,58 +570,45 @@ class ImageOperations implements Operations {
       throw new IllegalArgumentException("Images to be combined do not have same dimensions.");
     }
 
-    int[][][] arr = new int[red.getHeight()][red.getWidth()][3];
-    for (int i = 0; i < red.getHeight(); i++) {
-      for (int j = 0; j < red.getWidth(); j++) {
-        this.setPixelValue(i, j, 0, red.getPixelValue(i, j, 0), arr);
-        this.setPixelValue(i, j, 1, green.getPixelValue(i, j, 1), arr);
-        this.setPixelValue(i, j, 2, blue.getPixelValue(i, j, 2), arr);
-      }
-    }
-    ImageModel imageNew = this.getNewImageModel(red, arr);
-    this.imageMap.put(newImage, imageNew);
+    ImageModel imageNew = this.memoize("rgb-combine",
+            String.join(",", redImage, greenImage, blueImage), newImage, new Object[0], () -> {
+      int[] redPixels = red.getPixels();
+      int[] greenPixels = green.getPixels();
+      int[] bluePixels = blue.getPixels();
+      int[] arr = new int[redPixels.length];
+      int width = red.getWidth();
+      this.executor.forEachRow(red.getHeight(), width, (start, end) -> {
+        for (int i = start * width; i < end * width; i++) {
+          arr[i] = (redPixels[i] & 0xff0000) | (greenPixels[i] & 0xff00)
+                  | (bluePixels[i] & 0xff);
+        }
+      });
+      return this.getNewImageModel(red, arr);
+    }, red, green, blue);
+    this.imageMap.put(newImage, imageNew,
+            () -> this.combineRGB(redImage, greenImage, blueImage, newImage),
+            redImage, greenImage, blueImage);
     return true;
   }
 
 
   /**
-   * Apply a filter to the ImageModel and store the result in the new
+   * Apply a filter to the ImageModel and store the result in a new
    * ImageModel.
    * For each pixel in the original Image we multiply filter element-wise
    * with the neighborhood pixel and the result is added to get the new
    * pixel value.
    *
-   * @param filter   a 2-D array which is the filter to be applied.
-   * @param old      the original ImageModel on which filter is to
-   *                 be applied.
-   * @param newImage the name of the new image obtained after blurring
-   *                 the original image.
-   */
-  protected void applyFilter(double[][] filter, ImageModel old, String newImage) {
-    int filterSize = filter.length / 2;
-    int height = old.getHeight();
-    int width = old.getWidth();
-    int[][][] arr = new int[height][width][3];
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        for (int k = 0; k <= 2; k++) {
-          double value = 0;
-          for (int a = -filterSize; a <= filterSize; a++) {
-            for (int b = -filterSize; b <= filterSize; b++) {
-              int x = i + a;
-              int y = j + b;
-              if (x >= 0 && y >= 0 && y < width && x < height) {
-                value += filter[a + filterSize][b + filterSize]
-                        * old.getPixelValue(i + a, j + b, k);
-              }
-            }
-          }
-          this.setPixelValue(i, j, k, (int) value, arr);
-        }
-      }
-    }
-    ImageModel imageNew = this.getNewImageModel(old, arr);
-    this.imageMap.put(newImage, imageNew);
+   * @param filter a 2-D array which is the filter to be applied.
+   * @param old    the original ImageModel on which filter is to
+   *               be applied.
+   * @return the new ImageModel.
+   */
+  protected ImageModel applyFilter(double[][] filter, ImageModel old) {
+    int[] arr = new int[old.getHeight() * old.getWidth()];
+    Convolution.compile(filter).apply(old.getPixels(), arr, old.getHeight(),
+            old.getWidth(), this.executor);
+    return this.getNewImageModel(old, arr);
   }
 
   /**
@@ -471,7 +626,9 @@ class ImageOperations implements Operations {
   public boolean blur(String currentImage, String newImage) {
     ImageModel imageOld = this.imageMap.get(currentImage);
     double[][] filter = {{0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}};
-    this.applyFilter(filter, imageOld, newImage);
+    this.imageMap.put(newImage, this.memoize("blur", currentImage, newImage, new Object[0],
+            () -> this.applyFilter(filter, imageOld), imageOld),
+            () -> this.blur(currentImage, newImage), currentImage);
     return true;
   }
 
@@ -495,7 +652,9 @@ class ImageOperations implements Operations {
             {-0.125, 0.25, 0.25, 0.25, -0.125},
             {-0.125, -0.125, -0.125, -0.125, -0.125}
     };
-    this.applyFilter(filter, imageOld, newImage);
+    this.imageMap.put(newImage, this.memoize("sharpen", currentImage, newImage, new Object[0],
+            () -> this.applyFilter(filter, imageOld), imageOld),
+            () -> this.sharpen(currentImage, newImage), currentImage);
     return true;
   }
 
@@ -513,51 +672,30 @@ class ImageOperations implements Operations {
   @Override
   public boolean sepia(String currentImage, String newImage) {
     ImageModel imageOld = this.imageMap.get(currentImage);
-    int height = imageOld.getHeight();
-    int width = imageOld.getWidth();
-    int[][][] arr = new int[height][width][3];
-    double[][] operation = {{0.393, 0.769, 0.189}, {0.349, 0.686, 0.168}, {0.272, 0.534, 0.131}};
-    this.colorTransform(imageOld, operation, arr);
-    ImageModel imageNew = this.getNewImageModel(imageOld, arr);
-    this.imageMap.put(newImage, imageNew);
+    this.imageMap.put(newImage, this.memoize("sepia", currentImage, newImage, new Object[0],
+            () -> this.colorTransform(imageOld, SEPIA), imageOld),
+            () -> this.sepia(currentImage, newImage), currentImage);
     return true;
   }
 
   /**
-   * Applies a color transformation to an image using a 3x3
-   * transformation matrix.
-   * This method takes an input image and a transformation
-   * matrix, performs matrix multiplication between
-   * the transformation matrix and the RGB values
-   * of each pixel, and store.
+   * Applies a color transformation to an image using a per-pixel stage,
+   * such as a color matrix, and stores the result in a new ImageModel.
+   * With a color matrix, each channel of the new pixel is the sum of the
+   * channels of the original pixel weighted by one row of the matrix.
    *
    * @param imageOld  The original image to which the color transformation is applied.
-   * @param operation A 3x3 matrix that defines the color transformation to be applied.
-   * @param arr       A 3D array to store the transformed pixel values.
-   */
-  protected void colorTransform(ImageModel imageOld, double[][] operation,
-                                int[][][] arr) {
-    int height = imageOld.getHeight();
-    int width = imageOld.getWidth();
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        int[] originalRGB = new int[3];
-        originalRGB[0] = imageOld.getPixelValue(i, j, 0);
-        originalRGB[1] = imageOld.getPixelValue(i, j, 1);
-        originalRGB[2] = imageOld.getPixelValue(i, j, 2);
-        int[] newRGB = new int[3];
-        for (int k = 0; k < 3; k++) {
-          double temp = 0;
-          for (int l = 0; l < 3; l++) {
-            temp = temp + (operation[k][l] * originalRGB[l]);
-          }
-          newRGB[k] = (int) temp;
-        }
-        this.setPixelValue(i, j, 0, newRGB[0], arr);
-        this.setPixelValue(i, j, 1, newRGB[1], arr);
-        this.setPixelValue(i, j, 2, newRGB[2], arr);
-      }
+   * @param operation The stage that defines the color transformation to be applied.
+   * @return the new ImageModel.
+   */
+  protected ImageModel colorTransform(ImageModel imageOld, PixelStage operation) {
+    if (this.lazy) {
+      return LazyImageModel.of(imageOld, operation);
     }
+    int[] arr = new int[imageOld.getHeight() * imageOld.getWidth()];
+    this.forEachBlock(imageOld, (block, index, count) ->
+            operation.apply(block, 0, arr, index, count));
+    return this.getNewImageModel(imageOld, arr);
   }
 
 
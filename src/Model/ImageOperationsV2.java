@@ -1,10 +1,6 @@
 package model;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
 
 /**
  * This class implements the new methods needed to be implemented by the program.
@@ -20,289 +16,255 @@ import java.util.List;
 public class ImageOperationsV2 extends ImageOperations implements OperationsV2 {
 
   /**
-   * Compresses a given image by a specified percentage using
-   * the Haar Wavelet Transform algorithm.
-   * This method extracts each color channel (red, green, blue)
-   * from the image, applies the Haar Wavelet Transform to
-   * compress each channel, and combines the channels to generate
-   * a new compressed image.
-   *
-   * @param currentImageName the name of the original image to be compressed.
-   * @param newImageName     the name to assign to the new compressed image.
-   * @param percentage       the percentage by which the image is to be compressed (0-100).
-   *                         A higher percentage results in greater compression and loss.
-   * @return true if operation done successfully, else false.
+   * Constructs an ImageOperationsV2 object whose operations run on
+   * the shared executor.
    */
-  @Override
-  public boolean compressImage(String currentImageName, String newImageName, double percentage) {
-    ImageModel imageOld = this.imageMap.get(currentImageName);
-    int height = imageOld.getHeight();
-    int width = imageOld.getWidth();
-    int paddingSize = this.padding(Math.max(height, width));
-    double[][] red = new double[paddingSize][paddingSize];
-    double[][] green = new double[paddingSize][paddingSize];
-    double[][] blue = new double[paddingSize][paddingSize];
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        red[i][j] = imageOld.getPixelValue(i, j, 0);
-        green[i][j] = imageOld.getPixelValue(i, j, 1);
-        blue[i][j] = imageOld.getPixelValue(i, j, 2);
-      }
-    }
-    red = this.pipeline(red, paddingSize, percentage);
-    green = this.pipeline(green, paddingSize, percentage);
-    blue = this.pipeline(blue, paddingSize, percentage);
-    this.combineChannel(imageOld, newImageName, red, green, blue);
-    return true;
+  public ImageOperationsV2() {
+    super();
   }
 
   /**
-   * Combines the transformed color channels (red, green, blue)
-   * and generates a new compressed image.
-   * Sets the pixel values of the new image based on the
-   * compressed color channels.
+   * Constructs an ImageOperationsV2 object whose operations run with
+   * the specified parallelism level.
    *
-   * @param old          the original ImageModel object containing
-   *                     the uncompressed image data.
-   * @param newImageName the name of the new compressed image.
-   * @param red          2D array representing the compressed red color channel.
-   * @param green        2D array representing the compressed green color channel.
-   * @param blue         2D array representing the compressed blue color channel.
+   * @param parallelism the number of threads used by each operation.
+   * @throws IllegalArgumentException if the parallelism level is less than one.
    */
-  private void combineChannel(ImageModel old, String newImageName, double[][] red,
-                              double[][] green, double[][] blue) {
-    int height = old.getHeight();
-    int width = old.getWidth();
-    int[][][] arr = new int[height][width][3];
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        this.setPixelValue(i, j, 0, (int) red[i][j], arr);
-        this.setPixelValue(i, j, 1, (int) green[i][j], arr);
-        this.setPixelValue(i, j, 2, (int) blue[i][j], arr);
-      }
-    }
-    ImageModel imageNew = this.getNewImageModel(old, arr);
-    this.imageMap.put(newImageName, imageNew);
+  public ImageOperationsV2(int parallelism) throws IllegalArgumentException {
+    super(parallelism);
   }
 
   /**
-   * Processes a given color channel array by applying the
-   * Haar Wavelet Transform to compress it.
-   * The compression level is determined by the specified percentage.
+   * Constructs an ImageOperationsV2 object whose operations run on
+   * the specified executor and keep their images in the specified
+   * store.
    *
-   * @param matrix     2D array representing a single color channel of the image.
-   * @param size       the padded size of the color channel array.
-   * @param percentage the percentage by which the color channel
-   *                   data is to be compressed.
-   * @return the transformed and compressed color channel array.
+   * @param executor the executor used to process the rows of images.
+   * @param store    the store which holds the images.
    */
-  protected double[][] pipeline(double[][] matrix, int size, double percentage) {
-    matrix = this.haar(matrix, size);
-    matrix = this.compress(matrix, percentage);
-    matrix = this.inverseHarr(matrix, size);
-    return matrix;
+  ImageOperationsV2(RowExecutor executor, ImageStore store) {
+    super(executor, store);
   }
 
   /**
-   * Performs the inverse Haar Wavelet Transform on a given 2D matrix.
-   * This method iteratively applies the inverse transform on columns and rows
-   * to reconstruct the original data from a compressed state. The transform
-   * progresses with increasing resolution until it covers the full matrix size.
+   * Constructs an ImageOperationsV2 object whose operations run on
+   * the specified executor, keep their images in the specified store
+   * and fuse their per-pixel work if they are lazy.
    *
-   * @param matrix the 2D matrix representing a compressed color channel.
-   * @param size   the dimension of the matrix (assumed to be a power of 2).
-   * @return the matrix after the inverse Haar transform.
+   * @param executor the executor used to process the rows of images.
+   * @param store    the store which holds the images.
+   * @param lazy     true to defer and fuse the per-pixel operations.
    */
-  protected double[][] inverseHarr(double[][] matrix, int size) {
-    int c = 2;
-    while (c <= size) {
-      matrix = this.inverseTransformColumn(matrix, c);
-      matrix = this.inverseTransformRow(matrix, c);
-      c = c * 2;
-    }
-    return matrix;
+  ImageOperationsV2(RowExecutor executor, ImageStore store, boolean lazy) {
+    super(executor, store, lazy);
   }
 
   /**
-   * Applies the inverse Haar Wavelet Transform
-   * to each row of the specified matrix.
-   * This method reconstructs the original row values
-   * by separating the average and
-   * difference components and computing each element
-   * based on the current resolution (c).
+   * Constructs an ImageOperationsV2 object whose operations run on
+   * the specified executor, keep their images in the specified store,
+   * fuse their per-pixel work if they are lazy and remember their
+   * results in the specified cache.
    *
-   * @param matrix the 2D matrix on which the inverse transform
-   *               is to be applied row by row.
-   * @param c      the current resolution level.
-   * @return the matrix with its rows transformed.
+   * @param executor the executor used to process the rows of images.
+   * @param store    the store which holds the images.
+   * @param lazy     true to defer and fuse the per-pixel operations.
+   * @param results  the cache which remembers the results.
    */
-  protected double[][] inverseTransformRow(double[][] matrix, int c) {
-    for (int i = 0; i < matrix.length; i++) {
-      List<Double> avg = new ArrayList<>();
-      List<Double> diff = new ArrayList<>();
-      for (int j = 0; j < c / 2; j++) {
-        avg.add((matrix[i][j] + matrix[i][j + (c / 2)]) / Math.sqrt(2.0));
-        diff.add((matrix[i][j] - matrix[i][j + (c / 2)]) / (Math.sqrt(2.0)));
-      }
-      for (int j = 0; j < c; j = j + 2) {
-        matrix[i][j] = avg.get(j / 2);
-        matrix[i][j + 1] = diff.get(j / 2);
-      }
-    }
-    return matrix;
+  ImageOperationsV2(RowExecutor executor, ImageStore store, boolean lazy, ResultCache results) {
+    super(executor, store, lazy, results);
   }
 
   /**
-   * Applies the inverse Haar Wavelet Transform
-   * to each column of the specified matrix.
-   * This method reconstructs the original column values
-   * by separating the average and
-   * difference components and computing each element
-   * based on the current resolution (c).
-   *
-   * @param matrix the 2D matrix on which the inverse transform is
-   *               to be applied column by column.
-   * @param c      the current resolution level.
-   * @return the matrix with its rows transformed.
-   */
-  protected double[][] inverseTransformColumn(double[][] matrix, int c) {
-    for (int i = 0; i < matrix.length; i++) {
-      List<Double> avg = new ArrayList<>();
-      List<Double> diff = new ArrayList<>();
-      for (int j = 0; j < c / 2; j++) {
-        avg.add((matrix[j][i] + matrix[j + (c / 2)][i]) / Math.sqrt(2.0));
-        diff.add((matrix[j][i] - matrix[j + (c / 2)][i]) / (Math.sqrt(2.0)));
-      }
-      for (int j = 0; j < c; j = j + 2) {
-        matrix[j][i] = avg.get(j / 2);
-        matrix[j + 1][i] = diff.get(j / 2);
-      }
-    }
-    return matrix;
-  }
-
-  /**
-   * Applies the Haar Wavelet Transform to a given matrix,
-   * iteratively transforming rows and columns.
-   * This method compresses an image channel by breaking down the data
-   * into average and difference values, reducing data
-   * resolution in each iteration.
-   *
-   * @param matrix the 2D matrix representing the
-   *               color channel of the image.
-   * @param size   the size of the matrix.
-   * @return the matrix after the Haar Wavelet Transform is applied.
-   */
-  protected double[][] haar(double[][] matrix, int size) {
-    int c = size;
-    while (c > 1) {
-      matrix = this.transformRow(matrix, c);
-      matrix = this.transformColumn(matrix, c);
-      c = c / 2;
-    }
-    return matrix;
-  }
-
-  /**
-   * Applies the Haar Wavelet Transform
-   * to each row of the specified matrix.
-   * This method reconstructs the original row values
-   * by separating the average and
-   * difference components and computing each element
-   * based on the current resolution (c).
+   * Compresses a given image by a specified percentage using
+   * the Haar Wavelet Transform algorithm.
+   * This method extracts each color channel (red, green, blue)
+   * from the image, applies the Haar Wavelet Transform to
+   * compress each channel, and combines the channels to generate
+   * a new compressed image.
    *
-   * @param matrix the 2D matrix on which the transform
-   *               is to be applied row by row.
-   * @param c      the current resolution level.
-   * @return the matrix with its rows transformed.
+   * @param currentImageName the name of the original image to be compressed.
+   * @param newImageName     the name to assign to the new compressed image.
+   * @param percentage       the percentage by which the image is to be compressed (0-100).
+   *                         A higher percentage results in greater compression and loss.
+   * @return true if operation done successfully, else false.
    */
-  protected double[][] transformRow(double[][] matrix, int c) {
-    for (int i = 0; i < matrix.length; i++) {
-      List<Double> avg = new ArrayList<>();
-      List<Double> diff = new ArrayList<>();
-      for (int j = 0; j < c; j = j + 2) {
-        avg.add((matrix[i][j] + matrix[i][j + 1]) / (Math.sqrt(2.0)));
-        diff.add((matrix[i][j] - matrix[i][j + 1]) / (Math.sqrt(2.0)));
-      }
-      for (int j = 0; j < avg.size(); j++) {
-        matrix[i][j] = avg.get(j);
-        matrix[i][avg.size() + j] = diff.get(j);
-      }
-    }
-    return matrix;
+  @Override
+  public boolean compressImage(String currentImageName, String newImageName, double percentage) {
+    ImageModel imageOld = this.imageMap.get(currentImageName);
+    ImageModel newImage = this.memoize("compress", currentImageName, newImageName,
+            new Object[]{percentage}, () -> {
+      int height = imageOld.getHeight();
+      int width = imageOld.getWidth();
+      int paddingSize = this.padding(Math.max(height, width));
+      int planeSize = paddingSize * paddingSize;
+      double[] channels = new double[3 * planeSize];
+      int[] src = imageOld.getPixels();
+      this.executor.forEachRow(height, width, (start, end) -> {
+        for (int i = start; i < end; i++) {
+          for (int j = 0; j < width; j++) {
+            int rgb = src[i * width + j];
+            int index = i * paddingSize + j;
+            channels[index] = (rgb >> 16) & 0xff;
+            channels[planeSize + index] = (rgb >> 8) & 0xff;
+            channels[2 * planeSize + index] = rgb & 0xff;
+          }
+        }
+      });
+      HaarTransform.forward(channels, 3, paddingSize, this.executor);
+      this.executor.forEachRow(3, planeSize, (start, end) -> {
+        for (int k = start; k < end; k++) {
+          this.compress(channels, k * planeSize, planeSize, percentage);
+        }
+      });
+      double[] quantized = channels.clone();
+      byte[][] blocks = {HaarCodec.quantize(quantized, 0, 3, planeSize)};
+      HaarTransform.inverse(channels, 3, paddingSize, this.executor);
+      HaarTransform.inverse(quantized, 3, paddingSize, this.executor);
+      int[] arr = new int[height * width];
+      int[] rebuilt = new int[height * width];
+      HaarCodec.writeBlock(channels, paddingSize, 0, 0, height, width, arr, this.executor);
+      HaarCodec.writeBlock(quantized, paddingSize, 0, 0, height, width, rebuilt, this.executor);
+      byte[] encoded = HaarCodec.encode(height, width, paddingSize, blocks, rebuilt, arr);
+      return new HaarImageModel(encoded, arr);
+    }, imageOld);
+    this.imageMap.put(newImageName, newImage,
+            () -> this.compressImage(currentImageName, newImageName, percentage),
+            currentImageName);
+    return true;
   }
 
   /**
-   * Applies the inverse Haar Wavelet Transform
-   * to each column of the specified matrix.
-   * This method reconstructs the original column values
-   * by separating the average and
-   * difference components and computing each element
-   * based on the current resolution (c).
+   * Compresses a given image by a specified percentage using
+   * the Haar Wavelet Transform algorithm on square tiles.
+   * Every tile is transformed, compressed with its own threshold and
+   * reconstructed on its own, so the tiles are processed in parallel
+   * and each band of tiles only needs the scratch space of one tile.
    *
-   * @param matrix the 2D matrix on which the transform
-   *               is to be applied column by column.
-   * @param c      the current resolution level.
-   * @return the matrix with its rows transformed.
+   * @param currentImageName the name of the original image to be compressed.
+   * @param newImageName     the name to assign to the new compressed image.
+   * @param percentage       the percentage by which the image is to be compressed (0-100).
+   *                         A higher percentage results in greater compression and loss.
+   * @param tileSize         the size of each tile, which must be a power of two
+   *                         greater than one.
+   * @return true if operation done successfully, else false.
+   * @throws IllegalArgumentException if the tile size is not a power of two
+   *                                  greater than one.
    */
-  protected double[][] transformColumn(double[][] matrix, int c) {
-    for (int i = 0; i < matrix.length; i++) {
-      List<Double> avg = new ArrayList<>();
-      List<Double> diff = new ArrayList<>();
-      for (int j = 0; j < c; j = j + 2) {
-        avg.add((matrix[j][i] + matrix[j + 1][i]) / (Math.sqrt(2.0)));
-        diff.add((matrix[j][i] - matrix[j + 1][i]) / (Math.sqrt(2.0)));
-      }
-      for (int j = 0; j < avg.size(); j++) {
-        matrix[j][i] = ((avg.get(j)));
-        matrix[j + avg.size()][i] = (diff.get(j));
-      }
+  @Override
+  public boolean compressImage(String currentImageName, String newImageName, double percentage,
+                               int tileSize) throws IllegalArgumentException {
+    if (tileSize < 2 || Integer.bitCount(tileSize) != 1) {
+      throw new IllegalArgumentException("Tile size must be a power of two greater than 1.");
     }
-    return matrix;
+    ImageModel imageOld = this.imageMap.get(currentImageName);
+    ImageModel newImage = this.memoize("compress", currentImageName, newImageName,
+            new Object[]{percentage, tileSize}, () -> {
+      int height = imageOld.getHeight();
+      int width = imageOld.getWidth();
+      int tilesAcross = (width + tileSize - 1) / tileSize;
+      int tiles = ((height + tileSize - 1) / tileSize) * tilesAcross;
+      int planeSize = tileSize * tileSize;
+      int[] src = imageOld.getPixels();
+      int[] arr = new int[height * width];
+      int[] rebuilt = new int[height * width];
+      byte[][] blocks = new byte[tiles][];
+      this.executor.forEachRow(tiles, planeSize, (start, end) -> {
+        double[] channels = new double[3 * planeSize];
+        for (int t = start; t < end; t++) {
+          int top = (t / tilesAcross) * tileSize;
+          int left = (t % tilesAcross) * tileSize;
+          int rows = Math.min(tileSize, height - top);
+          int columns = Math.min(tileSize, width - left);
+          Arrays.fill(channels, 0.0);
+          for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+              int rgb = src[(top + i) * width + left + j];
+              int index = i * tileSize + j;
+              channels[index] = (rgb >> 16) & 0xff;
+              channels[planeSize + index] = (rgb >> 8) & 0xff;
+              channels[2 * planeSize + index] = rgb & 0xff;
+            }
+          }
+          HaarTransform.forward(channels, 3, tileSize, RowExecutor.SERIAL);
+          for (int k = 0; k <= 2; k++) {
+            this.compress(channels, k * planeSize, planeSize, percentage);
+          }
+          double[] quantized = channels.clone();
+          blocks[t] = HaarCodec.quantize(quantized, 0, 3, planeSize);
+          HaarTransform.inverse(channels, 3, tileSize, RowExecutor.SERIAL);
+          HaarTransform.inverse(quantized, 3, tileSize, RowExecutor.SERIAL);
+          HaarCodec.writeBlock(channels, tileSize, top, left, height, width, arr,
+                  RowExecutor.SERIAL);
+          HaarCodec.writeBlock(quantized, tileSize, top, left, height, width, rebuilt,
+                  RowExecutor.SERIAL);
+        }
+      });
+      byte[] encoded = HaarCodec.encode(height, width, tileSize, blocks, rebuilt, arr);
+      return new HaarImageModel(encoded, arr);
+    }, imageOld);
+    this.imageMap.put(newImageName, newImage,
+            () -> this.compressImage(currentImageName, newImageName, percentage, tileSize),
+            currentImageName);
+    return true;
   }
 
   /**
-   * Compresses the matrix by removing values below a
-   * calculated threshold based on
-   * the specified compression percentage.
+   * Compresses a color channel after the Haar Transform by removing
+   * values below a calculated threshold based on the specified
+   * compression percentage.
+   * The magnitude of every value is rounded to three decimal places,
+   * and the threshold is the distinct rounded magnitude found at the
+   * specified percentage of all the distinct rounded magnitudes in
+   * ascending order. The magnitudes are kept as whole thousandths in a
+   * primitive array, which is sorted and de-duplicated in place.
    * The Haar coefficients that have less
    * significance are set to zero, achieving compression.
    *
-   * @param matrix     the matrix containing color channel data after Haar Transform.
+   * @param data       the array containing the color channel data after Haar Transform.
+   * @param offset     the index of the first value of the channel.
+   * @param length     the number of values in the channel.
    * @param percentage the percentage of data to remove.
-   * @return the matrix after compression is applied.
    */
-  protected double[][] compress(double[][] matrix, double percentage) {
+  protected void compress(double[] data, int offset, int length, double percentage) {
     double threshold = Double.MAX_VALUE;
     if (percentage == 100.0) {
-      return this.applyThreshold(matrix, threshold);
+      this.applyThreshold(data, offset, length, threshold);
+      return;
+    }
+    long[] value = new long[length];
+    for (int i = 0; i < length; i++) {
+      value[i] = Math.abs(Math.round(data[offset + i] * 1000.0));
     }
-    List<Double> value = new ArrayList<>();
-    for (double[] doubles : matrix) {
-      for (int j = 0; j < matrix.length; j++) {
-        double num = Math.round(doubles[j] * 1000.0) / 1000.0;
-        value.add(Math.abs(num));
+    Arrays.sort(value);
+    int distinct = 0;
+    for (int i = 0; i < length; i++) {
+      if (i == 0 || value[i] != value[i - 1]) {
+        value[distinct++] = value[i];
       }
     }
-    List<Double> distinctPixel = new ArrayList<>(new HashSet<>(value));
-    Collections.sort(distinctPixel);
-    int index = (int) Math.round((distinctPixel.size() * (percentage / 100.0)));
-    threshold = distinctPixel.get(index);
-    return this.applyThreshold(matrix, threshold);
+    int index = (int) Math.round((distinct * (percentage / 100.0)));
+    if (index < distinct) {
+      threshold = value[index] / 1000.0;
+    }
+    this.applyThreshold(data, offset, length, threshold);
   }
 
   /**
-   * Sets matrix values below the specified threshold to zero.
+   * Sets the values of a color channel below the specified threshold
+   * to zero, in place.
    * This step is part of the compression process.
    *
-   * @param matrix    the matrix containing the color channel data.
+   * @param data      the array containing the color channel data.
+   * @param offset    the index of the first value of the channel.
+   * @param length    the number of values in the channel.
    * @param threshold the threshold value; values below this are set to zero.
-   * @return the matrix after the threshold is applied.
    */
-  protected double[][] applyThreshold(double[][] matrix, double threshold) {
-    return Arrays.stream(matrix).map(r -> Arrays.stream(r)
-                    .map(v -> Math.abs(v) < threshold ? 0.0 : v).toArray())
-            .toArray(double[][]::new);
+  protected void applyThreshold(double[] data, int offset, int length, double threshold) {
+    for (int i = offset; i < offset + length; i++) {
+      if (Math.abs(data[i]) < threshold) {
+        data[i] = 0.0;
+      }
+    }
   }
 
   /**
@@ -335,32 +297,36 @@ public class ImageOperationsV2 extends ImageOperations implements OperationsV2 {
   public boolean histogram(String currentImageName,
                            String newImageName) {
     ImageModel oldImage = this.imageMap.get(currentImageName);
-    int[][][] arr = new int[256][256][3];
-    int[][][] matrix = oldImage.getPixelMatrix();
-    this.setBackground(arr);
-
-    int[] red = this.getFrequency(matrix, 0);
-    int[] green = this.getFrequency(matrix, 1);
-    int[] blue = this.getFrequency(matrix, 2);
-
-    int redPeak = Arrays.stream(red).max().getAsInt();
-    int greenPeak = Arrays.stream(green).max().getAsInt();
-    int bluePeak = Arrays.stream(blue).max().getAsInt();
-
-    int redMin = Arrays.stream(red).min().getAsInt();
-    int greenMin = Arrays.stream(green).min().getAsInt();
-    int blueMin = Arrays.stream(blue).min().getAsInt();
-
-    int max_value = Math.max(Math.max(redPeak, greenPeak), bluePeak);
-    int min_value = Math.min(Math.min(redMin, greenMin), blueMin);
-
-    red = this.applyNormalize(red, max_value, min_value);
-    green = this.applyNormalize(green, max_value, min_value);
-    blue = this.applyNormalize(blue, max_value, min_value);
-
-    this.connectPeak(arr, red, green, blue);
-    ImageModel newImage = new ImageModel(256, 256, arr);
-    this.imageMap.put(newImageName, newImage);
+    ImageModel newImage = this.memoize("histogram", currentImageName, newImageName,
+            new Object[0], () -> {
+      int[] arr = new int[256 * 256];
+      this.setBackground(arr);
+
+      int[][] frequency = this.getFrequencies(oldImage);
+      int[] red = frequency[0];
+      int[] green = frequency[1];
+      int[] blue = frequency[2];
+
+      int redPeak = Arrays.stream(red).max().getAsInt();
+      int greenPeak = Arrays.stream(green).max().getAsInt();
+      int bluePeak = Arrays.stream(blue).max().getAsInt();
+
+      int redMin = Arrays.stream(red).min().getAsInt();
+      int greenMin = Arrays.stream(green).min().getAsInt();
+      int blueMin = Arrays.stream(blue).min().getAsInt();
+
+      int max_value = Math.max(Math.max(redPeak, greenPeak), bluePeak);
+      int min_value = Math.min(Math.min(redMin, greenMin), blueMin);
+
+      red = this.applyNormalize(red, max_value, min_value);
+      green = this.applyNormalize(green, max_value, min_value);
+      blue = this.applyNormalize(blue, max_value, min_value);
+
+      this.connectPeak(arr, red, green, blue);
+      return new ImageModel(256, 256, arr);
+    }, oldImage);
+    this.imageMap.put(newImageName, newImage,
+            () -> this.histogram(currentImageName, newImageName), currentImageName);
     return true;
   }
 
@@ -369,19 +335,15 @@ public class ImageOperationsV2 extends ImageOperations implements OperationsV2 {
    * background grid for the histogram canvas.
    * Draws grid lines every 17 pixels on the canvas for visual aid.
    *
-   * @param arr the pixel matrix for the histogram image.
+   * @param arr the packed pixel array for the histogram image.
    */
-  private void setBackground(int[][][] arr) {
+  private void setBackground(int[] arr) {
     for (int i = 0; i < 256; i++) {
       for (int j = 0; j < 256; j++) {
         if (i % (17) == 0 || j % (17) == 0) {
-          this.setPixelValue(i, j, 0, 200, arr);
-          this.setPixelValue(i, j, 1, 200, arr);
-          this.setPixelValue(i, j, 2, 200, arr);
+          this.setPixelValue(i * 256 + j, 200, 200, 200, arr);
         } else {
-          this.setPixelValue(i, j, 0, 255, arr);
-          this.setPixelValue(i, j, 1, 255, arr);
-          this.setPixelValue(i, j, 2, 255, arr);
+          this.setPixelValue(i * 256 + j, 255, 255, 255, arr);
         }
       }
     }
@@ -391,17 +353,57 @@ public class ImageOperationsV2 extends ImageOperations implements OperationsV2 {
    * Calculates the frequency of pixel intensity
    * values for a specific color channel.
    *
-   * @param matrix  the pixel matrix of the image.
+   * @param matrix  the packed pixel array of the image.
    * @param channel the color channel.
    * @return an array representing the frequency of each intensity (0-255).
    */
-  protected int[] getFrequency(int[][][] matrix, int channel) {
+  protected int[] getFrequency(int[] matrix, int channel) {
     int[] n = new int[256];
-    for (int i = 0; i < matrix.length; i++) {
-      for (int j = 0; j < matrix[0].length; j++) {
-        n[matrix[i][j][channel]] = n[matrix[i][j][channel]] + 1;
-      }
+    int shift = 16 - 8 * channel;
+    for (int rgb : matrix) {
+      n[(rgb >> shift) & 0xff]++;
+    }
+    return n;
+  }
+
+  /**
+   * Calculates the frequency of pixel intensity values for all three
+   * color channels in a single pass over the image. The image is read
+   * in blocks of rows in parallel, each block being counted on its own
+   * and then added to the totals.
+   * The frequencies of a lazy image which maps its source through a
+   * point operation are mapped from the frequencies of the source, so
+   * the lazy image is not computed.
+   *
+   * @param image the image whose pixels are counted.
+   * @return the frequency of each intensity (0-255) of the red, green
+   *         and blue channel.
+   */
+  protected int[][] getFrequencies(ImageModel image) {
+    if (image instanceof LazyImageModel && !((LazyImageModel) image).isComputed()
+            && ((LazyImageModel) image).getStage() instanceof PointOp) {
+      PointOp op = (PointOp) ((LazyImageModel) image).getStage();
+      int[][] n = this.getFrequencies(((LazyImageModel) image).getSource());
+      return new int[][]{op.mapFrequency(n[0], 0), op.mapFrequency(n[1], 1),
+              op.mapFrequency(n[2], 2)};
     }
+    int[][] n = new int[3][256];
+    this.forEachBlock(image, (block, index, count) -> {
+      int[][] local = new int[3][256];
+      for (int k = 0; k < count; k++) {
+        int rgb = block[k];
+        local[0][(rgb >> 16) & 0xff]++;
+        local[1][(rgb >> 8) & 0xff]++;
+        local[2][rgb & 0xff]++;
+      }
+      synchronized (n) {
+        for (int c = 0; c < 3; c++) {
+          for (int v = 0; v < 256; v++) {
+            n[c][v] += local[c][v];
+          }
+        }
+      }
+    });
     return n;
   }
 
@@ -426,12 +428,12 @@ public class ImageOperationsV2 extends ImageOperations implements OperationsV2 {
    * Connects the peak points of the histogram for
    * each color channel to form a line graph.
    *
-   * @param arr   the pixel matrix for the histogram image.
+   * @param arr   the packed pixel array for the histogram image.
    * @param red   the normalized frequency array for the red channel.
    * @param green the normalized frequency array for the green channel.
    * @param blue  the normalized frequency array for the blue channel.
    */
-  private void connectPeak(int[][][] arr, int[] red,
+  private void connectPeak(int[] arr, int[] red,
                            int[] green, int[] blue) {
     int prevRed = 255 - red[0];
     int prevGreen = 255 - green[0];
@@ -456,23 +458,19 @@ public class ImageOperationsV2 extends ImageOperations implements OperationsV2 {
    *
    * @param start the starting y-coordinate.
    * @param end   the ending y-coordinate.
-   * @param arr   the pixel matrix for the histogram.
+   * @param arr   the packed pixel array for the histogram.
    * @param index the x-coordinate for the line.
    * @param rgb   the color of the line (RGB array).
    */
-  private void drawLine(int start, int end, int[][][] arr,
+  private void drawLine(int start, int end, int[] arr,
                         int index, int[] rgb) {
     if (start < end) {
       for (int i = start; i <= end; i++) {
-        this.setPixelValue(i, index, 0, rgb[0], arr);
-        this.setPixelValue(i, index, 1, rgb[1], arr);
-        this.setPixelValue(i, index, 2, rgb[2], arr);
+        this.setPixelValue(i * 256 + index, rgb[0], rgb[1], rgb[2], arr);
       }
     } else {
       for (int i = start; i >= end; i--) {
-        this.setPixelValue(i, index, 0, rgb[0], arr);
-        this.setPixelValue(i, index, 1, rgb[1], arr);
-        this.setPixelValue(i, index, 2, rgb[2], arr);
+        this.setPixelValue(i * 256 + index, rgb[0], rgb[1], rgb[2], arr);
       }
     }
   }
@@ -490,18 +488,18 @@ public class ImageOperationsV2 extends ImageOperations implements OperationsV2 {
   public boolean colorCorrection(String currentImageName,
                                  String newImageName) {
     ImageModel oldImage = this.imageMap.get(currentImageName);
-    int[][][] arr = new int[oldImage.getHeight()][oldImage.getWidth()][3];
-    int[][][] matrix = oldImage.getPixelMatrix();
-    int[] red = this.getFrequency(matrix, 0);
-    int[] green = this.getFrequency(matrix, 1);
-    int[] blue = this.getFrequency(matrix, 2);
-    int redPeak = this.getPeak(red);
-    int greenPeak = this.getPeak(green);
-    int bluePeak = this.getPeak(blue);
-    int averagePeak = (redPeak + bluePeak + greenPeak) / 3;
-    this.setCorrectedValue(arr, matrix, averagePeak, redPeak, greenPeak, bluePeak);
-    ImageModel newImage = this.getNewImageModel(oldImage, arr);
-    this.imageMap.put(newImageName, newImage);
+    ImageModel newImage = this.memoize("color-correct", currentImageName, newImageName,
+            new Object[0], () -> {
+      int[][] frequency = this.getFrequencies(oldImage);
+      int redPeak = this.getPeak(frequency[0]);
+      int greenPeak = this.getPeak(frequency[1]);
+      int bluePeak = this.getPeak(frequency[2]);
+      int averagePeak = (redPeak + bluePeak + greenPeak) / 3;
+      return this.applyPointOp(PointOp.offset(averagePeak - redPeak,
+              averagePeak - greenPeak, averagePeak - bluePeak), oldImage);
+    }, oldImage);
+    this.imageMap.put(newImageName, newImage,
+            () -> this.colorCorrection(currentImageName, newImageName), currentImageName);
     return true;
   }
 
@@ -526,32 +524,6 @@ public class ImageOperationsV2 extends ImageOperations implements OperationsV2 {
     return index;
   }
 
-  /**
-   * Method to set the color-corrected values in the new image matrix.
-   * Adjusts each pixel's RGB values based on the difference between the
-   * channel's peak and the average peak, effectively balancing color intensities.
-   *
-   * @param arr    the matrix to store the color-corrected pixel values.
-   * @param matrix original image matrix containing unadjusted pixel values.
-   * @param avg    the calculated average peak intensity across all channels.
-   * @param red    peak intensity value for the red channel.
-   * @param green  peak intensity value for the green channel.
-   * @param blue   peak intensity value for the blue channel.
-   */
-  private void setCorrectedValue(int[][][] arr, int[][][] matrix, int avg,
-                                 int red, int green, int blue) {
-    for (int i = 0; i < arr.length; i++) {
-      for (int j = 0; j < arr[0].length; j++) {
-        int red_value = matrix[i][j][0] + (avg - red);
-        int green_value = matrix[i][j][1] + (avg - green);
-        int blue_value = matrix[i][j][2] + (avg - blue);
-        this.setPixelValue(i, j, 0, red_value, arr);
-        this.setPixelValue(i, j, 1, green_value, arr);
-        this.setPixelValue(i, j, 2, blue_value, arr);
-      }
-    }
-  }
-
   /**
    * Method to apply levels adjustment operation on the given image.
    * This method modifies pixel intensity levels of the image based on
@@ -569,11 +541,12 @@ public class ImageOperationsV2 extends ImageOperations implements OperationsV2 {
   public boolean levelAdjustment(String currentImageName, String newImageName,
                                  int b, int m, int w) {
     ImageModel oldImage = this.imageMap.get(currentImageName);
-    int[][][] arr = new int[oldImage.getHeight()][oldImage.getWidth()][3];
     double[] coeff = this.getCoefficient(b, m, w);
-    this.applyAdjustment(arr, oldImage, coeff);
-    ImageModel newImage = this.getNewImageModel(oldImage, arr);
-    this.imageMap.put(newImageName, newImage);
+    this.imageMap.put(newImageName, this.memoize("levels-adjust", currentImageName,
+            newImageName, new Object[]{b, m, w},
+            () -> this.applyPointOp(PointOp.quadratic(coeff), oldImage), oldImage),
+            () -> this.levelAdjustment(currentImageName, newImageName, b, m, w),
+            currentImageName);
     return true;
   }
 
@@ -601,32 +574,6 @@ public class ImageOperationsV2 extends ImageOperations implements OperationsV2 {
     return new double[]{aA / a, bA / a, cA / a};
   }
 
-  /**
-   * Helper method to apply the adjusted pixel
-   * values to a new image matrix.
-   * This method computes the new pixel values for the
-   * image based on the
-   * calculated coefficients and updates the pixel
-   * matrix accordingly.
-   *
-   * @param arr   the matrix to store the adjusted pixel
-   *              values of the image.
-   * @param o     the existing ImageModel whose pixel
-   *              values are to be adjusted.
-   * @param coeff array of coefficients used for adjusting pixel values.
-   */
-  private void applyAdjustment(int[][][] arr, ImageModel o, double[] coeff) {
-    for (int i = 0; i < o.getHeight(); i++) {
-      for (int j = 0; j < o.getWidth(); j++) {
-        for (int k = 0; k <= 2; k++) {
-          int x = o.getPixelValue(i, j, k);
-          int y = (int) (coeff[0] * x * x + coeff[1] * x + coeff[2]);
-          this.setPixelValue(i, j, k, y, arr);
-        }
-      }
-    }
-  }
-
   /**
    * Method to apply a split view of an operation on the given image.
    * This method creates a new image that displays a split preview of the
@@ -638,6 +585,8 @@ public class ImageOperationsV2 extends ImageOperations implements OperationsV2 {
    * - Value/Luma/Intensity components
    * - Color Correction
    * - Levels Adjustment
+   * The new image is a cropped view of the original image, so no
+   * pixels are copied.
    *
    * @param currentImageName name of the image to be viewed in split preview.
    * @param newImageName     name to be assigned to the new image in the split preview.
@@ -649,16 +598,12 @@ public class ImageOperationsV2 extends ImageOperations implements OperationsV2 {
     ImageModel oldImage = this.imageMap.get(currentImageName);
     int new_height = oldImage.getHeight();
     int new_width = (int) (oldImage.getWidth() * (percentage / 100.0));
-    int[][][] arr = new int[new_height][new_width][3];
-    for (int i = 0; i < new_height; i++) {
-      for (int j = 0; j < new_width; j++) {
-        for (int k = 0; k <= 2; k++) {
-          this.setPixelValue(i, j, k, oldImage.getPixelValue(i, j, k), arr);
-        }
-      }
-    }
-    ImageModel newImage = new ImageModel(new_height, new_width, arr);
-    this.imageMap.put(newImageName, newImage);
+    ImageModel newImage = this.memoize("split", currentImageName, newImageName,
+            new Object[]{new_width},
+            () -> ViewImageModel.crop(oldImage, 0, 0, new_height, new_width), oldImage);
+    this.imageMap.put(newImageName, newImage,
+            () -> this.splitPreview(currentImageName, newImageName, percentage),
+            currentImageName);
   }
 
   /**
@@ -676,20 +621,23 @@ public class ImageOperationsV2 extends ImageOperations implements OperationsV2 {
   public boolean regain(String currentImageName, String temporaryImageName, String newImageName) {
     ImageModel oldImage = this.imageMap.get(currentImageName);
     ImageModel newImage = this.imageMap.get(temporaryImageName);
-    int width = newImage.getWidth();
-    int[][][] arr = new int[oldImage.getHeight()][oldImage.getWidth()][3];
-    for (int i = 0; i < oldImage.getHeight(); i++) {
-      for (int j = 0; j < oldImage.getWidth(); j++) {
-        for (int k = 0; k <= 2; k++) {
-          if (j < width) {
-            this.setPixelValue(i, j, k, newImage.getPixelValue(i, j, k), arr);
-          } else {
-            this.setPixelValue(i, j, k, oldImage.getPixelValue(i, j, k), arr);
-          }
+    ImageModel finalImage = this.memoize("regain",
+            currentImageName + "," + temporaryImageName, newImageName, new Object[0], () -> {
+      int width = newImage.getWidth();
+      int oldWidth = oldImage.getWidth();
+      int split = Math.min(width, oldWidth);
+      int[] src = oldImage.getPixels();
+      int[] part = newImage.getPixels();
+      int[] arr = new int[src.length];
+      this.executor.forEachRow(oldImage.getHeight(), oldWidth, (start, end) -> {
+        for (int i = start; i < end; i++) {
+          System.arraycopy(part, i * width, arr, i * oldWidth, split);
+          System.arraycopy(src, i * oldWidth + split, arr, i * oldWidth + split,
+                  oldWidth - split);
         }
-      }
-    }
-    ImageModel finalImage = this.getNewImageModel(oldImage, arr);
+      });
+      return this.getNewImageModel(oldImage, arr);
+    }, oldImage, newImage);
     this.imageMap.put(newImageName, finalImage);
     this.imageMap.remove(temporaryImageName);
     return true;
@@ -1,5 +1,8 @@
 package model;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 /**
  * This class implements the new methods needed to be implemented by the program.
  * It extends the older class ImageOperationV2 and implements
@@ -7,11 +10,74 @@ package model;
  * It introduces the following new methods.
  * Masking of image.
  * DownScaling of image.
+ * Color transformation with a user supplied matrix.
+ * Loading and saving images in the HAAR format.
+ * Loading images from packed pixels or from a memory-mapped raster.
  */
 
 
 public class ImageOperationsV3 extends ImageOperationsV2 implements OperationsV3 {
 
+  /**
+   * Constructs an ImageOperationsV3 object whose operations run on
+   * the shared executor.
+   */
+  public ImageOperationsV3() {
+    super();
+  }
+
+  /**
+   * Constructs an ImageOperationsV3 object whose operations run with
+   * the specified parallelism level, on an executor of their own whose
+   * threads are stopped when the operations are closed.
+   *
+   * @param parallelism the number of threads used by each operation.
+   * @throws IllegalArgumentException if the parallelism level is less than one.
+   */
+  public ImageOperationsV3(int parallelism) throws IllegalArgumentException {
+    super(parallelism);
+  }
+
+  /**
+   * Constructs an ImageOperationsV3 object whose operations run on
+   * the specified executor and keep their images in the specified
+   * store.
+   *
+   * @param executor the executor used to process the rows of images.
+   * @param store    the store which holds the images.
+   */
+  ImageOperationsV3(RowExecutor executor, ImageStore store) {
+    super(executor, store);
+  }
+
+  /**
+   * Constructs an ImageOperationsV3 object whose operations run on
+   * the specified executor, keep their images in the specified store
+   * and fuse their per-pixel work if they are lazy.
+   *
+   * @param executor the executor used to process the rows of images.
+   * @param store    the store which holds the images.
+   * @param lazy     true to defer and fuse the per-pixel operations.
+   */
+  ImageOperationsV3(RowExecutor executor, ImageStore store, boolean lazy) {
+    super(executor, store, lazy);
+  }
+
+  /**
+   * Constructs an ImageOperationsV3 object whose operations run on
+   * the specified executor, keep their images in the specified store,
+   * fuse their per-pixel work if they are lazy and remember their
+   * results in the specified cache.
+   *
+   * @param executor the executor used to process the rows of images.
+   * @param store    the store which holds the images.
+   * @param lazy     true to defer and fuse the per-pixel operations.
+   * @param results  the cache which remembers the results.
+   */
+  ImageOperationsV3(RowExecutor executor, ImageStore store, boolean lazy, ResultCache results) {
+    super(executor, store, lazy, results);
+  }
+
   /**
    * Applies a mask to the current image. Pixels of the
    * current image are replaced with
@@ -43,20 +109,32 @@ public class ImageOperationsV3 extends ImageOperationsV2 implements OperationsV3
               "are not same.");
     }
     ImageModel tempImage = this.imageMap.get(temp);
-    int[][][] newMatrix = oldImage.getPixelMatrix();
-    for (int i = 0; i < oldImage.getHeight(); i++) {
-      for (int j = 0; j < oldImage.getWidth(); j++) {
-        if (mask.getPixelValue(i, j, 0) == 0
-                && mask.getPixelValue(i, j, 1) == 0 &&
-                mask.getPixelValue(i, j, 2) == 0) {
-          for (int k = 0; k <= 2; k++) {
-            newMatrix[i][j][k] = tempImage.getPixelValue(i, j, k);
+    ImageModel newImage = this.memoize("mask",
+            String.join(",", currentImageName, maskImageName, temp), newImageName,
+            new Object[0], () -> {
+      int width = oldImage.getWidth();
+      int maskWidth = mask.getWidth();
+      int[] src = oldImage.getPixels();
+      int[] maskPixels = mask.getPixels();
+      int[] tempPixels = tempImage.getPixels();
+      int[] newMatrix = new int[src.length];
+      this.executor.forEachRow(oldImage.getHeight(), width, (start, end) -> {
+        for (int i = start; i < end; i++) {
+          for (int j = 0; j < width; j++) {
+            int index = i * width + j;
+            if (maskPixels[i * maskWidth + j] == 0) {
+              newMatrix[index] = tempPixels[index];
+            } else {
+              newMatrix[index] = src[index];
+            }
           }
         }
-      }
-    }
-    ImageModel newImage = this.getNewImageModel(oldImage, newMatrix);
-    this.imageMap.put(newImageName, newImage);
+      });
+      return this.getNewImageModel(oldImage, newMatrix);
+    }, oldImage, tempImage, mask);
+    this.imageMap.put(newImageName, newImage,
+            () -> this.mask(currentImageName, temp, maskImageName, newImageName),
+            currentImageName, temp, maskImageName);
     return true;
   }
 
@@ -77,70 +155,82 @@ public class ImageOperationsV3 extends ImageOperationsV2 implements OperationsV3
   public void downScale(String currentImageName, int targetHeight,
                         int targetWidth, String newImageName) {
     ImageModel currentImage = this.imageMap.get(currentImageName);
-    int[][][] output = new int[targetHeight][targetWidth][3];
-    int height = currentImage.getHeight();
-    int width = currentImage.getWidth();
-    double xFactor = (double) height / targetHeight;
-    double yFactor = (double) width / targetWidth;
-    this.downScaling(output, xFactor, yFactor, currentImage);
-    ImageModel newImage = new ImageModel(targetHeight, targetWidth, output);
-    this.imageMap.put(newImageName, newImage);
+    Object[] size = {targetHeight, targetWidth};
+    ImageModel newImage = this.memoize("downscale", currentImageName, newImageName, size, () -> {
+      int[] output = new int[targetHeight * targetWidth];
+      int height = currentImage.getHeight();
+      int width = currentImage.getWidth();
+      double xFactor = (double) height / targetHeight;
+      double yFactor = (double) width / targetWidth;
+      this.downScaling(output, targetHeight, targetWidth, xFactor, yFactor, currentImage);
+      return new ImageModel(targetHeight, targetWidth, output);
+    }, currentImage);
+    this.imageMap.put(newImageName, newImage,
+            () -> this.downScale(currentImageName, targetHeight, targetWidth, newImageName),
+            currentImageName);
   }
 
   /**
    * Helper Method to apply the downscaling calculation and
    * storing the value in the resultant.
+   * Only the four source pixels around each target pixel are read,
+   * so a memory-mapped image is only paged in where it is sampled.
    *
-   * @param output       the resultant image matrix
+   * @param output       the resultant packed pixel array
+   * @param targetHeight the target height of the downscaled image
+   * @param targetWidth  the target width of the downscaled image
    * @param xFactor      the scaling factor for height
    * @param yFactor      the scaling factor for width
    * @param currentImage the current image.
    */
-  private void downScaling(int[][][] output, double xFactor, double yFactor,
-                           ImageModel currentImage) {
+  private void downScaling(int[] output, int targetHeight, int targetWidth,
+                           double xFactor, double yFactor, ImageModel currentImage) {
     int height = currentImage.getHeight();
     int width = currentImage.getWidth();
-    int targetHeight = output.length;
-    int targetWidth = output[0].length;
-    for (int i = 0; i < targetHeight; i++) {
-      for (int j = 0; j < targetWidth; j++) {
-        double xsrc = i * xFactor;
-        double ysrc = j * yFactor;
-        int xf = Math.min((int) Math.floor(xsrc), height - 1);
-        int xc = Math.min((int) Math.ceil(xsrc), height - 1);
-        int yf = Math.min((int) Math.floor(ysrc), width - 1);
-        int yc = Math.min((int) Math.ceil(ysrc), width - 1);
-        double weightX = xsrc - xf;
-        double weightY = ysrc - yf;
-        for (int k = 0; k < 3; k++) {
-          int interpolatedValue = interpolatePixelValue(currentImage,
-                  xf, xc, yf, yc, weightX, weightY, k);
-          output[i][j][k] = interpolatedValue;
+    this.executor.forEachRow(targetHeight, targetWidth, (start, end) -> {
+      int[] rgb = new int[3];
+      int[] corners = new int[4];
+      for (int i = start; i < end; i++) {
+        for (int j = 0; j < targetWidth; j++) {
+          double xsrc = i * xFactor;
+          double ysrc = j * yFactor;
+          int xf = Math.min((int) Math.floor(xsrc), height - 1);
+          int xc = Math.min((int) Math.ceil(xsrc), height - 1);
+          int yf = Math.min((int) Math.floor(ysrc), width - 1);
+          int yc = Math.min((int) Math.ceil(ysrc), width - 1);
+          double weightX = xsrc - xf;
+          double weightY = ysrc - yf;
+          corners[0] = currentImage.getRGB(xf, yf);
+          corners[1] = currentImage.getRGB(xc, yf);
+          corners[2] = currentImage.getRGB(xf, yc);
+          corners[3] = currentImage.getRGB(xc, yc);
+          for (int k = 0; k < 3; k++) {
+            rgb[k] = interpolatePixelValue(corners, weightX, weightY, k);
+          }
+          output[i * targetWidth + j] = ImageModel.pack(rgb[0], rgb[1], rgb[2]);
         }
       }
-    }
+    });
   }
 
   /**
    * Helper method to calculate the interpolated pixel value at a
    * specific location using bi-linear interpolation.
    *
-   * @param image   the currentImage
-   * @param xf      the row index of top-left
-   * @param xc      the row index of the top-right
-   * @param yf      the column index of top-left
-   * @param yc      the column index of top-right
+   * @param corners the packed top-left, bottom-left, top-right and
+   *                bottom-right pixels around the location
    * @param weightX the horizontal distance
    * @param weightY the vertical distance
    * @param channel color channel
    * @return the interpolated value for a specific channel.
    */
-  private int interpolatePixelValue(ImageModel image, int xf, int xc, int yf, int yc,
-                                    double weightX, double weightY, int channel) {
-    int ca = image.getPixelValue(xf, yf, channel);
-    int cb = image.getPixelValue(xc, yf, channel);
-    int cc = image.getPixelValue(xf, yc, channel);
-    int cd = image.getPixelValue(xc, yc, channel);
+  private int interpolatePixelValue(int[] corners, double weightX, double weightY,
+                                    int channel) {
+    int shift = 16 - 8 * channel;
+    int ca = (corners[0] >> shift) & 0xff;
+    int cb = (corners[1] >> shift) & 0xff;
+    int cc = (corners[2] >> shift) & 0xff;
+    int cd = (corners[3] >> shift) & 0xff;
 
     double m = ca * (1 - weightX) + cb * weightX;
     double n = cc * (1 - weightX) + cd * weightX;
@@ -148,5 +238,197 @@ public class ImageOperationsV3 extends ImageOperationsV2 implements OperationsV3
     return (int) Math.round(m * (1 - weightY) + n * weightY);
   }
 
+  /**
+   * Transforms the colors of the current image with a color matrix.
+   * The matrix is compiled once into a {@link ColorMatrix}, so a user
+   * supplied matrix runs at the same speed as sepia.
+   *
+   * @param currentImageName the name of the current image to be transformed
+   * @param newImageName     the name under which the transformed image will be saved
+   * @param matrix           a 3x3 or 3x4 color matrix, with one row for
+   *                         each of the red, green and blue channels
+   * @return true if the transformation is successful
+   * @throws IllegalArgumentException if the matrix is not 3x3 or 3x4
+   */
+  @Override
+  public boolean colorMatrix(String currentImageName, String newImageName, double[][] matrix)
+          throws IllegalArgumentException {
+    ImageModel oldImage = this.imageMap.get(currentImageName);
+    double[][] copy = Arrays.stream(matrix).map(double[]::clone).toArray(double[][]::new);
+    ImageModel newImage = this.memoize("color-matrix", currentImageName, newImageName,
+            new Object[]{copy},
+            () -> this.colorTransform(oldImage, new ColorMatrix(copy)), oldImage);
+    this.imageMap.put(newImageName, newImage,
+            () -> this.colorMatrix(currentImageName, newImageName, copy), currentImageName);
+    return true;
+  }
+
+  /**
+   * Loads an image from its packed pixel values. The array is used
+   * as the pixel store of the new image without being copied.
+   *
+   * @param height the height of the image.
+   * @param width  the width of the image.
+   * @param pixels the packed pixel values.
+   * @param name   the name under which the image will be stored
+   * @return true if the image is loaded successfully
+   * @throws IllegalArgumentException if the size of the image does not match
+   *                                  the number of pixels or a pixel is not
+   *                                  packed as 0xRRGGBB
+   */
+  @Override
+  public boolean loadImage(int height, int width, int[] pixels, String name)
+          throws IllegalArgumentException {
+    if (height <= 0 || width <= 0 || pixels == null || (long) height * width != pixels.length) {
+      throw new IllegalArgumentException("Size of the image does not match its pixels.");
+    }
+    for (int pixel : pixels) {
+      if ((pixel & 0xff000000) != 0) {
+        throw new IllegalArgumentException("Pixels must be packed as 0xRRGGBB.");
+      }
+    }
+    this.imageMap.put(name, new ImageModel(height, width, pixels));
+    return true;
+  }
+
+  /**
+   * Loads an image backed by a raster of 8-bit red, green and blue
+   * samples as a {@link MappedImageModel}, which reads its pixels from
+   * the raster when they are needed.
+   *
+   * @param height the height of the image.
+   * @param width  the width of the image.
+   * @param bands  the bands of the raster, in order.
+   * @param name   the name under which the image will be stored
+   * @return true if the image is loaded successfully
+   * @throws IllegalArgumentException if the bands do not hold exactly the
+   *                                  rows of the image
+   */
+  @Override
+  public boolean loadRawImage(int height, int width, ByteBuffer[] bands, String name)
+          throws IllegalArgumentException {
+    this.imageMap.put(name, new MappedImageModel(height, width, bands));
+    return true;
+  }
+
+  /**
+   * Loads an image stored in the HAAR format. The image is kept
+   * compressed in memory as a {@link HaarImageModel}. The data is
+   * decoded once while loading, so that a corrupted file is reported
+   * straight away.
+   *
+   * @param data the contents of a HAAR file.
+   * @param name the name under which the image will be stored
+   * @return true if the image is loaded successfully
+   * @throws IllegalArgumentException if the data is not a valid HAAR image
+   */
+  @Override
+  public boolean loadCompressedImage(byte[] data, String name) throws IllegalArgumentException {
+    HaarImageModel image = new HaarImageModel(data.clone());
+    image.getPixels();
+    this.imageMap.put(name, image);
+    return true;
+  }
+
+  /**
+   * Obtains the image with the specified name in the HAAR format.
+   *
+   * @param name the name of the image
+   * @return the contents of a HAAR file holding the image
+   */
+  @Override
+  public byte[] saveCompressedImage(String name) {
+    ImageModel image = this.imageMap.get(name);
+    if (image instanceof HaarImageModel) {
+      return ((HaarImageModel) image).getEncoded().clone();
+    }
+    return HaarCodec.encode(image, this.executor);
+  }
+
+  /**
+   * Computes the pixels of the image with the specified name if their
+   * computation was deferred. The pixels of a lazy image are kept in a
+   * soft reference once they are computed, so the images fused from it
+   * afterwards read them instead of computing them again.
+   *
+   * @param name the name of the image
+   * @return true if the image is computed successfully
+   */
+  @Override
+  public boolean materialize(String name) {
+    this.imageMap.get(name).getPixels();
+    return true;
+  }
+
+  /**
+   * Removes the image with the specified name from the store. Images
+   * computed from it which the store dropped are computed again first,
+   * so they keep their pixels.
+   *
+   * @param name the name of the image
+   * @return true if the image is removed successfully
+   */
+  @Override
+  public boolean removeImage(String name) {
+    this.imageMap.remove(name);
+    return true;
+  }
+
+  /**
+   * Method to obtain the number of bytes of pixel data held in memory
+   * by all the images, as counted by the store.
+   *
+   * @return the resident bytes.
+   */
+  @Override
+  public long getResidentBytes() {
+    return this.imageMap.getResidentBytes();
+  }
+
+  /**
+   * Method to obtain the height and width of an image as recorded by
+   * the store, without computing the image again or marking it as
+   * recently used.
+   *
+   * @param name the name of the image
+   * @return the height and width of the image, or null if no image has that name
+   */
+  @Override
+  public int[] getImageSize(String name) {
+    return this.imageMap.getSize(name);
+  }
+
+  /**
+   * Removes every image held by the store and deletes its scratch
+   * files. If the operations were given their own parallelism level,
+   * the threads of their executor are stopped too, so these operations
+   * and the sessions they created can no longer process images. The
+   * shared executor, and the executor a session shares with the
+   * operations which created it, are left running.
+   */
+  @Override
+  public void close() {
+    this.imageMap.close();
+    if (this.ownsExecutor) {
+      this.executor.shutdown();
+    }
+  }
+
+  /**
+   * Constructs operations for a new session, which have an empty store
+   * of their own so their images are apart from the images of every
+   * other session, but run on the same executor, are lazy if these
+   * operations are, and share their result cache. The store shares the
+   * budget and spill directory of the store of these operations, so
+   * all the sessions together hold at most that many bytes of images.
+   * The session should be closed when it ends, to delete its scratch
+   * files.
+   *
+   * @return the operations of the new session.
+   */
+  public ImageOperationsV3 newSession() {
+    return new ImageOperationsV3(this.executor, this.imageMap.newStore(), this.lazy,
+            this.results);
+  }
 
 }
@@ -0,0 +1,95 @@
+package model;
+
+/**
+ * This interface represents the store which holds every image loaded
+ * or produced by the operations under its name.
+ * An image which was produced by an operation is stored together with
+ * a recipe which produces it again from the images it was computed
+ * from. A store may drop such an image to save memory and run its
+ * recipe when the image is needed again, so an image stored under a
+ * name can always be obtained until it is removed or replaced.
+ * An image stored without a recipe, such as an image loaded from a
+ * file, is never dropped.
+ */
+interface ImageStore {
+
+  /**
+   * Method to obtain the image stored under a name, running its recipe
+   * first if the image was dropped.
+   *
+   * @param name the name of the image.
+   * @return the image, or null if no image is stored under the name.
+   */
+  ImageModel get(String name);
+
+  /**
+   * Method to check if an image is stored under a name, whether or
+   * not it is currently held in memory.
+   *
+   * @param name the name of the image.
+   * @return true if an image is stored under the name, else false.
+   */
+  boolean contains(String name);
+
+  /**
+   * Stores an image which cannot be computed again, replacing any
+   * image stored under the same name. The image is never dropped.
+   *
+   * @param name  the name of the image.
+   * @param image the image.
+   */
+  void put(String name, ImageModel image);
+
+  /**
+   * Stores an image produced by an operation, replacing any image
+   * stored under the same name. The recipe stores the same image again
+   * under the same name when it is run, as long as the inputs are the
+   * images they were when the image was first stored.
+   *
+   * @param name   the name of the image.
+   * @param image  the image.
+   * @param recipe the operation which produced the image.
+   * @param inputs the names of the images the operation reads.
+   */
+  void put(String name, ImageModel image, Runnable recipe, String... inputs);
+
+  /**
+   * Removes the image stored under a name, if any.
+   *
+   * @param name the name of the image.
+   */
+  void remove(String name);
+
+  /**
+   * Method to obtain the height and width of the image stored under a
+   * name, whether or not it is currently held in memory. The recipe of
+   * the image is not run and the image is not marked as used.
+   *
+   * @param name the name of the image.
+   * @return the height and width, or null if no image is stored under the name.
+   */
+  int[] getSize(String name);
+
+  /**
+   * Creates an empty store of the same kind, whose images are apart
+   * from the images of this store but which shares its limits, so that
+   * the stores together stay within them.
+   *
+   * @return the new store.
+   */
+  ImageStore newStore();
+
+  /**
+   * Removes every image and frees what the store holds outside the
+   * heap, such as its scratch files. The store is empty afterwards.
+   */
+  void close();
+
+  /**
+   * Method to obtain the number of bytes held by the images which are
+   * in memory.
+   *
+   * @return the resident bytes.
+   */
+  long getResidentBytes();
+}
@@ -0,0 +1,168 @@
+package model;
+
+import java.lang.ref.SoftReference;
+
+/**
+ * This class represents an image which is the result of a per-pixel
+ * {@link PixelStage} applied to another image, and which has not been
+ * computed yet. Creating it takes constant time and memory.
+ * When a stage is applied to a lazy image whose pixels have not been
+ * computed, the two stages are fused and applied to the image the
+ * first one reads, so a chain of per-pixel operations such as
+ * brighten, sepia and luma touches every pixel once, when the last
+ * image of the chain is read, and the images in between are never
+ * computed.
+ * Bands of rows are mapped while they are copied out of the source
+ * image, so an operation which reads the image once, such as a
+ * histogram, streams through it without computing the whole image.
+ * The pixels are only computed into an array when an operation needs
+ * them stored contiguously, and that array is kept in a soft
+ * reference, like the pixels of a {@link HaarImageModel}.
+ */
+class LazyImageModel extends ImageModel {
+  private final ImageModel source;
+  private final PixelStage stage;
+  private volatile SoftReference<int[]> computed;
+
+  /**
+   * Constructs a lazy image from its source image and stage.
+   *
+   * @param source the image the stage is applied to.
+   * @param stage  the stage.
+   */
+  private LazyImageModel(ImageModel source, PixelStage stage) {
+    super(source.getHeight(), source.getWidth(), (int[]) null);
+    this.source = source;
+    this.stage = stage;
+  }
+
+  /**
+   * Creates the lazy image of a stage applied to an image. If the image
+   * is itself a lazy image whose pixels are not held in memory, the
+   * stages are fused.
+   *
+   * @param image the image the stage is applied to.
+   * @param stage the stage.
+   * @return the lazy image.
+   */
+  static LazyImageModel of(ImageModel image, PixelStage stage) {
+    if (image instanceof LazyImageModel) {
+      LazyImageModel lazy = (LazyImageModel) image;
+      if (lazy.getComputed() == null) {
+        return new LazyImageModel(lazy.source, lazy.stage.andThen(stage));
+      }
+    }
+    return new LazyImageModel(image, stage);
+  }
+
+  /**
+   * Method to obtain the image the stage is applied to.
+   *
+   * @return the source image.
+   */
+  ImageModel getSource() {
+    return this.source;
+  }
+
+  /**
+   * Method to obtain the stage applied to the source image, which may
+   * be several fused stages.
+   *
+   * @return the stage.
+   */
+  PixelStage getStage() {
+    return this.stage;
+  }
+
+  /**
+   * Method to obtain the image whose memory the lazy image keeps
+   * alive, which is the root of its source image.
+   *
+   * @return the root image.
+   */
+  @Override
+  ImageModel getRoot() {
+    return this.source.getRoot();
+  }
+
+  /**
+   * Method to check if the pixels of the image are held in memory.
+   *
+   * @return true if the pixels have been computed and not dropped, else false.
+   */
+  boolean isComputed() {
+    return this.getComputed() != null;
+  }
+
+  /**
+   * Method to obtain the packed value of the pixel at a specific
+   * coordinate of the image, mapped from the source image.
+   *
+   * @param x the row of the array.
+   * @param y the column of the array.
+   * @return the packed 0xRRGGBB value of the pixel.
+   */
+  @Override
+  public int getRGB(int x, int y) {
+    int[] cached = this.getComputed();
+    if (cached != null) {
+      return cached[x * this.getWidth() + y];
+    }
+    return this.stage.mapPixel(this.source.getRGB(x, y));
+  }
+
+  /**
+   * Method to copy the packed pixels of a band of consecutive rows
+   * into an array, mapping them while they are copied out of the
+   * source image.
+   *
+   * @param start  the first row of the band.
+   * @param end    the row just after the last row of the band.
+   * @param dst    the array the packed pixels are copied to.
+   * @param offset the index in the array of the first pixel of the band.
+   */
+  @Override
+  void copyRows(int start, int end, int[] dst, int offset) {
+    int width = this.getWidth();
+    int count = (end - start) * width;
+    int[] cached = this.getComputed();
+    if (cached != null) {
+      System.arraycopy(cached, start * width, dst, offset, count);
+      return;
+    }
+    this.source.copyRows(start, end, dst, offset);
+    this.stage.apply(dst, offset, dst, offset, count);
+  }
+
+  /**
+   * Method to obtain the packed pixel array of the image, computing
+   * it from the source image if it is not held in memory.
+   * The array is shared and not copied, so it must only be read.
+   *
+   * @return the packed pixel values in row-major order.
+   */
+  @Override
+  protected int[] getPixels() {
+    int[] pixels = this.getComputed();
+    if (pixels == null) {
+      int width = this.getWidth();
+      int[] arr = new int[this.getHeight() * width];
+      RowExecutor.getDefault().forEachRow(this.getHeight(), width,
+              (start, end) -> this.copyRows(start, end, arr, start * width));
+      pixels = arr;
+      this.computed = new SoftReference<>(pixels);
+    }
+    return pixels;
+  }
+
+  /**
+   * Helper method to obtain the computed pixels if they are held in
+   * memory.
+   *
+   * @return the computed pixels, or null.
+   */
+  private int[] getComputed() {
+    SoftReference<int[]> reference = this.computed;
+    return reference == null ? null : reference.get();
+  }
+}
@@ -0,0 +1,124 @@
+package model;
+
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+
+/**
+ * This class represents an image whose pixels are read straight from
+ * a raster of 8-bit red, green and blue samples, such as the raster of
+ * a binary PPM file mapped into memory. The raster is split into
+ * bands which each hold a whole number of rows, since a single mapped
+ * buffer cannot be larger than 2GB.
+ * Single pixels and bands of rows are read from the raster when they
+ * are needed, so an operation which only reads part of the image, or
+ * reads it once a band at a time, never copies the whole image onto
+ * the heap. Operations which need the whole pixel array get it
+ * decoded on demand and kept in a soft reference, like a
+ * {@link HaarImageModel}.
+ */
+class MappedImageModel extends ImageModel {
+  private final ByteBuffer[] bands;
+  private final int rowsPerBand;
+  private volatile SoftReference<int[]> decoded;
+
+  /**
+   * Constructs a MappedImageModel over a raster split into bands.
+   * Every band except the last one holds the same number of rows.
+   * The buffers are read from their position and are not copied, so
+   * they must not be modified afterwards.
+   *
+   * @param height the height of the image.
+   * @param width  the width of the image.
+   * @param bands  the bands of the raster, in order.
+   * @throws IllegalArgumentException if the bands do not hold exactly the
+   *                                  rows of the image.
+   */
+  MappedImageModel(int height, int width, ByteBuffer[] bands)
+          throws IllegalArgumentException {
+    super(height, width, (int[]) null);
+    if (height <= 0 || width <= 0 || (long) height * width > Integer.MAX_VALUE
+            || bands == null || bands.length == 0) {
+      throw new IllegalArgumentException("Size of the image does not match its raster.");
+    }
+    long rowBytes = 3L * width;
+    this.bands = new ByteBuffer[bands.length];
+    this.rowsPerBand = (int) (bands[0].remaining() / rowBytes);
+    long rows = 0;
+    for (int i = 0; i < bands.length; i++) {
+      ByteBuffer band = bands[i].slice();
+      long bandRows = band.remaining() / rowBytes;
+      if (band.remaining() % rowBytes != 0 || bandRows == 0
+              || (i < bands.length - 1 && bandRows != this.rowsPerBand)
+              || (i == bands.length - 1 && bandRows > this.rowsPerBand)) {
+        throw new IllegalArgumentException("Size of the image does not match its raster.");
+      }
+      this.bands[i] = band;
+      rows += bandRows;
+    }
+    if (rows != height) {
+      throw new IllegalArgumentException("Size of the image does not match its raster.");
+    }
+  }
+
+  /**
+   * Method to obtain the packed value of the pixel at a specific
+   * coordinate of the image, read from the raster.
+   *
+   * @param x the row of the array.
+   * @param y the column of the array.
+   * @return the packed 0xRRGGBB value of the pixel.
+   */
+  @Override
+  public int getRGB(int x, int y) {
+    ByteBuffer band = this.bands[x / this.rowsPerBand];
+    int index = ((x % this.rowsPerBand) * this.getWidth() + y) * 3;
+    return (band.get(index) & 0xff) << 16 | (band.get(index + 1) & 0xff) << 8
+            | (band.get(index + 2) & 0xff);
+  }
+
+  /**
+   * Method to copy the packed pixels of a band of consecutive rows
+   * into an array, reading them from the raster.
+   *
+   * @param start  the first row of the band.
+   * @param end    the row just after the last row of the band.
+   * @param dst    the array the packed pixels are copied to.
+   * @param offset the index in the array of the first pixel of the band.
+   */
+  @Override
+  void copyRows(int start, int end, int[] dst, int offset) {
+    int width = this.getWidth();
+    byte[] row = new byte[3 * width];
+    for (int x = start; x < end; x++) {
+      ByteBuffer band = this.bands[x / this.rowsPerBand].duplicate();
+      band.position((x % this.rowsPerBand) * row.length);
+      band.get(row);
+      int p = offset + (x - start) * width;
+      for (int y = 0, b = 0; y < width; y++, b += 3) {
+        dst[p + y] = (row[b] & 0xff) << 16 | (row[b + 1] & 0xff) << 8 | (row[b + 2] & 0xff);
+      }
+    }
+  }
+
+  /**
+   * Method to obtain the packed pixel array of the image, decoding
+   * it from the raster if it is not held in memory.
+   * The array is shared and not copied, so it must only be read.
+   *
+   * @return the packed pixel values in row-major order.
+   */
+  @Override
+  protected int[] getPixels() {
+    SoftReference<int[]> reference = this.decoded;
+    int[] pixels = reference == null ? null : reference.get();
+    if (pixels == null) {
+      int width = this.getWidth();
+      int[] arr = new int[this.getHeight() * width];
+      RowExecutor.getDefault().forEachRow(this.getHeight(), width,
+              (start, end) -> this.copyRows(start, end, arr, start * width));
+      pixels = arr;
+      this.decoded = new SoftReference<>(pixels);
+    }
+    return pixels;
+  }
+}
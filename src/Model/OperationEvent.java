@@ -0,0 +1,38 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This class is the flight recorder event of one image operation, which
+ * lasts while its result is obtained. A result found in the result
+ * cache gives a short event, and in lazy mode the event covers only the
+ * deferring of the operation, whose pixels are computed when the image
+ * is first read.
+ */
+@Name("imagelab.ImageOperation")
+@Label("Image Operation")
+@Category({"ImageLab", "Model"})
+@Description("An operation run on images by the model")
+@StackTrace(false)
+class OperationEvent extends Event {
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Source")
+  @Description("The names of the images read, separated by commas")
+  String source;
+
+  @Label("Target")
+  @Description("The name of the image produced")
+  String target;
+
+  @Label("Pixels")
+  @Description("The number of pixels of the image produced")
+  long pixels;
+}
@@ -38,6 +38,18 @@ interface Operations {
    */
   int[][][] saveImage(String name);
 
+  /**
+   * Obtain a read-only view of the image whose name is
+   * provided in the function parameter. Unlike saveImage
+   * the pixel data is not copied, so this is the preferred
+   * way to read an image that only needs to be displayed
+   * or written out.
+   *
+   * @param name the name of the image which is to be viewed.
+   * @return a read-only view over the pixels of the image.
+   */
+  ImageData viewImage(String name);
+
   /**
    * Checks whether an image with the specified name exists
    * in the image map.
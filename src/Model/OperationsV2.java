@@ -23,6 +23,28 @@ public interface OperationsV2 extends Operations {
    */
   boolean compressImage(String currentImageName, String newImageName, double percentage);
 
+  /**
+   * Compresses a given image by a specified percentage using
+   * the Haar Wavelet Transform algorithm on square tiles.
+   * The image is split into tiles of the specified size, and every
+   * tile is transformed, compressed and reconstructed on its own,
+   * with its own threshold. Only the tiles at the right and bottom
+   * edges are padded, so the memory used grows with the number of
+   * pixels instead of the square of the largest dimension.
+   *
+   * @param currentImageName the name of the original image to be compressed.
+   * @param newImageName     the name to assign to the new compressed image.
+   * @param percentage       the percentage by which the image is to be compressed (0-100).
+   *                         A higher percentage results in greater compression and loss.
+   * @param tileSize         the size of each tile, which must be a power of two
+   *                         greater than one.
+   * @return true if operation done successfully, else false.
+   * @throws IllegalArgumentException if the tile size is not a power of two
+   *                                  greater than one.
+   */
+  boolean compressImage(String currentImageName, String newImageName, double percentage,
+                        int tileSize) throws IllegalArgumentException;
+
   /**
    * Method to visualize a histogram graph for the provided image.
    * It generates a line graph for all three red, green, and blue channels.
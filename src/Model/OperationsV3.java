@@ -1,13 +1,21 @@
 package model;
 
+import java.nio.ByteBuffer;
+
 /**
  * The OperationsV3 interface extends OperationsV2 and adds new
  * methods for advanced image processing tasks.
  * These include:
  * 1. Masking an image based on a mask image and a temporary image.
  * 2. Downscaling an image to specified dimensions using interpolation.
+ * 3. Transforming the colors of an image with a user supplied matrix.
+ * 4. Loading and saving images in the compressed HAAR format.
+ * 5. Loading images directly from packed pixels or from a raster
+ * which is read only when it is needed.
+ * The operations can be closed once they are no longer used, which
+ * drops their images and deletes their scratch files at once.
  */
-public interface OperationsV3 extends OperationsV2 {
+public interface OperationsV3 extends OperationsV2, AutoCloseable {
 
   /**
    * Applies a mask to the current image. Pixels of the
@@ -46,4 +54,135 @@ public interface OperationsV3 extends OperationsV2 {
   void downScale(String currentImageName, int targetHeight, int targetWidth,
                  String newImageName);
 
+  /**
+   * Transforms the colors of the current image with a color matrix.
+   * Each channel of the new pixel is the sum of the red, green and
+   * blue value of the original pixel weighted by the corresponding
+   * row of the matrix. A 3x4 matrix is affine, and the last value of
+   * each row is added to the sum. The result is truncated and
+   * clamped between 0 and 255, and saved as a new image.
+   *
+   * @param currentImageName the name of the current image to be transformed
+   * @param newImageName     the name under which the transformed image will be saved
+   * @param matrix           a 3x3 or 3x4 color matrix, with one row for
+   *                         each of the red, green and blue channels
+   * @return true if the transformation is successful
+   * @throws IllegalArgumentException if the matrix is not 3x3 or 3x4
+   */
+  boolean colorMatrix(String currentImageName, String newImageName, double[][] matrix)
+          throws IllegalArgumentException;
+
+  /**
+   * Loads an image from its packed pixel values, where every element
+   * packs the red, green and blue value of one pixel as 0xRRGGBB in
+   * row-major order. The array becomes the pixel store of the image
+   * without being copied, so it must not be modified afterwards.
+   *
+   * @param height the height of the image.
+   * @param width  the width of the image.
+   * @param pixels the packed pixel values.
+   * @param name   the name under which the image will be stored
+   * @return true if the image is loaded successfully
+   * @throws IllegalArgumentException if the size of the image does not match
+   *                                  the number of pixels or a pixel has bits
+   *                                  set above 0xFFFFFF
+   */
+  boolean loadImage(int height, int width, int[] pixels, String name)
+          throws IllegalArgumentException;
+
+  /**
+   * Loads an image backed by a raster of 8-bit red, green and blue
+   * samples in row-major order, such as the raster of a binary PPM
+   * file mapped into memory. The raster is split into bands which each
+   * hold a whole number of rows, the same number for every band except
+   * the last one. The buffers are not copied and the pixels are read
+   * from them only when they are needed, so an image larger than the
+   * heap can be downscaled, split into components or summarized by a
+   * histogram.
+   *
+   * @param height the height of the image.
+   * @param width  the width of the image.
+   * @param bands  the bands of the raster, in order.
+   * @param name   the name under which the image will be stored
+   * @return true if the image is loaded successfully
+   * @throws IllegalArgumentException if the bands do not hold exactly the
+   *                                  rows of the image
+   */
+  boolean loadRawImage(int height, int width, ByteBuffer[] bands, String name)
+          throws IllegalArgumentException;
+
+  /**
+   * Loads an image stored in the HAAR format, which holds the Haar
+   * Wavelet coefficients of the image sparsely. The image is kept
+   * compressed in memory and its pixels are decoded when they are
+   * needed.
+   *
+   * @param data the contents of a HAAR file.
+   * @param name the name under which the image will be stored
+   * @return true if the image is loaded successfully
+   * @throws IllegalArgumentException if the data is not a valid HAAR image
+   */
+  boolean loadCompressedImage(byte[] data, String name) throws IllegalArgumentException;
+
+  /**
+   * Obtains the image with the specified name in the HAAR format.
+   * An image produced by compression is already held in this format
+   * and is returned without being encoded again. Any other image is
+   * encoded without removing any detail. Loading the result gives
+   * back exactly the same pixels.
+   *
+   * @param name the name of the image
+   * @return the contents of a HAAR file holding the image
+   */
+  byte[] saveCompressedImage(String name);
+
+  /**
+   * Computes the pixels of the image with the specified name if their
+   * computation was deferred, so that the images computed from it
+   * afterwards read its pixels instead of computing them again. This is
+   * the barrier of the lazy mode, in which operations that map every
+   * pixel on its own are fused and only computed when their result is
+   * read. It does nothing for an image which is already computed.
+   *
+   * @param name the name of the image
+   * @return true if the image is computed successfully
+   */
+  boolean materialize(String name);
+
+  /**
+   * Removes the image with the specified name, so the memory it holds
+   * can be reclaimed. It does nothing if no image has that name.
+   *
+   * @param name the name of the image
+   * @return true if the image is removed successfully
+   */
+  boolean removeImage(String name);
+
+  /**
+   * Method to obtain the number of bytes of pixel data held in memory
+   * by all the images, not counting the images which were dropped or
+   * written to scratch files.
+   *
+   * @return the resident bytes.
+   */
+  long getResidentBytes();
+
+  /**
+   * Method to obtain the height and width of the image with the
+   * specified name without computing it again, reading it back from a
+   * scratch file or marking it as recently used, so that looking at
+   * its size does not change which images are kept in memory.
+   *
+   * @param name the name of the image
+   * @return the height and width of the image, or null if no image has that name
+   */
+  int[] getImageSize(String name);
+
+  /**
+   * Removes every image, so the memory it holds can be reclaimed, and
+   * deletes the scratch files of the images written out of memory.
+   */
+  @Override
+  void close();
+
 }
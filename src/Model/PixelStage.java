@@ -0,0 +1,65 @@
+package model;
+
+/**
+ * This interface represents a per-pixel stage of an operation, which
+ * maps every packed pixel to a new packed pixel independently of the
+ * other pixels. Point operations, color matrices and the extraction of
+ * components are all stages, so consecutive stages can be fused and
+ * applied to an image in a single pass.
+ */
+interface PixelStage {
+
+  /**
+   * Method to map a packed pixel.
+   *
+   * @param rgb the pixel packed as 0xRRGGBB.
+   * @return the mapped pixel packed as 0xRRGGBB.
+   */
+  int mapPixel(int rgb);
+
+  /**
+   * Applies the stage to a run of source pixels and writes the result
+   * into a run of the destination array.
+   *
+   * @param src    the packed source pixels.
+   * @param srcPos the index of the first source pixel.
+   * @param dst    the packed destination pixels, which may be the
+   *               source array itself.
+   * @param dstPos the index the first mapped pixel is written to.
+   * @param count  the number of pixels to be mapped.
+   */
+  default void apply(int[] src, int srcPos, int[] dst, int dstPos, int count) {
+    for (int k = 0; k < count; k++) {
+      dst[dstPos + k] = this.mapPixel(src[srcPos + k]);
+    }
+  }
+
+  /**
+   * Fuses this stage with the next one into a single stage, which
+   * gives the same result as applying this stage and then the next one.
+   * Two point operations are composed into one point operation, and
+   * any other stages are applied one after the other to each run of
+   * pixels while it is in the cache.
+   *
+   * @param next the stage applied after this one.
+   * @return the fused stage.
+   */
+  default PixelStage andThen(PixelStage next) {
+    if (this instanceof PointOp && next instanceof PointOp) {
+      return ((PointOp) this).andThen((PointOp) next);
+    }
+    PixelStage first = this;
+    return new PixelStage() {
+      @Override
+      public int mapPixel(int rgb) {
+        return next.mapPixel(first.mapPixel(rgb));
+      }
+
+      @Override
+      public void apply(int[] src, int srcPos, int[] dst, int dstPos, int count) {
+        first.apply(src, srcPos, dst, dstPos, count);
+        next.apply(dst, dstPos, dst, dstPos, count);
+      }
+    };
+  }
+}
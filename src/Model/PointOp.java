@@ -0,0 +1,223 @@
+package model;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * This class represents a point operation, which maps every channel
+ * value of a pixel to a new value independently of the other pixels.
+ * A point operation is compiled into one lookup table of 256 entries
+ * for each channel, so applying it to an image costs three table reads
+ * per pixel no matter how expensive the original function is.
+ * The entries of the tables are clamped between 0 and 255 and stored
+ * already shifted to the position of their channel, so a pixel is
+ * mapped without any branches.
+ * Two point operations can be composed into a single one, so a chain
+ * of point operations costs one pass over the image.
+ * A PointOp is a {@link PixelStage}, so it can also be fused with other
+ * per-pixel stages.
+ * A PointOp is never modified once it has been created.
+ */
+final class PointOp implements PixelStage {
+  private final int[] red;
+  private final int[] green;
+  private final int[] blue;
+
+  /**
+   * Constructs a PointOp from the shifted lookup tables of the
+   * three channels.
+   *
+   * @param red   the lookup table of the red channel, shifted by 16.
+   * @param green the lookup table of the green channel, shifted by 8.
+   * @param blue  the lookup table of the blue channel.
+   */
+  private PointOp(int[] red, int[] green, int[] blue) {
+    this.red = red;
+    this.green = green;
+    this.blue = blue;
+  }
+
+  /**
+   * Compiles a function of the channel value into a point operation
+   * which applies the same function to all three channels. The result
+   * of the function is clamped between 0 and 255.
+   *
+   * @param function the function from a channel value between 0 and
+   *                 255 to its new value.
+   * @return the compiled point operation.
+   */
+  static PointOp of(IntUnaryOperator function) {
+    return of(function, function, function);
+  }
+
+  /**
+   * Compiles a function of the channel value for every channel into a
+   * point operation. The result of each function is clamped between
+   * 0 and 255.
+   *
+   * @param red   the function applied to the red channel.
+   * @param green the function applied to the green channel.
+   * @param blue  the function applied to the blue channel.
+   * @return the compiled point operation.
+   */
+  static PointOp of(IntUnaryOperator red, IntUnaryOperator green, IntUnaryOperator blue) {
+    int[] r = new int[256];
+    int[] g = new int[256];
+    int[] b = new int[256];
+    for (int x = 0; x < 256; x++) {
+      r[x] = clamp(red.applyAsInt(x)) << 16;
+      g[x] = clamp(green.applyAsInt(x)) << 8;
+      b[x] = clamp(blue.applyAsInt(x));
+    }
+    return new PointOp(r, g, b);
+  }
+
+  /**
+   * Creates a point operation which adds a constant value to every
+   * channel, as used when brightening an image or shifting the
+   * channels during color correction.
+   *
+   * @param red   the value added to the red channel.
+   * @param green the value added to the green channel.
+   * @param blue  the value added to the blue channel.
+   * @return the point operation.
+   */
+  static PointOp offset(int red, int green, int blue) {
+    return of(x -> x + red, x -> x + green, x -> x + blue);
+  }
+
+  /**
+   * Creates a point operation which evaluates the quadratic
+   * ax^2 + bx + c on every channel and truncates the result,
+   * as used by levels adjustment.
+   *
+   * @param coeff the coefficients a, b and c of the quadratic.
+   * @return the point operation.
+   */
+  static PointOp quadratic(double[] coeff) {
+    return of(x -> (int) (coeff[0] * x * x + coeff[1] * x + coeff[2]));
+  }
+
+  /**
+   * Helper method to clamp a channel value between 0 and 255.
+   *
+   * @param value the value to be clamped.
+   * @return the clamped value.
+   */
+  private static int clamp(int value) {
+    return Math.max(0, Math.min(255, value));
+  }
+
+  /**
+   * Method to obtain the new value of a single channel value.
+   *
+   * @param value   the channel value between 0 and 255.
+   * @param channel the color channel. 0 is for Red; 1 is for Green; 2 is for Blue.
+   * @return the new channel value between 0 and 255.
+   */
+  int map(int value, int channel) {
+    switch (channel) {
+      case 0:
+        return this.red[value] >> 16;
+      case 1:
+        return this.green[value] >> 8;
+      default:
+        return this.blue[value];
+    }
+  }
+
+  /**
+   * Method to map a packed pixel.
+   *
+   * @param rgb the pixel packed as 0xRRGGBB.
+   * @return the mapped pixel packed as 0xRRGGBB.
+   */
+  @Override
+  public int mapPixel(int rgb) {
+    return this.red[(rgb >> 16) & 0xff] | this.green[(rgb >> 8) & 0xff] | this.blue[rgb & 0xff];
+  }
+
+  /**
+   * Composes this point operation with the next one into a single
+   * point operation, which gives the same result as applying this
+   * operation and then the next one.
+   *
+   * @param next the point operation applied after this one.
+   * @return the composed point operation.
+   */
+  PointOp andThen(PointOp next) {
+    int[] r = new int[256];
+    int[] g = new int[256];
+    int[] b = new int[256];
+    for (int x = 0; x < 256; x++) {
+      r[x] = next.red[this.red[x] >> 16];
+      g[x] = next.green[this.green[x] >> 8];
+      b[x] = next.blue[this.blue[x]];
+    }
+    return new PointOp(r, g, b);
+  }
+
+  /**
+   * Method to obtain the frequency of every value of a channel after
+   * this point operation is applied, from the frequency before it is
+   * applied. This lets an operation that depends on the histogram of
+   * its input follow this operation without the intermediate image
+   * being computed.
+   *
+   * @param frequency the frequency of each value (0-255) of the channel.
+   * @param channel   the color channel. 0 is for Red; 1 is for Green; 2 is for Blue.
+   * @return the frequency of each value of the channel after mapping.
+   */
+  int[] mapFrequency(int[] frequency, int channel) {
+    int[] n = new int[256];
+    for (int x = 0; x < 256; x++) {
+      n[this.map(x, channel)] += frequency[x];
+    }
+    return n;
+  }
+
+  /**
+   * Applies the point operation to a run of source pixels and writes
+   * the result into a run of the destination array.
+   *
+   * @param src    the packed source pixels.
+   * @param srcPos the index of the first source pixel.
+   * @param dst    the packed destination pixels, which may be the
+   *               source array itself.
+   * @param dstPos the index the first mapped pixel is written to.
+   * @param count  the number of pixels to be mapped.
+   */
+  @Override
+  public void apply(int[] src, int srcPos, int[] dst, int dstPos, int count) {
+    int[] r = this.red;
+    int[] g = this.green;
+    int[] b = this.blue;
+    for (int k = 0; k < count; k++) {
+      int rgb = src[srcPos + k];
+      dst[dstPos + k] = r[(rgb >> 16) & 0xff] | g[(rgb >> 8) & 0xff] | b[rgb & 0xff];
+    }
+  }
+
+  /**
+   * Applies the point operation to the source pixels and writes the
+   * result into the destination array. Bands of rows are processed
+   * in parallel by the executor.
+   *
+   * @param src      the packed source pixels.
+   * @param dst      the packed destination pixels, which may be the
+   *                 source array itself.
+   * @param height   the height of the image.
+   * @param width    the width of the image.
+   * @param executor the executor used to process the rows.
+   */
+  void apply(int[] src, int[] dst, int height, int width, RowExecutor executor) {
+    int[] r = this.red;
+    int[] g = this.green;
+    int[] b = this.blue;
+    executor.forEachRow(height, width, (start, end) -> {
+      for (int i = start * width; i < end * width; i++) {
+        int rgb = src[i];
+        dst[i] = r[(rgb >> 16) & 0xff] | g[(rgb >> 8) & 0xff] | b[rgb & 0xff];
+      }
+    });
+  }
+}
@@ -0,0 +1,288 @@
+package model;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * This class remembers the images produced by the operations, so an
+ * operation which is run again with the same parameters on the same
+ * images gives back the image it produced the first time instead of
+ * computing it again. An image is identified by its stamp, which is
+ * different for every image created, so a result is only reused when
+ * every input is the very image it was computed from. Since a result
+ * which is reused is the same image, the next operation of a chain is
+ * reused as well, and the images stored under several names share
+ * their pixels.
+ * The results are kept under a budget of bytes: whenever remembering
+ * a result takes the cache over its budget, or over its largest number
+ * of results, the least recently used results are forgotten. A result
+ * which is larger than the whole budget is not remembered.
+ * A result such as a view or a lazy image holds no pixels of its own
+ * but keeps alive the root image it reads, so the cache is charged for
+ * every root its results keep alive, once however many results read
+ * it, and a root is only freed when the last result reading it is
+ * forgotten.
+ * The cache counts the results which were reused, the results which
+ * had to be computed and the results which were forgotten.
+ */
+class ResultCache {
+
+  /**
+   * The system property which sets the budget in bytes of the result
+   * cache of the operations. It defaults to an eighth of the maximum
+   * heap size, and a budget of zero turns the cache off.
+   */
+  static final String BUDGET_PROPERTY = "imagelab.cacheBudget";
+
+  private static final int DEFAULT_CAPACITY = 1024;
+
+  private final Map<Key, ImageModel> results;
+  private final Map<ImageModel, Integer> holders;
+  private final long budget;
+  private final int capacity;
+  private long residentBytes;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Constructs an empty cache with the specified budget, which
+   * remembers at most 1024 results.
+   *
+   * @param budget the number of bytes the results should not exceed.
+   * @throws IllegalArgumentException if the budget is negative.
+   */
+  ResultCache(long budget) throws IllegalArgumentException {
+    this(budget, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructs an empty cache with the specified budget and largest
+   * number of results.
+   *
+   * @param budget   the number of bytes the results should not exceed.
+   * @param capacity the largest number of results remembered.
+   * @throws IllegalArgumentException if the budget or capacity is negative.
+   */
+  ResultCache(long budget, int capacity) throws IllegalArgumentException {
+    if (budget < 0 || capacity < 0) {
+      throw new IllegalArgumentException("Budget of the cache cannot be negative.");
+    }
+    this.results = new LinkedHashMap<>(16, 0.75f, true);
+    this.holders = new IdentityHashMap<>();
+    this.budget = budget;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Method to obtain the budget of the result cache of the operations,
+   * which is read from the imagelab.cacheBudget system property.
+   *
+   * @return the budget in bytes.
+   * @throws IllegalArgumentException if the property is not an integer value.
+   */
+  static long getDefaultBudget() throws IllegalArgumentException {
+    String value = System.getProperty(BUDGET_PROPERTY);
+    if (value == null) {
+      return Runtime.getRuntime().maxMemory() / 8;
+    }
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Budget of the cache must be an integer value.");
+    }
+  }
+
+  /**
+   * Method to obtain the result of an operation, computing it only if
+   * the operation has not been run with the same parameters on the same
+   * images since the result was last remembered.
+   * The result is computed without holding the cache, so operations
+   * running at the same time do not wait for each other.
+   *
+   * @param operation  the name of the operation.
+   * @param parameters the parameters of the operation, compared by their
+   *                   contents, including arrays.
+   * @param compute    the work which computes the result.
+   * @param inputs     the images the operation reads.
+   * @return the result.
+   */
+  ImageModel get(String operation, Object[] parameters, Supplier<ImageModel> compute,
+                 ImageModel... inputs) {
+    if (this.budget == 0 || this.capacity == 0) {
+      return compute.get();
+    }
+    long[] stamps = new long[inputs.length];
+    for (int i = 0; i < inputs.length; i++) {
+      stamps[i] = inputs[i].getStamp();
+    }
+    Key key = new Key(operation, parameters, stamps);
+    synchronized (this) {
+      ImageModel result = this.results.get(key);
+      if (result != null) {
+        this.hits++;
+        return result;
+      }
+      this.misses++;
+    }
+    ImageModel result = compute.get();
+    this.remember(key, result);
+    return result;
+  }
+
+  /**
+   * Method to obtain the number of results which were reused.
+   *
+   * @return the number of hits.
+   */
+  synchronized long getHits() {
+    return this.hits;
+  }
+
+  /**
+   * Method to obtain the number of results which had to be computed.
+   *
+   * @return the number of misses.
+   */
+  synchronized long getMisses() {
+    return this.misses;
+  }
+
+  /**
+   * Method to obtain the number of results which were forgotten to stay
+   * under the budget.
+   *
+   * @return the number of evictions.
+   */
+  synchronized long getEvictions() {
+    return this.evictions;
+  }
+
+  /**
+   * Method to obtain the number of bytes held by the results remembered.
+   *
+   * @return the number of bytes.
+   */
+  synchronized long getResidentBytes() {
+    return this.residentBytes;
+  }
+
+  /**
+   * Method to obtain the number of results remembered.
+   *
+   * @return the number of results.
+   */
+  synchronized int size() {
+    return this.results.size();
+  }
+
+  /**
+   * Method to obtain the budget of the cache.
+   *
+   * @return the budget in bytes.
+   */
+  long getBudget() {
+    return this.budget;
+  }
+
+  /**
+   * Helper method to remember a result, forgetting the least recently
+   * used results until the cache is back under its budget.
+   *
+   * @param key    the operation, parameters and inputs of the result.
+   * @param result the result.
+   */
+  private synchronized void remember(Key key, ImageModel result) {
+    if (result.getRoot().getResidentBytes() > this.budget) {
+      return;
+    }
+    this.hold(result);
+    ImageModel old = this.results.put(key, result);
+    if (old != null) {
+      this.letGo(old);
+    }
+    Iterator<ImageModel> eldest = this.results.values().iterator();
+    while (this.residentBytes > this.budget || this.results.size() > this.capacity) {
+      ImageModel image = eldest.next();
+      eldest.remove();
+      this.letGo(image);
+      this.evictions++;
+    }
+  }
+
+  /**
+   * Helper method to count a result which is remembered, adding the
+   * bytes of its root if no other result held it.
+   *
+   * @param result the result.
+   */
+  private void hold(ImageModel result) {
+    ImageModel root = result.getRoot();
+    if (this.holders.merge(root, 1, Integer::sum) == 1) {
+      this.residentBytes += root.getResidentBytes();
+    }
+  }
+
+  /**
+   * Helper method to stop counting a result which is forgotten,
+   * removing the bytes of its root if no other result holds it.
+   *
+   * @param result the result.
+   */
+  private void letGo(ImageModel result) {
+    ImageModel root = result.getRoot();
+    int count = this.holders.get(root);
+    if (count > 1) {
+      this.holders.put(root, count - 1);
+    } else {
+      this.holders.remove(root);
+      this.residentBytes -= root.getResidentBytes();
+    }
+  }
+
+  /**
+   * The operation, parameters and input stamps a result is remembered
+   * under.
+   */
+  private static final class Key {
+    private final String operation;
+    private final Object[] parameters;
+    private final long[] stamps;
+    private final int hash;
+
+    /**
+     * Constructs the key of a result.
+     *
+     * @param operation  the name of the operation.
+     * @param parameters the parameters of the operation.
+     * @param stamps     the stamps of the images the operation reads.
+     */
+    private Key(String operation, Object[] parameters, long[] stamps) {
+      this.operation = operation;
+      this.parameters = parameters;
+      this.stamps = stamps;
+      this.hash = 31 * (31 * operation.hashCode() + Arrays.deepHashCode(parameters))
+              + Arrays.hashCode(stamps);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return this.hash == other.hash && this.operation.equals(other.operation)
+              && Arrays.equals(this.stamps, other.stamps)
+              && Arrays.deepEquals(this.parameters, other.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+  }
+}
@@ -0,0 +1,270 @@
+package model;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * This class runs per-pixel work over the rows of an image in
+ * parallel. The rows are split into bands which are processed by
+ * a ForkJoinPool with a fixed parallelism level. Every band writes
+ * only to its own rows of the output, so the result of an operation
+ * is the same as when the rows are processed one after the other.
+ * Images that are too small to benefit from splitting are processed
+ * on the calling thread.
+ * Work called from a virtual thread can be moved onto the pool, so
+ * the few carrier threads of the virtual threads are kept for the
+ * blocking work of the sessions while the pool, which has a thread
+ * for each processor, does the computing.
+ * The shared executor is also used outside the model, so work such
+ * as the conversion of the images which are read or written runs on
+ * the same pool as the operations.
+ */
+public class RowExecutor {
+
+  /**
+   * The system property which sets the parallelism level of the
+   * default executor.
+   */
+  static final String PARALLELISM_PROPERTY = "imagelab.parallelism";
+
+  /**
+   * An executor which runs every task on the calling thread, used
+   * for work that is already running inside a band of another task.
+   */
+  static final RowExecutor SERIAL = new RowExecutor(1);
+
+  private static final int MIN_BAND_PIXELS = 1 << 14;
+  private static final int BANDS_PER_THREAD = 4;
+  private static final Method IS_VIRTUAL = findIsVirtual();
+  private static RowExecutor defaultExecutor;
+
+  private final int parallelism;
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructs a RowExecutor with the specified parallelism level.
+   * A parallelism level of one runs every operation on the
+   * calling thread without creating a pool.
+   *
+   * @param parallelism the number of threads used to process the rows.
+   * @throws IllegalArgumentException if the parallelism level is less than one.
+   */
+  RowExecutor(int parallelism) throws IllegalArgumentException {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be at least 1.");
+    }
+    this.parallelism = parallelism;
+    this.pool = parallelism == 1 ? null : new ForkJoinPool(parallelism);
+  }
+
+  /**
+   * Method to obtain the executor shared by all the operations which
+   * are not given their own parallelism level. Its parallelism level
+   * is read from the imagelab.parallelism system property and defaults
+   * to the number of available processors.
+   *
+   * @return the shared executor.
+   */
+  public static synchronized RowExecutor getDefault() {
+    if (defaultExecutor == null) {
+      int parallelism = Runtime.getRuntime().availableProcessors();
+      String value = System.getProperty(PARALLELISM_PROPERTY);
+      if (value != null) {
+        try {
+          parallelism = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("Parallelism must be an integer value.");
+        }
+      }
+      defaultExecutor = new RowExecutor(parallelism);
+    }
+    return defaultExecutor;
+  }
+
+  /**
+   * Method to obtain the parallelism level of the executor.
+   *
+   * @return the number of threads used to process the rows.
+   */
+  int getParallelism() {
+    return this.parallelism;
+  }
+
+  /**
+   * Stops the threads of the pool once the work given to it is done.
+   * Work given to the pool afterwards is rejected, so the executor
+   * must no longer be used. It does nothing to an executor without a
+   * pool.
+   */
+  void shutdown() {
+    if (this.pool != null) {
+      this.pool.shutdown();
+    }
+  }
+
+  /**
+   * Method to check if the pool of the executor was shut down.
+   *
+   * @return true if the executor has a pool which was shut down, else false.
+   */
+  boolean isShutdown() {
+    return this.pool != null && this.pool.isShutdown();
+  }
+
+  /**
+   * Runs the task over all the rows of an image. The task is called
+   * once for each band with the first row of the band and the row
+   * just after its last row. The method returns only when every band
+   * has been processed.
+   *
+   * @param rows  the number of rows to be processed.
+   * @param width the number of pixels in each row, used to decide
+   *              how finely the rows are split.
+   * @param task  the work to be done on a band of rows.
+   */
+  public void forEachRow(int rows, int width, RowTask task) {
+    int minRows = Math.max(1, MIN_BAND_PIXELS / Math.max(1, width));
+    if (this.pool == null || rows <= minRows) {
+      task.run(0, rows);
+      return;
+    }
+    int grain = Math.max(minRows, rows / (this.parallelism * BANDS_PER_THREAD));
+    this.pool.invoke(new Band(task, 0, rows, grain));
+  }
+
+  /**
+   * Obtains the result of work which uses the processors. The work is
+   * done on a thread of the pool if the calling thread is a virtual
+   * thread, which waits for it without holding its carrier thread, and
+   * on the calling thread otherwise.
+   *
+   * @param work the work to be done.
+   * @param <T>  the type of the result.
+   * @return the result of the work.
+   */
+  <T> T offload(Supplier<T> work) {
+    if (this.pool == null || !isVirtual(Thread.currentThread())) {
+      return work.get();
+    }
+    return this.runOnPool(work);
+  }
+
+  /**
+   * Obtains the result of work done on a thread of the pool. An
+   * unchecked exception thrown by the work is thrown again as it is.
+   *
+   * @param work the work to be done.
+   * @param <T>  the type of the result.
+   * @return the result of the work.
+   * @throws IllegalStateException if the executor has no pool.
+   */
+  <T> T runOnPool(Supplier<T> work) throws IllegalStateException {
+    if (this.pool == null) {
+      throw new IllegalStateException("The executor has no pool.");
+    }
+    try {
+      return CompletableFuture.supplyAsync(work, this.pool).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Helper method to check if a thread is a virtual thread, which the
+   * Java runtime has only from version 21.
+   *
+   * @param thread the thread.
+   * @return true if the thread is a virtual thread, else false.
+   */
+  private static boolean isVirtual(Thread thread) {
+    if (IS_VIRTUAL == null) {
+      return false;
+    }
+    try {
+      return (Boolean) IS_VIRTUAL.invoke(thread);
+    } catch (ReflectiveOperationException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Helper method to find the method which tells if a thread is a
+   * virtual thread.
+   *
+   * @return the method, or null if the Java runtime has no virtual threads.
+   */
+  private static Method findIsVirtual() {
+    try {
+      return Thread.class.getMethod("isVirtual");
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  /**
+   * The work done on a band of rows of an image.
+   */
+  public interface RowTask {
+
+    /**
+     * Process the rows of the band.
+     *
+     * @param start the first row of the band.
+     * @param end   the row just after the last row of the band.
+     */
+    void run(int start, int end);
+  }
+
+  /**
+   * A fork/join task which splits a range of rows in half until
+   * it is small enough to be processed directly.
+   */
+  private static class Band extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final RowTask task;
+    private final int start;
+    private final int end;
+    private final int grain;
+
+    /**
+     * Constructs a Band over the specified range of rows.
+     *
+     * @param task  the work to be done on the rows.
+     * @param start the first row of the band.
+     * @param end   the row just after the last row of the band.
+     * @param grain the largest number of rows processed without splitting.
+     */
+    Band(RowTask task, int start, int end, int grain) {
+      this.task = task;
+      this.start = start;
+      this.end = end;
+      this.grain = grain;
+    }
+
+    /**
+     * Process the band, splitting it in half if it is larger
+     * than the grain.
+     */
+    @Override
+    protected void compute() {
+      if (this.end - this.start <= this.grain) {
+        this.task.run(this.start, this.end);
+        return;
+      }
+      int middle = (this.start + this.end) >>> 1;
+      invokeAll(new Band(this.task, this.start, middle, this.grain),
+              new Band(this.task, middle, this.end, this.grain));
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * This class writes an image out of memory to a scratch file and
+ * reads it back. An image held in the HAAR format is written as it is,
+ * since it is already compressed. Any other image is written as its
+ * 8-bit red, green and blue samples in row-major order, compressed with
+ * Deflate at its fastest level, and is read back with its pixels in an
+ * array.
+ * The layout of a file is:
+ * a kind byte, then either the length of the HAAR image as a big-endian
+ * int followed by the image, or the height and width as big-endian ints
+ * followed by the compressed samples.
+ */
+final class SpillFile {
+  private static final int PIXELS = 0;
+  private static final int HAAR = 1;
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * This class only contains static methods.
+   */
+  private SpillFile() {
+  }
+
+  /**
+   * Writes an image to a file, replacing the file if it exists.
+   *
+   * @param file  the file the image is written to.
+   * @param image the image to be written.
+   * @throws IOException if the file cannot be written.
+   */
+  static void write(Path file, ImageModel image) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE))) {
+      if (image instanceof HaarImageModel) {
+        byte[] encoded = ((HaarImageModel) image).getEncoded();
+        out.writeByte(HAAR);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+        return;
+      }
+      int height = image.getHeight();
+      int width = image.getWidth();
+      out.writeByte(PIXELS);
+      out.writeInt(height);
+      out.writeInt(width);
+      Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try {
+        DeflaterOutputStream z = new DeflaterOutputStream(out, deflater, BUFFER_SIZE);
+        int[] pixels = new int[width];
+        byte[] row = new byte[3 * width];
+        for (int i = 0; i < height; i++) {
+          image.copyRows(i, i + 1, pixels, 0);
+          for (int j = 0, b = 0; j < width; j++, b += 3) {
+            row[b] = (byte) (pixels[j] >> 16);
+            row[b + 1] = (byte) (pixels[j] >> 8);
+            row[b + 2] = (byte) pixels[j];
+          }
+          z.write(row);
+        }
+        z.finish();
+      } finally {
+        deflater.end();
+      }
+    }
+  }
+
+  /**
+   * Reads an image back from a file written by write.
+   *
+   * @param file the file the image was written to.
+   * @return the image.
+   * @throws IOException if the file cannot be read or was not written
+   *                     by write.
+   */
+  static ImageModel read(Path file) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+      int kind = in.readUnsignedByte();
+      if (kind == HAAR) {
+        byte[] encoded = new byte[in.readInt()];
+        in.readFully(encoded);
+        return new HaarImageModel(encoded);
+      }
+      if (kind != PIXELS) {
+        throw new IOException("Invalid spill file.");
+      }
+      int height = in.readInt();
+      int width = in.readInt();
+      int[] pixels = new int[height * width];
+      Inflater inflater = new Inflater();
+      try {
+        DataInputStream z = new DataInputStream(
+                new InflaterInputStream(in, inflater, BUFFER_SIZE));
+        byte[] row = new byte[3 * width];
+        for (int i = 0; i < height; i++) {
+          z.readFully(row);
+          for (int j = 0, b = 0; j < width; j++, b += 3) {
+            pixels[i * width + j] = (row[b] & 0xff) << 16 | (row[b + 1] & 0xff) << 8
+                    | (row[b + 2] & 0xff);
+          }
+        }
+      } finally {
+        inflater.end();
+      }
+      return new ImageModel(height, width, pixels);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class represents a budget of bytes shared by several
+ * {@link BoundedImageStore} objects, such as the stores of the sessions
+ * of a server, so that together they stay under one budget instead of
+ * each of them taking the whole of it. Every store adds the bytes of
+ * the images it holds in memory to the budget and takes them away when
+ * it drops them, and whenever the budget is over its limit, a store
+ * which stores an image drops its own least recently used images.
+ * The bytes of the images being written to scratch files are counted
+ * apart, since they are about to be freed.
+ */
+final class StoreBudget {
+  private final long limit;
+  private final AtomicLong residentBytes;
+  private final AtomicLong spillingBytes;
+
+  /**
+   * Constructs an empty budget with the specified limit.
+   *
+   * @param limit the number of bytes the images held in memory should
+   *              not exceed.
+   * @throws IllegalArgumentException if the limit is negative.
+   */
+  StoreBudget(long limit) throws IllegalArgumentException {
+    if (limit < 0) {
+      throw new IllegalArgumentException("Budget of the store cannot be negative.");
+    }
+    this.limit = limit;
+    this.residentBytes = new AtomicLong();
+    this.spillingBytes = new AtomicLong();
+  }
+
+  /**
+   * Method to obtain the limit of the budget.
+   *
+   * @return the limit in bytes.
+   */
+  long getLimit() {
+    return this.limit;
+  }
+
+  /**
+   * Method to obtain the number of bytes held in memory by the images
+   * of every store sharing the budget.
+   *
+   * @return the resident bytes.
+   */
+  long getResidentBytes() {
+    return this.residentBytes.get();
+  }
+
+  /**
+   * Adds bytes held in memory, or takes them away if negative.
+   *
+   * @param bytes the number of bytes.
+   */
+  void addResident(long bytes) {
+    this.residentBytes.addAndGet(bytes);
+  }
+
+  /**
+   * Adds bytes being written to scratch files, or takes them away if
+   * negative.
+   *
+   * @param bytes the number of bytes.
+   */
+  void addSpilling(long bytes) {
+    this.spillingBytes.addAndGet(bytes);
+  }
+
+  /**
+   * Method to check if the images held in memory, not counting those
+   * being written to scratch files, are over the limit.
+   *
+   * @return true if the budget is exceeded, else false.
+   */
+  boolean isExceeded() {
+    return this.residentBytes.get() - this.spillingBytes.get() > this.limit;
+  }
+}
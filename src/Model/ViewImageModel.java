@@ -0,0 +1,181 @@
+package model;
+
+import java.lang.ref.SoftReference;
+
+/**
+ * This class represents an image which is a flipped or cropped view
+ * of another image. It holds no pixels of its own: the pixel at row x
+ * and column y of the view is the pixel at row rowOffset + x * rowStep
+ * and column colOffset + y * colStep of the image it is a view of,
+ * where each step is 1 or -1.
+ * A view of a view is resolved against the image the first view
+ * looks at, so a chain of flips and crops costs a single index
+ * computation per pixel. Creating a view takes constant time and
+ * memory, and the pixels are only copied into an array when an
+ * operation needs them stored contiguously. That array is kept in a
+ * soft reference, like the pixels of a {@link HaarImageModel}.
+ * Since an image is never modified once it has been created, a view
+ * always shows the same pixels.
+ */
+class ViewImageModel extends ImageModel {
+  private final ImageModel root;
+  private final int rowOffset;
+  private final int rowStep;
+  private final int colOffset;
+  private final int colStep;
+  private volatile SoftReference<int[]> materialized;
+
+  /**
+   * Constructs a view of an image from the mapping of its rows and
+   * columns. If the image is itself a view, the mapping is combined
+   * with the mapping of that view.
+   *
+   * @param parent    the image the view looks at.
+   * @param height    the height of the view.
+   * @param width     the width of the view.
+   * @param rowOffset the row of the parent shown in the first row.
+   * @param rowStep   1 if the rows are shown in order, -1 if reversed.
+   * @param colOffset the column of the parent shown in the first column.
+   * @param colStep   1 if the columns are shown in order, -1 if reversed.
+   */
+  private ViewImageModel(ImageModel parent, int height, int width, int rowOffset,
+                         int rowStep, int colOffset, int colStep) {
+    super(height, width, (int[]) null);
+    if (parent instanceof ViewImageModel) {
+      ViewImageModel view = (ViewImageModel) parent;
+      this.root = view.root;
+      this.rowOffset = view.rowOffset + rowOffset * view.rowStep;
+      this.rowStep = rowStep * view.rowStep;
+      this.colOffset = view.colOffset + colOffset * view.colStep;
+      this.colStep = colStep * view.colStep;
+    } else {
+      this.root = parent;
+      this.rowOffset = rowOffset;
+      this.rowStep = rowStep;
+      this.colOffset = colOffset;
+      this.colStep = colStep;
+    }
+  }
+
+  /**
+   * Creates a view of an image mirrored from left to right.
+   *
+   * @param image the image to be flipped.
+   * @return the flipped view.
+   */
+  static ViewImageModel flipHorizontal(ImageModel image) {
+    return new ViewImageModel(image, image.getHeight(), image.getWidth(),
+            0, 1, image.getWidth() - 1, -1);
+  }
+
+  /**
+   * Creates a view of an image turned upside down.
+   *
+   * @param image the image to be flipped.
+   * @return the flipped view.
+   */
+  static ViewImageModel flipVertical(ImageModel image) {
+    return new ViewImageModel(image, image.getHeight(), image.getWidth(),
+            image.getHeight() - 1, -1, 0, 1);
+  }
+
+  /**
+   * Creates a view of a rectangular region of an image.
+   *
+   * @param image  the image to be cropped.
+   * @param top    the first row of the region.
+   * @param left   the first column of the region.
+   * @param height the height of the region.
+   * @param width  the width of the region.
+   * @return the cropped view.
+   * @throws IllegalArgumentException if the region is not inside the image.
+   */
+  static ViewImageModel crop(ImageModel image, int top, int left, int height, int width)
+          throws IllegalArgumentException {
+    if (top < 0 || left < 0 || height < 0 || width < 0
+            || top + height > image.getHeight() || left + width > image.getWidth()) {
+      throw new IllegalArgumentException("Region must be inside the image.");
+    }
+    return new ViewImageModel(image, height, width, top, 1, left, 1);
+  }
+
+  /**
+   * Method to obtain the image whose memory the view keeps alive,
+   * which is the root of the image it looks at.
+   *
+   * @return the root image.
+   */
+  @Override
+  ImageModel getRoot() {
+    return this.root.getRoot();
+  }
+
+  /**
+   * Method to obtain the packed value of the pixel at a specific
+   * coordinate of the view, read from the image it looks at.
+   *
+   * @param x the row of the array.
+   * @param y the column of the array.
+   * @return the packed 0xRRGGBB value of the pixel.
+   */
+  @Override
+  public int getRGB(int x, int y) {
+    return this.root.getRGB(this.rowOffset + x * this.rowStep,
+            this.colOffset + y * this.colStep);
+  }
+
+  /**
+   * Method to copy the packed pixels of a band of consecutive rows
+   * into an array, gathering them from the image the view looks at.
+   *
+   * @param start  the first row of the band.
+   * @param end    the row just after the last row of the band.
+   * @param dst    the array the packed pixels are copied to.
+   * @param offset the index in the array of the first pixel of the band.
+   */
+  @Override
+  void copyRows(int start, int end, int[] dst, int offset) {
+    SoftReference<int[]> reference = this.materialized;
+    int[] cached = reference == null ? null : reference.get();
+    int width = this.getWidth();
+    if (cached != null) {
+      System.arraycopy(cached, start * width, dst, offset, (end - start) * width);
+      return;
+    }
+    int[] src = this.root.getPixels();
+    int rootWidth = this.root.getWidth();
+    for (int x = start; x < end; x++) {
+      int row = (this.rowOffset + x * this.rowStep) * rootWidth + this.colOffset;
+      int p = offset + (x - start) * width;
+      if (this.colStep == 1) {
+        System.arraycopy(src, row, dst, p, width);
+      } else {
+        for (int y = 0; y < width; y++) {
+          dst[p + y] = src[row - y];
+        }
+      }
+    }
+  }
+
+  /**
+   * Method to obtain the packed pixel array of the view, copying the
+   * pixels out of the image it looks at if they are not held in memory.
+   * The array is shared and not copied, so it must only be read.
+   *
+   * @return the packed pixel values in row-major order.
+   */
+  @Override
+  protected int[] getPixels() {
+    SoftReference<int[]> reference = this.materialized;
+    int[] pixels = reference == null ? null : reference.get();
+    if (pixels == null) {
+      int width = this.getWidth();
+      int[] arr = new int[this.getHeight() * width];
+      RowExecutor.getDefault().forEachRow(this.getHeight(), width,
+              (start, end) -> this.copyRows(start, end, arr, start * width));
+      pixels = arr;
+      this.materialized = new SoftReference<>(pixels);
+    }
+    return pixels;
+  }
+}
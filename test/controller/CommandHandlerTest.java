@@ -3,17 +3,44 @@ package controller;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import javax.management.ObjectName;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 import model.ImageOperationsV3;
 import model.OperationsV3;
 import view.ViewHandler;
 
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -112,6 +139,220 @@ public class CommandHandlerTest {
     assertEquals(expected, output);
   }
 
+  /**
+   * Test Case to check if a PPM image saved in the
+   * binary format is loaded back with the same pixels.
+   */
+  @Test
+  public void testSaveLoadBinaryPPM() {
+    String command = "load images/koala.ppm koala\n " +
+            "save test/controller/resultTest/koala-binary.ppm koala binary\n " +
+            "load test/controller/resultTest/koala-binary.ppm koala2";
+    Reader in = new StringReader(command);
+
+    controller = new CommandReader(opr, in, v);
+    controller.startApplication();
+    String output = out.toString();
+    String expected = cmdload + "save executed successfully\n"
+            + "load executed successfully\n";
+    assertEquals(expected, output);
+    assertArrayEquals(opr.saveImage("koala"), opr.saveImage("koala2"));
+  }
+
+  /**
+   * Test Case to check if a binary PPM image whose raster
+   * is mapped into memory is loaded with the same pixels.
+   */
+  @Test
+  public void testLoadMappedPPM() {
+    String command = "load images/koala.ppm koala\n " +
+            "save test/controller/resultTest/koala-mapped.ppm koala binary\n " +
+            "load test/controller/resultTest/koala-mapped.ppm koala2\n " +
+            "red-component koala2 koala2-red\n " +
+            "red-component koala koala-red";
+    Reader in = new StringReader(command);
+
+    System.setProperty(Load.MAP_THRESHOLD_PROPERTY, "0");
+    try {
+      controller = new CommandReader(opr, in, v);
+      controller.startApplication();
+    } finally {
+      System.clearProperty(Load.MAP_THRESHOLD_PROPERTY);
+    }
+    String output = out.toString();
+    String expected = cmdload + "save executed successfully\n"
+            + "load executed successfully\n" + "red-component executed successfully\n"
+            + "red-component executed successfully\n";
+    assertEquals(expected, output);
+    assertArrayEquals(opr.saveImage("koala"), opr.saveImage("koala2"));
+    assertArrayEquals(opr.saveImage("koala-red"), opr.saveImage("koala2-red"));
+  }
+
+  /**
+   * Test Case to check if saving over the PPM file an image was
+   * memory-mapped from keeps the pixels of the image, of a flipped
+   * view of it and of a lazy result of it, and writes them all.
+   */
+  @Test
+  public void testSaveOverMappedPPM() throws IOException {
+    Path dir = Files.createTempDirectory("imagelab-save");
+    String file = dir.resolve("koala.ppm").toString();
+    String command = "load images/koala.ppm koala\n "
+            + "save " + file + " koala binary\n "
+            + "load " + file + " mapped\n "
+            + "horizontal-flip mapped flipped\n "
+            + "brighten 10 mapped bright\n "
+            + "save " + file + " mapped binary\n "
+            + "save " + file + " flipped binary\n "
+            + "load " + file + " flipped2\n "
+            + "save " + file + " bright binary\n "
+            + "load " + file + " bright2\n "
+            + "horizontal-flip koala koala-flipped\n "
+            + "brighten 10 koala koala-bright";
+    Reader in = new StringReader(command);
+
+    System.setProperty(Load.MAP_THRESHOLD_PROPERTY, "0");
+    System.setProperty("imagelab.lazy", "true");
+    try {
+      opr = new ImageOperationsV3();
+      controller = new CommandReader(opr, in, v);
+      controller.startApplication();
+      String expected = cmdload + "save executed successfully\n"
+              + "load executed successfully\n" + "horizontal-flip executed successfully\n"
+              + "brighten executed successfully\n" + "save executed successfully\n"
+              + "save executed successfully\n" + "load executed successfully\n"
+              + "save executed successfully\n" + "load executed successfully\n"
+              + "horizontal-flip executed successfully\n"
+              + "brighten executed successfully\n";
+      assertEquals(expected, out.toString());
+      assertArrayEquals(opr.saveImage("koala"), opr.saveImage("mapped"));
+      assertArrayEquals(opr.saveImage("koala-flipped"), opr.saveImage("flipped"));
+      assertArrayEquals(opr.saveImage("koala-flipped"), opr.saveImage("flipped2"));
+      assertArrayEquals(opr.saveImage("koala-bright"), opr.saveImage("bright"));
+      assertArrayEquals(opr.saveImage("koala-bright"), opr.saveImage("bright2"));
+      try (Stream<Path> files = Files.list(dir)) {
+        assertEquals(1, files.count());
+      }
+    } finally {
+      System.clearProperty(Load.MAP_THRESHOLD_PROPERTY);
+      System.clearProperty("imagelab.lazy");
+      Files.deleteIfExists(Paths.get(file));
+      Files.deleteIfExists(dir);
+    }
+  }
+
+  /**
+   * Test Case to check if the bulk conversion of every common
+   * image type gives the same pixels as getRGB, and if the
+   * conversion back gives the same pixels again.
+   */
+  @Test
+  public void testRasterConversionSameAsGetRGB() {
+    int[] types = {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB,
+        BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR,
+        BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_BYTE_INDEXED,
+        BufferedImage.TYPE_USHORT_565_RGB};
+    Random random = new Random(42);
+    for (int type : types) {
+      BufferedImage img = new BufferedImage(300, 257, type);
+      for (int i = 0; i < img.getHeight(); i++) {
+        for (int j = 0; j < img.getWidth(); j++) {
+          img.setRGB(j, i, random.nextInt());
+        }
+      }
+      int[] pixels = RasterConverter.toPixels(img);
+      for (int i = 0; i < img.getHeight(); i++) {
+        for (int j = 0; j < img.getWidth(); j++) {
+          assertEquals(img.getRGB(j, i) & 0xffffff, pixels[i * img.getWidth() + j]);
+        }
+      }
+      opr.loadImage(img.getHeight(), img.getWidth(), pixels, "img");
+      BufferedImage back = RasterConverter.toImage(opr.viewImage("img"));
+      assertEquals(img.getRGB(7, 5) | 0xff000000, back.getRGB(7, 5));
+      assertArrayEquals(pixels, RasterConverter.toPixels(back));
+    }
+  }
+
+  /**
+   * Test Case to check if the binary format is
+   * rejected for an image which is not a PPM image.
+   */
+  @Test
+  public void testSaveBinaryInvalidExtension() {
+    String command = "load images/koala.ppm koala\n " +
+            "save test/controller/resultTest/koala.png koala binary";
+    Reader in = new StringReader(command);
+
+    controller = new CommandReader(opr, in, v);
+    controller.startApplication();
+    String output = out.toString();
+    String expected = cmdload + "Binary format is only supported for PPM\n";
+    assertEquals(expected, output);
+  }
+
+  /**
+   * Test Case to check if a binary PPM image with
+   * 16-bit samples is scaled to 0-255 while loading.
+   *
+   * @throws IOException if the image cannot be written.
+   */
+  @Test
+  public void testLoad16BitPPM() throws IOException {
+    ByteArrayOutputStream file = new ByteArrayOutputStream();
+    file.write("P6\n# 16-bit\n2 1\n65535\n".getBytes(StandardCharsets.US_ASCII));
+    file.write(new byte[]{0, 0, (byte) 0xff, (byte) 0xff, (byte) 0x80, 0,
+        0x03, (byte) 0xe8, 0x01, 0x01, 0x30, 0x39});
+    Files.write(Paths.get("test/controller/resultTest/deep.ppm"), file.toByteArray());
+    String command = "load test/controller/resultTest/deep.ppm deep";
+    Reader in = new StringReader(command);
+
+    controller = new CommandReader(opr, in, v);
+    controller.startApplication();
+    assertEquals(cmd + "load executed successfully\n", out.toString());
+    assertArrayEquals(new int[][][]{{{0, 255, 128}, {4, 1, 48}}}, opr.saveImage("deep"));
+  }
+
+  /**
+   * Test Case to check if a binary PGM image is loaded
+   * as a grayscale image scaled to 0-255.
+   *
+   * @throws IOException if the image cannot be written.
+   */
+  @Test
+  public void testLoadBinaryPGM() throws IOException {
+    ByteArrayOutputStream file = new ByteArrayOutputStream();
+    file.write("P5 3 1 15\n".getBytes(StandardCharsets.US_ASCII));
+    file.write(new byte[]{0, 15, 7});
+    Files.write(Paths.get("test/controller/resultTest/gray.pgm"), file.toByteArray());
+    String command = "load test/controller/resultTest/gray.pgm gray";
+    Reader in = new StringReader(command);
+
+    controller = new CommandReader(opr, in, v);
+    controller.startApplication();
+    assertEquals(cmd + "load executed successfully\n", out.toString());
+    assertArrayEquals(new int[][][]{{{0, 0, 0}, {255, 255, 255}, {119, 119, 119}}},
+            opr.saveImage("gray"));
+  }
+
+  /**
+   * Test Case to check if the load method throws
+   * error if the PPM file is truncated.
+   *
+   * @throws IOException if the image cannot be written.
+   */
+  @Test
+  public void testLoadTruncatedPPM() throws IOException {
+    Files.write(Paths.get("test/controller/resultTest/short.ppm"),
+            "P3 2 2 255 1 2 3 4 5 6".getBytes(StandardCharsets.US_ASCII));
+    String command = "load test/controller/resultTest/short.ppm short";
+    Reader in = new StringReader(command);
+
+    controller = new CommandReader(opr, in, v);
+    controller.startApplication();
+    String expected = cmd + "Invalid PPM file: unexpected end of file.\n";
+    assertEquals(expected, out.toString());
+  }
+
   /**
    * Test Case to check if the load method
    * throws error if filepath is not valid.
@@ -720,6 +961,30 @@ public class CommandHandlerTest {
     assertEquals(expected, output);
   }
 
+  /**
+   * Test Case to check if a split of zero percent, whose preview is
+   * an image of zero width, works with the operations which read the
+   * image in blocks, and if the result can be saved.
+   */
+  @Test
+  public void testSplitZero() {
+    String command = "load images/manhattan-small.png man\n"
+            + "sepia man man-sepia split 0\n"
+            + "luma-component man man-luma split 0\n"
+            + "color-correct man man-cc split 0\n"
+            + "save test/controller/resultTest/man-sepia-split0.png man-sepia\n";
+    Reader in = new StringReader(command);
+    controller = new CommandReader(opr, in, v);
+    controller.startApplication();
+    String output = out.toString();
+    String expected = cmdload + "sepia executed successfully\n"
+            + "luma-component executed successfully\n"
+            + "color-correct executed successfully\n"
+            + "save executed successfully\n";
+    assertEquals(expected, output);
+    assertArrayEquals(opr.saveImage("man"), opr.saveImage("man-sepia"));
+  }
+
   /**
    * Test Case to check if split with sepia works correctly
    * with double.
@@ -1348,6 +1613,28 @@ public class CommandHandlerTest {
             Files.exists(Paths.get("test/controller/resultTest/man.png")));
   }
 
+  /**
+   * Test Case to check if a compressed image is saved
+   * and loaded in the HAAR format correctly.
+   */
+  @Test
+  public void testSaveLoadHaar() {
+    String command = "load images/manhattan-small.png man\n " +
+            "compress 60 man man-compressed\n " +
+            "save test/controller/resultTest/man.haar man-compressed\n " +
+            "load test/controller/resultTest/man.haar man2";
+    Reader in = new StringReader(command);
+
+    controller = new CommandReader(opr, in, v);
+    controller.startApplication();
+    String output = out.toString();
+    String expected = cmdload + "compress executed successfully\n"
+            + "save executed successfully\n" + "load executed successfully\n";
+    assertEquals(expected, output);
+    assertTrue("Image not save successfully",
+            Files.exists(Paths.get("test/controller/resultTest/man.haar")));
+  }
+
   /**
    * Test case to check if save component
    * throw error if invalid command format.
@@ -2113,6 +2400,54 @@ public class CommandHandlerTest {
     assertEquals(expected, output);
   }
 
+  /**
+   * Test Case to check if the tiled compression is
+   * called correctly in controller.
+   */
+  @Test
+  public void testCompressTiled() {
+    String command = "load images/manhattan-small.png man\n" +
+            "compress 90 man man-compress tile 32";
+    Reader in = new StringReader(command);
+    controller = new CommandReader(opr, in, v);
+    controller.startApplication();
+    String output = out.toString();
+    String expected = cmdload + "compress executed successfully\n";
+    assertEquals(expected, output);
+  }
+
+  /**
+   * Test Case to check if the tile size given in compress
+   * command is not a power of two.
+   */
+  @Test
+  public void testCompressInvalidTileSize() {
+    String command = "load images/manhattan-small.png man\n" +
+            "compress 90 man man-compress tile 30";
+    Reader in = new StringReader(command);
+    controller = new CommandReader(opr, in, v);
+    controller.startApplication();
+    String output = out.toString();
+    String expected = cmdload + "Tile size must be a power of two greater than 1\n";
+    assertEquals(expected, output);
+  }
+
+  /**
+   * Test Case to check if the tile option given in compress
+   * command is not recognised.
+   */
+  @Test
+  public void testCompressInvalidTileOption() {
+    String command = "load images/manhattan-small.png man\n" +
+            "compress 90 man man-compress tiles 32";
+    Reader in = new StringReader(command);
+    controller = new CommandReader(opr, in, v);
+    controller.startApplication();
+    String output = out.toString();
+    String expected = cmdload + "Invalid Command\n";
+    assertEquals(expected, output);
+  }
+
   /**
    * Test Case to check if no value is given in compress
    * command.
@@ -3292,4 +3627,286 @@ public class CommandHandlerTest {
     assertEquals(expected, output);
   }
 
-}
\ No newline at end of file
+  /**
+   * Test Case to check that a pruned script gives the same output and
+   * saves the same images as the full script, and removes its images
+   * once it no longer needs them.
+   */
+  @Test
+  public void testRunFilePrunedSameAsFull() throws IOException {
+    String command = "run test/controller/ScriptFiles/fileppm.txt";
+    controller = new CommandReader(opr, new StringReader(command), v);
+    controller.startApplication();
+    String full = out.toString();
+    byte[] blur = Files.readAllBytes(Paths.get("test/controller/resultTest/bird-blur.ppm"));
+    byte[] level = Files.readAllBytes(Paths.get("test/controller/resultTest/bird-level.png"));
+
+    OperationsV3 pruned = new ImageOperationsV3();
+    StringBuffer prunedOut = new StringBuffer();
+    System.setProperty(CommandReader.PRUNE_PROPERTY, "true");
+    try {
+      controller = new CommandReader(pruned, new StringReader(command),
+              new ViewHandler(prunedOut));
+      controller.startApplication();
+    } finally {
+      System.clearProperty(CommandReader.PRUNE_PROPERTY);
+    }
+    assertEquals(full, prunedOut.toString());
+    assertArrayEquals(blur,
+            Files.readAllBytes(Paths.get("test/controller/resultTest/bird-blur.ppm")));
+    assertArrayEquals(level,
+            Files.readAllBytes(Paths.get("test/controller/resultTest/bird-level.png")));
+    assertTrue(opr.checkImage("bird"));
+    assertTrue(!pruned.checkImage("bird"));
+    assertTrue(!pruned.checkImage("bird-red"));
+  }
+
+  @Test
+  public void testRunFileParallelSameAsSequential() throws IOException {
+    String command = "run test/controller/ScriptFiles/fileppm.txt";
+    String[] files = {"bird-blur.ppm", "bird-split.ppm", "bird-split.png", "bird-combine.ppm",
+        "bird-sepia.jpg", "bird-level.png", "bird-correct.png"};
+    controller = new CommandReader(opr, new StringReader(command), v);
+    controller.startApplication();
+    String sequential = out.toString();
+    byte[][] saved = new byte[files.length][];
+    for (int i = 0; i < files.length; i++) {
+      saved[i] = Files.readAllBytes(Paths.get("test/controller/resultTest", files[i]));
+    }
+
+    OperationsV3 parallel = new ImageOperationsV3();
+    StringBuffer parallelOut = new StringBuffer();
+    System.setProperty(CommandReader.THREADS_PROPERTY, "4");
+    try {
+      controller = new CommandReader(parallel, new StringReader(command),
+              new ViewHandler(parallelOut));
+      controller.startApplication();
+    } finally {
+      System.clearProperty(CommandReader.THREADS_PROPERTY);
+    }
+    assertEquals(sequential, parallelOut.toString());
+    for (int i = 0; i < files.length; i++) {
+      assertArrayEquals(saved[i],
+              Files.readAllBytes(Paths.get("test/controller/resultTest", files[i])));
+    }
+    assertTrue(parallel.checkImage("bird-red"));
+  }
+
+  @Test
+  public void testRunFileInvalidThreads() {
+    System.setProperty(CommandReader.THREADS_PROPERTY, "none");
+    try {
+      controller = new CommandReader(opr,
+              new StringReader("run test/controller/ScriptFiles/fileppm.txt"), v);
+      controller.startApplication();
+    } finally {
+      System.clearProperty(CommandReader.THREADS_PROPERTY);
+    }
+    assertEquals("Enter the Command:\nScript threads must be an integer value.\n",
+            out.toString());
+  }
+
+  @Test
+  public void testScriptPlanDependencies() {
+    String[] script = {"load images/koala.ppm a", "red-component a r", "blue-component a b",
+        "brighten 10 r r", "save out.png r", "load out.png c", "bogus a", "sepia b a",
+        "quit", "blur c d"};
+    CommandHandler handler = new CommandHandler(opr);
+    List<AbstractCommandExecuter> commands = new ArrayList<>();
+    for (String line : script) {
+      AbstractCommandExecuter command;
+      try {
+        command = handler.parseCommand(line.split(" "));
+      } catch (IllegalArgumentException e) {
+        command = null;
+      }
+      commands.add(command);
+    }
+    ScriptPlan plan = new ScriptPlan(commands, false);
+    assertArrayEquals(new int[0], plan.getDependencies(0));
+    assertArrayEquals(new int[]{0}, plan.getDependencies(1));
+    assertArrayEquals(new int[]{0}, plan.getDependencies(2));
+    assertArrayEquals(new int[]{1}, plan.getDependencies(3));
+    assertArrayEquals(new int[]{3}, plan.getDependencies(4));
+    assertArrayEquals(new int[]{4}, plan.getDependencies(5));
+    assertArrayEquals(new int[0], plan.getDependencies(6));
+    assertArrayEquals(new int[]{0, 1, 2}, plan.getDependencies(7));
+    assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7}, plan.getDependencies(8));
+    assertArrayEquals(new int[]{5, 8}, plan.getDependencies(9));
+    assertTrue(!plan.isSkipped(2));
+  }
+
+  @Test
+  public void testStatsRecordsCommands() throws Exception {
+    System.setProperty(CommandMetrics.METRICS_PROPERTY, "true");
+    CommandMetrics.getDefault().reset();
+    try {
+      controller = new CommandReader(opr, new StringReader("load images/koala.ppm k\n"
+              + "blur k b\nblur b b\nsepia missing s\nstats"), v);
+      controller.startApplication();
+    } finally {
+      System.clearProperty(CommandMetrics.METRICS_PROPERTY);
+    }
+    String[] lines = out.toString().split("\n");
+    String blur = null;
+    String sepia = null;
+    for (String line : lines) {
+      if (line.startsWith("blur ")) {
+        blur = line;
+      } else if (line.startsWith("sepia ")) {
+        sepia = line;
+      }
+    }
+    assertTrue(out.toString().contains("Command"));
+    assertTrue(blur != null && blur.split("\\s+")[1].equals("2"));
+    assertTrue(blur.split("\\s+")[2].equals("0"));
+    assertTrue(blur.endsWith("x" + opr.viewImage("k").getWidth()));
+    assertTrue(sepia != null && sepia.split("\\s+")[2].equals("1"));
+    assertTrue(out.toString().contains("Image store: "));
+    assertTrue(out.toString().endsWith("stats executed successfully\n"));
+    assertEquals(2L, ManagementFactory.getPlatformMBeanServer().getAttribute(
+            new ObjectName("imagelab:type=CommandMetrics,command=blur"), "Count"));
+  }
+
+  @Test
+  public void testMetricsOfConcurrentCommands() throws Exception {
+    controller = new CommandReader(opr, new StringReader("load images/koala.ppm k"), v);
+    controller.startApplication();
+    CommandMetrics metrics = new CommandMetrics(true);
+    String name = "blur-" + System.nanoTime();
+    ObjectName bean = new ObjectName("imagelab:type=CommandMetrics,command=" + name);
+    int threads = 8;
+    CountDownLatch ready = new CountDownLatch(threads);
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        AbstractCommandExecuter blur = new Blur(new String[]{"blur", "k", "b" + i}, 3);
+        results.add(pool.submit(() -> {
+          ready.countDown();
+          ready.await();
+          return metrics.measure(name, blur, opr);
+        }));
+      }
+      for (Future<Boolean> result : results) {
+        assertTrue(result.get());
+      }
+      assertEquals(8L, metrics.getStats(name).getCount());
+      assertEquals(8L, ManagementFactory.getPlatformMBeanServer().getAttribute(bean, "Count"));
+    } finally {
+      pool.shutdown();
+      if (ManagementFactory.getPlatformMBeanServer().isRegistered(bean)) {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(bean);
+      }
+    }
+  }
+
+  @Test
+  public void testStatsWithoutMetrics() {
+    CommandMetrics metrics = new CommandMetrics(false);
+    controller = new CommandReader(opr, new StringReader("load images/koala.ppm k"), v);
+    controller.startApplication();
+    Stats stats = new Stats(new String[]{"stats"}, 1, metrics);
+    assertTrue(stats.execute(opr));
+    assertFalse(stats.getReport().contains("load"));
+    assertTrue(stats.getReport().startsWith("Command"));
+  }
+
+  @Test
+  public void testLoadSaveFlightRecorderEvents() throws IOException {
+    Path file = Files.createTempFile("commands", ".jfr");
+    Path saved = Files.createTempFile("saved", ".png");
+    List<RecordedEvent> events = new ArrayList<>();
+    try (Recording recording = new Recording()) {
+      recording.enable("imagelab.ImageFile").withThreshold(Duration.ZERO);
+      recording.start();
+      controller = new CommandReader(opr, new StringReader("load images/koala.ppm k\n"
+              + "save " + saved + " k"), v);
+      controller.startApplication();
+      recording.stop();
+      recording.dump(file);
+      for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+        if (event.getEventType().getName().equals("imagelab.ImageFile")) {
+          events.add(event);
+        }
+      }
+    } finally {
+      Files.delete(file);
+      Files.delete(saved);
+    }
+    assertEquals(2, events.size());
+    RecordedEvent load = events.get(0).getString("command").equals("load")
+            ? events.get(0) : events.get(1);
+    RecordedEvent save = load == events.get(0) ? events.get(1) : events.get(0);
+    assertEquals("ppm", load.getString("format"));
+    assertEquals("k", load.getString("image"));
+    assertEquals(Files.size(Paths.get("images/koala.ppm")), load.getLong("bytes"));
+    assertEquals("save", save.getString("command"));
+    assertEquals("png", save.getString("format"));
+    assertTrue(save.getLong("bytes") > 0);
+  }
+
+  @Test
+  public void testScriptServerSessions() throws Exception {
+    ScriptServer server = new ScriptServer(0, new ImageOperationsV3()::newSession);
+    Thread serving = new Thread(server::startApplication);
+    serving.start();
+    try (Socket first = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+         Socket second = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+      BufferedReader firstIn = new BufferedReader(new InputStreamReader(first.getInputStream(),
+              StandardCharsets.UTF_8));
+      BufferedReader secondIn = new BufferedReader(new InputStreamReader(
+              second.getInputStream(), StandardCharsets.UTF_8));
+      assertEquals("Enter the Command:", firstIn.readLine());
+      assertEquals("Enter the Command:", secondIn.readLine());
+
+      first.getOutputStream().write("load images/koala.ppm k\n".getBytes(StandardCharsets.UTF_8));
+      assertEquals("load executed successfully", firstIn.readLine());
+      second.getOutputStream().write("blur k b\n".getBytes(StandardCharsets.UTF_8));
+      assertEquals(AbstractCommandExecuter.MISSING_IMAGE, secondIn.readLine());
+      first.getOutputStream().write("blur k b\nquit\n".getBytes(StandardCharsets.UTF_8));
+      assertEquals("blur executed successfully", firstIn.readLine());
+      assertEquals("quit executed successfully", firstIn.readLine());
+      assertEquals(null, firstIn.readLine());
+
+      second.getOutputStream().write("load images/koala.ppm k\nblur k b\n"
+              .getBytes(StandardCharsets.UTF_8));
+      assertEquals("load executed successfully", secondIn.readLine());
+      assertEquals("blur executed successfully", secondIn.readLine());
+    } finally {
+      server.close();
+      serving.join();
+    }
+  }
+
+  @Test
+  public void testScriptServerConcurrentSessions() throws Exception {
+    ScriptServer server = new ScriptServer(0, new ImageOperationsV3()::newSession);
+    Thread serving = new Thread(server::startApplication);
+    serving.start();
+    ExecutorService clients = SessionExecutor.create();
+    try {
+      List<Future<String>> replies = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        String script = "load images/koala.ppm k\nbrighten " + i + " k k\nblur k b\n"
+                + "sepia b s\nquit\n";
+        replies.add(clients.submit(() -> {
+          try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.getOutputStream().write(script.getBytes(StandardCharsets.UTF_8));
+            return new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+          }
+        }));
+      }
+      for (Future<String> reply : replies) {
+        assertEquals("Enter the Command:\nload executed successfully\n"
+                + "brighten executed successfully\nblur executed successfully\n"
+                + "sepia executed successfully\nquit executed successfully\n", reply.get());
+      }
+    } finally {
+      clients.shutdown();
+      server.close();
+      serving.join();
+    }
+  }
+
+}
@@ -139,7 +139,7 @@ public class ControllerMockTest {
     in = new StringReader("save images/manhattan.png man");
     controller = new CommandReader(mock, in, view);
     controller.startApplication();
-    String expected = "\nSave image man";
+    String expected = "\nView image man";
     assertEquals(expected, log.toString());
   }
 
@@ -630,4 +630,31 @@ public class ControllerMockTest {
     assertEquals(expected, log.toString());
   }
 
+  /**
+   * Test Case to check that a pruned script skips the commands which
+   * do not lead to a saved image and removes every image after its
+   * last use, while reporting every command as executed.
+   */
+  @Test
+  public void checkPrunedScript() {
+    in = new StringReader("run test/controller/ScriptFiles/fileprune.txt");
+    System.setProperty(CommandReader.PRUNE_PROPERTY, "true");
+    try {
+      controller = new CommandReader(mock, in, view);
+      controller.startApplication();
+    } finally {
+      System.clearProperty(CommandReader.PRUNE_PROPERTY);
+    }
+    String expected = "Load image koala\nBrighten koala to bright 10\nRemove image koala"
+            + "\nBlur bright to blurred\nRemove image bright\nRemove image unused"
+            + "\nRemove image unused-flip\nView image blurred\nRemove image blurred"
+            + "\nRemove image late";
+    assertEquals(expected, log.toString());
+    assertEquals("Enter the Command:\nload executed successfully\n"
+            + "brighten executed successfully\nsepia executed successfully\n"
+            + "blur executed successfully\nvertical-flip executed successfully\n"
+            + "save executed successfully\nhorizontal-flip executed successfully\n",
+            out.toString());
+  }
+
 }
@@ -1,5 +1,9 @@
 package controller;
 
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import model.ImageData;
 import model.OperationsV3;
 
 /**
@@ -36,6 +40,54 @@ public class ImageOperationsMock implements OperationsV3 {
     return true;
   }
 
+  /**
+   * Mock operation for tiled compress method.
+   *
+   * @param currentImageName name of the image to be compressed.
+   * @param newImageName     name of the new compressed image.
+   * @param percentage       percentage of compression to be done.
+   * @param tileSize         size of each tile.
+   * @return true.
+   */
+  @Override
+  public boolean compressImage(String currentImageName, String newImageName,
+                               double percentage, int tileSize) {
+    log.append("\nCompress ").append(currentImageName).append(" to ").append(newImageName)
+            .append(" in tiles of ").append(tileSize);
+    return true;
+  }
+
+  /**
+   * Mock operation for loading packed pixels.
+   *
+   * @param height the height of the image.
+   * @param width  the width of the image.
+   * @param pixels the packed pixel values.
+   * @param name   the name of the image.
+   * @return true.
+   */
+  @Override
+  public boolean loadImage(int height, int width, int[] pixels, String name) {
+    log.append("Load image ").append(name);
+    return true;
+  }
+
+  /**
+   * Mock operation for loading a raster.
+   *
+   * @param height the height of the image.
+   * @param width  the width of the image.
+   * @param bands  the bands of the raster.
+   * @param name   the name of the image.
+   * @return true.
+   */
+  @Override
+  public boolean loadRawImage(int height, int width, ByteBuffer[] bands, String name) {
+    log.append("\nLoad raw ").append(name).append(" of ").append(height).append("x")
+            .append(width);
+    return true;
+  }
+
   /**
    * Mock operation for histogram method.
    *
@@ -132,6 +184,43 @@ public class ImageOperationsMock implements OperationsV3 {
     return new int[3][3][3];
   }
 
+  /**
+   * Mock operation for viewImage method.
+   *
+   * @param name Image name.
+   * @return a view of a black 3x3 image.
+   */
+  @Override
+  public ImageData viewImage(String name) {
+    log.append("\nView image ").append(name);
+    return new ImageData() {
+      @Override
+      public int getHeight() {
+        return 3;
+      }
+
+      @Override
+      public int getWidth() {
+        return 3;
+      }
+
+      @Override
+      public int getPixelValue(int x, int y, int z) {
+        return 0;
+      }
+
+      @Override
+      public int getRGB(int x, int y) {
+        return 0;
+      }
+
+      @Override
+      public IntBuffer getPixelBuffer() {
+        return IntBuffer.allocate(9).asReadOnlyBuffer();
+      }
+    };
+  }
+
   /**
    * Mock operation for checkImage method.
    *
@@ -350,4 +439,101 @@ public class ImageOperationsMock implements OperationsV3 {
                         int targetWidth, String newImageName) {
     log.append("\nDownScale ").append(currentImageName).append(" to ").append(targetHeight);
   }
+
+  /**
+   * Mock operation for the color matrix operation.
+   *
+   * @param currentImageName the name of original image to be transformed.
+   * @param newImageName     the name of the new image obtained after the
+   *                         transformation is applied.
+   * @param matrix           the color matrix.
+   * @return true.
+   */
+  @Override
+  public boolean colorMatrix(String currentImageName, String newImageName,
+                             double[][] matrix) {
+    log.append("\nColor matrix on ").append(currentImageName).append(" to ")
+            .append(newImageName);
+    return true;
+  }
+
+  /**
+   * Mock operation for loading a compressed image.
+   *
+   * @param data the contents of a HAAR file.
+   * @param name the name under which the image will be stored.
+   * @return true.
+   */
+  @Override
+  public boolean loadCompressedImage(byte[] data, String name) {
+    log.append("\nLoad compressed image ").append(name);
+    return true;
+  }
+
+  /**
+   * Mock operation for saving a compressed image.
+   *
+   * @param name the name of the image.
+   * @return an empty array.
+   */
+  @Override
+  public byte[] saveCompressedImage(String name) {
+    log.append("\nSave compressed image ").append(name);
+    return new byte[0];
+  }
+
+  /**
+   * Mock operation for computing the pixels of a lazy image.
+   *
+   * @param name the name of the image.
+   * @return true.
+   */
+  @Override
+  public boolean materialize(String name) {
+    log.append("\nMaterialize ").append(name);
+    return true;
+  }
+
+  /**
+   * Mock operation for removing an image.
+   *
+   * @param name the name of the image.
+   * @return true.
+   */
+  @Override
+  public boolean removeImage(String name) {
+    log.append("\nRemove image ").append(name);
+    return true;
+  }
+
+  /**
+   * Mock operation for obtaining the resident bytes of the images.
+   *
+   * @return 0.
+   */
+  @Override
+  public long getResidentBytes() {
+    log.append("\nResident bytes");
+    return 0;
+  }
+
+  /**
+   * Mock operation for obtaining the size of an image.
+   *
+   * @param name the name of the image.
+   * @return null.
+   */
+  @Override
+  public int[] getImageSize(String name) {
+    log.append("\nImage size ").append(name);
+    return null;
+  }
+
+  /**
+   * Mock operation for closing the operations.
+   */
+  @Override
+  public void close() {
+    log.append("\nClose");
+  }
 }
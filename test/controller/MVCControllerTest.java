@@ -52,10 +52,10 @@ public class MVCControllerTest {
     f.loadImage();
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly";
     assertEquals(expected, log.toString());
   }
@@ -70,13 +70,13 @@ public class MVCControllerTest {
     f.saveImage("manhattan-smallhist");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "getSaveFilePath called successfully.\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Success Message Displayed.";
     assertEquals(expected, log.toString());
   }
@@ -102,17 +102,17 @@ public class MVCControllerTest {
     f.applyBlur("manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "blur preview called successfully.\n" +
             "SplitPreview on manhattan-small with 50.0\n" +
             "Blur manhattan-small_blur_Split-1921825657 to " +
             "manhattan-small_blur_Split-1921825657\n" +
             "Regain manhattan-small to manhattan-small_blur_Split\n" +
-            "Save image manhattan-small_blur_Split\n" +
+            "View image manhattan-small_blur_Split\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -138,15 +138,15 @@ public class MVCControllerTest {
     f.applySplit("50", "blur", "manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "SplitPreview on manhattan with 50.0\n" +
             "Blur manhattan_blur_Split8433089 to manhattan_blur_Split8433089\n" +
             "Regain manhattan to manhattan_blur_Split\n" +
-            "Save image manhattan_blur_Split\n" +
+            "View image manhattan_blur_Split\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -162,10 +162,10 @@ public class MVCControllerTest {
     f.applySplit("-60", "blur", "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -183,10 +183,10 @@ public class MVCControllerTest {
     f.applySplit("160", "blur", "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -204,10 +204,10 @@ public class MVCControllerTest {
     f.applySplit("adjbf", "blur", "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -225,16 +225,16 @@ public class MVCControllerTest {
     f.commandGenerator("blur", "manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Blur manhattan to manhattan_blur\n" +
-            "Save image manhattan_blur\n" +
+            "View image manhattan_blur\n" +
             "Image manhattan_blur displayed correctly.\n" +
             "Histogram manhattan_blur to manhattan_blurhist\n" +
-            "Save image manhattan_blurhist\n" +
+            "View image manhattan_blurhist\n" +
             "Histogram of image showed correctly";
     assertEquals(expected, log.toString());
   }
@@ -249,17 +249,17 @@ public class MVCControllerTest {
     f.applySepia("manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "sepia preview called successfully.\n" +
             "SplitPreview on manhattan-small with 50.0\n" +
             "Sepia manhattan-small_sepia_Split1183982764 to " +
             "manhattan-small_sepia_Split1183982764\n" +
             "Regain manhattan-small to manhattan-small_sepia_Split\n" +
-            "Save image manhattan-small_sepia_Split\n" +
+            "View image manhattan-small_sepia_Split\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -285,15 +285,15 @@ public class MVCControllerTest {
     f.applySplit("50", "sepia", "manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "SplitPreview on manhattan with 50.0\n" +
             "Sepia manhattan_sepia_Split892461746 to manhattan_sepia_Split892461746\n" +
             "Regain manhattan to manhattan_sepia_Split\n" +
-            "Save image manhattan_sepia_Split\n" +
+            "View image manhattan_sepia_Split\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -309,10 +309,10 @@ public class MVCControllerTest {
     f.applySplit("-60", "blur", "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -330,10 +330,10 @@ public class MVCControllerTest {
     f.applySplit("160", "blur", "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -351,10 +351,10 @@ public class MVCControllerTest {
     f.applySplit("adjbf", "blur", "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -372,16 +372,16 @@ public class MVCControllerTest {
     f.commandGenerator("sepia", "manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Sepia manhattan to manhattan_sepia\n" +
-            "Save image manhattan_sepia\n" +
+            "View image manhattan_sepia\n" +
             "Image manhattan_sepia displayed correctly.\n" +
             "Histogram manhattan_sepia to manhattan_sepiahist\n" +
-            "Save image manhattan_sepiahist\n" +
+            "View image manhattan_sepiahist\n" +
             "Histogram of image showed correctly";
     assertEquals(expected, log.toString());
   }
@@ -396,17 +396,17 @@ public class MVCControllerTest {
     f.applySharp("manhattan-smallBlur");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "sharpen preview called successfully.\n" +
             "SplitPreview on manhattan-smallBlur with 50.0\n" +
             "Sharpen manhattan-smallBlur_sharpen_Split799684496 to manhattan-small" +
             "Blur_sharpen_Split799684496\n" +
             "Regain manhattan-smallBlur to manhattan-smallBlur_sharpen_Split\n" +
-            "Save image manhattan-smallBlur_sharpen_Split\n" +
+            "View image manhattan-smallBlur_sharpen_Split\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -432,15 +432,15 @@ public class MVCControllerTest {
     f.applySplit("50", "sharpen", "manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "SplitPreview on manhattan with 50.0\n" +
             "Sharpen manhattan_sharpen_Split968469711 to manhattan_sharpen_Split968469711\n" +
             "Regain manhattan to manhattan_sharpen_Split\n" +
-            "Save image manhattan_sharpen_Split\n" +
+            "View image manhattan_sharpen_Split\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -456,10 +456,10 @@ public class MVCControllerTest {
     f.applySplit("-60", "sharpen", "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -477,10 +477,10 @@ public class MVCControllerTest {
     f.applySplit("160", "sharpen", "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -498,10 +498,10 @@ public class MVCControllerTest {
     f.applySplit("adjbf", "sharpen", "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -519,16 +519,16 @@ public class MVCControllerTest {
     f.commandGenerator("sharpen", "manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Sharpen manhattan to manhattan_sharpen\n" +
-            "Save image manhattan_sharpen\n" +
+            "View image manhattan_sharpen\n" +
             "Image manhattan_sharpen displayed correctly.\n" +
             "Histogram manhattan_sharpen to manhattan_sharpenhist\n" +
-            "Save image manhattan_sharpenhist\n" +
+            "View image manhattan_sharpenhist\n" +
             "Histogram of image showed correctly";
     assertEquals(expected, log.toString());
   }
@@ -543,16 +543,16 @@ public class MVCControllerTest {
     f.applyHorizontalFlip("manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "HorizontalFlip manhattan-small to manhattan-small_horizontal-flip\n" +
-            "Save image manhattan-small_horizontal-flip\n" +
+            "View image manhattan-small_horizontal-flip\n" +
             "Image manhattan-small_horizontal-flip displayed correctly.\n" +
             "Histogram manhattan-small_horizontal-flip to manhattan-small_horizontal-fliphist\n" +
-            "Save image manhattan-small_horizontal-fliphist\n" +
+            "View image manhattan-small_horizontal-fliphist\n" +
             "Histogram of image showed correctly";
     assertEquals(expected, log.toString());
   }
@@ -578,16 +578,16 @@ public class MVCControllerTest {
     f.applyHorizontalFlip("manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "HorizontalFlip manhattan-small to manhattan-small_horizontal-flip\n" +
-            "Save image manhattan-small_horizontal-flip\n" +
+            "View image manhattan-small_horizontal-flip\n" +
             "Image manhattan-small_horizontal-flip displayed correctly.\n" +
             "Histogram manhattan-small_horizontal-flip to manhattan-small_horizontal-fliphist\n" +
-            "Save image manhattan-small_horizontal-fliphist\n" +
+            "View image manhattan-small_horizontal-fliphist\n" +
             "Histogram of image showed correctly";
     assertEquals(expected, log.toString());
   }
@@ -613,17 +613,17 @@ public class MVCControllerTest {
     f.applyLuma("manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "luma-component preview called successfully.\n" +
             "SplitPreview on manhattan-small with 50.0\n" +
             "GetBrightnessComponent manhattan-small_luma-component_Split1191784813" +
             " to manhattan-small_luma-component_Split1191784813 luma-component\n" +
             "Regain manhattan-small to manhattan-small_luma-component_Split\n" +
-            "Save image manhattan-small_luma-component_Split\n" +
+            "View image manhattan-small_luma-component_Split\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -649,16 +649,16 @@ public class MVCControllerTest {
     f.applySplit("50", "luma-component", "manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "SplitPreview on manhattan with 50.0\n" +
             "GetBrightnessComponent manhattan_luma-component_Split-1762141657 to" +
             " manhattan_luma-component_Split-1762141657 luma-component\n" +
             "Regain manhattan to manhattan_luma-component_Split\n" +
-            "Save image manhattan_luma-component_Split\n" +
+            "View image manhattan_luma-component_Split\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -674,10 +674,10 @@ public class MVCControllerTest {
     f.applySplit("-60", "luma-component", "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -695,10 +695,10 @@ public class MVCControllerTest {
     f.applySplit("160", "luma-component", "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -716,10 +716,10 @@ public class MVCControllerTest {
     f.applySplit("adjbf", "luma-component", "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -737,16 +737,16 @@ public class MVCControllerTest {
     f.commandGenerator("luma-component", "manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "GetBrightnessComponent manhattan to manhattan_luma-component luma-component\n" +
-            "Save image manhattan_luma-component\n" +
+            "View image manhattan_luma-component\n" +
             "Image manhattan_luma-component displayed correctly.\n" +
             "Histogram manhattan_luma-component to manhattan_luma-componenthist\n" +
-            "Save image manhattan_luma-componenthist\n" +
+            "View image manhattan_luma-componenthist\n" +
             "Histogram of image showed correctly";
     assertEquals(expected, log.toString());
   }
@@ -761,17 +761,17 @@ public class MVCControllerTest {
     f.applyColorCorrect("manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "color-correct preview called successfully.\n" +
             "SplitPreview on manhattan-small with 50.0\n" +
             "ColorCorrection manhattan-small_color-correct_Split-1779365834 to " +
             "manhattan-small_color-correct_Split-1779365834\n" +
             "Regain manhattan-small to manhattan-small_color-correct_Split\n" +
-            "Save image manhattan-small_color-correct_Split\n" +
+            "View image manhattan-small_color-correct_Split\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -798,16 +798,16 @@ public class MVCControllerTest {
     f.applySplit("50", "color-correct", "manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "SplitPreview on manhattan with 50.0\n" +
             "ColorCorrection manhattan_color-correct_Split-1181917124 to " +
             "manhattan_color-correct_Split-1181917124\n" +
             "Regain manhattan to manhattan_color-correct_Split\n" +
-            "Save image manhattan_color-correct_Split\n" +
+            "View image manhattan_color-correct_Split\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -824,10 +824,10 @@ public class MVCControllerTest {
             "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -846,10 +846,10 @@ public class MVCControllerTest {
             "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -868,10 +868,10 @@ public class MVCControllerTest {
             "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -889,16 +889,16 @@ public class MVCControllerTest {
     f.commandGenerator("color-correct", "manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "ColorCorrection manhattan to manhattan_color-correct\n" +
-            "Save image manhattan_color-correct\n" +
+            "View image manhattan_color-correct\n" +
             "Image manhattan_color-correct displayed correctly.\n" +
             "Histogram manhattan_color-correct to manhattan_color-correcthist\n" +
-            "Save image manhattan_color-correcthist\n" +
+            "View image manhattan_color-correcthist\n" +
             "Histogram of image showed correctly";
     assertEquals(expected, log.toString());
   }
@@ -913,17 +913,17 @@ public class MVCControllerTest {
     f.applyRed("manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "red-component preview called successfully.\n" +
             "SplitPreview on manhattan-small with 50.0\n" +
             "GetColorComponent manhattan-small_red-component_Split2135654967 " +
             "to manhattan-small_red-component_Split2135654967 0\n" +
             "Regain manhattan-small to manhattan-small_red-component_Split\n" +
-            "Save image manhattan-small_red-component_Split\n" +
+            "View image manhattan-small_red-component_Split\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -950,16 +950,16 @@ public class MVCControllerTest {
     f.applySplit("50", "red-component", "manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "SplitPreview on manhattan with 50.0\n" +
             "GetColorComponent manhattan_red-component_Split-1561863619" +
             " to manhattan_red-component_Split-1561863619 0\n" +
             "Regain manhattan to manhattan_red-component_Split\n" +
-            "Save image manhattan_red-component_Split\n" +
+            "View image manhattan_red-component_Split\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -976,10 +976,10 @@ public class MVCControllerTest {
             "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -998,10 +998,10 @@ public class MVCControllerTest {
             "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -1020,10 +1020,10 @@ public class MVCControllerTest {
             "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -1041,16 +1041,16 @@ public class MVCControllerTest {
     f.commandGenerator("color-correct", "manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "ColorCorrection manhattan to manhattan_color-correct\n" +
-            "Save image manhattan_color-correct\n" +
+            "View image manhattan_color-correct\n" +
             "Image manhattan_color-correct displayed correctly.\n" +
             "Histogram manhattan_color-correct to manhattan_color-correcthist\n" +
-            "Save image manhattan_color-correcthist\n" +
+            "View image manhattan_color-correcthist\n" +
             "Histogram of image showed correctly";
     assertEquals(expected, log.toString());
   }
@@ -1065,17 +1065,17 @@ public class MVCControllerTest {
     f.applyBlue("manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "blue-component preview called successfully.\n" +
             "SplitPreview on manhattan-small with 50.0\n" +
             "GetColorComponent manhattan-small_blue-component_Split1726999274 " +
             "to manhattan-small_blue-component_Split1726999274 2\n" +
             "Regain manhattan-small to manhattan-small_blue-component_Split\n" +
-            "Save image manhattan-small_blue-component_Split\n" +
+            "View image manhattan-small_blue-component_Split\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -1102,16 +1102,16 @@ public class MVCControllerTest {
     f.applySplit("50", "blue-component", "manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "SplitPreview on manhattan with 50.0\n" +
             "GetColorComponent manhattan_blue-component_Split-1226927196 to " +
             "manhattan_blue-component_Split-1226927196 2\n" +
             "Regain manhattan to manhattan_blue-component_Split\n" +
-            "Save image manhattan_blue-component_Split\n" +
+            "View image manhattan_blue-component_Split\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -1128,10 +1128,10 @@ public class MVCControllerTest {
             "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -1150,10 +1150,10 @@ public class MVCControllerTest {
             "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -1172,10 +1172,10 @@ public class MVCControllerTest {
             "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -1193,16 +1193,16 @@ public class MVCControllerTest {
     f.commandGenerator("blue-component", "manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "GetColorComponent manhattan to manhattan_blue-component 2\n" +
-            "Save image manhattan_blue-component\n" +
+            "View image manhattan_blue-component\n" +
             "Image manhattan_blue-component displayed correctly.\n" +
             "Histogram manhattan_blue-component to manhattan_blue-componenthist\n" +
-            "Save image manhattan_blue-componenthist\n" +
+            "View image manhattan_blue-componenthist\n" +
             "Histogram of image showed correctly";
     assertEquals(expected, log.toString());
   }
@@ -1217,17 +1217,17 @@ public class MVCControllerTest {
     f.applyGreen("manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "green-component preview called successfully.\n" +
             "SplitPreview on manhattan-small with 50.0\n" +
             "GetColorComponent manhattan-small_green-component_Split-390606359" +
             " to manhattan-small_green-component_Split-390606359 1\n" +
             "Regain manhattan-small to manhattan-small_green-component_Split\n" +
-            "Save image manhattan-small_green-component_Split\n" +
+            "View image manhattan-small_green-component_Split\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -1254,16 +1254,16 @@ public class MVCControllerTest {
     f.applySplit("50", "green-component", "manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "SplitPreview on manhattan with 50.0\n" +
             "GetColorComponent manhattan_green-component_Split-1768013713" +
             " to manhattan_green-component_Split-1768013713 1\n" +
             "Regain manhattan to manhattan_green-component_Split\n" +
-            "Save image manhattan_green-component_Split\n" +
+            "View image manhattan_green-component_Split\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -1280,10 +1280,10 @@ public class MVCControllerTest {
             "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -1302,10 +1302,10 @@ public class MVCControllerTest {
             "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -1324,10 +1324,10 @@ public class MVCControllerTest {
             "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -1345,16 +1345,16 @@ public class MVCControllerTest {
     f.commandGenerator("green-component", "manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "GetColorComponent manhattan to manhattan_green-component 1\n" +
-            "Save image manhattan_green-component\n" +
+            "View image manhattan_green-component\n" +
             "Image manhattan_green-component displayed correctly.\n" +
             "Histogram manhattan_green-component to manhattan_green-componenthist\n" +
-            "Save image manhattan_green-componenthist\n" +
+            "View image manhattan_green-componenthist\n" +
             "Histogram of image showed correctly";
     assertEquals(expected, log.toString());
   }
@@ -1369,10 +1369,10 @@ public class MVCControllerTest {
     f.applyLevelAdjust("manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Level-Adjustment split frame called successfully.";
     assertEquals(expected, log.toString());
@@ -1399,10 +1399,10 @@ public class MVCControllerTest {
     f.getLevelAdjust("manhattan-small", " ", " ", " ", "50");
     String temp = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "All values (B, M, and W) must be provided and all must be whole value.";
@@ -1420,10 +1420,10 @@ public class MVCControllerTest {
             "50");
     String temp = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "All values (B, M, and W) must be provided and all must be whole value.";
@@ -1440,10 +1440,10 @@ public class MVCControllerTest {
     f.getLevelAdjust("manhattan-small", "-123", "-255", "-2", "50");
     String temp = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "All values (B, M, and W) must be between 0 to 255";
@@ -1460,16 +1460,16 @@ public class MVCControllerTest {
     f.getLevelAdjust("manhattan", "23", "45", "100", "70");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "SplitPreview on manhattan with 70.0\n" +
             "LevelAdjustment manhattan_adjusted-23637811 to" +
             " manhattan_adjusted-23637811 with 23 45 100\n" +
             "Regain manhattan to manhattan_adjusted\n" +
-            "Save image manhattan_adjusted\n" +
+            "View image manhattan_adjusted\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -1484,10 +1484,10 @@ public class MVCControllerTest {
     f.getLevelAdjust("manhattan-small", "1230", "2550", "2000", "50");
     String temp = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "All values (B, M, and W) must be between 0 to 255";
@@ -1505,10 +1505,10 @@ public class MVCControllerTest {
     f.getLevelAdjust("manhattan", "60", "100", "240", "-123");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -1526,10 +1526,10 @@ public class MVCControllerTest {
     f.getLevelAdjust("manhattan", "60", "100", "240", "123");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -1547,10 +1547,10 @@ public class MVCControllerTest {
     f.getLevelAdjust("manhattan", "60", "100", "240", "afk");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -1567,10 +1567,10 @@ public class MVCControllerTest {
     f.getLevelAdjust("manhattan-small", "123", "25", "20", "50");
     String temp = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Value of B,M and W must be in ascending order (B < M < W)";
@@ -1588,16 +1588,16 @@ public class MVCControllerTest {
     f.generateLevelAdjust("24", "50", "100", "manhattan-small");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "LevelAdjustment manhattan-small to manhattan-small_levels-adjust with 24 50 100\n" +
-            "Save image manhattan-small_levels-adjust\n" +
+            "View image manhattan-small_levels-adjust\n" +
             "Image manhattan-small_levels-adjust displayed correctly.\n" +
             "Histogram manhattan-small_levels-adjust to manhattan-small_levels-adjusthist\n" +
-            "Save image manhattan-small_levels-adjusthist\n" +
+            "View image manhattan-small_levels-adjusthist\n" +
             "Histogram of image showed correctly";
     assertEquals(expected, log.toString());
   }
@@ -1612,10 +1612,10 @@ public class MVCControllerTest {
     f.applyCompress("manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Compress split frame called successfully.";
     assertEquals(expected, log.toString());
@@ -1642,13 +1642,13 @@ public class MVCControllerTest {
     f.generateCompress("89", "manhattan",true);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Compress manhattan to manhattan_Compress\n" +
-            "Save image manhattan_Compress\n" +
+            "View image manhattan_Compress\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -1664,10 +1664,10 @@ public class MVCControllerTest {
     f.generateCompress("ajbf", "manhattan",true);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -1685,10 +1685,10 @@ public class MVCControllerTest {
     f.generateCompress("-100", "manhattan",true);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -1706,10 +1706,10 @@ public class MVCControllerTest {
     f.generateCompress("900", "manhattan",true);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -1726,10 +1726,10 @@ public class MVCControllerTest {
     f.generateCompress("1000", "manhattan",false);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -1746,10 +1746,10 @@ public class MVCControllerTest {
     f.generateCompress("ajbf", "manhattan",false);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -1766,10 +1766,10 @@ public class MVCControllerTest {
     f.generateCompress("-100", "manhattan",false);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Error message displayed successfully.\n" +
             "Provide valid value of percentage.";
@@ -1787,16 +1787,16 @@ public class MVCControllerTest {
     f.generateCompress("50", "manhattan",false);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
             "Compress manhattan to manhattan_compress\n" +
-            "Save image manhattan_compress\n" +
+            "View image manhattan_compress\n" +
             "Image manhattan_compress displayed correctly.\n" +
             "Histogram manhattan_compress to manhattan_compresshist\n" +
-            "Save image manhattan_compresshist\n" +
+            "View image manhattan_compresshist\n" +
             "Histogram of image showed correctly";
     assertEquals(expected, log.toString());
   }
@@ -1811,12 +1811,12 @@ public class MVCControllerTest {
     f.applyDownScale("manhattan");
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Downscale split frame called successfully.\n" +
             "with current height and width are 3 3";
     assertEquals(expected, log.toString());
@@ -1845,14 +1845,14 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "2", "2",true);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "DownScale manhattan to 2\n" +
-            "Save image manhattan_DownScale\n" +
+            "View image manhattan_DownScale\n" +
             "Split Image displayed successfully.";
     assertEquals(expected, log.toString());
   }
@@ -1868,12 +1868,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "2", "4",true);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -1890,12 +1890,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "4", "2",true);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -1912,12 +1912,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "4", "4",true);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -1934,12 +1934,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "2", "-4",true);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -1956,12 +1956,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "-4", "2",true);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -1978,12 +1978,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "-4", "-4",true);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -2000,12 +2000,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "2", "0",true);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -2022,12 +2022,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "0", "2",true);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -2044,12 +2044,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "0", "0",true);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -2066,17 +2066,17 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "2", "2",false);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "DownScale manhattan to 2\n" +
-            "Save image manhattan_DownScale\n" +
+            "View image manhattan_DownScale\n" +
             "Image manhattan_DownScale displayed correctly.\n" +
             "Histogram manhattan_DownScale to manhattan_DownScalehist\n" +
-            "Save image manhattan_DownScalehist\n" +
+            "View image manhattan_DownScalehist\n" +
             "Histogram of image showed correctly";
     assertEquals(expected, log.toString());
   }
@@ -2092,12 +2092,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "2", "4",false);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -2114,12 +2114,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "4", "2",false);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -2136,12 +2136,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "4", "4",false);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -2158,12 +2158,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "2", "-4",false);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -2180,12 +2180,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "-4", "2",false);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -2202,12 +2202,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "-4", "-4",false);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -2224,12 +2224,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "2", "0",false);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -2246,12 +2246,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "0", "2",false);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -2268,12 +2268,12 @@ public class MVCControllerTest {
     f.generateDown("manhattan", "0", "0",false);
     String expected = "checkImage called successfully.\n" +
             "getFilePath called successfully.Load image manhattan-small\n" +
-            "Save image manhattan-small\n" +
+            "View image manhattan-small\n" +
             "Image manhattan-small displayed correctly.\n" +
             "Histogram manhattan-small to manhattan-smallhist\n" +
-            "Save image manhattan-smallhist\n" +
+            "View image manhattan-smallhist\n" +
             "Histogram of image showed correctly\n" +
-            "Save image manhattan\n" +
+            "View image manhattan\n" +
             "Error message displayed successfully.\n" +
             "The height and width must be smaller than the original values and positive integer.";
     assertEquals(expected, log.toString());
@@ -6,12 +6,34 @@ import org.junit.Test;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import javax.imageio.ImageIO;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * This is the Class to perform testing on the
@@ -1935,4 +1957,971 @@ public class ImageOperationsTest {
     }
   }
 
-}
\ No newline at end of file
+  /**
+   * Test Case to check if the read-only view of an
+   * image has the same pixels as the saved matrix.
+   */
+  @Test
+  public void checkViewImage() {
+    ImageData view = this.operations.viewImage("matrix");
+    int[][][] expected = this.operations.saveImage("matrix");
+    assertEquals(expected.length, view.getHeight());
+    assertEquals(expected[0].length, view.getWidth());
+    IntBuffer buffer = view.getPixelBuffer();
+    for (int i = 0; i < view.getHeight(); i++) {
+      for (int j = 0; j < view.getWidth(); j++) {
+        int rgb = buffer.get(i * view.getWidth() + j);
+        assertEquals(rgb, view.getRGB(i, j));
+        for (int k = 0; k <= 2; k++) {
+          assertEquals(expected[i][j][k], view.getPixelValue(i, j, k));
+          assertEquals(expected[i][j][k], (rgb >> (16 - 8 * k)) & 0xff);
+        }
+      }
+    }
+  }
+
+  /**
+   * Test Case to check that the pixel buffer of a view
+   * cannot be used to modify the image.
+   */
+  @Test(expected = ReadOnlyBufferException.class)
+  public void checkViewImageReadOnly() {
+    this.operations.viewImage("matrix").getPixelBuffer().put(0, 0);
+  }
+
+  /**
+   * Method to create a random image which is large enough
+   * to be split into several bands of rows.
+   *
+   * @param height the height of the image.
+   * @param width  the width of the image.
+   * @return a 3-d matrix representing the image.
+   */
+  private int[][][] getRandomMatrix(int height, int width) {
+    Random random = new Random(42);
+    int[][][] arr = new int[height][width][3];
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        for (int k = 0; k <= 2; k++) {
+          arr[i][j][k] = random.nextInt(256);
+        }
+      }
+    }
+    return arr;
+  }
+
+  /**
+   * Test Case to check that every per-pixel operation gives the
+   * same result when run in parallel as when run serially.
+   */
+  @Test
+  public void checkParallelSameAsSerial() {
+    OperationsV3 serial = new ImageOperationsV3(1);
+    OperationsV3 parallel = new ImageOperationsV3(4);
+    int[][][] org = this.getRandomMatrix(301, 257);
+    int[][][] maskMatrix = this.getRandomMatrix(301, 257);
+    for (int i = 0; i < maskMatrix.length; i++) {
+      for (int j = 0; j < maskMatrix[0].length; j++) {
+        int value = (i + j) % 3 == 0 ? 0 : 255;
+        maskMatrix[i][j] = new int[]{value, value, value};
+      }
+    }
+    for (OperationsV3 op : new OperationsV3[]{serial, parallel}) {
+      op.loadImage(org, "org");
+      op.loadImage(maskMatrix, "mask");
+      op.brighten("org", "bright", 37);
+      op.sepia("org", "sepia");
+      op.getBrightnessComponent("org", "luma", "luma-component");
+      op.getBrightnessComponent("org", "value", "value-component");
+      op.getBrightnessComponent("org", "intensity", "intensity-component");
+      op.getColorComponent("org", "green", 1);
+      op.horizontalFlip("org", "hor");
+      op.verticalFlip("org", "ver");
+      op.blur("org", "blur");
+      op.sharpen("org", "sharp");
+      op.levelAdjustment("org", "levels", 20, 100, 255);
+      op.colorCorrection("org", "correct");
+      op.mask("org", "sepia", "mask", "masked");
+      op.downScale("org", 100, 90, "down");
+      op.splitPreview("org", "part", 40);
+      op.regain("sepia", "part", "regained");
+      op.compressImage("org", "compressed", 40);
+    }
+    for (String name : new String[]{"bright", "sepia", "luma", "value", "intensity",
+        "green", "hor", "ver", "blur", "sharp", "levels", "correct", "masked", "down",
+        "regained", "compressed"}) {
+      assertArrayEquals(serial.saveImage(name), parallel.saveImage(name));
+    }
+    serial.close();
+    parallel.close();
+  }
+
+  /**
+   * Test Case to check that closing operations given their own
+   * parallelism level stops the threads of their executor, while
+   * closing a session or operations on the shared executor leaves the
+   * executor running.
+   */
+  @Test
+  public void checkCloseStopsOwnExecutor() {
+    ImageOperationsV3 parallel = new ImageOperationsV3(4);
+    ImageOperationsV3 session = parallel.newSession();
+    session.loadImage(this.getRandomMatrix(301, 257), "org");
+    session.close();
+    assertFalse(parallel.executor.isShutdown());
+    parallel.loadImage(this.getRandomMatrix(301, 257), "org");
+    parallel.sepia("org", "sepia");
+    parallel.close();
+    assertTrue(parallel.executor.isShutdown());
+
+    ImageOperationsV3 shared = new ImageOperationsV3();
+    shared.close();
+    assertFalse(shared.executor.isShutdown());
+    assertFalse(RowExecutor.getDefault().isShutdown());
+  }
+
+  /**
+   * Test Case to check that every convolution strategy gives the same
+   * result as summing the weighted neighbours in doubles, including
+   * images that are smaller than the kernel.
+   */
+  @Test
+  public void checkConvolutionSameAsFloatingLoop() {
+    double[][][] kernels = {
+        {{0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}},
+        {{-0.125, -0.125, -0.125, -0.125, -0.125},
+            {-0.125, 0.25, 0.25, 0.25, -0.125},
+            {-0.125, 0.25, 1, 0.25, -0.125},
+            {-0.125, 0.25, 0.25, 0.25, -0.125},
+            {-0.125, -0.125, -0.125, -0.125, -0.125}},
+        {{0.5, -0.25, 0}, {0.75, 0.125, -1}, {0, 0.5, 0.25}},
+        {{0.1, 0.2, 0.1}, {0.2, 0.3, 0.2}, {0.1, 0.2, 0.1}}};
+    int[][] sizes = {{1, 1}, {2, 7}, {7, 2}, {4, 4}, {33, 65}, {301, 257}};
+    RowExecutor executor = new RowExecutor(4);
+    for (double[][] kernel : kernels) {
+      Convolution convolution = Convolution.compile(kernel);
+      for (int[] size : sizes) {
+        int height = size[0];
+        int width = size[1];
+        int[] src = new ImageModel(height, width,
+                this.getRandomMatrix(height, width)).getPixels();
+        int[] expected = new int[height * width];
+        int r = kernel.length / 2;
+        for (int i = 0; i < height; i++) {
+          for (int j = 0; j < width; j++) {
+            double[] sum = new double[3];
+            for (int a = -r; a <= r; a++) {
+              for (int b = -r; b <= r; b++) {
+                if (i + a >= 0 && i + a < height && j + b >= 0 && j + b < width) {
+                  int rgb = src[(i + a) * width + j + b];
+                  for (int k = 0; k <= 2; k++) {
+                    sum[k] += kernel[a + r][b + r] * ((rgb >> (16 - 8 * k)) & 0xff);
+                  }
+                }
+              }
+            }
+            expected[i * width + j] = ImageModel.pack((int) sum[0], (int) sum[1],
+                    (int) sum[2]);
+          }
+        }
+        int[] actual = new int[height * width];
+        convolution.apply(src, actual, height, width, executor);
+        assertArrayEquals(expected, actual);
+      }
+    }
+  }
+
+  /**
+   * Test Case to check that a chain of brighten, levels adjustment and
+   * color correction composed into a single point operation gives the
+   * same image as applying the three operations one after the other.
+   */
+  @Test
+  public void checkComposedPointOpSameAsChain() {
+    ImageOperationsV3 op = new ImageOperationsV3();
+    int[][][] org = this.getRandomMatrix(64, 81);
+    op.loadImage(org, "org");
+    op.brighten("org", "bright", 23);
+    op.levelAdjustment("bright", "levels", 20, 100, 230);
+    op.colorCorrection("levels", "correct");
+
+    PointOp chain = PointOp.offset(23, 23, 23)
+            .andThen(PointOp.quadratic(op.getCoefficient(20, 100, 230)));
+    int[] src = new ImageModel(64, 81, org).getPixels();
+    int[] peak = new int[3];
+    for (int k = 0; k <= 2; k++) {
+      peak[k] = op.getPeak(chain.mapFrequency(op.getFrequency(src, k), k));
+    }
+    int average = (peak[0] + peak[2] + peak[1]) / 3;
+    chain = chain.andThen(PointOp.offset(average - peak[0], average - peak[1],
+            average - peak[2]));
+    int[] actual = new int[src.length];
+    chain.apply(src, actual, 64, 81, new RowExecutor(2));
+    assertArrayEquals(new ImageModel(64, 81, op.saveImage("correct")).getPixels(), actual);
+  }
+
+  /**
+   * Test Case to check that a color matrix gives the same image as
+   * summing the weighted channels in doubles, for a matrix that is
+   * applied in fixed point and one that is not, with and without
+   * an offset column.
+   */
+  @Test
+  public void checkColorMatrixSameAsFloatingSum() {
+    double[][][] matrices = {
+        {{0.393, 0.769, 0.189}, {0.349, 0.686, 0.168}, {0.272, 0.534, 0.131}},
+        {{0.5, 0.25, 0.25}, {-0.125, 1, 0.125}, {0, 0, 1.5}},
+        {{1.1, -0.1, 0, 12.3}, {0.05, 0.9, 0.05, -20}, {0, 0.2, 0.8, 0}},
+        {{0.5, 0.25, 0.25, 16}, {0, 1, 0, -8.5}, {0.75, 0, 0.25, 3}}};
+    OperationsV3 op = new ImageOperationsV3();
+    int[][][] org = this.getRandomMatrix(31, 47);
+    op.loadImage(org, "org");
+    for (double[][] matrix : matrices) {
+      op.colorMatrix("org", "new", matrix);
+      int[][][] actual = op.saveImage("new");
+      for (int i = 0; i < org.length; i++) {
+        for (int j = 0; j < org[0].length; j++) {
+          for (int k = 0; k <= 2; k++) {
+            double temp = 0;
+            for (int l = 0; l < 3; l++) {
+              temp = temp + matrix[k][l] * org[i][j][l];
+            }
+            if (matrix[k].length == 4) {
+              temp = temp + matrix[k][3];
+            }
+            assertEquals(Math.max(0, Math.min(255, (int) temp)), actual[i][j][k]);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Test Case to check that a color matrix which is not 3x3 or 3x4
+   * is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void checkColorMatrixInvalidSize() {
+    OperationsV3 op = new ImageOperationsV3();
+    op.loadImage(this.getRandomMatrix(3, 3), "org");
+    op.colorMatrix("org", "new", new double[][]{{1, 0}, {0, 1}});
+  }
+
+  /**
+   * Test Case to check that a compression percentage which rounds to
+   * past the last distinct value removes every value, the same as
+   * compressing by 100 percent.
+   */
+  @Test
+  public void checkCompressionPastLastDistinctValue() {
+    OperationsV3 op = new ImageOperationsV3();
+    op.loadImage(this.getRandomMatrix(3, 5), "org");
+    op.compressImage("org", "all", 100);
+    op.compressImage("org", "almost", 99.9);
+    assertArrayEquals(op.saveImage("all"), op.saveImage("almost"));
+  }
+
+  /**
+   * Test Case to check that compressing a square image whose size is
+   * a power of two in a single tile gives the same image as compressing
+   * it without tiles, and that a non-square image can be compressed
+   * in tiles smaller than the image.
+   */
+  @Test
+  public void checkTiledCompression() {
+    OperationsV3 op = new ImageOperationsV3();
+    op.loadImage(this.getRandomMatrix(32, 32), "square");
+    op.compressImage("square", "whole", 60);
+    op.compressImage("square", "tiled", 60, 32);
+    assertArrayEquals(op.saveImage("whole"), op.saveImage("tiled"));
+
+    op.loadImage(this.getRandomMatrix(45, 19), "wide");
+    op.compressImage("wide", "tiled-wide", 100, 8);
+    int[][][] actual = op.saveImage("tiled-wide");
+    assertEquals(45, actual.length);
+    assertEquals(19, actual[0].length);
+    for (int[][] row : actual) {
+      for (int[] pixel : row) {
+        assertArrayEquals(new int[]{0, 0, 0}, pixel);
+      }
+    }
+  }
+
+  /**
+   * Test Case to check that a tile size which is not a power
+   * of two is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void checkTiledCompressionInvalidTileSize() {
+    OperationsV3 op = new ImageOperationsV3();
+    op.loadImage(this.getRandomMatrix(8, 8), "org");
+    op.compressImage("org", "new", 50, 12);
+  }
+
+  /**
+   * Test Case to check that compressed images are saved in the HAAR
+   * format and loaded back with exactly the same pixels, and that any
+   * other image is saved without losing any pixel.
+   */
+  @Test
+  public void checkCompressedFormatRoundTrip() {
+    OperationsV3 op = new ImageOperationsV3();
+    op.loadImage(this.getRandomMatrix(45, 19), "org");
+    op.compressImage("org", "whole", 80);
+    op.compressImage("org", "tiled", 50, 16);
+    for (String name : new String[]{"whole", "tiled", "org"}) {
+      byte[] encoded = op.saveCompressedImage(name);
+      assertTrue(op.loadCompressedImage(encoded, name + "-loaded"));
+      assertArrayEquals(op.saveImage(name), op.saveImage(name + "-loaded"));
+    }
+    assertTrue(op.saveCompressedImage("whole").length < 4 * 45 * 19);
+  }
+
+  /**
+   * Test Case to check that a truncated HAAR image is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void checkCompressedFormatTruncated() {
+    OperationsV3 op = new ImageOperationsV3();
+    op.loadImage(this.getRandomMatrix(8, 8), "org");
+    op.compressImage("org", "new", 50);
+    byte[] encoded = op.saveCompressedImage("new");
+    op.loadCompressedImage(Arrays.copyOf(encoded, encoded.length / 2), "loaded");
+  }
+
+  /**
+   * Test Case to check that data which is not a HAAR image
+   * is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void checkCompressedFormatInvalidHeader() {
+    OperationsV3 op = new ImageOperationsV3();
+    op.loadCompressedImage("P3 2 2 255".getBytes(), "loaded");
+  }
+
+  /**
+   * Test Case to check that a HAAR header whose block is too large to
+   * be held in an array is rejected instead of overflowing.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void checkCompressedFormatBlockOverflow() {
+    ByteBuffer header = ByteBuffer.allocate(32);
+    header.put(new byte[]{'H', 'A', 'A', 'R', 1});
+    header.putInt(1).putInt(700_000_000).putInt(1 << 30).put((byte) HaarCodec.QUANT_BITS);
+    new ImageOperationsV3().loadCompressedImage(header.array(), "loaded");
+  }
+
+  /**
+   * Test Case to check that an image read from a raster split into
+   * bands gives the same results as the same image loaded from its
+   * pixel matrix.
+   */
+  @Test
+  public void checkRawImageSameAsMatrix() {
+    int height = 301;
+    int width = 257;
+    int[][][] org = this.getRandomMatrix(height, width);
+    byte[] raster = new byte[3 * height * width];
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        for (int k = 0; k < 3; k++) {
+          raster[(i * width + j) * 3 + k] = (byte) org[i][j][k];
+        }
+      }
+    }
+    int rowBytes = 3 * width;
+    ByteBuffer[] bands = new ByteBuffer[]{
+        ByteBuffer.wrap(raster, 0, 128 * rowBytes),
+        ByteBuffer.wrap(raster, 128 * rowBytes, 128 * rowBytes),
+        ByteBuffer.wrap(raster, 256 * rowBytes, 45 * rowBytes).asReadOnlyBuffer()};
+    OperationsV3 op = new ImageOperationsV3();
+    op.loadImage(org, "heap");
+    op.loadRawImage(height, width, bands, "raw");
+    for (String name : new String[]{"heap", "raw"}) {
+      op.getColorComponent(name, name + "-green", 1);
+      op.getBrightnessComponent(name, name + "-value", "value-component");
+      op.getBrightnessComponent(name, name + "-intensity", "intensity-component");
+      op.getBrightnessComponent(name, name + "-luma", "luma-component");
+      op.histogram(name, name + "-histogram");
+      op.colorCorrection(name, name + "-corrected");
+      op.downScale(name, 100, 90, name + "-down");
+    }
+    String[] suffixes = {"", "-green", "-value", "-intensity", "-luma", "-histogram",
+        "-corrected", "-down"};
+    for (String suffix : suffixes) {
+      assertArrayEquals(suffix, op.saveImage("heap" + suffix), op.saveImage("raw" + suffix));
+    }
+  }
+
+  /**
+   * Test Case to check that a raster which does not hold whole rows
+   * of the image is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void checkRawImageInvalidBands() {
+    OperationsV3 op = new ImageOperationsV3();
+    op.loadRawImage(4, 5, new ByteBuffer[]{ByteBuffer.allocate(3 * 5 * 4 - 1)}, "raw");
+  }
+
+  /**
+   * Test Case to check that flips and split previews of flipped
+   * images, which are views of the original image, show the same
+   * pixels as copies made by hand, and that operations on them give
+   * the same result as on a loaded copy.
+   */
+  @Test
+  public void checkViewsSameAsCopies() {
+    int height = 131;
+    int width = 157;
+    int[][][] org = this.getRandomMatrix(height, width);
+    int[][][] expected = new int[height][width / 2][];
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width / 2; j++) {
+        expected[i][j] = org[height - 1 - i][width - 1 - j];
+      }
+    }
+    OperationsV3 op = new ImageOperationsV3();
+    op.loadImage(org, "org");
+    op.horizontalFlip("org", "h");
+    op.verticalFlip("h", "hv");
+    op.splitPreview("hv", "split", 50);
+    assertArrayEquals(expected, op.saveImage("split"));
+    op.horizontalFlip("h", "hh");
+    assertArrayEquals(org, op.saveImage("hh"));
+
+    op.loadImage(expected, "copy");
+    op.blur("split", "split-blur");
+    op.blur("copy", "copy-blur");
+    assertArrayEquals(op.saveImage("copy-blur"), op.saveImage("split-blur"));
+    op.getBrightnessComponent("split", "split-value", "value-component");
+    op.getBrightnessComponent("copy", "copy-value", "value-component");
+    assertArrayEquals(op.saveImage("copy-value"), op.saveImage("split-value"));
+    assertEquals(expected[7][9][1], op.viewImage("split").getPixelValue(7, 9, 1));
+  }
+
+  /**
+   * Test Case to check that images dropped by a store over its budget
+   * are computed again with the same pixels, and that loaded images
+   * are never dropped.
+   */
+  @Test
+  public void checkStoreRecomputesEvictedImages() {
+    int[][][] org = this.getRandomMatrix(64, 64);
+    OperationsV3 expected = new ImageOperationsV3();
+    BoundedImageStore store = new BoundedImageStore(40000);
+    OperationsV3 op = new ImageOperationsV3(RowExecutor.getDefault(), store);
+    String[] names = {"blur", "sharpen", "sepia", "bright", "hist", "split", "last"};
+    for (OperationsV3 o : new OperationsV3[]{expected, op}) {
+      o.loadImage(org, "org");
+      o.blur("org", "blur");
+      o.sharpen("blur", "sharpen");
+      o.sepia("sharpen", "sepia");
+      o.brighten("sepia", "bright", 10);
+      o.histogram("bright", "hist");
+      o.splitPreview("hist", "split", 50);
+      o.brighten("org", "last", 10);
+    }
+    assertTrue(store.getEvictions() > 0);
+    assertTrue(store.getResidentBytes() <= store.getBudget());
+    for (String name : names) {
+      assertTrue(op.checkImage(name));
+      assertArrayEquals(expected.saveImage(name), op.saveImage(name));
+    }
+    assertArrayEquals(org, op.saveImage("org"));
+    assertTrue(store.getMisses() > 0);
+    assertTrue(store.getHits() > 0);
+  }
+
+  /**
+   * Test Case to check that the size of an image can be looked up
+   * without bringing it back once the store dropped it.
+   */
+  @Test
+  public void checkStoreSizeLeavesImagesDropped() {
+    BoundedImageStore store = new BoundedImageStore(0);
+    OperationsV3 op = new ImageOperationsV3(RowExecutor.getDefault(), store);
+    op.loadImage(this.getRandomMatrix(20, 30), "org");
+    op.blur("org", "blur");
+    op.loadImage(this.getRandomMatrix(20, 30), "last");
+    assertEquals(1, store.getEvictions());
+    long resident = store.getResidentBytes();
+    assertArrayEquals(new int[]{20, 30}, op.getImageSize("blur"));
+    assertArrayEquals(new int[]{20, 30}, op.getImageSize("org"));
+    assertTrue(op.getImageSize("missing") == null);
+    assertEquals(0, store.getMisses());
+    assertEquals(resident, store.getResidentBytes());
+  }
+
+  /**
+   * Test Case to check that the store counts the root read by views
+   * and lazy images once, keeps counting it while they are held after
+   * the root was removed, and never drops a root which a view still
+   * reads, so bringing it back never copies it.
+   */
+  @Test
+  public void checkStoreCountsRootsOfViews() {
+    int[][][] org = this.getRandomMatrix(32, 32);
+    OperationsV3 expected = new ImageOperationsV3();
+    BoundedImageStore store = new BoundedImageStore(0);
+    OperationsV3 op = new ImageOperationsV3(RowExecutor.getDefault(), store, true);
+    for (OperationsV3 o : new OperationsV3[]{expected, op}) {
+      o.loadImage(org, "org");
+      o.blur("org", "blur");
+      o.horizontalFlip("blur", "flip");
+      o.brighten("flip", "bright", 10);
+      o.loadImage(org, "last");
+    }
+    assertEquals(2 * 4096, store.getResidentBytes());
+    assertEquals(3, store.getEvictions());
+    assertArrayEquals(expected.saveImage("flip"), op.saveImage("flip"));
+    assertEquals(3 * 4096, store.getResidentBytes());
+    assertArrayEquals(expected.saveImage("blur"), op.saveImage("blur"));
+    assertEquals(3 * 4096, store.getResidentBytes());
+    assertArrayEquals(expected.saveImage("bright"), op.saveImage("bright"));
+    assertEquals(3 * 4096, store.getResidentBytes());
+    store.remove("blur");
+    assertEquals(3 * 4096, store.getResidentBytes());
+    assertArrayEquals(expected.saveImage("flip"), op.saveImage("flip"));
+    assertArrayEquals(expected.saveImage("bright"), op.saveImage("bright"));
+    store.remove("flip");
+    store.remove("bright");
+    assertEquals(2 * 4096, store.getResidentBytes());
+  }
+
+  /**
+   * Test Case to check that the store is not held while a recipe runs,
+   * so other images can be obtained and stored meanwhile, and that a
+   * dropped image needed by several threads at once is computed once.
+   */
+  @Test
+  public void checkStoreRunsRecipesWithoutHoldingIt() throws Exception {
+    BoundedImageStore store = new BoundedImageStore(0);
+    ImageModel org = new ImageModel(2, 2, new int[4]);
+    ImageModel image = new ImageModel(2, 2, new int[]{1, 2, 3, 4});
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch finish = new CountDownLatch(1);
+    Runnable recipe = () -> {
+      running.countDown();
+      try {
+        finish.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      store.put("a", image);
+    };
+    store.put("org", org);
+    store.put("a", image, recipe, "org");
+    store.put("b", new ImageModel(2, 2, new int[4]));
+    assertEquals(1, store.getEvictions());
+    ExecutorService threads = Executors.newFixedThreadPool(3);
+    try {
+      Future<ImageModel> first = threads.submit(() -> store.get("a"));
+      Future<ImageModel> second = threads.submit(() -> store.get("a"));
+      assertTrue(running.await(10, TimeUnit.SECONDS));
+      Future<?> other = threads.submit(() -> {
+        assertTrue(store.get("org") == org);
+        store.put("c", new ImageModel(2, 2, new int[4]));
+      });
+      other.get(10, TimeUnit.SECONDS);
+      assertTrue(store.contains("c"));
+      finish.countDown();
+      assertTrue(first.get(10, TimeUnit.SECONDS) == image);
+      assertTrue(second.get(10, TimeUnit.SECONDS) == image);
+      assertEquals(1, store.getMisses());
+    } finally {
+      finish.countDown();
+      threads.shutdownNow();
+    }
+  }
+
+  /**
+   * Test Case to check that an image is not dropped once the images
+   * it was computed from have been replaced, and that it keeps its
+   * pixels when an input is replaced after it was dropped.
+   */
+  @Test
+  public void checkStoreKeepsImagesOfReplacedInputs() {
+    int[][][] org = this.getRandomMatrix(32, 32);
+    OperationsV3 expected = new ImageOperationsV3();
+    expected.loadImage(org, "org");
+    expected.blur("org", "blur");
+    BoundedImageStore store = new BoundedImageStore(0);
+    OperationsV3 op = new ImageOperationsV3(RowExecutor.getDefault(), store);
+    op.loadImage(org, "org");
+    op.blur("org", "blur");
+    op.loadImage(org, "other");
+    assertEquals(1, store.getEvictions());
+    op.loadImage(this.getRandomMatrix(16, 16), "org");
+    assertEquals(1, store.getMisses());
+    op.loadImage(org, "another");
+    op.brighten("other", "other", 5);
+    assertEquals(1, store.getEvictions());
+    assertArrayEquals(expected.saveImage("blur"), op.saveImage("blur"));
+    assertEquals(1, store.getMisses());
+  }
+
+  /**
+   * Test Case to check that images which cannot be computed again are
+   * written to scratch files by a store over its budget and read back
+   * with the same pixels.
+   */
+  @Test
+  public void checkStoreSpillsLoadedImages() throws IOException {
+    Path directory = Files.createTempDirectory("spill-test");
+    int[][][] first = this.getRandomMatrix(64, 64);
+    int[][][] second = this.getRandomMatrix(48, 80);
+    BoundedImageStore store = new BoundedImageStore(20000, directory);
+    OperationsV3 op = new ImageOperationsV3(RowExecutor.getDefault(), store);
+    op.loadImage(first, "first");
+    op.loadImage(second, "second");
+    op.compressImage("second", "compressed", 50);
+    op.loadImage(first, "third");
+    assertTrue(store.getSpills() >= 2);
+    assertTrue(store.getResidentBytes() <= store.getBudget());
+    assertArrayEquals(first, op.saveImage("first"));
+    assertArrayEquals(second, op.saveImage("second"));
+    int[][][] compressed = op.saveImage("compressed");
+    op.loadImage(first, "fourth");
+    op.loadImage(second, "fifth");
+    assertArrayEquals(compressed, op.saveImage("compressed"));
+    assertTrue(store.getReloads() >= 2);
+
+    op.loadImage(second, "first");
+    assertArrayEquals(second, op.saveImage("first"));
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+
+  /**
+   * Test Case to check that the stores of the sessions share the budget
+   * of the store they were created from, so a session drops its images
+   * when the sessions together are over it, and that closing a session
+   * drops its images and deletes its scratch files.
+   */
+  @Test
+  public void checkSessionsShareBudgetAndClose() throws IOException {
+    int[][][] org = this.getRandomMatrix(32, 32);
+    ImageOperationsV3 server = new ImageOperationsV3(RowExecutor.getDefault(),
+            new BoundedImageStore(4 * 4096), false, new ResultCache(0));
+    ImageOperationsV3 first = server.newSession();
+    ImageOperationsV3 second = server.newSession();
+    first.loadImage(org, "org");
+    first.blur("org", "blur");
+    second.loadImage(org, "org");
+    second.blur("org", "blur");
+    second.loadImage(org, "other");
+    assertEquals(2 * 4096, first.getResidentBytes());
+    assertEquals(2 * 4096, second.getResidentBytes());
+    first.close();
+    assertEquals(0, first.getResidentBytes());
+    assertTrue(!first.checkImage("org"));
+    second.sharpen("org", "sharp");
+    second.sepia("org", "sepia");
+    assertEquals(4 * 4096, second.getResidentBytes());
+
+    Path directory = Files.createTempDirectory("session-test");
+    ImageOperationsV3 spilling = new ImageOperationsV3(RowExecutor.getDefault(),
+            new BoundedImageStore(0, directory), false, new ResultCache(0));
+    ImageOperationsV3 session = spilling.newSession();
+    session.loadImage(org, "org");
+    session.loadImage(org, "last");
+    try (Stream<Path> files = Files.walk(directory)) {
+      assertTrue(files.anyMatch(file -> file.toString().endsWith(".spill")));
+    }
+    assertArrayEquals(org, session.saveImage("org"));
+    session.close();
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(0, files.count());
+    }
+    Files.delete(directory);
+  }
+
+  /**
+   * Test Case to check that the lazy mode gives the same images as
+   * computing every operation straight away, and that consecutive
+   * per-pixel operations are fused over the loaded image.
+   */
+  @Test
+  public void checkLazySameAsEager() {
+    int[][][] org = this.getRandomMatrix(97, 131);
+    OperationsV3 lazy = new ImageOperationsV3(RowExecutor.getDefault(),
+            new BoundedImageStore(Long.MAX_VALUE), true);
+    OperationsV3 eager = new ImageOperationsV3(RowExecutor.getDefault(),
+            new BoundedImageStore(Long.MAX_VALUE), false);
+    double[][] matrix = {{0.5, 0.25, 0.125, 10}, {0.1, 0.8, 0.1, -5}, {0.3, 0.3, 0.3, 0}};
+    for (OperationsV3 op : new OperationsV3[]{lazy, eager}) {
+      op.loadImage(org, "org");
+      op.brighten("org", "bright", 20);
+      op.sepia("bright", "sepia");
+      op.getBrightnessComponent("sepia", "luma", "luma-component");
+      op.levelAdjustment("bright", "level", 20, 100, 230);
+      op.colorCorrection("level", "correct");
+      op.histogram("correct", "hist");
+      op.getColorComponent("correct", "green", 1);
+      op.getBrightnessComponent("green", "value", "value-component");
+      op.getBrightnessComponent("sepia", "intensity", "intensity-component");
+      op.colorMatrix("intensity", "matrix", matrix);
+      op.materialize("sepia");
+      op.blur("sepia", "blur");
+      op.brighten("blur", "blur-bright", -30);
+      op.horizontalFlip("blur-bright", "flip");
+      op.sepia("flip", "flip-sepia");
+    }
+    String[] names = {"bright", "sepia", "luma", "level", "correct", "hist", "green", "value",
+        "intensity", "matrix", "blur", "blur-bright", "flip", "flip-sepia"};
+    for (String name : names) {
+      assertArrayEquals(eager.saveImage(name), lazy.saveImage(name));
+      assertEquals(eager.viewImage(name).getPixelValue(5, 7, 2),
+              lazy.viewImage(name).getPixelValue(5, 7, 2));
+    }
+    assertTrue(lazy.viewImage("luma") instanceof LazyImageModel);
+    assertTrue(((LazyImageModel) lazy.viewImage("luma")).getSource()
+            == lazy.viewImage("org"));
+    assertTrue(((LazyImageModel) lazy.viewImage("correct")).getSource()
+            == lazy.viewImage("org"));
+    assertTrue(((LazyImageModel) lazy.viewImage("blur-bright")).getSource()
+            == lazy.viewImage("blur"));
+  }
+
+  /**
+   * Test Case to check that running an operation again on the same
+   * image gives back the same result without computing it, including
+   * the next operation of a chain, and that the cache stays under its
+   * budget.
+   */
+  @Test
+  public void checkResultCacheReusesResults() {
+    int[][][] org = this.getRandomMatrix(40, 60);
+    ResultCache results = new ResultCache(Long.MAX_VALUE);
+    OperationsV3 op = new ImageOperationsV3(RowExecutor.getDefault(),
+            new BoundedImageStore(Long.MAX_VALUE), false, results);
+    op.loadImage(org, "org");
+    op.blur("org", "blur");
+    op.blur("org", "blur-again");
+    assertTrue(op.viewImage("blur") == op.viewImage("blur-again"));
+    assertEquals(1, results.getHits());
+
+    op.splitPreview("org", "split", 50);
+    op.sharpen("split", "split");
+    op.splitPreview("org", "split2", 50);
+    op.sharpen("split2", "split2");
+    assertTrue(op.viewImage("split") == op.viewImage("split2"));
+    assertEquals(3, results.getHits());
+
+    op.brighten("org", "bright", 10);
+    op.brighten("org", "dark", -10);
+    assertTrue(op.viewImage("bright") != op.viewImage("dark"));
+    double[][] matrix = {{0.5, 0.5, 0}, {0, 1, 0}, {0, 0, 1}};
+    op.colorMatrix("org", "matrix", matrix);
+    matrix[0][0] = 1;
+    op.colorMatrix("org", "matrix2", matrix);
+    assertTrue(op.viewImage("matrix") != op.viewImage("matrix2"));
+    assertEquals(3, results.getHits());
+
+    op.loadImage(org, "org");
+    op.blur("org", "blur-loaded");
+    assertTrue(op.viewImage("blur") != op.viewImage("blur-loaded"));
+    assertArrayEquals(op.saveImage("blur"), op.saveImage("blur-loaded"));
+    assertEquals(3, results.getHits());
+
+    ResultCache small = new ResultCache(3 * 40 * 60 * 4);
+    OperationsV3 bounded = new ImageOperationsV3(RowExecutor.getDefault(),
+            new BoundedImageStore(Long.MAX_VALUE), false, small);
+    bounded.loadImage(org, "org");
+    for (int i = 0; i < 5; i++) {
+      bounded.brighten("org", "bright" + i, i);
+    }
+    assertEquals(2, small.getEvictions());
+    assertEquals(3, small.size());
+    assertTrue(small.getResidentBytes() <= small.getBudget());
+    bounded.brighten("org", "again", 0);
+    assertEquals(0, small.getHits());
+    bounded.brighten("org", "again", 4);
+    assertEquals(1, small.getHits());
+
+    OperationsV3 off = new ImageOperationsV3(RowExecutor.getDefault(),
+            new BoundedImageStore(Long.MAX_VALUE), false, new ResultCache(0));
+    off.loadImage(org, "org");
+    off.blur("org", "blur");
+    off.blur("org", "blur-again");
+    assertTrue(off.viewImage("blur") != off.viewImage("blur-again"));
+  }
+
+  /**
+   * Test Case to check that the cache is charged for the roots which
+   * its views and lazy results keep alive, once for every root, so
+   * they are forgotten when the roots do not fit in the budget.
+   */
+  @Test
+  public void checkResultCacheCountsRootsOfViews() {
+    int[][][] org = this.getRandomMatrix(40, 60);
+    ResultCache results = new ResultCache(2 * 40 * 60 * 4);
+    OperationsV3 op = new ImageOperationsV3(RowExecutor.getDefault(),
+            new BoundedImageStore(Long.MAX_VALUE), true, results);
+    for (int i = 0; i < 4; i++) {
+      op.loadImage(org, "org" + i);
+      op.horizontalFlip("org" + i, "flip" + i);
+      op.brighten("org" + i, "bright" + i, 10);
+      assertTrue(results.getResidentBytes() <= results.getBudget());
+    }
+    assertEquals(4 * 2 - 4, results.size());
+    assertEquals(2 * 40 * 60 * 4, results.getResidentBytes());
+    assertEquals(4, results.getEvictions());
+  }
+
+  /**
+   * Test Case to check that a flight recording gets an event for every
+   * operation, naming the images it reads and produces, and an event
+   * for every image dropped by the store.
+   */
+  @Test
+  public void checkFlightRecorderEvents() throws IOException {
+    int[][][] org = this.getRandomMatrix(40, 60);
+    OperationsV3 op = new ImageOperationsV3(RowExecutor.getDefault(),
+            new BoundedImageStore(20000), false, new ResultCache(0));
+    Path file = Files.createTempFile("operations", ".jfr");
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable("imagelab.ImageOperation").withThreshold(Duration.ZERO);
+      recording.enable("imagelab.ImageEviction").withThreshold(Duration.ZERO);
+      recording.start();
+      op.loadImage(org, "org");
+      op.blur("org", "blur");
+      op.splitRGB("org", "r", "g", "b");
+      op.combineRGB("r", "g", "b", "rgb");
+      recording.stop();
+      recording.dump(file);
+      events = RecordingFile.readAllEvents(file);
+    } finally {
+      Files.delete(file);
+    }
+    RecordedEvent blur = null;
+    RecordedEvent combine = null;
+    int evictions = 0;
+    for (RecordedEvent event : events) {
+      if (event.getEventType().getName().equals("imagelab.ImageEviction")) {
+        evictions++;
+        assertTrue(!event.getBoolean("spilled"));
+        assertEquals(40 * 60 * 4, event.getLong("bytes"));
+      } else if ("blur".equals(event.getString("operation"))) {
+        blur = event;
+      } else if ("rgb-combine".equals(event.getString("operation"))) {
+        combine = event;
+      }
+    }
+    assertTrue(blur != null && combine != null);
+    assertEquals("org", blur.getString("source"));
+    assertEquals("blur", blur.getString("target"));
+    assertEquals(40 * 60, blur.getLong("pixels"));
+    assertEquals("r,g,b", combine.getString("source"));
+    assertEquals("rgb", combine.getString("target"));
+    assertTrue(evictions > 0);
+  }
+
+  /**
+   * Test Case to check that work offloaded from a platform thread runs
+   * on the calling thread, and that work run on the pool gives back its
+   * result and the unchecked exceptions it throws as they are.
+   */
+  @Test
+  public void checkExecutorOffloadsWork() {
+    RowExecutor executor = new RowExecutor(2);
+    Thread caller = Thread.currentThread();
+    assertTrue(executor.offload(Thread::currentThread) == caller);
+    assertTrue(executor.runOnPool(Thread::currentThread) != caller);
+    assertEquals(Integer.valueOf(42), executor.runOnPool(() -> 42));
+    try {
+      executor.runOnPool(() -> {
+        throw new IllegalArgumentException("Invalid work.");
+      });
+      assertTrue(false);
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid work.", e.getMessage());
+    }
+    try {
+      RowExecutor.SERIAL.runOnPool(() -> 0);
+      assertTrue(false);
+    } catch (IllegalStateException e) {
+      assertEquals("The executor has no pool.", e.getMessage());
+    }
+    assertEquals(Integer.valueOf(0), RowExecutor.SERIAL.offload(() -> 0));
+  }
+
+  /**
+   * Test Case to check that a pixel is packed as 0xRRGGBB and that
+   * every channel is read back from the packed value.
+   */
+  @Test
+  public void checkImageModelPackUnpack() {
+    assertEquals(0x123456, ImageModel.pack(0x12, 0x34, 0x56));
+    assertEquals(0xffffff, ImageModel.pack(255, 255, 255));
+    assertEquals(0, ImageModel.pack(0, 0, 0));
+    ImageModel image = new ImageModel(1, 2, new int[]{0x0a141e, 0xff00ff});
+    assertEquals(0x0a, image.getPixelValue(0, 0, 0));
+    assertEquals(0x14, image.getPixelValue(0, 0, 1));
+    assertEquals(0x1e, image.getPixelValue(0, 0, 2));
+    assertEquals(0xff00ff, image.getRGB(0, 1));
+    assertEquals(0, image.getPixelValue(0, 1, 1));
+  }
+
+  /**
+   * Test Case to check that every channel is clamped between 0 and 255
+   * when it is packed, without spilling into the other channels.
+   */
+  @Test
+  public void checkImageModelClampsChannels() {
+    assertEquals(0xff0000, ImageModel.pack(300, -5, -300));
+    assertEquals(0x00ff00, ImageModel.pack(-1, 256, 0));
+    assertEquals(0x0000ff, ImageModel.pack(0, 0, Integer.MAX_VALUE));
+    ImageModel image = new ImageModel(1, 1, new int[][][]{{{-10, 128, 1000}}});
+    assertArrayEquals(new int[][][]{{{0, 128, 255}}}, image.getPixelMatrix());
+  }
+
+  /**
+   * Test Case to check that a matrix of pixels is packed in row-major
+   * order and comes back the same from getPixelMatrix.
+   */
+  @Test
+  public void checkImageModelMatrixRoundTrip() {
+    int[][][] matrix = this.getRandomMatrix(7, 5);
+    ImageModel image = new ImageModel(7, 5, matrix);
+    assertArrayEquals(matrix, image.getPixelMatrix());
+    int[] pixels = image.getPixels();
+    assertEquals(35, pixels.length);
+    for (int i = 0; i < 7; i++) {
+      for (int j = 0; j < 5; j++) {
+        assertEquals(ImageModel.pack(matrix[i][j][0], matrix[i][j][1], matrix[i][j][2]),
+                pixels[i * 5 + j]);
+        assertEquals(pixels[i * 5 + j], image.getRGB(i, j));
+      }
+    }
+    assertEquals(4L * 35, image.getResidentBytes());
+  }
+
+  /**
+   * Test Case to check that images of a single row and of a single
+   * column keep their shape and pixels.
+   */
+  @Test
+  public void checkImageModelSingleRowAndColumn() {
+    int[][][] row = this.getRandomMatrix(1, 9);
+    ImageModel wide = new ImageModel(1, 9, row);
+    assertEquals(1, wide.getHeight());
+    assertEquals(9, wide.getWidth());
+    assertArrayEquals(row, wide.getPixelMatrix());
+    assertEquals(ImageModel.pack(row[0][8][0], row[0][8][1], row[0][8][2]), wide.getRGB(0, 8));
+
+    int[][][] column = this.getRandomMatrix(9, 1);
+    ImageModel tall = new ImageModel(9, 1, column);
+    assertEquals(9, tall.getHeight());
+    assertEquals(1, tall.getWidth());
+    assertArrayEquals(column, tall.getPixelMatrix());
+    int[] band = new int[3];
+    tall.copyRows(4, 7, band, 0);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(tall.getRGB(4 + i, 0), band[i]);
+    }
+  }
+
+}